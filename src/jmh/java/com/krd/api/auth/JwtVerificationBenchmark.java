@@ -0,0 +1,91 @@
+package com.krd.api.auth;
+
+import com.krd.starter.jwt.JwtConfig;
+import com.krd.starter.jwt.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares access token verification paths:
+ * <ul>
+ *   <li>{@code starter} - the starter's {@link JwtService} (key and parser built per call)</li>
+ *   <li>{@code prebuiltKey} - {@link CachingJwtService} with the cache disabled (key and parser built once)</li>
+ *   <li>{@code cached} - {@link CachingJwtService} cache hit (digest + lookup)</li>
+ * </ul>
+ * Run with {@code ./gradlew jmh}; add {@code -prof gc} in {@code jmh.profilers} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs256";
+
+    private JwtService starter;
+    private CachingJwtService prebuiltKey;
+    private CachingJwtService cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setAccessTokenExpiration(900);
+        jwtConfig.setRefreshTokenExpiration(604800);
+
+        JwtCacheProperties disabled = new JwtCacheProperties();
+        disabled.setEnabled(false);
+
+        // Every user is at generation 0; the lookup itself is part of the measured path
+        TokenGenerationRegistry generations = new TokenGenerationRegistry(userId -> 0, Duration.ofHours(1), 10_000);
+
+        starter = new JwtService(jwtConfig);
+        // Access tokens only, so no session registry is needed
+        prebuiltKey = new CachingJwtService(jwtConfig, disabled, generations, null);
+        cached = new CachingJwtService(jwtConfig, new JwtCacheProperties(), generations, null);
+
+        token = Jwts.builder()
+                .subject("42")
+                .claim("email", "bench@example.com")
+                .claim("roles", "USER")
+                .issuedAt(new Date())
+                .expiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        cached.parseToken(token);
+    }
+
+    @Benchmark
+    public Object starter() {
+        return starter.parseToken(token);
+    }
+
+    @Benchmark
+    public Object prebuiltKey() {
+        return prebuiltKey.parseToken(token);
+    }
+
+    @Benchmark
+    public Object cached() {
+        return cached.parseToken(token);
+    }
+}
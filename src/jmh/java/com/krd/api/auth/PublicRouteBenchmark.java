@@ -0,0 +1,132 @@
+package com.krd.api.auth;
+
+import com.krd.starter.jwt.JwtConfig;
+import com.krd.starter.jwt.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of a token sent to a public route such as {@code POST /auth/login}:
+ * <ul>
+ *   <li>{@code starterVerification} - what the JWT filter does with it: verify with the starter's
+ *       {@link JwtService}, then build and clear a security context</li>
+ *   <li>{@code cachedVerification} - the same with a {@link CachingJwtService} cache hit</li>
+ *   <li>{@code publicRouteFastPath} - {@link PublicRouteFilter}: a cached {@link PublicRoutes}
+ *       lookup, after which the JWT filter finds no header</li>
+ * </ul>
+ * The public route decision runs against a filter chain equivalent to the application's rules.
+ * Run with {@code ./gradlew jmh -PjmhInclude=PublicRouteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicRouteBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs256";
+
+    private JwtService starter;
+    private CachingJwtService cached;
+    private PublicRoutes publicRoutes;
+    private HttpServletRequest request;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setAccessTokenExpiration(900);
+        jwtConfig.setRefreshTokenExpiration(604800);
+        TokenGenerationRegistry generations = new TokenGenerationRegistry(userId -> 0, Duration.ofHours(1), 10_000);
+        starter = new JwtService(jwtConfig);
+        cached = new CachingJwtService(jwtConfig, new JwtCacheProperties(), generations, null);
+
+        RequestMatcherDelegatingAuthorizationManager rules = RequestMatcherDelegatingAuthorizationManager.builder()
+                .add(new AntPathRequestMatcher("/auth/login", "POST"), (authentication, context) -> new AuthorizationDecision(true))
+                .add(new AntPathRequestMatcher("/auth/refresh", "POST"), (authentication, context) -> new AuthorizationDecision(true))
+                .add(new AntPathRequestMatcher("/users", "POST"), (authentication, context) -> new AuthorizationDecision(true))
+                .add(AnyRequestMatcher.INSTANCE, AuthenticatedAuthorizationManager.authenticated())
+                .build();
+        publicRoutes = new PublicRoutes(List.of(
+                new DefaultSecurityFilterChain(AnyRequestMatcher.INSTANCE, new AuthorizationFilter(rules))));
+
+        token = Jwts.builder()
+                .subject("42")
+                .claim("email", "bench@example.com")
+                .claim("roles", "USER")
+                .issuedAt(new Date())
+                .expiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/auth/login");
+        login.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        request = login;
+        cached.parseToken(token);
+        publicRoutes.isPublic(request);
+    }
+
+    @Benchmark
+    public Object starterVerification() {
+        return authenticate(starter.parseToken(bearerToken(request)));
+    }
+
+    @Benchmark
+    public Object cachedVerification() {
+        return authenticate(cached.parseToken(bearerToken(request)));
+    }
+
+    @Benchmark
+    public Object publicRouteFastPath() {
+        HttpServletRequest filtered = publicRoutes.isPublic(request)
+                ? new PublicRouteFilter.WithoutAuthorization(request)
+                : request;
+        return bearerToken(filtered);
+    }
+
+    private static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return header == null || !header.startsWith("Bearer ") ? null : header.substring("Bearer ".length());
+    }
+
+    private static Object authenticate(Object principal) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        SecurityContextHolder.setContext(context);
+        SecurityContextHolder.clearContext();
+        return context;
+    }
+}
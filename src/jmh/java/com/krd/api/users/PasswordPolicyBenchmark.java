@@ -0,0 +1,127 @@
+package com.krd.api.users;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of validating one password against the full policy (length, character classes, repeats,
+ * dictionary, user attributes) with {@code dictionarySize} dictionary words:
+ * <ul>
+ *   <li>{@code compiled} - {@link CompiledPasswordPolicy}: one scan, no allocation</li>
+ *   <li>{@code perRule} - the straightforward way: a regex per character class and rule,
+ *       then a lower-cased {@code contains} per dictionary word and user attribute</li>
+ * </ul>
+ * Run with {@code ./gradlew jmh -PjmhInclude=PasswordPolicyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordPolicyBenchmark {
+
+    private static final String PASSWORD = "Correct-Horse-Battery-9";
+    private static final String EMAIL = "john.smith@example.com";
+    private static final String USERNAME = "jsmith";
+
+    private static final Pattern UPPERCASE = Pattern.compile("[A-Z]");
+    private static final Pattern LOWERCASE = Pattern.compile("[a-z]");
+    private static final Pattern DIGIT = Pattern.compile("[0-9]");
+    private static final Pattern SPECIAL = Pattern.compile("[^A-Za-z0-9]");
+    private static final Pattern REPEATS = Pattern.compile("(.)\\1{3}");
+
+    @Param({"100", "10000"})
+    private int dictionarySize;
+
+    private CompiledPasswordPolicy compiled;
+    private List<String> dictionary;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        dictionary = new ArrayList<>(dictionarySize);
+        for (int i = 0; i < dictionarySize; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            dictionary.add(word.toString());
+        }
+
+        PasswordRuleProperties properties = new PasswordRuleProperties();
+        properties.setMaxRepeats(3);
+        properties.setDictionaryWords(dictionary);
+        properties.setRejectUserAttributes(true);
+        compiled = new CompiledPasswordPolicy(properties);
+    }
+
+    @Benchmark
+    public int compiled() {
+        return compiled.validate(PASSWORD, EMAIL, USERNAME);
+    }
+
+    @Benchmark
+    public int perRule() {
+        int violations = 0;
+        if (PASSWORD.length() < 8) {
+            violations |= PasswordRule.TOO_SHORT.bit();
+        }
+        if (PASSWORD.length() > 128) {
+            violations |= PasswordRule.TOO_LONG.bit();
+        }
+        if (!UPPERCASE.matcher(PASSWORD).find()) {
+            violations |= PasswordRule.MISSING_UPPERCASE.bit();
+        }
+        if (!LOWERCASE.matcher(PASSWORD).find()) {
+            violations |= PasswordRule.MISSING_LOWERCASE.bit();
+        }
+        if (!DIGIT.matcher(PASSWORD).find()) {
+            violations |= PasswordRule.MISSING_DIGIT.bit();
+        }
+        if (!SPECIAL.matcher(PASSWORD).find()) {
+            violations |= PasswordRule.MISSING_SPECIAL_CHAR.bit();
+        }
+        if (REPEATS.matcher(PASSWORD).find()) {
+            violations |= PasswordRule.TOO_MANY_REPEATS.bit();
+        }
+        String lower = PASSWORD.toLowerCase(Locale.ROOT);
+        for (String word : dictionary) {
+            if (lower.contains(word)) {
+                violations |= PasswordRule.DICTIONARY_WORD.bit();
+                break;
+            }
+        }
+        String localPart = EMAIL.substring(0, EMAIL.indexOf('@')).toLowerCase(Locale.ROOT);
+        if (sharesRun(lower, localPart) || sharesRun(lower, USERNAME.toLowerCase(Locale.ROOT))) {
+            violations |= PasswordRule.SIMILAR_TO_USER.bit();
+        }
+        return violations;
+    }
+
+    private static boolean sharesRun(String password, String attribute) {
+        for (int i = 0; i + 4 <= attribute.length(); i++) {
+            if (password.contains(attribute.substring(i, i + 4))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
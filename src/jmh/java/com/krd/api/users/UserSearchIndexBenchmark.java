@@ -0,0 +1,76 @@
+package com.krd.api.users;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@link UserSearchIndex#search} for the top 20 results over {@code users} synthetic
+ * users whose names repeat heavily (a few dozen first and last names):
+ * <ul>
+ *   <li>{@code j}, {@code jo} - 1-2 character queries that a third of the users start with</li>
+ *   <li>{@code john}, {@code smith} - common names, with tens of thousands of exact matches</li>
+ *   <li>{@code ohnso} - a mid-word substring, so every better rank is tried first and comes up
+ *       empty</li>
+ * </ul>
+ * Each should stay well under a millisecond at a million users.
+ * Run with {@code ./gradlew jmh -PjmhInclude=UserSearchIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserSearchIndexBenchmark {
+
+    private static final List<String> FIRST_NAMES = List.of(
+            "John", "Mary", "James", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William",
+            "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+            "Charles", "Karen", "Joan", "Joel", "Jordan", "Josephine", "Anna", "Peter", "Olivia", "Noah");
+    private static final List<String> LAST_NAMES = List.of(
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez",
+            "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor",
+            "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Johnston");
+    private static final List<String> DOMAINS = List.of("example.com", "acme.com", "mail.org", "corp.net");
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    @Param({"j", "jo", "john", "smith", "ohnso"})
+    private String query;
+
+    private UserSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new UserSearchIndex(null);
+        for (long id = 1; id <= users; id++) {
+            String firstName = FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size()));
+            String lastName = LAST_NAMES.get(random.nextInt(LAST_NAMES.size()));
+            String username = (firstName.charAt(0) + lastName).toLowerCase(Locale.ROOT) + id;
+            String email = (firstName + "." + lastName).toLowerCase(Locale.ROOT) + id + "@"
+                    + DOMAINS.get(random.nextInt(DOMAINS.size()));
+            index.apply(null, new UserSnapshot(id, email, username, firstName, lastName, true, false, null));
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(query, 20);
+    }
+}
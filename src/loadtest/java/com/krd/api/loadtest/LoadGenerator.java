@@ -0,0 +1,154 @@
+package com.krd.api.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: starts requests at a fixed arrival rate, however long earlier
+ * requests take, and measures every latency from the request's intended start time.
+ *
+ * <p>A closed loop (send, wait, send) slows down with the server and silently drops the requests
+ * it would have sent while waiting, hiding exactly the slow periods (coordinated omission).
+ * Here a request that could not start on time because the generator fell behind still counts
+ * its delay, and requests beyond {@code max-in-flight} are dropped and counted as errors
+ * rather than queued.
+ *
+ * <p>Latencies go to one HdrHistogram {@link Recorder} per operation. Every second the interval
+ * histograms are appended to a {@code .hlog} histogram log (tagged with the operation) for
+ * plotting over time, and added to the totals of the report.
+ */
+final class LoadGenerator {
+
+    private final HttpClient client;
+    private final Traffic traffic;
+    private final LoadTestOptions options;
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> totals = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LoadGenerator(HttpClient client, Traffic traffic, LoadTestOptions options) {
+        this.client = client;
+        this.traffic = traffic;
+        this.options = options;
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            totals.put(operation, new Histogram(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Runs the warmup and the measured period and returns the report of the measured period.
+     */
+    LoadTestReport run(Path histogramLog) throws FileNotFoundException, InterruptedException {
+        Operation[] sequence = weightedSequence(options.mix());
+        SplittableRandom random = new SplittableRandom(options.seed());
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor();
+        try (PrintStream log = new PrintStream(histogramLog.toFile())) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
+            logger.scheduleAtFixedRate(() -> flushIntervals(writer), options.warmup().toMillis() + 1_000, 1_000,
+                    TimeUnit.MILLISECONDS);
+
+            for (long i = 0; ; i++) {
+                long intended = start + i * interval;
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = sequence[random.nextInt(sequence.length)];
+                send(operation, traffic.call(operation, random), intended, intended >= measureFrom);
+            }
+
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+                Thread.sleep(10);
+            }
+            logger.shutdown();
+            logger.awaitTermination(5, TimeUnit.SECONDS);
+            flushIntervals(writer);
+        }
+
+        Map<String, LoadTestReport.OperationStats> stats = new LinkedHashMap<>();
+        totals.forEach((operation, histogram) -> {
+            if (options.mix().getOrDefault(operation, 0) > 0) {
+                stats.put(operation.displayName(), LoadTestReport.OperationStats.of(
+                        histogram, errors.get(operation).sum(), options.duration()));
+            }
+        });
+        return new LoadTestReport(options.rate(), options.duration().toSeconds(), options.users(), stats);
+    }
+
+    private void send(Operation operation, Traffic.Call call, long intended, boolean measured) {
+        if (inFlight.get() >= options.maxInFlight()) {
+            if (measured) {
+                errors.get(operation).increment();
+            }
+            return;
+        }
+        inFlight.incrementAndGet();
+        client.sendAsync(call.request(), HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            long latency = System.nanoTime() - intended;
+            inFlight.decrementAndGet();
+            boolean ok = failure == null && response.statusCode() / 100 == 2;
+            if (ok) {
+                call.onSuccess(response);
+            }
+            if (measured) {
+                recorders.get(operation).recordValue(latency);
+                if (!ok) {
+                    errors.get(operation).increment();
+                }
+            }
+        });
+    }
+
+    private synchronized void flushIntervals(HistogramLogWriter writer) {
+        recorders.forEach((operation, recorder) -> {
+            Histogram interval = recorder.getIntervalHistogram();
+            if (interval.getTotalCount() > 0) {
+                interval.setTag(operation.displayName());
+                writer.outputIntervalHistogram(interval);
+                totals.get(operation).add(interval);
+            }
+        });
+    }
+
+    /**
+     * Expands the mix into an array in which each operation appears as often as its weight, so a
+     * uniform pick follows the mix.
+     */
+    private static Operation[] weightedSequence(Map<Operation, Integer> mix) {
+        return mix.entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toArray(Operation[]::new);
+    }
+}
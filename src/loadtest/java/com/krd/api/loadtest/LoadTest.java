@@ -0,0 +1,136 @@
+package com.krd.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krd.api.SpringApiTemplateApplication;
+import com.krd.api.support.UserDatasetGenerator;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Macro load test of the REST API ({@code ./gradlew loadTest}).
+ *
+ * <ol>
+ *   <li>Boots the application on a random port against an in-memory H2 database.</li>
+ *   <li>Seeds {@code --users} synthetic users with {@link UserDatasetGenerator} and logs
+ *       {@code --sessions} of them in, plus the dataset's admin.</li>
+ *   <li>Replays the {@code --mix} of operations at {@code --rate} requests per second with
+ *       {@link LoadGenerator}: {@code --warmup} unmeasured, then {@code --duration} measured.</li>
+ *   <li>Prints per-operation latency percentiles and writes them to {@code --output} (JSON) plus a
+ *       {@code .hlog} HdrHistogram interval log.</li>
+ *   <li>With {@code --baseline=<earlier report>}, exits with status 1 if any operation's p99 grew by
+ *       more than {@code --max-p99-regression} or its error rate rose, so it can gate a release.</li>
+ * </ol>
+ *
+ * <p>{@code --compare=<baseline>,<report>} only compares two existing reports. Everything runs in
+ * one JVM, so compare runs made on the same machine.
+ */
+public final class LoadTest {
+
+    private static final String JWT_SECRET = "load-test-secret-key-that-is-long-enough-for-hs256";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (String arg : args) {
+            if (arg.startsWith("--compare=")) {
+                String[] reports = arg.substring("--compare=".length()).split(",");
+                LoadTestOptions options = LoadTestOptions.parse(args);
+                System.exit(compare(LoadTestReport.read(Path.of(reports[1])), Path.of(reports[0]),
+                        options.maxP99Regression()));
+            }
+        }
+
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(SpringApiTemplateApplication.class)
+                .run("--server.port=0",
+                        "--spring.profiles.active=loadtest",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.locations=classpath:db/migration",
+                        "--spring.jwt.secret=" + JWT_SECRET,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.krd=WARN",
+                        "--app.user-purge.enabled=false");
+        int exitCode;
+        try {
+            exitCode = run(app, options);
+        } finally {
+            app.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(ConfigurableApplicationContext app, LoadTestOptions options) throws Exception {
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+        DataSource dataSource = app.getBean(DataSource.class);
+        ObjectMapper objectMapper = app.getBean(ObjectMapper.class);
+
+        UserDatasetGenerator.Dataset dataset = new UserDatasetGenerator(dataSource)
+                .generate(UserDatasetGenerator.Spec.of(options.users(), options.seed()));
+        System.out.printf("Seeded %d users in %d ms%n", dataset.users(), dataset.elapsed().toMillis());
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Map<String, Object>> active = jdbcTemplate.queryForList(
+                "SELECT id, email FROM users WHERE deleted_at IS NULL AND enabled = TRUE AND id BETWEEN ? AND ? "
+                        + "ORDER BY id", dataset.firstId(), dataset.lastId());
+        List<Long> userIds = active.stream().map(row -> ((Number) row.get("id")).longValue()).toList();
+        List<String> emails = active.stream().map(row -> (String) row.get("email")).toList();
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Traffic setup = new Traffic(baseUrl, objectMapper, null, List.of(), userIds, emails,
+                UserDatasetGenerator.PASSWORD);
+        // The dataset's first user is its admin; sessions are taken from the other end of the table
+        Traffic.Session admin = setup.login(client, userIds.get(0), emails.get(0));
+        List<Traffic.Session> sessions = new ArrayList<>();
+        for (int i = 1; i <= Math.min(options.sessions(), userIds.size() - 1); i++) {
+            int index = userIds.size() - i;
+            sessions.add(setup.login(client, userIds.get(index), emails.get(index)));
+        }
+        Traffic traffic = new Traffic(baseUrl, objectMapper, admin, sessions, userIds, emails,
+                UserDatasetGenerator.PASSWORD);
+
+        System.out.printf("Running %s at %d req/s: %s warmup, %s measured%n", options.mix(), options.rate(),
+                options.warmup(), options.duration());
+        Path histogramLog = options.output().resolveSibling(
+                options.output().getFileName().toString().replaceFirst("\\.json$", "") + ".hlog");
+        Files.createDirectories(histogramLog.toAbsolutePath().getParent());
+        LoadTestReport report = new LoadGenerator(client, traffic, options).run(histogramLog);
+        report.write(options.output());
+        System.out.printf("Report: %s, histogram log: %s%n", options.output(), histogramLog);
+        if (options.baseline() == null) {
+            System.out.print(report.table());
+            return 0;
+        }
+        return compare(report, options.baseline(), options.maxP99Regression());
+    }
+
+    private static int compare(LoadTestReport report, Path baselinePath, double maxP99Regression) throws Exception {
+        LoadTestReport baseline = LoadTestReport.read(baselinePath);
+        System.out.printf("Baseline %s:%n%s", baselinePath, baseline.table());
+        System.out.printf("This run:%n%s", report.table());
+        List<String> regressions = report.regressionsAgainst(baseline, maxP99Regression);
+        if (regressions.isEmpty()) {
+            System.out.printf("No regressions beyond %.0f%% p99%n", maxP99Regression * 100);
+            return 0;
+        }
+        regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+        return 1;
+    }
+}
@@ -0,0 +1,72 @@
+package com.krd.api.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadTest}, as {@code --name=value} pairs.
+ *
+ * @param rate             requests started per second, whatever the response times (open model)
+ * @param warmup           run time before latencies are recorded
+ * @param duration         measured run time
+ * @param users            synthetic users seeded into the embedded database
+ * @param sessions         users logged in up front whose tokens the traffic uses
+ * @param mix              relative weight of each operation
+ * @param maxInFlight      requests outstanding before new ones are dropped (counted as errors)
+ * @param seed             seed of the dataset and of the operation sequence
+ * @param output           report file (JSON); a {@code .hlog} histogram log is written next to it
+ * @param baseline         report of an earlier run to compare with, or null
+ * @param maxP99Regression allowed p99 increase over the baseline per operation (0.10 = 10%)
+ */
+record LoadTestOptions(
+        int rate,
+        Duration warmup,
+        Duration duration,
+        int users,
+        int sessions,
+        Map<Operation, Integer> mix,
+        int maxInFlight,
+        long seed,
+        Path output,
+        Path baseline,
+        double maxP99Regression
+) {
+
+    static final String DEFAULT_MIX = "login:2,refresh:8,me:40,listUsers:10,getUser:20,updateUser:15,roleChange:5";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(parts[0], parts.length > 1 ? parts[1] : "");
+        }
+        String baseline = options.getOrDefault("baseline", "");
+        return new LoadTestOptions(
+                Integer.parseInt(options.getOrDefault("rate", "200")),
+                Duration.parse(options.getOrDefault("warmup", "PT10S")),
+                Duration.parse(options.getOrDefault("duration", "PT60S")),
+                Integer.parseInt(options.getOrDefault("users", "10000")),
+                Integer.parseInt(options.getOrDefault("sessions", "100")),
+                parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "1000")),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Path.of(options.getOrDefault("output", "build/loadtest/report.json")),
+                baseline.isBlank() ? null : Path.of(baseline),
+                Double.parseDouble(options.getOrDefault("max-p99-regression", "0.10")));
+    }
+
+    /**
+     * Parses {@code name:weight} pairs, e.g. {@code me:40,login:2}. Operations not listed get weight 0.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Operation.fromName(parts[0]), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,110 @@
+package com.krd.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of one load test run, saved as JSON so later runs can be compared against it.
+ *
+ * @param rate       configured arrival rate (requests per second)
+ * @param operations latency statistics per operation name
+ */
+record LoadTestReport(
+        int rate,
+        long durationSeconds,
+        int users,
+        Map<String, OperationStats> operations
+) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Latencies in milliseconds, measured from each request's intended start time.
+     *
+     * @param errors non-2xx responses, transport failures and dropped requests
+     */
+    record OperationStats(
+            long count,
+            long errors,
+            double throughput,
+            double p50,
+            double p90,
+            double p99,
+            double p999,
+            double max
+    ) {
+
+        static OperationStats of(Histogram histogram, long errors, Duration duration) {
+            return new OperationStats(
+                    histogram.getTotalCount(),
+                    errors,
+                    histogram.getTotalCount() / (double) Math.max(1, duration.toSeconds()),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        MAPPER.writeValue(path.toFile(), this);
+    }
+
+    static LoadTestReport read(Path path) throws IOException {
+        return MAPPER.readValue(path.toFile(), LoadTestReport.class);
+    }
+
+    String table() {
+        StringBuilder table = new StringBuilder(String.format("%-12s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        operations.forEach((name, stats) -> table.append(String.format(
+                "%-12s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, stats.count(), stats.errors(),
+                stats.throughput(), stats.p50(), stats.p90(), stats.p99(), stats.p999(), stats.max())));
+        return table.toString();
+    }
+
+    /**
+     * Compares p99 latencies and error rates per operation with a baseline run and returns the
+     * regressions: a p99 more than {@code maxP99Regression} above the baseline's, or a higher error
+     * rate. Operations missing from either run are skipped.
+     */
+    List<String> regressionsAgainst(LoadTestReport baseline, double maxP99Regression) {
+        List<String> regressions = new ArrayList<>();
+        Map<String, OperationStats> common = new LinkedHashMap<>(operations);
+        common.keySet().retainAll(baseline.operations().keySet());
+        common.forEach((name, stats) -> {
+            OperationStats before = baseline.operations().get(name);
+            if (stats.p99() > before.p99() * (1 + maxP99Regression)) {
+                regressions.add(String.format("%s: p99 %.2f ms vs %.2f ms baseline (+%.0f%%)", name, stats.p99(),
+                        before.p99(), (stats.p99() / before.p99() - 1) * 100));
+            }
+            if (errorRate(stats) > errorRate(before)) {
+                regressions.add(String.format("%s: error rate %.2f%% vs %.2f%% baseline", name,
+                        errorRate(stats) * 100, errorRate(before) * 100));
+            }
+        });
+        return regressions;
+    }
+
+    private static double errorRate(OperationStats stats) {
+        return stats.count() == 0 ? 0 : (double) stats.errors() / stats.count();
+    }
+}
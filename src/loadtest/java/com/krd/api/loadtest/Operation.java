@@ -0,0 +1,40 @@
+package com.krd.api.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Operations the load test replays, named as in {@code --mix}.
+ */
+enum Operation {
+    /** POST /auth/login as a random seeded user (BCrypt bound). */
+    LOGIN("login"),
+    /** POST /auth/refresh with a session's refresh token. */
+    REFRESH("refresh"),
+    /** GET /auth/me with a session's access token. */
+    ME("me"),
+    /** GET /users/by-role, a random page of 50 (admin). */
+    LIST_USERS("listUsers"),
+    /** GET /users/{id} of a random user (admin). */
+    GET_USER("getUser"),
+    /** PUT /users/{id}: a session's user renames itself. */
+    UPDATE_USER("updateUser"),
+    /** POST or DELETE /users/{id}/roles: the admin toggles MODERATOR on a session's user. */
+    ROLE_CHANGE("roleChange");
+
+    private final String name;
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    String displayName() {
+        return name;
+    }
+
+    static Operation fromName(String name) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.name.equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation: " + name));
+    }
+}
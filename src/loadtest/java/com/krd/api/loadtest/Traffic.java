@@ -0,0 +1,155 @@
+package com.krd.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds the requests of each {@link Operation} against the app under test.
+ *
+ * <p>Authenticated operations use a pool of {@link Session}s logged in before the run, and admin
+ * operations the session of the dataset's admin.
+ */
+final class Traffic {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String REFRESH_COOKIE = "refreshToken";
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final Session admin;
+    private final List<Session> sessions;
+    private final List<Long> userIds;
+    private final List<String> loginEmails;
+    private final String password;
+
+    Traffic(String baseUrl, ObjectMapper objectMapper, Session admin, List<Session> sessions, List<Long> userIds,
+            List<String> loginEmails, String password) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.admin = admin;
+        this.sessions = sessions;
+        this.userIds = userIds;
+        this.loginEmails = loginEmails;
+        this.password = password;
+    }
+
+    /**
+     * A request to send and what to do with its successful response.
+     */
+    interface Call {
+        HttpRequest request();
+
+        default void onSuccess(HttpResponse<String> response) {
+        }
+    }
+
+    /**
+     * A logged-in user. Tokens are replaced when a refresh returns new ones.
+     */
+    static final class Session {
+        final long userId;
+        volatile String accessToken;
+        volatile String refreshToken;
+        final AtomicBoolean moderator = new AtomicBoolean();
+
+        Session(long userId) {
+            this.userId = userId;
+        }
+    }
+
+    Call call(Operation operation, SplittableRandom random) {
+        Session session = sessions.get(random.nextInt(sessions.size()));
+        return switch (operation) {
+            case LOGIN -> () -> loginRequest(loginEmails.get(random.nextInt(loginEmails.size())));
+            case REFRESH -> new Call() {
+                @Override
+                public HttpRequest request() {
+                    return builder("/auth/refresh", null)
+                            .header("Cookie", REFRESH_COOKIE + "=" + session.refreshToken)
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                }
+
+                @Override
+                public void onSuccess(HttpResponse<String> response) {
+                    updateTokens(session, response);
+                }
+            };
+            case ME -> () -> builder("/auth/me", session).GET().build();
+            case LIST_USERS -> () -> builder("/users/by-role?roles=USER&size=50&page="
+                    + random.nextInt(Math.max(1, userIds.size() / 50)), admin).GET().build();
+            case GET_USER -> () -> builder("/users/" + userIds.get(random.nextInt(userIds.size())), admin).GET().build();
+            case UPDATE_USER -> () -> json(builder("/users/" + session.userId, session), "PUT",
+                    "{\"firstName\":\"Load" + random.nextInt(1_000) + "\"}");
+            case ROLE_CHANGE -> () -> {
+                // Alternate between granting and revoking so the role is always there to remove
+                boolean granted = session.moderator.getAndSet(!session.moderator.get());
+                return json(builder("/users/" + session.userId + "/roles", admin), granted ? "DELETE" : "POST",
+                        "{\"role\":\"MODERATOR\"}");
+            };
+        };
+    }
+
+    /**
+     * Logs in synchronously (used to build the session pool before the run).
+     */
+    Session login(HttpClient client, long userId, String email) throws Exception {
+        HttpResponse<String> response = client.send(loginRequest(email), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login of " + email + " failed with " + response.statusCode()
+                    + ": " + response.body());
+        }
+        Session session = new Session(userId);
+        updateTokens(session, response);
+        return session;
+    }
+
+    private HttpRequest loginRequest(String email) {
+        return json(builder("/auth/login", null), "POST",
+                "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+    }
+
+    private void updateTokens(Session session, HttpResponse<String> response) {
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            JsonNode access = body.has("token") ? body.get("token") : body.get("accessToken");
+            if (access != null) {
+                session.accessToken = access.asText();
+            }
+            if (body.hasNonNull("refreshToken")) {
+                session.refreshToken = body.get("refreshToken").asText();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected auth response: " + response.body(), e);
+        }
+        response.headers().allValues("Set-Cookie").stream()
+                .flatMap(header -> HttpCookie.parse(header).stream())
+                .filter(cookie -> cookie.getName().equals(REFRESH_COOKIE))
+                .findFirst()
+                .ifPresent(cookie -> session.refreshToken = cookie.getValue());
+    }
+
+    private HttpRequest.Builder builder(String path, Session session) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+        if (session != null) {
+            builder.header("Authorization", "Bearer " + session.accessToken);
+        }
+        return builder;
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot application class for the Spring API Template.
@@ -29,6 +30,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @SpringBootApplication
 @EnableJpaRepositories(basePackages = {"com.krd.api", "com.krd.starter.user"}) // TODO: Update "com.krd.api" when you rename your package
 @EntityScan(basePackages = {"com.krd.api", "com.krd.starter.user"}) // TODO: Update "com.krd.api" when you rename your package
+@EnableScheduling
 public class SpringApiTemplateApplication {
 
 	public static void main(String[] args) {
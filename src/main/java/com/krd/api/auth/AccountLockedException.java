@@ -0,0 +1,21 @@
+package com.krd.api.auth;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a login is rejected because the account or the client address has too many recent
+ * failed attempts (see {@link LoginFailureTracker}). Mapped to 429 Too Many Requests with a
+ * {@code Retry-After} header.
+ */
+@Getter
+public class AccountLockedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AccountLockedException(Duration retryAfter) {
+        super("Too many failed login attempts. Try again later.");
+        this.retryAfter = retryAfter;
+    }
+}
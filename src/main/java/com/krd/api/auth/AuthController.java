@@ -6,10 +6,17 @@ import com.krd.api.users.UserDto;
 import com.krd.api.users.UserMapper;
 import com.krd.starter.jwt.BaseAuthController;
 import com.krd.starter.jwt.JwtConfig;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 /**
  * Authentication controller extending BaseAuthController from the spring-api-starter.
  *
@@ -22,6 +29,11 @@ import org.springframework.web.bind.annotation.RestController;
  * - GET  /auth/me                     - Get current authenticated user
  * - POST /auth/revoke-refresh-token   - Revoke refresh token (logout)
  *
+ * Custom endpoints:
+ * - GET    /auth/sessions              - List the current user's active sessions (devices)
+ * - DELETE /auth/sessions/{sessionId}  - Revoke one of the current user's sessions
+ * - DELETE /auth/sessions              - Revoke all of the current user's sessions
+ *
  * Add custom authentication endpoints here if needed.
  */
 @RestController
@@ -29,14 +41,41 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Authentication", description = "Authentication endpoints")
 public class AuthController extends BaseAuthController<User, UserDto> {
 
+    private final AuthService authService;
+    private final SessionRegistry sessionRegistry;
+
     public AuthController(JwtConfig jwtConfig,
                          UserMapper userMapper,
-                         AuthService authService) {
+                         AuthService authService,
+                         SessionRegistry sessionRegistry) {
         super(jwtConfig, userMapper, authService);
+        this.authService = authService;
+        this.sessionRegistry = sessionRegistry;
     }
 
     // All authentication endpoints are inherited from BaseAuthController
 
+    @GetMapping("/sessions")
+    @Operation(summary = "List sessions",
+            description = "Active refresh token sessions of the current user, most recently used first")
+    public List<SessionResponse> getSessions() {
+        return sessionRegistry.list(authService.getCurrentUser().getId());
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    @Operation(summary = "Revoke session", description = "Revokes the refresh token of one of the current user's sessions")
+    public ResponseEntity<Void> revokeSession(@PathVariable String sessionId) {
+        boolean revoked = sessionRegistry.revoke(authService.getCurrentUser().getId(), sessionId);
+        return revoked ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/sessions")
+    @Operation(summary = "Revoke all sessions", description = "Revokes the refresh tokens of all of the current user's sessions")
+    public ResponseEntity<Void> revokeAllSessions() {
+        sessionRegistry.revokeAll(authService.getCurrentUser().getId());
+        return ResponseEntity.noContent().build();
+    }
+
     // TODO: Add custom authentication endpoints here if needed
     // Example:
     // @PostMapping("/forgot-password")
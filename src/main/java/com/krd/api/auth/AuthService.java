@@ -1,12 +1,25 @@
 // TODO: Rename package to match your organization (e.g., com.yourcompany.yourapp.auth)
 package com.krd.api.auth;
 
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
 import com.krd.api.users.User;
 import com.krd.api.users.UserRepository;
 import com.krd.starter.jwt.BaseAuthService;
 import com.krd.starter.jwt.JwtService;
+import com.krd.starter.jwt.dto.LoginRequest;
+import com.krd.starter.jwt.dto.LoginResponse;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Optional;
 
 /**
  * Authentication service extending BaseAuthService from the spring-api-starter.
@@ -19,15 +32,76 @@ import org.springframework.stereotype.Service;
  * - refresh(String refreshToken): JwtResponse - Refresh access token
  * - getCurrentUser(): User - Get currently authenticated user
  *
+ * Successful logins are recorded in {@link LoginActivityBuffer}, which updates
+ * {@code last_login_at} and {@code login_count} off the request path.
+ *
+ * Every attempt is appended to {@link LoginEventLog}. Wrong credentials count towards
+ * {@link LoginFailureTracker}; once an account or client address has too many recent failures,
+ * logins are rejected with {@link AccountLockedException} before credentials are checked.
+ *
  * Add custom authentication methods here if needed.
  */
 @Service
+@Workload(WorkloadClass.AUTH)
 public class AuthService extends BaseAuthService<User> {
 
+    private final LoginActivityBuffer loginActivityBuffer;
+    private final LoginEventLog loginEventLog;
+    private final LoginFailureTracker loginFailureTracker;
+
     public AuthService(AuthenticationManager authenticationManager,
                       UserRepository userRepository,
-                      JwtService jwtService) {
+                      JwtService jwtService,
+                      LoginActivityBuffer loginActivityBuffer,
+                      LoginEventLog loginEventLog,
+                      LoginFailureTracker loginFailureTracker) {
         super(authenticationManager, userRepository, jwtService);
+        this.loginActivityBuffer = loginActivityBuffer;
+        this.loginEventLog = loginEventLog;
+        this.loginFailureTracker = loginFailureTracker;
+    }
+
+    @Override
+    public LoginResponse login(LoginRequest request) {
+        String email = User.normalizeEmail(request.getEmail());
+        String ipAddress = clientIpAddress();
+
+        Optional<Duration> lockedOutFor = loginFailureTracker.lockedOutFor(email, ipAddress);
+        if (lockedOutFor.isPresent()) {
+            loginEventLog.record(email, null, ipAddress, LoginOutcome.LOCKED_OUT);
+            throw new AccountLockedException(lockedOutFor.get());
+        }
+
+        LoginResponse response;
+        try {
+            response = super.login(request);
+        } catch (AuthenticationException e) {
+            LoginOutcome outcome = outcomeOf(e);
+            if (outcome == LoginOutcome.BAD_CREDENTIALS) {
+                loginFailureTracker.recordFailure(email, ipAddress);
+            }
+            loginEventLog.record(email, null, ipAddress, outcome);
+            throw e;
+        }
+
+        Long userId = response.getAccessToken().getUserId();
+        loginFailureTracker.recordSuccess(email);
+        loginEventLog.record(email, userId, ipAddress, LoginOutcome.SUCCESS);
+        loginActivityBuffer.recordLogin(userId);
+        return response;
+    }
+
+    private static LoginOutcome outcomeOf(AuthenticationException e) {
+        if (e instanceof BadCredentialsException || e instanceof UsernameNotFoundException) {
+            return LoginOutcome.BAD_CREDENTIALS;
+        }
+        return e instanceof DisabledException ? LoginOutcome.DISABLED : LoginOutcome.FAILED;
+    }
+
+    private static String clientIpAddress() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest().getRemoteAddr()
+                : null;
     }
 
     // TODO: Add custom authentication methods here if needed
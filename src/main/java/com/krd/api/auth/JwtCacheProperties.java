@@ -0,0 +1,41 @@
+package com.krd.api.auth;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for the verified-token cache in {@link CachingJwtService} and the token generation
+ * cache in {@link TokenGenerationRegistry} ({@code app.jwt-cache.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.jwt-cache")
+@Getter
+@Setter
+public class JwtCacheProperties {
+
+    /**
+     * Cache verified tokens until they expire. When disabled every request is verified again.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached tokens (least recently used entries are evicted first).
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a user's token generation is cached before it is re-read from the database.
+     * Bounds how long tokens revoked on another node stay valid on this one.
+     */
+    private Duration generationTtl = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of users whose token generation is cached (least recently used entries are
+     * evicted first and re-read on their next request).
+     */
+    private long generationMaximumSize = 100_000;
+}
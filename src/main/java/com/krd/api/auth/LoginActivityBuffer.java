@@ -0,0 +1,131 @@
+package com.krd.api.auth;
+
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for {@code users.last_login_at} and {@code users.login_count}.
+ *
+ * <p>{@link AuthService#login} only records the login here, in memory. Logins of the same user are
+ * coalesced (the latest timestamp wins, counts add up), and {@link #flush()} writes every pending
+ * user in one JDBC batch each {@code app.login-activity.flush-interval} and on shutdown. A crash
+ * loses at most one interval of login tracking; it never affects authentication.
+ *
+ * <p>Metrics: {@code auth.login.activity.buffer.size} (users pending), {@code auth.login.activity.flush}
+ * (flush duration) and {@code auth.login.activity.flushed} (users written).
+ */
+@Slf4j
+@Component
+public class LoginActivityBuffer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final Map<Long, PendingLogins> pending = new ConcurrentHashMap<>();
+    private final Timer flushTimer;
+    private final Counter flushedUsers;
+
+    public LoginActivityBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this(jdbcTemplate, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    LoginActivityBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        Gauge.builder("auth.login.activity.buffer.size", pending, Map::size)
+                .description("Users with logins not yet written to the database")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("auth.login.activity.flush")
+                .description("Time to write buffered logins")
+                .register(meterRegistry);
+        this.flushedUsers = Counter.builder("auth.login.activity.flushed")
+                .description("Users whose login activity was written")
+                .register(meterRegistry);
+    }
+
+    private record PendingLogins(LocalDateTime lastLoginAt, long count) {
+
+        PendingLogins merge(PendingLogins other) {
+            LocalDateTime latest = lastLoginAt.isAfter(other.lastLoginAt) ? lastLoginAt : other.lastLoginAt;
+            return new PendingLogins(latest, count + other.count);
+        }
+    }
+
+    /**
+     * Records a successful login of the user at the current time.
+     */
+    public void recordLogin(Long userId) {
+        pending.merge(userId, new PendingLogins(LocalDateTime.now(clock), 1), PendingLogins::merge);
+    }
+
+    /**
+     * Number of users with buffered logins.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Writes all buffered logins in one batch. Logins recorded while the flush runs are kept for
+     * the next one.
+     */
+    @Workload(WorkloadClass.BATCH)
+    @Scheduled(fixedDelayString = "${app.login-activity.flush-interval:PT10S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        flushTimer.record(() -> {
+            List<Object[]> updates = new ArrayList<>(pending.size());
+            for (Long userId : List.copyOf(pending.keySet())) {
+                PendingLogins logins = pending.remove(userId);
+                if (logins != null) {
+                    Timestamp lastLoginAt = Timestamp.valueOf(logins.lastLoginAt());
+                    updates.add(new Object[]{lastLoginAt, lastLoginAt, logins.count(), userId});
+                }
+            }
+
+            try {
+                jdbcTemplate.batchUpdate(
+                        "UPDATE users SET "
+                                + "last_login_at = CASE WHEN last_login_at IS NULL OR last_login_at < ? "
+                                + "THEN ? ELSE last_login_at END, "
+                                + "login_count = login_count + ? "
+                                + "WHERE id = ?",
+                        updates);
+                flushedUsers.increment(updates.size());
+            } catch (RuntimeException e) {
+                // Put the drained logins back so they are retried on the next flush
+                for (Object[] update : updates) {
+                    Long userId = (Long) update[3];
+                    pending.merge(userId,
+                            new PendingLogins(((Timestamp) update[0]).toLocalDateTime(), (Long) update[2]),
+                            PendingLogins::merge);
+                }
+                log.warn("Failed to flush login activity for {} users; will retry", updates.size(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
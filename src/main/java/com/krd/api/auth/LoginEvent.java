@@ -0,0 +1,18 @@
+package com.krd.api.auth;
+
+import java.time.LocalDateTime;
+
+/**
+ * One login attempt, as appended to {@code login_events}.
+ *
+ * @param email normalized email as submitted (the account may not exist)
+ * @param userId authenticated user, for successful logins only
+ */
+public record LoginEvent(
+        LocalDateTime occurredAt,
+        String email,
+        Long userId,
+        String ipAddress,
+        LoginOutcome outcome
+) {
+}
@@ -0,0 +1,202 @@
+package com.krd.api.auth;
+
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Append-only log of login attempts ({@code login_events}), kept off the request path.
+ *
+ * <p>{@link #record(LoginEvent)} only offers the event to a bounded in-memory ring buffer; when the
+ * buffer is full the event is dropped and counted instead of blocking the login. {@link #flush()}
+ * drains the buffer every {@code app.login-events.flush-interval} (and on shutdown) into multi-row
+ * INSERT statements of up to {@code insert-batch-size} rows. A crash loses at most one interval
+ * of events.
+ *
+ * <p>{@link #prune()} deletes events older than {@code app.login-events.retention} in batches,
+ * walking the {@code occurred_at} index.
+ *
+ * <p>Metrics: {@code auth.login.events.buffer.size}, {@code auth.login.events.written} and
+ * {@code auth.login.events.dropped}.
+ */
+@Slf4j
+@Component
+public class LoginEventLog {
+
+    private static final int MAX_EMAIL_LENGTH = 255;
+    static final String PRUNE_JOB_NAME = "login-event-prune";
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO login_events (occurred_at, email, user_id, ip_address, outcome) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoginEventProperties properties;
+    private final JobLeaseManager jobLeaseManager;
+    private final Clock clock;
+    private final BlockingQueue<LoginEvent> buffer;
+    private final String fullBatchInsert;
+    private final Counter writtenEvents;
+    private final Counter droppedEvents;
+
+    public LoginEventLog(JdbcTemplate jdbcTemplate, LoginEventProperties properties, MeterRegistry meterRegistry,
+                         JobLeaseManager jobLeaseManager) {
+        this(jdbcTemplate, properties, meterRegistry, jobLeaseManager, Clock.systemDefaultZone());
+    }
+
+    LoginEventLog(JdbcTemplate jdbcTemplate, LoginEventProperties properties, MeterRegistry meterRegistry,
+                  JobLeaseManager jobLeaseManager, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.jobLeaseManager = jobLeaseManager;
+        this.clock = clock;
+        this.buffer = new ArrayBlockingQueue<>(properties.getBufferCapacity());
+        this.fullBatchInsert = insertSql(properties.getInsertBatchSize());
+        Gauge.builder("auth.login.events.buffer.size", buffer, Collection::size)
+                .description("Login events not yet written to the database")
+                .register(meterRegistry);
+        this.writtenEvents = Counter.builder("auth.login.events.written")
+                .description("Login events written to the database")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("auth.login.events.dropped")
+                .description("Login events dropped because the buffer was full or a write failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers an event for the next flush. Never blocks; returns false if the event was dropped.
+     */
+    public boolean record(LoginEvent event) {
+        if (buffer.offer(event)) {
+            return true;
+        }
+        droppedEvents.increment();
+        return false;
+    }
+
+    /**
+     * Records an attempt that happened just now.
+     */
+    public boolean record(String email, Long userId, String ipAddress, LoginOutcome outcome) {
+        return record(new LoginEvent(LocalDateTime.now(clock), truncate(email), userId, ipAddress, outcome));
+    }
+
+    /**
+     * Number of buffered events.
+     */
+    public int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Writes the events buffered when the flush starts; events recorded meanwhile wait for the
+     * next flush. If a statement fails, its rows are dropped (and counted) and the rest of the
+     * buffer is kept for the next attempt.
+     */
+    @Workload(WorkloadClass.BATCH)
+    @Scheduled(fixedDelayString = "${app.login-events.flush-interval:PT2S}")
+    public void flush() {
+        int remaining = buffer.size();
+        List<LoginEvent> chunk = new ArrayList<>(Math.min(remaining, properties.getInsertBatchSize()));
+        while (remaining > 0) {
+            chunk.clear();
+            int drained = buffer.drainTo(chunk, Math.min(remaining, properties.getInsertBatchSize()));
+            if (drained == 0) {
+                return;
+            }
+            remaining -= drained;
+
+            try {
+                insert(chunk);
+                writtenEvents.increment(drained);
+            } catch (RuntimeException e) {
+                droppedEvents.increment(drained);
+                log.warn("Failed to write {} login events; dropped", drained, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs {@link #prune} on one node at a time. Flushing stays per node: each node drains its
+     * own buffer.
+     */
+    @Workload(WorkloadClass.BATCH)
+    @Scheduled(cron = "${app.login-events.prune-cron:0 45 3 * * *}")
+    public void runPrune() {
+        jobLeaseManager.runExclusive(PRUNE_JOB_NAME, lease -> prune());
+    }
+
+    /**
+     * Deletes events older than the retention, oldest first, in batches.
+     */
+    @Workload(WorkloadClass.BATCH)
+    public int prune() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now(clock).minus(properties.getRetention()));
+        int removed = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM login_events WHERE occurred_at < ? ORDER BY occurred_at LIMIT ?",
+                    Long.class, cutoff, properties.getPruneBatchSize());
+            if (!ids.isEmpty()) {
+                jdbcTemplate.update("DELETE FROM login_events WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+                removed += ids.size();
+            }
+        } while (ids.size() == properties.getPruneBatchSize());
+
+        if (removed > 0) {
+            log.info("Pruned {} login events older than {}", removed, cutoff);
+        }
+        return removed;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void insert(List<LoginEvent> events) {
+        String sql = events.size() == properties.getInsertBatchSize() ? fullBatchInsert : insertSql(events.size());
+        Object[] args = new Object[events.size() * 5];
+        int i = 0;
+        for (LoginEvent event : events) {
+            args[i++] = Timestamp.valueOf(event.occurredAt());
+            args[i++] = event.email();
+            args[i++] = event.userId();
+            args[i++] = event.ipAddress();
+            args[i++] = event.outcome().name();
+        }
+        jdbcTemplate.update(sql, args);
+    }
+
+    private static String insertSql(int rows) {
+        return INSERT_PREFIX + String.join(", ", Collections.nCopies(rows, ROW_PLACEHOLDERS));
+    }
+
+    private static String truncate(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.length() <= MAX_EMAIL_LENGTH ? value : value.substring(0, MAX_EMAIL_LENGTH);
+    }
+}
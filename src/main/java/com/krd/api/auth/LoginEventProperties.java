@@ -0,0 +1,49 @@
+package com.krd.api.auth;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link LoginEventLog} ({@code app.login-events.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.login-events")
+@Getter
+@Setter
+public class LoginEventProperties {
+
+    /**
+     * Events held in memory between flushes. When full, new events are dropped (and counted)
+     * rather than slowing down logins.
+     */
+    private int bufferCapacity = 10_000;
+
+    /**
+     * How often buffered events are written to the database.
+     */
+    private Duration flushInterval = Duration.ofSeconds(2);
+
+    /**
+     * Rows per multi-row INSERT statement.
+     */
+    private int insertBatchSize = 500;
+
+    /**
+     * How long events are kept before they are pruned.
+     */
+    private Duration retention = Duration.ofDays(90);
+
+    /**
+     * Cron expression for pruning events older than the retention.
+     */
+    private String pruneCron = "0 45 3 * * *";
+
+    /**
+     * Expired events deleted per statement.
+     */
+    private int pruneBatchSize = 5000;
+}
@@ -0,0 +1,116 @@
+package com.krd.api.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.krd.api.users.User;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-memory sliding-window counters of failed logins per account (normalized email) and per client
+ * IP address, used to lock out brute-force attempts.
+ *
+ * <p>Each key holds a {@link SlidingWindowCounter}, so checking a login is two hash probes and a
+ * fixed-size bucket scan, with no database access. Keys expire once they have been idle for a
+ * whole window, and at most {@code app.login-lockout.maximum-tracked-keys} of each kind are kept.
+ * A successful login clears the account's failures (but not the address's).
+ *
+ * <p>Counters are per node: behind a load balancer an attacker gets up to
+ * {@code max-*-failures} attempts per node and window.
+ */
+@Component
+public class LoginFailureTracker {
+
+    private final LoginLockoutProperties properties;
+    private final Clock clock;
+    private final Cache<String, SlidingWindowCounter> accountFailures;
+    private final Cache<String, SlidingWindowCounter> ipFailures;
+
+    public LoginFailureTracker(LoginLockoutProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    LoginFailureTracker(LoginLockoutProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.accountFailures = newCache(properties);
+        this.ipFailures = newCache(properties);
+    }
+
+    /**
+     * How long the account or address stays locked out, or empty if a login may be attempted.
+     */
+    public Optional<Duration> lockedOutFor(String email, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        long now = clock.millis();
+        Duration account = timeUntilBelow(accountFailures, User.normalizeEmail(email), properties.getMaxAccountFailures(), now);
+        Duration ip = timeUntilBelow(ipFailures, ipAddress, properties.getMaxIpFailures(), now);
+        Duration longest = account.compareTo(ip) >= 0 ? account : ip;
+        return longest.isZero() ? Optional.empty() : Optional.of(longest);
+    }
+
+    /**
+     * Records a failed login for the account and the address.
+     */
+    public void recordFailure(String email, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = clock.millis();
+        increment(accountFailures, User.normalizeEmail(email), now);
+        increment(ipFailures, ipAddress, now);
+    }
+
+    /**
+     * Records a successful login, which clears the account's failures.
+     */
+    public void recordSuccess(String email) {
+        String key = User.normalizeEmail(email);
+        if (key != null) {
+            accountFailures.invalidate(key);
+        }
+    }
+
+    /**
+     * Failed logins for the account within the current window.
+     */
+    public int accountFailures(String email) {
+        return count(accountFailures, User.normalizeEmail(email));
+    }
+
+    /**
+     * Failed logins from the address within the current window.
+     */
+    public int ipFailures(String ipAddress) {
+        return count(ipFailures, ipAddress);
+    }
+
+    private void increment(Cache<String, SlidingWindowCounter> counters, String key, long now) {
+        if (key != null) {
+            counters.get(key, k -> new SlidingWindowCounter(properties.getWindow(), properties.getBuckets()))
+                    .increment(now);
+        }
+    }
+
+    private int count(Cache<String, SlidingWindowCounter> counters, String key) {
+        SlidingWindowCounter counter = key == null ? null : counters.getIfPresent(key);
+        return counter == null ? 0 : counter.count(clock.millis());
+    }
+
+    private static Duration timeUntilBelow(Cache<String, SlidingWindowCounter> counters, String key, int limit, long now) {
+        SlidingWindowCounter counter = key == null ? null : counters.getIfPresent(key);
+        return counter == null ? Duration.ZERO : counter.timeUntilBelow(limit, now);
+    }
+
+    private static Cache<String, SlidingWindowCounter> newCache(LoginLockoutProperties properties) {
+        return Caffeine.newBuilder()
+                .expireAfterAccess(properties.getWindow())
+                .maximumSize(properties.getMaximumTrackedKeys())
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.krd.api.auth;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link LoginFailureTracker} ({@code app.login-lockout.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.login-lockout")
+@Getter
+@Setter
+public class LoginLockoutProperties {
+
+    /**
+     * Whether failed logins lock out accounts and addresses.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Sliding window over which failed logins are counted.
+     */
+    private Duration window = Duration.ofMinutes(15);
+
+    /**
+     * Buckets the window is divided into; the window slides one bucket at a time.
+     */
+    private int buckets = 15;
+
+    /**
+     * Failed logins for one account within the window before it is locked out.
+     */
+    private int maxAccountFailures = 5;
+
+    /**
+     * Failed logins from one IP address within the window before it is locked out.
+     */
+    private int maxIpFailures = 100;
+
+    /**
+     * Maximum accounts and addresses tracked at once (each); the least recently failed are evicted first.
+     */
+    private int maximumTrackedKeys = 100_000;
+}
@@ -0,0 +1,29 @@
+package com.krd.api.auth;
+
+/**
+ * Result of a login attempt, as stored in {@code login_events.outcome}.
+ */
+public enum LoginOutcome {
+
+    SUCCESS,
+
+    /**
+     * Unknown email or wrong password (indistinguishable on purpose). Counts towards lockout.
+     */
+    BAD_CREDENTIALS,
+
+    /**
+     * Correct credentials for a disabled account.
+     */
+    DISABLED,
+
+    /**
+     * Rejected without checking credentials because the account or address is locked out.
+     */
+    LOCKED_OUT,
+
+    /**
+     * Any other authentication failure.
+     */
+    FAILED
+}
@@ -0,0 +1,61 @@
+package com.krd.api.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Ends the {@link SessionRegistry} session of the refresh token presented to the starter's logout
+ * endpoint ({@code POST /auth/revoke-refresh-token}).
+ *
+ * <p>The starter's endpoint knows nothing about sessions, so it would leave the session row, and
+ * with it a usable refresh token, behind. The session is ended after the endpoint has run, so the
+ * endpoint still sees a valid token.
+ */
+@Component
+public class LogoutSessionFilter extends OncePerRequestFilter {
+
+    static final String LOGOUT_PATH = "/auth/revoke-refresh-token";
+    static final String REFRESH_COOKIE = "refreshToken";
+
+    private final CachingJwtService jwtService;
+
+    public LogoutSessionFilter(CachingJwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !LOGOUT_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String refreshToken = refreshToken(request);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            jwtService.endSession(refreshToken);
+        }
+    }
+
+    private static String refreshToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (REFRESH_COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
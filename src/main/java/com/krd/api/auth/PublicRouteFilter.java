@@ -0,0 +1,82 @@
+package com.krd.api.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * Skips token processing on {@link PublicRoutes}: when a request to a route that anonymous
+ * callers may access carries an {@code Authorization} header, the header is hidden from
+ * everything downstream.
+ *
+ * <p>Clients often send their access token with every call, including login, refresh and
+ * registration. The starter's JWT filter would then parse and verify it and build an
+ * authentication that these endpoints never use. Without the header it returns at once, the
+ * security context stays anonymous and there is nothing to persist.
+ *
+ * <p>The filter runs before Spring Security and only ever removes credentials, so a request it
+ * wrongly took for public is at worst handled as anonymous, i.e. rejected. Requests without an
+ * {@code Authorization} header are not looked at. Disable with
+ * {@code app.public-routes.skip-authentication=false}.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 5)
+@ConditionalOnProperty(prefix = "app.public-routes", name = "skip-authentication", havingValue = "true", matchIfMissing = true)
+public class PublicRouteFilter extends OncePerRequestFilter {
+
+    private final PublicRoutes publicRoutes;
+
+    public PublicRouteFilter(PublicRoutes publicRoutes) {
+        this.publicRoutes = publicRoutes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.AUTHORIZATION) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(publicRoutes.isPublic(request) ? new WithoutAuthorization(request) : request, response);
+    }
+
+    /**
+     * Request without its {@code Authorization} header.
+     */
+    static final class WithoutAuthorization extends HttpServletRequestWrapper {
+
+        WithoutAuthorization(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name))
+                    .toList());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.krd.api.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Which requests need no authentication, derived from the application's security configuration
+ * rather than a second list of paths: a request is public if the filter chain that handles it
+ * grants access to an anonymous user. The rules are the {@code SecurityRules} components
+ * ({@link AuthSecurityRules}, {@code UserSecurityRules}, ...) that the starter applies to that
+ * chain's {@link AuthorizationFilter}, so a route marked {@code permitAll()} there is public here.
+ *
+ * <p>Decisions are cached per method and path (at most {@value #MAX_CACHED_ROUTES}), which is
+ * sound as long as no rule looks at more of the request than that.
+ */
+@Component
+public class PublicRoutes implements SmartInitializingSingleton {
+
+    private static final int MAX_CACHED_ROUTES = 10_000;
+    private static final Authentication ANONYMOUS = new AnonymousAuthenticationToken(
+            "public-routes", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+    private final ObjectProvider<SecurityFilterChain> filterChains;
+    private final Cache<String, Boolean> decisions = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_ROUTES)
+            .build();
+    private volatile List<ChainAuthorization> chains = List.of();
+
+    public PublicRoutes(ObjectProvider<SecurityFilterChain> filterChains) {
+        this.filterChains = filterChains;
+    }
+
+    PublicRoutes(List<SecurityFilterChain> filterChains) {
+        this.filterChains = null;
+        this.chains = authorizationsOf(filterChains);
+    }
+
+    /**
+     * Reads the filter chains once every singleton (including them) has been created.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        chains = authorizationsOf(filterChains.orderedStream().toList());
+        decisions.invalidateAll();
+    }
+
+    /**
+     * Whether an anonymous caller may access the request. Requests no chain handles, and chains
+     * without an authorization filter, count as not public.
+     */
+    public boolean isPublic(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return decisions.get(request.getMethod() + ' ' + path, key -> decide(request));
+    }
+
+    private boolean decide(HttpServletRequest request) {
+        for (ChainAuthorization chain : chains) {
+            if (chain.filterChain().matches(request)) {
+                return chain.authorizationManager() != null && grantsAnonymous(chain.authorizationManager(), request);
+            }
+        }
+        return false;
+    }
+
+    private static boolean grantsAnonymous(AuthorizationManager<HttpServletRequest> manager, HttpServletRequest request) {
+        try {
+            AuthorizationResult result = manager.authorize(() -> ANONYMOUS, request);
+            return result != null && result.isGranted();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static List<ChainAuthorization> authorizationsOf(List<SecurityFilterChain> filterChains) {
+        return filterChains.stream()
+                .map(chain -> new ChainAuthorization(chain, chain.getFilters().stream()
+                        .filter(AuthorizationFilter.class::isInstance)
+                        .map(filter -> ((AuthorizationFilter) filter).getAuthorizationManager())
+                        .filter(Objects::nonNull)
+                        .findFirst()
+                        .orElse(null)))
+                .toList();
+    }
+
+    private record ChainAuthorization(SecurityFilterChain filterChain,
+                                      AuthorizationManager<HttpServletRequest> authorizationManager) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.krd.api.auth;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link SessionRegistry} ({@code app.sessions.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.sessions")
+@Getter
+@Setter
+public class SessionProperties {
+
+    /**
+     * How often buffered last-used timestamps are written to the database.
+     */
+    private Duration lastUsedFlushInterval = Duration.ofSeconds(30);
+
+    /**
+     * Cron expression for deleting expired sessions.
+     */
+    private String sweepCron = "0 15 * * * *";
+
+    /**
+     * Expired sessions deleted per transaction.
+     */
+    private int sweepBatchSize = 1000;
+}
@@ -0,0 +1,237 @@
+package com.krd.api.auth;
+
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
+import com.krd.api.users.UserChangedEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of refresh token sessions ({@code user_sessions}), one per login.
+ *
+ * <p>{@link CachingJwtService} registers a session for every refresh token it issues and embeds the
+ * session id in the token's {@code sid} claim. A refresh token is only accepted while its session
+ * exists and has not expired, so deleting the row revokes that device.
+ *
+ * <p>Recording when a session was last used must not add a synchronous UPDATE to
+ * {@code POST /auth/refresh}: {@link #touch(String)} only records the timestamp in memory and
+ * {@link #flushLastUsed()} writes all pending timestamps in one JDBC batch every
+ * {@code app.sessions.last-used-flush-interval}. Listings overlay pending timestamps, so they are
+ * current on this node; a crash loses at most one interval of last-used updates.
+ */
+@Slf4j
+@Component
+@Workload(WorkloadClass.AUTH)
+public class SessionRegistry {
+
+    static final String SWEEP_JOB_NAME = "session-sweep";
+
+    private static final int MAX_DEVICE_LENGTH = 255;
+
+    private static final RowMapper<SessionResponse> ROW_MAPPER = (rs, rowNum) -> new SessionResponse(
+            rs.getString("id"),
+            rs.getString("device"),
+            rs.getString("ip_address"),
+            rs.getTimestamp("issued_at").toLocalDateTime(),
+            rs.getTimestamp("last_used_at").toLocalDateTime(),
+            rs.getTimestamp("expires_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SessionProperties properties;
+    private final JobLeaseManager jobLeaseManager;
+    private final Clock clock;
+    private final Map<String, LocalDateTime> pendingLastUsed = new ConcurrentHashMap<>();
+
+    public SessionRegistry(JdbcTemplate jdbcTemplate, SessionProperties properties, JobLeaseManager jobLeaseManager) {
+        this(jdbcTemplate, properties, jobLeaseManager, Clock.systemDefaultZone());
+    }
+
+    SessionRegistry(JdbcTemplate jdbcTemplate, SessionProperties properties, JobLeaseManager jobLeaseManager,
+                    Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.jobLeaseManager = jobLeaseManager;
+        this.clock = clock;
+    }
+
+    /**
+     * Registers a new session for the user, recording the device of the current request,
+     * and returns its id.
+     */
+    public String create(Long userId, Instant expiresAt) {
+        String sessionId = UUID.randomUUID().toString();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        HttpServletRequest request = currentRequest();
+
+        jdbcTemplate.update(
+                "INSERT INTO user_sessions (id, user_id, device, ip_address, issued_at, last_used_at, expires_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                sessionId, userId,
+                request == null ? null : truncate(request.getHeader("User-Agent")),
+                request == null ? null : request.getRemoteAddr(),
+                now, now, Timestamp.valueOf(LocalDateTime.ofInstant(expiresAt, clock.getZone())));
+        return sessionId;
+    }
+
+    /**
+     * Whether the session exists and has not expired (primary key lookup).
+     */
+    public boolean isActive(String sessionId) {
+        Integer sessions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_sessions WHERE id = ? AND expires_at > ?",
+                Integer.class, sessionId, Timestamp.valueOf(LocalDateTime.now(clock)));
+        return sessions != null && sessions > 0;
+    }
+
+    /**
+     * Records that the session was just used. Written to the database by the next flush.
+     */
+    public void touch(String sessionId) {
+        pendingLastUsed.merge(sessionId, LocalDateTime.now(clock), (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    /**
+     * Active sessions of the user, most recently used first.
+     */
+    public List<SessionResponse> list(Long userId) {
+        List<SessionResponse> sessions = new ArrayList<>(jdbcTemplate.query(
+                "SELECT id, device, ip_address, issued_at, last_used_at, expires_at FROM user_sessions "
+                        + "WHERE user_id = ? AND expires_at > ? ORDER BY last_used_at DESC",
+                ROW_MAPPER, userId, Timestamp.valueOf(LocalDateTime.now(clock))));
+
+        if (!pendingLastUsed.isEmpty()) {
+            sessions.replaceAll(session -> {
+                LocalDateTime pending = pendingLastUsed.get(session.id());
+                return pending == null || !pending.isAfter(session.lastUsedAt()) ? session
+                        : new SessionResponse(session.id(), session.device(), session.ipAddress(),
+                        session.issuedAt(), pending, session.expiresAt());
+            });
+            sessions.sort(Comparator.comparing(SessionResponse::lastUsedAt).reversed());
+        }
+        return sessions;
+    }
+
+    /**
+     * Revokes one of the user's sessions. Returns false if the user has no such session.
+     */
+    public boolean revoke(Long userId, String sessionId) {
+        pendingLastUsed.remove(sessionId);
+        return jdbcTemplate.update("DELETE FROM user_sessions WHERE id = ? AND user_id = ?", sessionId, userId) > 0;
+    }
+
+    /**
+     * Revokes every session of the user and returns how many there were.
+     */
+    public int revokeAll(Long userId) {
+        return jdbcTemplate.update("DELETE FROM user_sessions WHERE user_id = ?", userId);
+    }
+
+    /**
+     * A password change, disabling, soft delete or purge ends all of the user's sessions (their
+     * refresh tokens are already rejected by the token generation check; this removes them from
+     * listings).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        switch (event.type()) {
+            case PASSWORD_CHANGED, DELETED, PURGED -> revokeAll(event.userId());
+            default -> {
+                if (event.revokesTokens()) {
+                    revokeAll(event.userId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes buffered last-used timestamps in one batch. Timestamps never move backwards.
+     */
+    @Workload(WorkloadClass.BATCH)
+    @Scheduled(fixedDelayString = "${app.sessions.last-used-flush-interval:PT30S}")
+    public void flushLastUsed() {
+        if (pendingLastUsed.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>(pendingLastUsed.size());
+        for (String sessionId : List.copyOf(pendingLastUsed.keySet())) {
+            LocalDateTime lastUsed = pendingLastUsed.remove(sessionId);
+            if (lastUsed != null) {
+                Timestamp timestamp = Timestamp.valueOf(lastUsed);
+                updates.add(new Object[]{timestamp, sessionId, timestamp});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE user_sessions SET last_used_at = ? WHERE id = ? AND last_used_at < ?", updates);
+    }
+
+    /**
+     * Runs {@link #sweepExpired} on one node at a time.
+     */
+    @Workload(WorkloadClass.BATCH)
+    @Scheduled(cron = "${app.sessions.sweep-cron:0 15 * * * *}")
+    public void runSweep() {
+        jobLeaseManager.runExclusive(SWEEP_JOB_NAME, lease -> sweepExpired());
+    }
+
+    /**
+     * Deletes expired sessions in batches.
+     */
+    @Workload(WorkloadClass.BATCH)
+    public int sweepExpired() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        int removed = 0;
+        List<String> ids;
+        do {
+            ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM user_sessions WHERE expires_at < ? ORDER BY expires_at LIMIT ?",
+                    String.class, now, properties.getSweepBatchSize());
+            if (!ids.isEmpty()) {
+                jdbcTemplate.update("DELETE FROM user_sessions WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+                removed += ids.size();
+            }
+        } while (ids.size() == properties.getSweepBatchSize());
+
+        if (removed > 0) {
+            log.info("Removed {} expired sessions", removed);
+        }
+        return removed;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushLastUsed();
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= MAX_DEVICE_LENGTH ? value : value.substring(0, MAX_DEVICE_LENGTH);
+    }
+}
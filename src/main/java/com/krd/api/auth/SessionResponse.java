@@ -0,0 +1,15 @@
+package com.krd.api.auth;
+
+import java.time.LocalDateTime;
+
+/**
+ * One active refresh token session (device) of the current user.
+ */
+public record SessionResponse(
+        String id,
+        String device,
+        String ipAddress,
+        LocalDateTime issuedAt,
+        LocalDateTime lastUsedAt,
+        LocalDateTime expiresAt) {
+}
@@ -0,0 +1,77 @@
+package com.krd.api.auth;
+
+import java.time.Duration;
+
+/**
+ * Event counter over a sliding time window, made of a fixed ring of buckets.
+ *
+ * <p>The window slides one bucket at a time: an event recorded in bucket {@code b} is counted
+ * until bucket {@code b + buckets} starts. The running total is kept alongside the buckets, so
+ * recording and reading cost O(buckets) at most, independent of how many events were recorded.
+ * Times are epoch milliseconds supplied by the caller.
+ */
+final class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final int[] counts;
+    private final long[] bucketIndexes;
+    private int total;
+
+    SlidingWindowCounter(Duration window, int buckets) {
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+        this.counts = new int[buckets];
+        this.bucketIndexes = new long[buckets];
+    }
+
+    synchronized void increment(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        int slot = slot(bucket);
+        if (bucketIndexes[slot] != bucket) {
+            total -= counts[slot];
+            counts[slot] = 0;
+            bucketIndexes[slot] = bucket;
+        }
+        counts[slot]++;
+        total++;
+    }
+
+    /**
+     * Events recorded within the window ending at {@code nowMillis}.
+     */
+    synchronized int count(long nowMillis) {
+        expire(nowMillis / bucketMillis);
+        return total;
+    }
+
+    /**
+     * Time until fewer than {@code limit} events remain in the window, or zero if that is already the case.
+     */
+    synchronized Duration timeUntilBelow(int limit, long nowMillis) {
+        long current = nowMillis / bucketMillis;
+        expire(current);
+        int remaining = total;
+        for (long bucket = current - counts.length + 1; bucket <= current && remaining >= limit; bucket++) {
+            int slot = slot(bucket);
+            if (bucketIndexes[slot] == bucket) {
+                remaining -= counts[slot];
+            }
+            if (remaining < limit) {
+                return Duration.ofMillis((bucket + counts.length) * bucketMillis - nowMillis);
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    private void expire(long currentBucket) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0 && bucketIndexes[slot] <= currentBucket - counts.length) {
+                total -= counts[slot];
+                counts[slot] = 0;
+            }
+        }
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) counts.length);
+    }
+}
@@ -0,0 +1,90 @@
+package com.krd.api.auth;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.krd.api.users.UserChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * In-memory view of each user's current token generation ({@code users.token_generation}).
+ *
+ * <p>Tokens are checked against this on every request, so lookups are a single hash probe; a
+ * user's generation is loaded from the database on first use and then cached. Users that are
+ * soft-deleted, disabled or missing report {@link #REVOKED}, which no token matches.
+ *
+ * <p>Entries are invalidated when this node changes a user (immediately, and again after commit
+ * so a concurrent reload cannot cache the pre-commit value). Changes made on other nodes are
+ * picked up when the entry expires after {@code app.jwt-cache.generation-ttl}, which bounds how
+ * long a revoked token can still be accepted elsewhere. At most
+ * {@code app.jwt-cache.generation-maximum-size} users are cached; an evicted user is simply loaded
+ * again on their next request.
+ */
+@Component
+public class TokenGenerationRegistry {
+
+    /**
+     * Generation reported for users whose tokens must all be rejected.
+     */
+    public static final int REVOKED = -1;
+
+    private final LoadingCache<Long, Integer> generations;
+
+    public TokenGenerationRegistry(JdbcTemplate jdbcTemplate, JwtCacheProperties properties) {
+        this(userId -> loadGeneration(jdbcTemplate, userId), properties.getGenerationTtl(),
+                properties.getGenerationMaximumSize());
+    }
+
+    TokenGenerationRegistry(ToIntFunction<Long> loader, Duration ttl, long maximumSize) {
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build(loader::applyAsInt);
+    }
+
+    /**
+     * Current token generation of the user, or {@link #REVOKED}.
+     */
+    public int currentGeneration(Long userId) {
+        return userId == null ? REVOKED : generations.get(userId);
+    }
+
+    /**
+     * Whether a token carrying {@code generation} is still valid for the user.
+     */
+    public boolean isCurrent(Long userId, int generation) {
+        return generation != REVOKED && currentGeneration(userId) == generation;
+    }
+
+    public void invalidate(Long userId) {
+        generations.invalidate(userId);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        Long userId = event.userId();
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private static int loadGeneration(JdbcTemplate jdbcTemplate, Long userId) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT token_generation FROM users WHERE id = ? AND deleted_at IS NULL AND enabled = TRUE",
+                Integer.class, userId);
+        return rows.isEmpty() ? REVOKED : rows.get(0);
+    }
+}
@@ -0,0 +1,200 @@
+package com.krd.api.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptive limit on concurrent requests, estimated from request latency (a gradient limiter in
+ * the style of TCP Vegas).
+ *
+ * <p>The limiter keeps a long-term average of request latency and compares every new sample with
+ * it. While requests are no slower than {@code rtt-tolerance} times the average, the limit grows
+ * by about its square root per sample; once they get slower (e.g. MySQL is saturated and requests
+ * queue for connections), it shrinks in proportion, down to half per sample. Requests that fail
+ * with a 5xx or an exception multiply it by {@code backoff-ratio}. The new estimate is blended
+ * into the limit with weight {@code smoothing} and kept within {@code [min-limit, max-limit]}.
+ * The limit does not grow from samples taken while less than half of it was in use, since those
+ * say nothing about the capacity above.
+ *
+ * <p>Each {@link Priority} may fill a share of the limit: critical requests all of it, normal and
+ * sheddable requests only {@code normal-share} and {@code sheddable-share}. Under overload the
+ * sheddable requests are therefore rejected first and critical ones last.
+ *
+ * <p>Metrics: {@code api.concurrency.limit}, {@code api.concurrency.in.flight} and
+ * {@code api.concurrency.rejected} (tagged with the priority).
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Ratio of long-term to sample latency above which the long-term average is pulled down, so
+     * that it recovers quickly after a period of slow requests.
+     */
+    private static final double LONG_RTT_DECAY_THRESHOLD = 2.0;
+    private static final double LONG_RTT_DECAY = 0.95;
+    private static final double MIN_GRADIENT = 0.5;
+
+    /**
+     * Admission class of a request.
+     */
+    public enum Priority {
+        CRITICAL, NORMAL, SHEDDABLE
+    }
+
+    private final ConcurrencyLimitProperties properties;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, Counter> rejections = new EnumMap<>(Priority.class);
+    private volatile double limit;
+    // Guarded by this
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry,
+                               LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.limit = clamp(properties.getInitialLimit());
+        Gauge.builder("api.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent requests")
+                .register(meterRegistry);
+        Gauge.builder("api.concurrency.in.flight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted by the concurrency limiter")
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            rejections.put(priority, Counter.builder("api.concurrency.rejected")
+                    .description("Requests shed with 503 by the concurrency limiter")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Admits a request of the given priority if its share of the limit is not used up. The
+     * returned permit must be completed exactly once.
+     */
+    public Optional<Permit> tryAcquire(Priority priority) {
+        int allowed = allowed(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejections.get(priority).increment();
+                return Optional.empty();
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return Optional.of(new Permit(nanoTime.getAsLong(), current + 1));
+            }
+        }
+    }
+
+    /**
+     * The current limit on concurrent requests.
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Requests currently admitted.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private int allowed(Priority priority) {
+        double share = switch (priority) {
+            case CRITICAL -> 1.0;
+            case NORMAL -> properties.getNormalShare();
+            case SHEDDABLE -> properties.getSheddableShare();
+        };
+        return Math.max(1, (int) (limit * share));
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        double current = limit;
+        longRttNanos = longRttNanos == 0
+                ? rttNanos
+                : longRttNanos + (rttNanos - longRttNanos) / properties.getLongWindow();
+        if (longRttNanos / rttNanos > LONG_RTT_DECAY_THRESHOLD) {
+            longRttNanos *= LONG_RTT_DECAY;
+        }
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT,
+                Math.min(1.0, properties.getRttTolerance() * longRttNanos / rttNanos));
+        double estimate = current * gradient + Math.sqrt(current);
+        limit = clamp(current * (1 - properties.getSmoothing()) + estimate * properties.getSmoothing());
+    }
+
+    private synchronized void onDropped() {
+        limit = clamp(limit * properties.getBackoffRatio());
+    }
+
+    private double clamp(double value) {
+        return Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), value));
+    }
+
+    /**
+     * An admitted request. Completing it frees its slot and, for {@link #success()} and
+     * {@link #dropped()}, feeds the outcome into the limit.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * The request completed normally; its latency is a sample for the limit.
+         */
+        public void success() {
+            if (release()) {
+                onSample(Math.max(1, nanoTime.getAsLong() - startNanos), inFlightAtStart);
+            }
+        }
+
+        /**
+         * The request failed in a way that suggests overload (5xx, exception); the limit backs off.
+         */
+        public void dropped() {
+            if (release()) {
+                onDropped();
+            }
+        }
+
+        /**
+         * The request completed but its latency says nothing about capacity (e.g. a long-lived
+         * streaming response); only its slot is freed.
+         */
+        public void ignore() {
+            release();
+        }
+
+        private boolean release() {
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            inFlight.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.krd.api.common;
 
+import com.krd.api.auth.AccountLockedException;
+import com.krd.api.users.BreachedPasswordException;
+import com.krd.api.users.PasswordPolicyException;
 import com.krd.starter.exception.ErrorResponse;
 import com.krd.starter.user.exception.DuplicateUserException;
 import com.krd.starter.user.exception.UserNotFoundException;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 /**
@@ -77,10 +83,223 @@ public class ApiExceptionHandler {
                 .body(errorResponse);
     }
 
+    /**
+     * Handles conditional writes whose If-Match no longer matches the resource.
+     * Returns 412 Precondition Failed with the current ETag.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+            PreconditionFailedException ex,
+            WebRequest request) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.PRECONDITION_FAILED.value())
+                .error(HttpStatus.PRECONDITION_FAILED.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(getRequestPath(request))
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(ex.getCurrentETag())
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles writes that lost a race against a concurrent write to the same entity
+     * (the versioned UPDATE matched no row).
+     * Returns 409 Conflict; the client should re-read and retry.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex,
+            WebRequest request) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error(HttpStatus.CONFLICT.getReasonPhrase())
+                .message("The resource was modified concurrently. Reload it and retry.")
+                .path(getRequestPath(request))
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles undecodable keyset paging cursors.
+     * Returns 400 Bad Request.
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(
+            InvalidCursorException ex,
+            WebRequest request) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(getRequestPath(request))
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles change feed cursors older than the retained history.
+     * Returns 410 Gone: the client must resynchronize from a full listing.
+     */
+    @ExceptionHandler(CursorExpiredException.class)
+    public ResponseEntity<ErrorResponse> handleCursorExpiredException(
+            CursorExpiredException ex,
+            WebRequest request) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.GONE.value())
+                .error(HttpStatus.GONE.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(getRequestPath(request))
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.GONE)
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles new passwords that violate the compiled password policy.
+     * Returns 400 Bad Request; the message lists every violated rule.
+     */
+    @ExceptionHandler(PasswordPolicyException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordPolicyException(
+            PasswordPolicyException ex,
+            WebRequest request) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(getRequestPath(request))
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles new passwords found in the breached password filter.
+     * Returns 400 Bad Request.
+     */
+    @ExceptionHandler(BreachedPasswordException.class)
+    public ResponseEntity<ErrorResponse> handleBreachedPasswordException(
+            BreachedPasswordException ex,
+            WebRequest request) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(getRequestPath(request))
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles logins rejected by the brute-force lockout.
+     * Returns 429 Too Many Requests with a Retry-After header (whole seconds, rounded up).
+     */
+    @ExceptionHandler(AccountLockedException.class)
+    public ResponseEntity<ErrorResponse> handleAccountLockedException(
+            AccountLockedException ex,
+            WebRequest request) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(getRequestPath(request))
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(ex.getRetryAfter())))
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles requests that cannot be matched to their Idempotency-Key (see {@link IdempotencyFilter}).
+     * Returns 400 for a malformed key, 413 for a body over the size limit, 422 for a key reused
+     * with a different request, and 409 Conflict with a Retry-After header while the key's first
+     * request is still running.
+     */
+    @ExceptionHandler(IdempotencyKeyException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyException(
+            IdempotencyKeyException ex,
+            WebRequest request) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(ex.getStatus().value())
+                .error(ex.getStatus().getReasonPhrase())
+                .message(ex.getMessage())
+                .path(getRequestPath(request))
+                .build();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(ex.getStatus());
+        if (ex.getRetryAfter() != null) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(ex.getRetryAfter())));
+        }
+        return response.body(errorResponse);
+    }
+
+    /**
+     * Handles requests shed by the concurrency limiter (see {@link ConcurrencyLimitFilter}).
+     * Returns 503 Service Unavailable with a Retry-After header.
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyLimitExceededException(
+            ConcurrencyLimitExceededException ex,
+            WebRequest request) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(getRequestPath(request))
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(ex.getRetryAfter())))
+                .body(errorResponse);
+    }
+
     /**
      * Extracts the request path from WebRequest for inclusion in error responses.
      */
     private String getRequestPath(WebRequest request) {
         return request.getDescription(false).replace("uri=", "");
     }
+
+    /**
+     * Retry-After value in whole seconds, rounded up and at least 1.
+     */
+    private static long retryAfterSeconds(Duration retryAfter) {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
 }
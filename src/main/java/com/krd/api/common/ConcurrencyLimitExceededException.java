@@ -0,0 +1,21 @@
+package com.krd.api.common;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown by {@link ConcurrencyLimitFilter} when a request is shed because the server is at its
+ * concurrency limit for the request's priority. Mapped to 503 Service Unavailable with a
+ * {@code Retry-After} header.
+ */
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(Duration retryAfter) {
+        super("The server is overloaded. Try again later.");
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,137 @@
+package com.krd.api.common;
+
+import com.krd.api.common.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Load shedding: admits each request through the {@link AdaptiveConcurrencyLimiter} and rejects
+ * it with 503 and {@code Retry-After} when its priority's share of the limit is used up.
+ *
+ * <p>When the database slows down, requests otherwise pile up on the container's worker threads
+ * until every endpoint times out at once. With the limit, the excess fails fast and the
+ * admitted requests keep their latency. Priorities come from {@code app.concurrency-limit}:
+ * token refresh and {@code /auth/me} are critical, admin listings and bulk reads are sheddable,
+ * everything else is normal. Health probes are excluded.
+ *
+ * <p>The filter runs before Spring Security, so shed requests cost no token verification.
+ * Latency samples come from requests that complete on the request thread; asynchronous
+ * (streaming) responses only hold a slot until they finish.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ConcurrencyLimitProperties properties;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                  ConcurrencyLimitProperties properties,
+                                  @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.limiter = limiter;
+        this.properties = properties;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || matches(properties.getExcludedPaths(), request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Optional<AdaptiveConcurrencyLimiter.Permit> acquired = limiter.tryAcquire(priorityOf(request));
+        if (acquired.isEmpty()) {
+            exceptionResolver.resolveException(request, response, null,
+                    new ConcurrencyLimitExceededException(properties.getRetryAfter()));
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit = acquired.get();
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (!completed) {
+                permit.dropped();
+            } else if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(permit));
+            } else if (response.getStatus() >= 500) {
+                permit.dropped();
+            } else {
+                permit.success();
+            }
+        }
+    }
+
+    Priority priorityOf(HttpServletRequest request) {
+        if (matches(properties.getCriticalPaths(), request)) {
+            return Priority.CRITICAL;
+        }
+        if (matches(properties.getSheddablePaths(), request)) {
+            return Priority.SHEDDABLE;
+        }
+        return Priority.NORMAL;
+    }
+
+    private boolean matches(List<String> patterns, HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : patterns) {
+            int space = pattern.indexOf(' ');
+            if (space < 0) {
+                if (pathMatcher.match(pattern, path)) {
+                    return true;
+                }
+            } else if (pattern.substring(0, space).equalsIgnoreCase(request.getMethod())
+                    && pathMatcher.match(pattern.substring(space + 1).trim(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Frees the slot of an asynchronous request when it finishes.
+     */
+    private record ReleasingListener(AdaptiveConcurrencyLimiter.Permit permit) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.ignore();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.dropped();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.dropped();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
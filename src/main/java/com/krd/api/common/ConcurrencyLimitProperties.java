@@ -0,0 +1,104 @@
+package com.krd.api.common;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for {@link AdaptiveConcurrencyLimiter} and {@link ConcurrencyLimitFilter}
+ * ({@code app.concurrency-limit.*}).
+ *
+ * <p>Path patterns are Ant-style and may be prefixed with an HTTP method ({@code "GET /users"});
+ * without one they match every method.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+@Getter
+@Setter
+public class ConcurrencyLimitProperties {
+
+    /**
+     * Whether requests are admitted through the limiter (when off, nothing is shed).
+     */
+    private boolean enabled = true;
+
+    /**
+     * Concurrent requests allowed at startup, before any latency has been measured.
+     */
+    private int initialLimit = 50;
+
+    /**
+     * Lower bound of the limit, however slow requests become.
+     */
+    private int minLimit = 10;
+
+    /**
+     * Upper bound of the limit. Keep it at or below the servlet container's worker threads.
+     */
+    private int maxLimit = 200;
+
+    /**
+     * How much slower than the long-term average a request may be before the limit shrinks
+     * (1.5 = 50% slower).
+     */
+    private double rttTolerance = 1.5;
+
+    /**
+     * Weight of each new limit estimate (0..1); lower values react more slowly.
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Number of samples the long-term latency average spans.
+     */
+    private int longWindow = 600;
+
+    /**
+     * Factor applied to the limit when a request fails with a 5xx or an exception.
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Retry-After sent with 503 responses for shed requests.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Share of the limit that normal requests may use; the rest is kept for critical requests.
+     */
+    private double normalShare = 0.9;
+
+    /**
+     * Share of the limit that sheddable requests may use, so they are the first to be rejected.
+     */
+    private double sheddableShare = 0.5;
+
+    /**
+     * Requests admitted up to the whole limit: the calls that keep existing sessions alive.
+     */
+    private List<String> criticalPaths = new ArrayList<>(List.of(
+            "POST /auth/refresh",
+            "GET /auth/me"));
+
+    /**
+     * Requests shed first: admin listings and bulk reads that clients can retry later.
+     */
+    private List<String> sheddablePaths = new ArrayList<>(List.of(
+            "GET /users",
+            "GET /users/by-role",
+            "GET /users/search",
+            "GET /users/stats",
+            "GET /users/role-changes",
+            "GET /users/changes",
+            "GET /users/archived/**"));
+
+    /**
+     * Requests that bypass the limiter entirely (health probes must answer under load).
+     */
+    private List<String> excludedPaths = new ArrayList<>(List.of("/actuator/**"));
+}
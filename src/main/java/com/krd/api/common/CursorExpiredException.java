@@ -0,0 +1,12 @@
+package com.krd.api.common;
+
+/**
+ * Thrown when a change feed cursor points before the retained history: changes after it may have
+ * been pruned, so the client must resynchronize from a full listing.
+ */
+public class CursorExpiredException extends RuntimeException {
+
+    public CursorExpiredException(String message) {
+        super(message);
+    }
+}
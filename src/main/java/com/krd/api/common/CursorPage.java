@@ -0,0 +1,12 @@
+package com.krd.api.common;
+
+import java.util.List;
+
+/**
+ * Keyset-paged response body: pass {@code nextCursor} back as {@code cursor} to fetch the next
+ * page. {@code nextCursor} is null on the last page.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor) {
+}
@@ -0,0 +1,97 @@
+package com.krd.api.common;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Connection pool bulkheads: one Hikari pool per {@link WorkloadClass} instead of the single
+ * {@code spring.datasource} pool, so that a slow admin listing or a purge batch holding
+ * connections cannot block logins.
+ *
+ * <p>The primary {@link DataSource} (used by JPA, {@code JdbcTemplate} and Flyway) is a
+ * {@link WorkloadRoutingDataSource} behind a {@link LazyConnectionDataSourceProxy}. Beans and
+ * methods choose their pool with {@link Workload}; everything else uses the interactive pool.
+ * Each pool is also a bean of its own ({@code authDataSource}, {@code interactiveDataSource},
+ * {@code batchDataSource}), so it gets its own {@code hikaricp.connections.*} metrics, tagged
+ * {@code pool=auth|interactive|batch}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "app.datasource-bulkheads", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceBulkheadConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource authDataSource(DataSourceProperties dataSourceProperties,
+                                           DataSourceBulkheadProperties bulkheads) {
+        return pool(dataSourceProperties, bulkheads, WorkloadClass.AUTH);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource interactiveDataSource(DataSourceProperties dataSourceProperties,
+                                                  DataSourceBulkheadProperties bulkheads) {
+        return pool(dataSourceProperties, bulkheads, WorkloadClass.INTERACTIVE);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource batchDataSource(DataSourceProperties dataSourceProperties,
+                                            DataSourceBulkheadProperties bulkheads) {
+        return pool(dataSourceProperties, bulkheads, WorkloadClass.BATCH);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("authDataSource") DataSource authDataSource,
+                                 @Qualifier("interactiveDataSource") DataSource interactiveDataSource,
+                                 @Qualifier("batchDataSource") DataSource batchDataSource) {
+        Map<WorkloadClass, DataSource> pools = new EnumMap<>(WorkloadClass.class);
+        pools.put(WorkloadClass.AUTH, authDataSource);
+        pools.put(WorkloadClass.INTERACTIVE, interactiveDataSource);
+        pools.put(WorkloadClass.BATCH, batchDataSource);
+        return new LazyConnectionDataSourceProxy(new WorkloadRoutingDataSource(pools));
+    }
+
+    /**
+     * Applies {@link Workload} to annotated beans and methods. Runs before the transaction
+     * interceptor, so the workload is set when a transaction takes its connection.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor workloadAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(AnnotationMatchingPointcut.forClassAnnotation(Workload.class))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Workload.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new WorkloadInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties dataSourceProperties,
+                                         DataSourceBulkheadProperties bulkheads,
+                                         WorkloadClass workload) {
+        DataSourceBulkheadProperties.Pool settings = bulkheads.pool(workload);
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        pool.setPoolName(workload.name().toLowerCase(Locale.ROOT));
+        pool.setMaximumPoolSize(settings.getMaximumPoolSize());
+        pool.setMinimumIdle(settings.getMinimumIdle());
+        pool.setConnectionTimeout(settings.getConnectionTimeout().toMillis());
+        return pool;
+    }
+}
@@ -0,0 +1,73 @@
+package com.krd.api.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for the per-workload connection pools of {@link DataSourceBulkheadConfiguration}
+ * ({@code app.datasource-bulkheads.*}). Every pool connects with the {@code spring.datasource}
+ * URL and credentials.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource-bulkheads")
+@Getter
+@Setter
+public class DataSourceBulkheadProperties {
+
+    /**
+     * Whether to split connections into pools per {@link WorkloadClass}. When off, the single
+     * pool from {@code spring.datasource.hikari} serves everything.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Pool for {@link WorkloadClass#AUTH}: fails fast rather than letting logins queue.
+     */
+    private Pool auth = new Pool(10, 2, Duration.ofSeconds(1));
+
+    /**
+     * Pool for {@link WorkloadClass#INTERACTIVE}, also used by unannotated code.
+     */
+    private Pool interactive = new Pool(20, 5, Duration.ofSeconds(5));
+
+    /**
+     * Pool for {@link WorkloadClass#BATCH}: small, so background jobs cannot starve requests.
+     */
+    private Pool batch = new Pool(5, 1, Duration.ofSeconds(30));
+
+    public Pool pool(WorkloadClass workload) {
+        return switch (workload) {
+            case AUTH -> auth;
+            case INTERACTIVE -> interactive;
+            case BATCH -> batch;
+        };
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+
+        /**
+         * Maximum connections in the pool.
+         */
+        private int maximumPoolSize;
+
+        /**
+         * Idle connections kept open.
+         */
+        private int minimumIdle;
+
+        /**
+         * How long a caller waits for a connection before the request fails.
+         */
+        private Duration connectionTimeout;
+    }
+}
@@ -0,0 +1,330 @@
+package com.krd.api.common;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@code Idempotency-Key} support for retry-prone POST endpoints ({@code app.idempotency.paths}).
+ *
+ * <p>The first request with a key claims it in {@link IdempotencyStore} and runs normally; its
+ * response is stored (unless it is a 5xx, which releases the key so a retry can run again).
+ * Retries with the same key and an identical request (method, path, query and body) get the
+ * stored response (status, body, {@code Content-Type}, {@code Location} and {@code ETag}) replayed
+ * with {@code Idempotent-Replayed: true}, without running the request again. Reusing a key for a different request is rejected with 422.
+ *
+ * <p>A duplicate that arrives while the first request is still running waits for it: on the
+ * same node it is woken as soon as the first request finishes, otherwise it polls the store
+ * every {@code poll-interval}. After {@code wait-timeout} it gets 409 with {@code Retry-After}.
+ *
+ * <p>Request bodies are buffered to fingerprint them and responses to store them, so both are
+ * bounded: a body over {@code max-body-size} is rejected with 413 before it is read further, and
+ * a response over {@code max-response-size} is returned but not stored (the key is released).
+ *
+ * <p>Keys are scoped to the authenticated principal (anonymous callers share one scope, which
+ * is harmless because a replay requires the identical request body). The filter runs after
+ * Spring Security, so unauthenticated requests are rejected before a key is claimed.
+ */
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String ANONYMOUS_SCOPE = "anonymous";
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             IdempotencyProperties properties,
+                             @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.store = store;
+        this.properties = properties;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled()
+                || !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getPaths().stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            exceptionResolver.resolveException(request, response, null, IdempotencyKeyException.invalidKey(MAX_KEY_LENGTH));
+            return;
+        }
+
+        CachedBodyRequest cachedRequest;
+        try {
+            cachedRequest = new CachedBodyRequest(request, properties.getMaxBodySize());
+        } catch (IdempotencyKeyException e) {
+            exceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+        String scope = currentScope();
+        String fingerprint = fingerprint(cachedRequest);
+
+        String token = UUID.randomUUID().toString();
+        Optional<IdempotencyStore.Entry> completed;
+        try {
+            completed = acquire(scope, key, fingerprint, token);
+        } catch (IdempotencyKeyException e) {
+            exceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+        if (completed.isPresent()) {
+            replay(completed.get(), response);
+            return;
+        }
+
+        String localKey = scope + '\n' + key;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        inFlight.put(localKey, done);
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(cachedRequest, cachingResponse);
+            if (cachingResponse.getContentSize() > properties.getMaxResponseSize().toBytes()) {
+                log.warn("Response to {} is {} bytes, over the idempotency limit; key not stored",
+                        request.getRequestURI(), cachingResponse.getContentSize());
+            } else if (cachingResponse.getStatus() < 500) {
+                if (!store.complete(scope, key, token, cachingResponse.getStatus(), cachingResponse.getContentType(),
+                        cachingResponse.getHeader(HttpHeaders.LOCATION), cachingResponse.getHeader(HttpHeaders.ETAG),
+                        cachingResponse.getContentAsByteArray())) {
+                    log.warn("Idempotency key of {} was taken over while the request ran; response not stored",
+                            request.getRequestURI());
+                }
+                stored = true;
+            }
+        } finally {
+            try {
+                if (!stored) {
+                    store.release(scope, key, token);
+                }
+            } finally {
+                inFlight.remove(localKey, done);
+                done.complete(null);
+                cachingResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    /**
+     * Claims the key for {@code token}, or waits for the request holding it. Returns the stored
+     * response to replay, or empty if this request now holds the key and must run.
+     */
+    private Optional<IdempotencyStore.Entry> acquire(String scope, String key, String fingerprint, String token) {
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        while (true) {
+            if (store.tryClaim(scope, key, fingerprint, token)) {
+                return Optional.empty();
+            }
+            Optional<IdempotencyStore.Entry> found = store.find(scope, key);
+            if (found.isEmpty()) {
+                // Released or expired since the claim attempt: try again
+                continue;
+            }
+
+            IdempotencyStore.Entry entry = found.get();
+            if (!entry.fingerprint().equals(fingerprint)) {
+                throw IdempotencyKeyException.reusedForDifferentRequest();
+            }
+            if (entry.status() == IdempotencyStore.Status.COMPLETED) {
+                return found;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (entry.lockedUntil().isBefore(now) && store.takeOver(scope, key, fingerprint, token)) {
+                return Optional.empty();
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                Duration lease = Duration.between(now, entry.lockedUntil());
+                throw IdempotencyKeyException.stillInProgress(lease.isNegative() ? Duration.ofSeconds(1) : lease);
+            }
+            awaitFirstRequest(scope + '\n' + key, remaining);
+        }
+    }
+
+    /**
+     * Waits until the request holding the key finishes on this node, or for one poll interval if
+     * it runs elsewhere.
+     */
+    private void awaitFirstRequest(String localKey, long remainingNanos) {
+        CompletableFuture<Void> first = inFlight.get(localKey);
+        long waitNanos = first == null
+                ? Math.min(remainingNanos, properties.getPollInterval().toNanos())
+                : remainingNanos;
+        try {
+            if (first == null) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } else {
+                first.get(waitNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException | ExecutionException e) {
+            // Re-check the store; the deadline is enforced by the caller
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw IdempotencyKeyException.stillInProgress(properties.getPollInterval());
+        }
+    }
+
+    private static void replay(IdempotencyStore.Entry entry, HttpServletResponse response) throws IOException {
+        response.setStatus(entry.responseStatus());
+        if (entry.responseType() != null) {
+            response.setContentType(entry.responseType());
+        }
+        if (entry.responseLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, entry.responseLocation());
+        }
+        if (entry.responseETag() != null) {
+            response.setHeader(HttpHeaders.ETAG, entry.responseETag());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        byte[] body = entry.responseBody();
+        if (body != null && body.length > 0) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static String currentScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return ANONYMOUS_SCOPE;
+        }
+        return authentication.getName();
+    }
+
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '?');
+            if (request.getQueryString() != null) {
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Request whose body has been read up front (to fingerprint it) and can be read again downstream.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        /**
+         * @throws IdempotencyKeyException if the body is larger than {@code maxBodySize}; no more
+         *                                 than one byte past the limit is read
+         */
+        CachedBodyRequest(HttpServletRequest request, DataSize maxBodySize) throws IOException {
+            super(request);
+            long limit = maxBodySize.toBytes();
+            if (request.getContentLengthLong() > limit) {
+                throw IdempotencyKeyException.bodyTooLarge(maxBodySize);
+            }
+            this.body = request.getInputStream().readNBytes((int) Math.min(limit + 1, Integer.MAX_VALUE - 8));
+            if (body.length > limit) {
+                throw IdempotencyKeyException.bodyTooLarge(maxBodySize);
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.krd.api.common;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Thrown by {@link IdempotencyFilter} when a request cannot be matched to its
+ * {@code Idempotency-Key}: the key is malformed (400), the body is too large to fingerprint (413),
+ * the key was already used for a different request (422), or its first request is still running
+ * (409, with a retry-after hint).
+ */
+@Getter
+public class IdempotencyKeyException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final Duration retryAfter;
+
+    private IdempotencyKeyException(HttpStatus status, String message, Duration retryAfter) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public static IdempotencyKeyException invalidKey(int maxLength) {
+        return new IdempotencyKeyException(HttpStatus.BAD_REQUEST,
+                "Idempotency-Key must be 1 to " + maxLength + " characters", null);
+    }
+
+    public static IdempotencyKeyException bodyTooLarge(DataSize maxBodySize) {
+        return new IdempotencyKeyException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Requests with an Idempotency-Key are limited to " + maxBodySize.toBytes() + " bytes", null);
+    }
+
+    public static IdempotencyKeyException reusedForDifferentRequest() {
+        return new IdempotencyKeyException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key was already used for a different request", null);
+    }
+
+    public static IdempotencyKeyException stillInProgress(Duration retryAfter) {
+        return new IdempotencyKeyException(HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still being processed", retryAfter);
+    }
+}
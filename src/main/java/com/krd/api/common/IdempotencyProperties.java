@@ -0,0 +1,74 @@
+package com.krd.api.common;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for {@link IdempotencyFilter} ({@code app.idempotency.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.idempotency")
+@Getter
+@Setter
+public class IdempotencyProperties {
+
+    /**
+     * Whether {@code Idempotency-Key} headers are honoured.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Path patterns of the POST endpoints that accept an {@code Idempotency-Key}.
+     */
+    private List<String> paths = new ArrayList<>(List.of("/users", "/users/*/roles"));
+
+    /**
+     * Largest request body accepted with a key. The body is buffered to fingerprint it, so larger
+     * requests are rejected with 413 before more than this is read.
+     */
+    private DataSize maxBodySize = DataSize.ofKilobytes(64);
+
+    /**
+     * Largest response stored for replay. A larger response is still returned, but the key is
+     * released, so a retry runs the request again.
+     */
+    private DataSize maxResponseSize = DataSize.ofKilobytes(256);
+
+    /**
+     * How long a stored response is replayed for retries with the same key.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * How long the first request holds its key. If it has not completed by then (e.g. the node
+     * died), a retry may run the request again.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(30);
+
+    /**
+     * How long a concurrent duplicate waits for the first request before it gets 409.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How often a waiting duplicate re-checks the store for a result from another node.
+     */
+    private Duration pollInterval = Duration.ofMillis(100);
+
+    /**
+     * Cron expression for deleting expired keys.
+     */
+    private String sweepCron = "0 20 * * * *";
+
+    /**
+     * Expired keys deleted per statement.
+     */
+    private int sweepBatchSize = 1000;
+}
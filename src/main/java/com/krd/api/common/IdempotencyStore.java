@@ -0,0 +1,203 @@
+package com.krd.api.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Database-backed store of {@code Idempotency-Key}s ({@code idempotency_keys}), shared by all nodes.
+ *
+ * <p>{@link #tryClaim} inserts the key IN_PROGRESS; the primary key on (scope, key) guarantees
+ * that exactly one request wins, whichever node it runs on. The winner stores its response with
+ * {@link #complete} or gives the key up with {@link #release}. A claim is a lease: if the winner
+ * does neither within {@code app.idempotency.lock-timeout}, {@link #takeOver} lets a retry claim
+ * the key with a conditional UPDATE. Every claim records the caller's claim token, and completing
+ * or releasing requires it, so a request that was taken over cannot finish its successor's claim.
+ *
+ * <p>Expired keys are ignored by every read, replaced on the next claim and deleted in batches by
+ * {@link #sweepExpired()}.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    static final String SWEEP_JOB_NAME = "idempotency-sweep";
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    /**
+     * Stored state of a key. Response fields are only set once {@link Status#COMPLETED}.
+     */
+    public record Entry(
+            String fingerprint,
+            Status status,
+            int responseStatus,
+            String responseType,
+            String responseLocation,
+            String responseETag,
+            byte[] responseBody,
+            LocalDateTime lockedUntil
+    ) {
+    }
+
+    private static final RowMapper<Entry> ROW_MAPPER = (rs, rowNum) -> new Entry(
+            rs.getString("request_fingerprint"),
+            Status.valueOf(rs.getString("status")),
+            rs.getInt("response_status"),
+            rs.getString("response_type"),
+            rs.getString("response_location"),
+            rs.getString("response_etag"),
+            rs.getBytes("response_body"),
+            rs.getTimestamp("locked_until").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+    private final JobLeaseManager jobLeaseManager;
+    private final Clock clock;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties,
+                            JobLeaseManager jobLeaseManager) {
+        this(jdbcTemplate, properties, jobLeaseManager, Clock.systemDefaultZone());
+    }
+
+    IdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties, JobLeaseManager jobLeaseManager,
+                     Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.jobLeaseManager = jobLeaseManager;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims the key for a request with the given fingerprint, held by {@code token}. Returns false
+     * if the key is already held (in progress or completed) and has not expired.
+     */
+    public boolean tryClaim(String scope, String key, String fingerprint, String token) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        try {
+            insert(scope, key, fingerprint, token, now);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // An expired key may be reused; anything else belongs to another request
+            int removed = jdbcTemplate.update(
+                    "DELETE FROM idempotency_keys WHERE scope = ? AND idempotency_key = ? AND expires_at < ?",
+                    scope, key, Timestamp.valueOf(now));
+            if (removed == 0) {
+                return false;
+            }
+            try {
+                insert(scope, key, fingerprint, token, now);
+                return true;
+            } catch (DuplicateKeyException raced) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Current state of an unexpired key.
+     */
+    public Optional<Entry> find(String scope, String key) {
+        return jdbcTemplate.query(
+                "SELECT request_fingerprint, status, response_status, response_type, response_location, "
+                        + "response_etag, response_body, locked_until FROM idempotency_keys "
+                        + "WHERE scope = ? AND idempotency_key = ? AND expires_at >= ?",
+                ROW_MAPPER, scope, key, Timestamp.valueOf(LocalDateTime.now(clock))).stream().findFirst();
+    }
+
+    /**
+     * Claims a key whose in-progress lease has run out for {@code token}. Returns false if it
+     * completed or was taken over by someone else first.
+     */
+    public boolean takeOver(String scope, String key, String fingerprint, String token) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return jdbcTemplate.update(
+                "UPDATE idempotency_keys SET locked_until = ?, claim_token = ? "
+                        + "WHERE scope = ? AND idempotency_key = ? AND request_fingerprint = ? "
+                        + "AND status = 'IN_PROGRESS' AND locked_until < ?",
+                Timestamp.valueOf(now.plus(properties.getLockTimeout())), token,
+                scope, key, fingerprint, Timestamp.valueOf(now)) > 0;
+    }
+
+    /**
+     * Stores the response of the request holding {@code token}; it is replayed until the key
+     * expires. Returns false if the claim was taken over in the meantime.
+     */
+    public boolean complete(String scope, String key, String token, int status, String contentType,
+                            String location, String eTag, byte[] body) {
+        return jdbcTemplate.update(
+                "UPDATE idempotency_keys SET status = 'COMPLETED', response_status = ?, response_type = ?, "
+                        + "response_location = ?, response_etag = ?, response_body = ? "
+                        + "WHERE scope = ? AND idempotency_key = ? AND status = 'IN_PROGRESS' AND claim_token = ?",
+                status, contentType, location, eTag, body, scope, key, token) > 0;
+    }
+
+    /**
+     * Gives up the key held by {@code token} without storing a response, so the next retry runs
+     * the request again. Does nothing if the claim was taken over.
+     */
+    public void release(String scope, String key, String token) {
+        jdbcTemplate.update(
+                "DELETE FROM idempotency_keys WHERE scope = ? AND idempotency_key = ? AND status = 'IN_PROGRESS' "
+                        + "AND claim_token = ?",
+                scope, key, token);
+    }
+
+    /**
+     * Runs {@link #sweepExpired} on one node at a time.
+     */
+    @Workload(WorkloadClass.BATCH)
+    @Scheduled(cron = "${app.idempotency.sweep-cron:0 20 * * * *}")
+    public void runSweep() {
+        jobLeaseManager.runExclusive(SWEEP_JOB_NAME, lease -> sweepExpired());
+    }
+
+    /**
+     * Deletes expired keys in batches.
+     */
+    @Workload(WorkloadClass.BATCH)
+    public int sweepExpired() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        int removed = 0;
+        int deleted;
+        do {
+            List<Object[]> keys = jdbcTemplate.query(
+                    "SELECT scope, idempotency_key FROM idempotency_keys WHERE expires_at < ? ORDER BY expires_at LIMIT ?",
+                    (rs, rowNum) -> new Object[]{rs.getString(1), rs.getString(2)},
+                    now, properties.getSweepBatchSize());
+            deleted = keys.size();
+            if (deleted > 0) {
+                jdbcTemplate.batchUpdate(
+                        "DELETE FROM idempotency_keys WHERE scope = ? AND idempotency_key = ? AND expires_at < ?",
+                        keys.stream().map(k -> new Object[]{k[0], k[1], now}).toList());
+                removed += deleted;
+            }
+        } while (deleted == properties.getSweepBatchSize());
+
+        if (removed > 0) {
+            log.info("Removed {} expired idempotency keys", removed);
+        }
+        return removed;
+    }
+
+    private void insert(String scope, String key, String fingerprint, String token, LocalDateTime now) {
+        jdbcTemplate.update(
+                "INSERT INTO idempotency_keys (scope, idempotency_key, request_fingerprint, status, claim_token, "
+                        + "created_at, locked_until, expires_at) VALUES (?, ?, ?, 'IN_PROGRESS', ?, ?, ?, ?)",
+                scope, key, fingerprint, token, Timestamp.valueOf(now),
+                Timestamp.valueOf(now.plus(properties.getLockTimeout())),
+                Timestamp.valueOf(now.plus(properties.getTtl())));
+    }
+}
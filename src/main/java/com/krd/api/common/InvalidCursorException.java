@@ -0,0 +1,11 @@
+package com.krd.api.common;
+
+/**
+ * Thrown when a keyset paging cursor cannot be decoded (tampered, truncated or from another endpoint).
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,49 @@
+package com.krd.api.common;
+
+import lombok.Getter;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * A lease held by this node on a scheduled job (see {@link JobLeaseManager}).
+ *
+ * <p>Long-running jobs should check {@link #isHeld()} between units of work and stop once it
+ * returns false: another node may already be running the job.
+ */
+public class JobLease {
+
+    @Getter
+    private final String jobName;
+    @Getter
+    private final String owner;
+    @Getter
+    private final long fencingToken;
+    private final Clock clock;
+    private volatile LocalDateTime validUntil;
+    private volatile boolean lost;
+
+    JobLease(String jobName, String owner, long fencingToken, LocalDateTime validUntil, Clock clock) {
+        this.jobName = jobName;
+        this.owner = owner;
+        this.fencingToken = fencingToken;
+        this.validUntil = validUntil;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether this node still owns the job: no renewal has been refused and the last successful
+     * renewal has not run out (the database may have been unreachable since).
+     */
+    public boolean isHeld() {
+        return !lost && LocalDateTime.now(clock).isBefore(validUntil);
+    }
+
+    void extendTo(LocalDateTime until) {
+        validUntil = until;
+    }
+
+    void markLost() {
+        lost = true;
+    }
+}
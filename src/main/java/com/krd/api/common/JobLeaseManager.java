@@ -0,0 +1,242 @@
+package com.krd.api.common;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs scheduled jobs on at most one node of the cluster at a time, using leases in
+ * {@code job_leases} (see the V14 migration).
+ *
+ * <p>{@link #runExclusive} takes the job's lease if it is free or expired, renews it on a
+ * heartbeat thread every {@code app.job-leases.heartbeat-interval} while the job runs, and releases
+ * it afterwards. Other nodes skip the run meanwhile. If the owner dies, its lease runs out after
+ * {@code lease-duration} and the next node to try takes over; its leftover RUNNING entry is marked
+ * ABANDONED.
+ *
+ * <p>Every run is recorded in {@code job_runs} with owner, duration, outcome and items processed;
+ * entries older than {@code history-retention} are removed as runs finish.
+ *
+ * <p>Lease times come from each node's clock, so node clocks must agree to well within the lease
+ * duration (NTP).
+ */
+@Slf4j
+@Component
+public class JobLeaseManager {
+
+    private static final RowMapper<JobRun> RUN_MAPPER = (rs, rowNum) -> new JobRun(
+            rs.getLong("id"),
+            rs.getString("job_name"),
+            rs.getString("owner"),
+            rs.getLong("fencing_token"),
+            JobRun.Status.valueOf(rs.getString("status")),
+            rs.getTimestamp("started_at").toLocalDateTime(),
+            rs.getTimestamp("finished_at") == null ? null : rs.getTimestamp("finished_at").toLocalDateTime(),
+            rs.getObject("duration_ms", Long.class),
+            rs.getObject("items_processed", Integer.class),
+            rs.getString("error"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLeaseProperties properties;
+    private final Clock clock;
+    @Getter
+    private final String nodeId;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public JobLeaseManager(JdbcTemplate jdbcTemplate, JobLeaseProperties properties) {
+        this(jdbcTemplate, properties, Clock.systemDefaultZone());
+    }
+
+    JobLeaseManager(JdbcTemplate jdbcTemplate, JobLeaseProperties properties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.clock = clock;
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId()
+                : ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Runs {@code job} if this node can take the lease on {@code jobName}, and returns the number of
+     * items it reports processing. Returns empty without running it if another node holds the lease.
+     * Exceptions from the job are recorded and rethrown.
+     */
+    public OptionalInt runExclusive(String jobName, ToIntFunction<JobLease> job) {
+        Optional<JobLease> acquired = tryAcquire(jobName);
+        if (acquired.isEmpty()) {
+            log.debug("Skipping job {}: lease held by another node", jobName);
+            return OptionalInt.empty();
+        }
+        JobLease lease = acquired.get();
+        long runId = startRun(lease);
+        long interval = properties.getHeartbeatInterval().toMillis();
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleWithFixedDelay(
+                () -> renew(lease), interval, interval, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        JobRun.Status status = JobRun.Status.FAILED;
+        Integer items = null;
+        String error = null;
+        try {
+            items = job.applyAsInt(lease);
+            status = lease.isHeld() ? JobRun.Status.SUCCEEDED : JobRun.Status.LEASE_LOST;
+            return OptionalInt.of(items);
+        } catch (RuntimeException | Error e) {
+            error = e.toString();
+            throw e;
+        } finally {
+            heartbeat.cancel(false);
+            finishRun(runId, jobName, status, Duration.ofNanos(System.nanoTime() - start), items, error);
+            release(lease);
+        }
+    }
+
+    /**
+     * Takes the lease on {@code jobName} if it is free or expired.
+     */
+    public Optional<JobLease> tryAcquire(String jobName) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime until = now.plus(properties.getLeaseDuration());
+
+        List<Long> tokens = jdbcTemplate.queryForList(
+                "SELECT fencing_token FROM job_leases WHERE job_name = ?", Long.class, jobName);
+        if (tokens.isEmpty()) {
+            try {
+                jdbcTemplate.update("INSERT INTO job_leases (job_name, owner, lease_until, fencing_token, acquired_at, "
+                                + "heartbeat_at) VALUES (?, ?, ?, 1, ?, ?)",
+                        jobName, nodeId, Timestamp.valueOf(until), Timestamp.valueOf(now), Timestamp.valueOf(now));
+            } catch (DuplicateKeyException e) {
+                return Optional.empty();
+            }
+            return Optional.of(new JobLease(jobName, nodeId, 1, until, clock));
+        }
+
+        // Compare-and-set on the token read above: if the row changed since, nothing is updated
+        long token = tokens.get(0) + 1;
+        int updated = jdbcTemplate.update(
+                "UPDATE job_leases SET owner = ?, lease_until = ?, fencing_token = ?, acquired_at = ?, heartbeat_at = ? "
+                        + "WHERE job_name = ? AND fencing_token = ? AND (owner IS NULL OR lease_until < ?)",
+                nodeId, Timestamp.valueOf(until), token, Timestamp.valueOf(now), Timestamp.valueOf(now),
+                jobName, token - 1, Timestamp.valueOf(now));
+        return updated == 1 ? Optional.of(new JobLease(jobName, nodeId, token, until, clock)) : Optional.empty();
+    }
+
+    /**
+     * Extends the lease by {@code lease-duration}. Returns false, and marks the lease lost, if
+     * another node has taken it over. A database error leaves the lease as it was; it is lost
+     * locally once it runs out.
+     */
+    public boolean renew(JobLease lease) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime until = now.plus(properties.getLeaseDuration());
+        try {
+            int updated = jdbcTemplate.update(
+                    "UPDATE job_leases SET lease_until = ?, heartbeat_at = ? "
+                            + "WHERE job_name = ? AND owner = ? AND fencing_token = ?",
+                    Timestamp.valueOf(until), Timestamp.valueOf(now),
+                    lease.getJobName(), lease.getOwner(), lease.getFencingToken());
+            if (updated == 1) {
+                lease.extendTo(until);
+                return true;
+            }
+            lease.markLost();
+            log.warn("Lease on job {} was taken over by another node", lease.getJobName());
+        } catch (DataAccessException e) {
+            log.warn("Failed to renew lease on job {}", lease.getJobName(), e);
+        }
+        return false;
+    }
+
+    /**
+     * Gives up the lease so another node may run the job right away.
+     */
+    public void release(JobLease lease) {
+        try {
+            jdbcTemplate.update("UPDATE job_leases SET owner = NULL, lease_until = ? "
+                            + "WHERE job_name = ? AND owner = ? AND fencing_token = ?",
+                    Timestamp.valueOf(LocalDateTime.now(clock)),
+                    lease.getJobName(), lease.getOwner(), lease.getFencingToken());
+        } catch (DataAccessException e) {
+            log.warn("Failed to release lease on job {}; it expires on its own", lease.getJobName(), e);
+        }
+        lease.markLost();
+    }
+
+    /**
+     * Most recent runs of a job, newest first.
+     */
+    public List<JobRun> recentRuns(String jobName, int limit) {
+        return jdbcTemplate.query("SELECT id, job_name, owner, fencing_token, status, started_at, finished_at, duration_ms, "
+                        + "items_processed, error FROM job_runs WHERE job_name = ? ORDER BY started_at DESC, id DESC LIMIT ?",
+                RUN_MAPPER, jobName, limit);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    private long startRun(JobLease lease) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        // Whoever held the lease before us is gone, so its unfinished run never will finish
+        jdbcTemplate.update("UPDATE job_runs SET status = ?, finished_at = ? WHERE job_name = ? AND status = ?",
+                JobRun.Status.ABANDONED.name(), now, lease.getJobName(), JobRun.Status.RUNNING.name());
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO job_runs (job_name, owner, fencing_token, status, started_at) VALUES (?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, lease.getJobName());
+            statement.setString(2, lease.getOwner());
+            statement.setLong(3, lease.getFencingToken());
+            statement.setString(4, JobRun.Status.RUNNING.name());
+            statement.setTimestamp(5, now);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private void finishRun(long runId, String jobName, JobRun.Status status, Duration duration, Integer items, String error) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        try {
+            jdbcTemplate.update("UPDATE job_runs SET status = ?, finished_at = ?, duration_ms = ?, items_processed = ?, "
+                            + "error = ? WHERE id = ?",
+                    status.name(), Timestamp.valueOf(now), duration.toMillis(), items,
+                    error == null ? null : error.substring(0, Math.min(error.length(), 1000)), runId);
+            jdbcTemplate.update("DELETE FROM job_runs WHERE job_name = ? AND started_at < ?",
+                    jobName, Timestamp.valueOf(now.minus(properties.getHistoryRetention())));
+        } catch (DataAccessException e) {
+            log.warn("Failed to record run {} of job {}", runId, jobName, e);
+        }
+        log.info("Job {} {} in {} ms ({} items)", jobName, status, duration.toMillis(), items);
+    }
+}
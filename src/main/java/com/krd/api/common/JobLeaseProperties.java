@@ -0,0 +1,39 @@
+package com.krd.api.common;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link JobLeaseManager} ({@code app.job-leases.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.job-leases")
+@Getter
+@Setter
+public class JobLeaseProperties {
+
+    /**
+     * Identity of this node in {@code job_leases}. Defaults to the JVM name (pid@host) plus a random suffix.
+     */
+    private String nodeId;
+
+    /**
+     * How long a lease is valid without a heartbeat; after this another node may take over.
+     * Must comfortably exceed the heartbeat interval and the clock skew between nodes.
+     */
+    private Duration leaseDuration = Duration.ofSeconds(60);
+
+    /**
+     * How often a running job renews its lease.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * How long job run history is kept.
+     */
+    private Duration historyRetention = Duration.ofDays(30);
+}
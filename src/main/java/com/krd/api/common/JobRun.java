@@ -0,0 +1,33 @@
+package com.krd.api.common;
+
+import java.time.LocalDateTime;
+
+/**
+ * One recorded run of a leased job ({@code job_runs}).
+ *
+ * @param finishedAt     null while running
+ * @param itemsProcessed what the job reported (e.g. users purged), null if it failed
+ */
+public record JobRun(
+        long id,
+        String jobName,
+        String owner,
+        long fencingToken,
+        Status status,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        Long durationMs,
+        Integer itemsProcessed,
+        String error
+) {
+
+    public enum Status {
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        /** The lease expired or was taken over while the job ran. */
+        LEASE_LOST,
+        /** The owning node died; marked when the next node took the lease. */
+        ABANDONED
+    }
+}
@@ -0,0 +1,19 @@
+package com.krd.api.common;
+
+import java.util.List;
+
+/**
+ * Offset-paged response body for custom listing endpoints.
+ */
+public record PagedResponse<T>(
+        List<T> content,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages) {
+
+    public static <T> PagedResponse<T> of(List<T> content, int page, int size, long totalElements) {
+        int totalPages = size == 0 ? 0 : (int) ((totalElements + size - 1) / size);
+        return new PagedResponse<>(content, page, size, totalElements, totalPages);
+    }
+}
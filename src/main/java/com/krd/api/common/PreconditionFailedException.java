@@ -0,0 +1,19 @@
+package com.krd.api.common;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a conditional request's {@code If-Match} does not match the current version of the
+ * resource (it was modified since the client read it). Mapped to 412 Precondition Failed, with
+ * the current ETag so the client can re-read and retry.
+ */
+@Getter
+public class PreconditionFailedException extends RuntimeException {
+
+    private final String currentETag;
+
+    public PreconditionFailedException(String message, String currentETag) {
+        super(message);
+        this.currentETag = currentETag;
+    }
+}
@@ -0,0 +1,26 @@
+package com.krd.api.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Routes the database work of a bean or method to the connection pool of a {@link WorkloadClass}.
+ *
+ * <p>On a class it applies to every public method called through the bean, including inherited
+ * ones; on a method it overrides the class. Connections are taken lazily, so a transaction uses
+ * the pool of the workload active when it runs its first statement, and keeps that connection
+ * for its whole duration: nested calls with another workload join it. Like
+ * {@code @Transactional}, it has no effect on calls within the same object.
+ *
+ * @see WorkloadRoutingDataSource
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+
+    WorkloadClass value();
+}
@@ -0,0 +1,23 @@
+package com.krd.api.common;
+
+/**
+ * Workload classes with their own connection pool (see {@link WorkloadRoutingDataSource}).
+ */
+public enum WorkloadClass {
+
+    /**
+     * Login, token refresh and the per-request user lookup: small, fast queries that must not
+     * wait behind anything else.
+     */
+    AUTH,
+
+    /**
+     * Regular API requests, including admin listings. The default for unannotated code.
+     */
+    INTERACTIVE,
+
+    /**
+     * Scheduled jobs and background work (purges, flushes, relays, backfills).
+     */
+    BATCH
+}
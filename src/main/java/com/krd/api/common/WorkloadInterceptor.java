@@ -0,0 +1,48 @@
+package com.krd.api.common;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs calls to {@link Workload}-annotated beans and methods with their workload as the current
+ * thread's {@link WorkloadRoutingDataSource} key, restoring the previous one afterwards.
+ */
+public class WorkloadInterceptor implements MethodInterceptor {
+
+    private final Map<MethodClassKey, WorkloadClass> workloads = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() == null
+                ? invocation.getMethod().getDeclaringClass()
+                : ClassUtils.getUserClass(AopUtils.getTargetClass(invocation.getThis()));
+        WorkloadClass workload = workloads.computeIfAbsent(new MethodClassKey(invocation.getMethod(), targetClass),
+                key -> workloadOf(AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass), targetClass));
+        if (workload == null) {
+            return invocation.proceed();
+        }
+
+        WorkloadClass previous = WorkloadRoutingDataSource.enter(workload);
+        try {
+            return invocation.proceed();
+        } finally {
+            WorkloadRoutingDataSource.restore(previous);
+        }
+    }
+
+    private static WorkloadClass workloadOf(Method method, Class<?> targetClass) {
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(method, Workload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(targetClass, Workload.class);
+        }
+        return workload == null ? null : workload.value();
+    }
+}
@@ -0,0 +1,57 @@
+package com.krd.api.common;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data source that hands out connections from the pool of the current thread's
+ * {@link WorkloadClass} (set by {@link Workload}), so a saturated pool only blocks its own
+ * workload. Threads without a workload use the {@link WorkloadClass#INTERACTIVE} pool.
+ *
+ * <p>Wrapped in a {@code LazyConnectionDataSourceProxy} (see {@link DataSourceBulkheadConfiguration}),
+ * so the pool is chosen at a transaction's first statement rather than when it begins.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<WorkloadClass> CURRENT = new ThreadLocal<>();
+
+    public WorkloadRoutingDataSource(Map<WorkloadClass, DataSource> pools) {
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(WorkloadClass.INTERACTIVE));
+        afterPropertiesSet();
+    }
+
+    /**
+     * The current thread's workload.
+     */
+    public static WorkloadClass current() {
+        WorkloadClass workload = CURRENT.get();
+        return workload == null ? WorkloadClass.INTERACTIVE : workload;
+    }
+
+    /**
+     * Makes {@code workload} the current thread's workload and returns the previous one (null if
+     * none) to pass to {@link #restore}.
+     */
+    static WorkloadClass enter(WorkloadClass workload) {
+        WorkloadClass previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    static void restore(WorkloadClass previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT.get();
+    }
+}
@@ -0,0 +1,21 @@
+package com.krd.api.users;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Compact record of a purged user kept in {@code archived_users} (see {@link ArchivedUserRepository}).
+ */
+public record ArchivedUser(
+        long archiveId,
+        Long userId,
+        String email,
+        String username,
+        String firstName,
+        String lastName,
+        List<String> roles,
+        LocalDateTime lastLoginAt,
+        LocalDateTime deletedAt,
+        LocalDateTime archivedAt
+) {
+}
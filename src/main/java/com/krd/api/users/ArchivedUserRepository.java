@@ -0,0 +1,85 @@
+package com.krd.api.users;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Archive of purged users ({@code archived_users}), written by {@link UserPurgeJob} in archive mode.
+ *
+ * <p>One compact row per purged user, roles folded into a single column, so the archive needs no
+ * joins and stays out of the hot {@code users} / {@code user_roles} tables and their indexes.
+ */
+@Repository
+public class ArchivedUserRepository {
+
+    private static final String SELECT = "SELECT id, user_id, email, username, first_name, last_name, roles, "
+            + "last_login_at, deleted_at, archived_at FROM archived_users";
+
+    private static final RowMapper<ArchivedUser> ROW_MAPPER = (rs, rowNum) -> new ArchivedUser(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getString("email"),
+            rs.getString("username"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("roles").isEmpty() ? List.of() : Arrays.asList(rs.getString("roles").split(",")),
+            toLocalDateTime(rs.getTimestamp("last_login_at")),
+            toLocalDateTime(rs.getTimestamp("deleted_at")),
+            toLocalDateTime(rs.getTimestamp("archived_at")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ArchivedUserRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Archives the given users (with their roles loaded) in one JDBC batch.
+     */
+    public void archive(Collection<User> users, LocalDateTime archivedAt) {
+        jdbcTemplate.batchUpdate("INSERT INTO archived_users (user_id, email, email_normalized, username, first_name, "
+                        + "last_name, roles, last_login_at, deleted_at, archived_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                users.stream().map(user -> new Object[]{
+                        user.getId(),
+                        user.getEmail(),
+                        User.normalizeEmail(user.getEmail()),
+                        user.getUsername(),
+                        user.getFirstName(),
+                        user.getLastName(),
+                        user.getRoles() == null ? "" : String.join(",", user.getRoles().stream().sorted().toList()),
+                        toTimestamp(user.getLastLoginAt()),
+                        toTimestamp(user.getDeletedAt()),
+                        Timestamp.valueOf(archivedAt)
+                }).toList());
+    }
+
+    /**
+     * Archived records of a user id, most recently archived first.
+     */
+    public List<ArchivedUser> findByUserId(Long userId) {
+        return jdbcTemplate.query(SELECT + " WHERE user_id = ? ORDER BY archived_at DESC, id DESC", ROW_MAPPER, userId);
+    }
+
+    /**
+     * Archived records with the given email (case-insensitive), most recently archived first.
+     */
+    public List<ArchivedUser> findByEmail(String email) {
+        return jdbcTemplate.query(SELECT + " WHERE email_normalized = ? ORDER BY archived_at DESC, id DESC",
+                ROW_MAPPER, User.normalizeEmail(email));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp value) {
+        return value == null ? null : value.toLocalDateTime();
+    }
+}
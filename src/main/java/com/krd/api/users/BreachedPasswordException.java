@@ -0,0 +1,12 @@
+package com.krd.api.users;
+
+/**
+ * Thrown when a new password appears in the breached password filter (see
+ * {@link BreachedPasswords}). Mapped to 400 Bad Request.
+ */
+public class BreachedPasswordException extends RuntimeException {
+
+    public BreachedPasswordException() {
+        super("This password has appeared in a data breach and cannot be used. Choose a different password.");
+    }
+}
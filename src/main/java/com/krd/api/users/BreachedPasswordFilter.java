@@ -0,0 +1,167 @@
+package com.krd.api.users;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only Bloom filter of breached passwords, memory-mapped from a file written by
+ * {@link BreachedPasswordFilterBuilder}.
+ *
+ * <p>The bit array stays off-heap in the page cache and is shared by every process mapping the
+ * same file, so a filter of several gigabytes costs no heap and no load time: pages are read on
+ * first access. Files larger than 2 GiB are mapped in 1 GiB segments.
+ *
+ * <p>{@link #mightContain} hashes the password's chars directly and reads single bytes from the
+ * mapping, so a check allocates nothing. It has no false negatives; false positives occur at the
+ * rate the file was built for.
+ *
+ * <p>File layout (big-endian): magic {@code KRDBLOOM}, version (int), hash count (int),
+ * bit count (long), entry count (long), then the bit array, bit {@code i} being
+ * {@code 1 << (i % 8)} of byte {@code i / 8}.
+ */
+public final class BreachedPasswordFilter {
+
+    static final long MAGIC = 0x4B5244424C4F4F4DL;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int MAX_HASH_COUNT = 30;
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final MappedByteBuffer[] segments;
+    private final long bitCount;
+    private final int hashCount;
+    private final long entryCount;
+
+    private BreachedPasswordFilter(MappedByteBuffer[] segments, long bitCount, int hashCount, long entryCount) {
+        this.segments = segments;
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Maps a filter file. The file is not read beyond its header until passwords are checked.
+     *
+     * @throws IOException if the file cannot be read or is not a filter file of this version
+     */
+    public static BreachedPasswordFilter open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            if (header.hasRemaining() || header.getLong(0) != MAGIC) {
+                throw new IOException(file + " is not a breached password filter");
+            }
+            int version = header.getInt(8);
+            int hashCount = header.getInt(12);
+            long bitCount = header.getLong(16);
+            long entryCount = header.getLong(24);
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported filter version " + version);
+            }
+            if (hashCount < 1 || hashCount > MAX_HASH_COUNT || bitCount < 1
+                    || channel.size() != HEADER_BYTES + byteCount(bitCount)) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+            // The mapping stays valid after the channel is closed
+            return new BreachedPasswordFilter(map(channel, FileChannel.MapMode.READ_ONLY, bitCount),
+                    bitCount, hashCount, entryCount);
+        }
+    }
+
+    /**
+     * Whether the password may be in the filter. {@code false} is definite.
+     */
+    public boolean mightContain(CharSequence password) {
+        long h1 = hash(password, SEED_1);
+        long h2 = hash(password, SEED_2);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(h1, h2, i, bitCount);
+            long position = bit >>> 3;
+            byte value = segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+            if ((value & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    static long byteCount(long bitCount) {
+        return (bitCount + 7) >>> 3;
+    }
+
+    /**
+     * Maps the bit array of a filter with {@code bitCount} bits, in segments of at most 1 GiB.
+     */
+    static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long bitCount) throws IOException {
+        long bytes = byteCount(bitCount);
+        int count = (int) ((bytes + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long offset = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(mode, HEADER_BYTES + offset, Math.min(SEGMENT_MASK + 1, bytes - offset));
+        }
+        return segments;
+    }
+
+    /**
+     * Sets the bits of {@code password} in a writable mapping from {@link #map}.
+     */
+    static void add(MappedByteBuffer[] segments, long bitCount, int hashCount, CharSequence password) {
+        long h1 = hash(password, SEED_1);
+        long h2 = hash(password, SEED_2);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(h1, h2, i, bitCount);
+            long position = bit >>> 3;
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            int offset = (int) (position & SEGMENT_MASK);
+            segment.put(offset, (byte) (segment.get(offset) | (1 << (bit & 7))));
+        }
+    }
+
+    /**
+     * Bit probed by hash function {@code i}, derived from two base hashes (Kirsch-Mitzenmacher).
+     */
+    private static long bitIndex(long h1, long h2, int i, long bitCount) {
+        return Long.remainderUnsigned(h1 + i * (h2 | 1), bitCount);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars, finished with the MurmurHash3 mixer.
+     */
+    private static long hash(CharSequence value, long seed) {
+        long h = seed ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
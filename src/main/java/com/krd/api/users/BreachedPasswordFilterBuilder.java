@@ -0,0 +1,129 @@
+package com.krd.api.users;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds a {@link BreachedPasswordFilter} file from a local plain-text password list, one
+ * password per line (UTF-8; undecodable bytes are replaced, empty lines skipped).
+ *
+ * <p>The list is read twice: once to count the passwords and size the filter for the requested
+ * false positive rate, once to set their bits in a memory-mapped output file. The result is
+ * written next to the output and moved into place when complete, so a running application that
+ * has the old file mapped is not affected.
+ *
+ * <p>Run through the {@code breachedPasswordFilter} Gradle task, or directly with
+ * {@code --input=<list> --output=<filter> [--fpp=0.001]}.
+ */
+public final class BreachedPasswordFilterBuilder {
+
+    /**
+     * Default false positive rate: one strong password in a thousand is wrongly rejected.
+     */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.001;
+
+    private BreachedPasswordFilterBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        if (options.getOrDefault("input", "").isEmpty() || options.getOrDefault("output", "").isEmpty()) {
+            throw new IllegalArgumentException("Usage: --input=<password list> --output=<filter file> [--fpp=0.001]");
+        }
+        Path input = Path.of(options.get("input"));
+        Path output = Path.of(options.get("output"));
+        double fpp = Double.parseDouble(options.getOrDefault("fpp", String.valueOf(DEFAULT_FALSE_POSITIVE_RATE)));
+
+        long start = System.nanoTime();
+        BreachedPasswordFilter filter = build(input, output, fpp);
+        System.out.printf("Wrote %s: %,d passwords, %,d bits (%,d MiB), %d hashes, in %d s%n",
+                output, filter.getEntryCount(), filter.getBitCount(),
+                BreachedPasswordFilter.byteCount(filter.getBitCount()) >> 20, filter.getHashCount(),
+                (System.nanoTime() - start) / 1_000_000_000L);
+    }
+
+    /**
+     * Builds a filter of every password in {@code input} with false positive rate {@code fpp}
+     * and writes it to {@code output}, replacing any existing file.
+     *
+     * @return the written filter, opened read-only
+     */
+    public static BreachedPasswordFilter build(Path input, Path output, double fpp) throws IOException {
+        if (!(fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1, got " + fpp);
+        }
+        long entries = countPasswords(input);
+        // Optimal size and hash count for n entries at rate p: m = -n ln p / (ln 2)^2, k = m / n ln 2
+        long bitCount = Math.max(64, (long) Math.ceil(-Math.max(entries, 1) * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        int hashCount = (int) Math.max(1, Math.min(BreachedPasswordFilter.MAX_HASH_COUNT,
+                Math.round((double) bitCount / Math.max(entries, 1) * Math.log(2))));
+
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(BreachedPasswordFilter.HEADER_BYTES)
+                    .putLong(BreachedPasswordFilter.MAGIC)
+                    .putInt(BreachedPasswordFilter.VERSION)
+                    .putInt(hashCount)
+                    .putLong(bitCount)
+                    .putLong(entries)
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            // Mapping read-write grows the file to its full size, zero-filled
+            MappedByteBuffer[] segments = BreachedPasswordFilter.map(channel, FileChannel.MapMode.READ_WRITE, bitCount);
+            try (BufferedReader reader = open(input)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (!line.isEmpty()) {
+                        BreachedPasswordFilter.add(segments, bitCount, hashCount, line);
+                    }
+                }
+            }
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return BreachedPasswordFilter.open(output);
+    }
+
+    private static long countPasswords(Path input) throws IOException {
+        long count = 0;
+        try (BufferedReader reader = open(input)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isEmpty()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static BufferedReader open(Path input) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(input), decoder), 1 << 16);
+    }
+}
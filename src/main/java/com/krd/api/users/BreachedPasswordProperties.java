@@ -0,0 +1,29 @@
+package com.krd.api.users;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Settings for {@link BreachedPasswords} ({@code app.security.breached-passwords.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.breached-passwords")
+@Getter
+@Setter
+public class BreachedPasswordProperties {
+
+    /**
+     * Reject passwords found in the filter at registration and password change.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Bloom filter file built by {@code ./gradlew breachedPasswordFilter}. Without a file no
+     * password is rejected; a configured file that cannot be opened fails startup.
+     */
+    private Path file;
+}
@@ -0,0 +1,61 @@
+package com.krd.api.users;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Rejects known-breached passwords, looked up in a local {@link BreachedPasswordFilter} so that
+ * no password (or hash prefix of one) leaves the application.
+ *
+ * <p>The filter file is mapped once at startup; its pages are loaded lazily by the operating
+ * system and shared between application instances on the same host. Being a Bloom filter, it
+ * wrongly rejects a small, configurable share of passwords that were never breached.
+ */
+@Component
+@Slf4j
+public class BreachedPasswords {
+
+    private final BreachedPasswordFilter filter;
+
+    public BreachedPasswords(BreachedPasswordProperties properties) {
+        this(open(properties));
+    }
+
+    BreachedPasswords(BreachedPasswordFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Throws {@link BreachedPasswordException} if the password is in the filter.
+     */
+    public void check(CharSequence password) {
+        if (isBreached(password)) {
+            throw new BreachedPasswordException();
+        }
+    }
+
+    public boolean isBreached(CharSequence password) {
+        return filter != null && password != null && filter.mightContain(password);
+    }
+
+    private static BreachedPasswordFilter open(BreachedPasswordProperties properties) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        if (properties.getFile() == null) {
+            log.warn("No breached password filter configured (app.security.breached-passwords.file); breached passwords are accepted");
+            return null;
+        }
+        try {
+            BreachedPasswordFilter filter = BreachedPasswordFilter.open(properties.getFile());
+            log.info("Mapped breached password filter {}: {} passwords, {} MiB",
+                    properties.getFile(), filter.getEntryCount(), BreachedPasswordFilter.byteCount(filter.getBitCount()) >> 20);
+            return filter;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open breached password filter " + properties.getFile(), e);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.krd.api.users;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The password policy ({@link PasswordRuleProperties}) compiled into lookup tables, so that a
+ * password is checked against every rule in one scan of its characters without allocating.
+ *
+ * <p>Per character, the scan looks up its class (uppercase, lowercase, digit, special) in a
+ * table, extends the current run of repeated characters, and advances an Aho-Corasick automaton
+ * over the dictionary words. The automaton is compiled into a dense transition table, one
+ * array read per character, so its cost does not depend on the number of words. Letters are
+ * matched case-insensitively and common substitutions ({@code 0} for {@code o}, {@code @} and
+ * {@code 4} for {@code a}, ...) are undone first. Any character other than a letter or a
+ * digit counts as special.
+ *
+ * <p>Similarity to the user's email and username differs per call and cannot be compiled. Their
+ * character pairs are hashed into a 64-bit set up front, and the scan tracks how many consecutive
+ * pairs of the password are in it. Only if that reaches a possible shared run of
+ * {@code min-user-attribute-match} characters are the strings compared along every alignment.
+ *
+ * <p>{@link #validate} returns all violations at once as a bit set of {@link PasswordRule}s;
+ * only {@link #check} allocates, and only to report a violation.
+ */
+@Component
+@Slf4j
+public class CompiledPasswordPolicy {
+
+    private static final int ALPHABET = 26;
+    private static final int UPPERCASE = 1;
+    private static final int LOWERCASE = 2;
+    private static final int DIGIT = 4;
+    private static final int SPECIAL = 8;
+
+    private static final byte[] ASCII_CLASSES = new byte[128];
+    private static final byte[] ASCII_LETTERS = new byte[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_CLASSES[c] = (byte) (c >= 'A' && c <= 'Z' ? UPPERCASE
+                    : c >= 'a' && c <= 'z' ? LOWERCASE
+                    : c >= '0' && c <= '9' ? DIGIT
+                    : Character.isISOControl(c) ? 0
+                    : SPECIAL);
+            ASCII_LETTERS[c] = (byte) (c >= 'A' && c <= 'Z' ? c - 'A' : c >= 'a' && c <= 'z' ? c - 'a' : -1);
+        }
+        String substitutions = "0o1i3e4a5s7t@a$s";
+        for (int i = 0; i < substitutions.length(); i += 2) {
+            ASCII_LETTERS[substitutions.charAt(i)] = (byte) (substitutions.charAt(i + 1) - 'a');
+        }
+    }
+
+    private final int minLength;
+    private final int maxLength;
+    private final int requiredClasses;
+    private final int maxRepeats;
+    private final boolean rejectUserAttributes;
+    private final int minUserAttributeMatch;
+    private final int[] transitions;
+    private final boolean[] matches;
+
+    public CompiledPasswordPolicy(PasswordRuleProperties properties) {
+        this.minLength = properties.getMinLength();
+        this.maxLength = properties.getMaxLength();
+        this.requiredClasses = (properties.isRequireUppercase() ? UPPERCASE : 0)
+                | (properties.isRequireLowercase() ? LOWERCASE : 0)
+                | (properties.isRequireDigit() ? DIGIT : 0)
+                | (properties.isRequireSpecialChar() ? SPECIAL : 0);
+        this.maxRepeats = properties.getMaxRepeats() > 0 ? properties.getMaxRepeats() : Integer.MAX_VALUE;
+        this.rejectUserAttributes = properties.isRejectUserAttributes();
+        this.minUserAttributeMatch = Math.max(2, properties.getMinUserAttributeMatch());
+
+        List<int[]> trie = buildTrie(dictionaryWords(properties), Math.max(1, properties.getMinDictionaryWordLength()));
+        BitSet terminal = new BitSet();
+        for (int state = 0; state < trie.size(); state++) {
+            if (trie.get(state)[ALPHABET] != 0) {
+                terminal.set(state);
+            }
+        }
+        if (terminal.isEmpty()) {
+            this.transitions = null;
+            this.matches = null;
+        } else {
+            this.transitions = new int[trie.size() * ALPHABET];
+            this.matches = new boolean[trie.size()];
+            compileAutomaton(trie, terminal, transitions, matches);
+            log.info("Compiled password dictionary: {} words, {} states", terminal.cardinality(), trie.size());
+        }
+    }
+
+    /**
+     * Checks a password against every rule.
+     *
+     * @param email    the user's email, or {@code null}
+     * @param username the user's username, or {@code null}
+     * @return violated rules as a bit set of {@link PasswordRule#bit()}s, {@code 0} if none
+     */
+    public int validate(CharSequence password, CharSequence email, CharSequence username) {
+        int length = password == null ? 0 : password.length();
+        int violations = 0;
+        if (length < minLength) {
+            violations |= PasswordRule.TOO_SHORT.bit();
+        }
+        if (length > maxLength) {
+            violations |= PasswordRule.TOO_LONG.bit();
+        }
+
+        int emailLength = localPartLength(email);
+        int usernameLength = lengthOf(username);
+        long attributePairs = rejectUserAttributes
+                ? pairsOf(email, emailLength) | pairsOf(username, usernameLength)
+                : 0;
+        boolean attributesCompared = false;
+        boolean similarToUser = false;
+
+        int classes = 0;
+        int run = 0;
+        char previous = 0;
+        int sharedPairs = 0;
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            classes |= c < 128 ? ASCII_CLASSES[c] : classOf(c);
+
+            if (attributePairs != 0 && i > 0) {
+                sharedPairs = (attributePairs & pairBit(previous, c)) != 0 ? sharedPairs + 1 : 0;
+                if (sharedPairs >= minUserAttributeMatch - 1 && !attributesCompared) {
+                    attributesCompared = true;
+                    similarToUser = sharesRun(password, email, emailLength) || sharesRun(password, username, usernameLength);
+                }
+            }
+
+            run = i > 0 && c == previous ? run + 1 : 1;
+            if (run > maxRepeats) {
+                violations |= PasswordRule.TOO_MANY_REPEATS.bit();
+            }
+            previous = c;
+
+            if (transitions != null) {
+                int letter = c < 128 ? ASCII_LETTERS[c] : -1;
+                state = letter < 0 ? 0 : transitions[state * ALPHABET + letter];
+                if (matches[state]) {
+                    violations |= PasswordRule.DICTIONARY_WORD.bit();
+                }
+            }
+        }
+
+        int missing = requiredClasses & ~classes;
+        if ((missing & UPPERCASE) != 0) {
+            violations |= PasswordRule.MISSING_UPPERCASE.bit();
+        }
+        if ((missing & LOWERCASE) != 0) {
+            violations |= PasswordRule.MISSING_LOWERCASE.bit();
+        }
+        if ((missing & DIGIT) != 0) {
+            violations |= PasswordRule.MISSING_DIGIT.bit();
+        }
+        if ((missing & SPECIAL) != 0) {
+            violations |= PasswordRule.MISSING_SPECIAL_CHAR.bit();
+        }
+
+        if (similarToUser) {
+            violations |= PasswordRule.SIMILAR_TO_USER.bit();
+        }
+        return violations;
+    }
+
+    /**
+     * Throws {@link PasswordPolicyException} listing every violated rule, if any.
+     */
+    public void check(CharSequence password, CharSequence email, CharSequence username) {
+        int violations = validate(password, email, username);
+        if (violations != 0) {
+            List<PasswordRule> rules = PasswordRule.of(violations);
+            throw new PasswordPolicyException(rules, rules.stream()
+                    .map(rule -> rule.message(limitOf(rule)))
+                    .collect(Collectors.joining("; ", "Password ", ".")));
+        }
+    }
+
+    private int limitOf(PasswordRule rule) {
+        return switch (rule) {
+            case TOO_SHORT -> minLength;
+            case TOO_LONG -> maxLength;
+            case TOO_MANY_REPEATS -> maxRepeats;
+            default -> 0;
+        };
+    }
+
+    private static int classOf(char c) {
+        if (Character.isUpperCase(c)) {
+            return UPPERCASE;
+        }
+        if (Character.isLowerCase(c)) {
+            return LOWERCASE;
+        }
+        if (Character.isLetterOrDigit(c)) {
+            return Character.isDigit(c) ? DIGIT : 0;
+        }
+        return Character.isISOControl(c) ? 0 : SPECIAL;
+    }
+
+    /**
+     * Whether the password and the first {@code attributeLength} characters of the attribute
+     * share a run of {@link #minUserAttributeMatch} characters, ignoring case.
+     */
+    private boolean sharesRun(CharSequence password, CharSequence attribute, int attributeLength) {
+        int length = password.length();
+        if (attributeLength < minUserAttributeMatch || length < minUserAttributeMatch) {
+            return false;
+        }
+        // Diagonal "offset" pairs password[i] with attribute[i + offset]
+        for (int offset = minUserAttributeMatch - length; offset <= attributeLength - minUserAttributeMatch; offset++) {
+            int run = 0;
+            for (int i = Math.max(0, -offset); i < length && i + offset < attributeLength; i++) {
+                if (foldCase(password.charAt(i)) != foldCase(attribute.charAt(i + offset))) {
+                    run = 0;
+                } else if (++run >= minUserAttributeMatch) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Set of the case-folded character pairs in the first {@code length} characters, hashed to 64 bits.
+     */
+    private static long pairsOf(CharSequence value, int length) {
+        long pairs = 0;
+        for (int i = 1; i < length; i++) {
+            pairs |= pairBit(value.charAt(i - 1), value.charAt(i));
+        }
+        return pairs;
+    }
+
+    private static long pairBit(char first, char second) {
+        return 1L << ((foldCase(first) * 31 + foldCase(second)) * 0x9E3779B1 >>> 26);
+    }
+
+    private static char foldCase(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static int lengthOf(CharSequence value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static int localPartLength(CharSequence email) {
+        int length = lengthOf(email);
+        for (int i = 0; i < length; i++) {
+            if (email.charAt(i) == '@') {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static List<String> dictionaryWords(PasswordRuleProperties properties) {
+        List<String> words = new ArrayList<>(properties.getDictionaryWords());
+        if (properties.getDictionaryFile() != null) {
+            try (Stream<String> lines = Files.lines(properties.getDictionaryFile())) {
+                lines.forEach(words::add);
+            } catch (IOException | UncheckedIOException e) {
+                throw new IllegalStateException("Cannot read password dictionary " + properties.getDictionaryFile(), e);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Trie of the usable words. Each state is {@link #ALPHABET} child states (-1 for none)
+     * followed by a terminal flag.
+     */
+    private static List<int[]> buildTrie(List<String> words, int minWordLength) {
+        List<int[]> trie = new ArrayList<>();
+        trie.add(newState());
+        int skipped = 0;
+        for (String word : words) {
+            String stripped = word.strip();
+            if (stripped.length() < minWordLength || !stripped.chars().allMatch(c -> c < 128 && ASCII_LETTERS[c] >= 0)) {
+                skipped += stripped.isEmpty() ? 0 : 1;
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < stripped.length(); i++) {
+                int letter = ASCII_LETTERS[stripped.charAt(i)];
+                if (trie.get(state)[letter] < 0) {
+                    trie.get(state)[letter] = trie.size();
+                    trie.add(newState());
+                }
+                state = trie.get(state)[letter];
+            }
+            trie.get(state)[ALPHABET] = 1;
+        }
+        if (skipped > 0) {
+            log.warn("Ignored {} password dictionary words shorter than {} characters or with characters other than a-z",
+                    skipped, minWordLength);
+        }
+        return trie;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET + 1];
+        Arrays.fill(state, 0, ALPHABET, -1);
+        return state;
+    }
+
+    /**
+     * Resolves failure links breadth-first into a complete transition table, and marks the
+     * states at which some word ends.
+     */
+    private static void compileAutomaton(List<int[]> trie, BitSet terminal, int[] transitions, boolean[] matches) {
+        int[] failure = new int[trie.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int letter = 0; letter < ALPHABET; letter++) {
+            int child = trie.get(0)[letter];
+            transitions[letter] = Math.max(child, 0);
+            if (child > 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            matches[state] = terminal.get(state) || matches[failure[state]];
+            for (int letter = 0; letter < ALPHABET; letter++) {
+                int child = trie.get(state)[letter];
+                int fallback = transitions[failure[state] * ALPHABET + letter];
+                if (child < 0) {
+                    transitions[state * ALPHABET + letter] = fallback;
+                } else {
+                    transitions[state * ALPHABET + letter] = child;
+                    failure[child] = fallback;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.krd.api.users;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * {@link UserEventSink} that appends each event as one JSON line to
+ * {@code app.user-outbox.file-path} ({@code app.user-outbox.sink: file}). Useful locally and as a
+ * hand-off point for a log shipper.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.user-outbox", name = "sink", havingValue = "file")
+public class FileUserEventSink implements UserEventSink {
+
+    private final Path path;
+
+    public FileUserEventSink(UserOutboxProperties properties) {
+        this.path = properties.getFilePath();
+    }
+
+    @Override
+    public synchronized void send(List<UserOutboxMessage> messages) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        List<String> lines = messages.stream().map(UserOutboxMessage::payload).toList();
+        Files.write(path, lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
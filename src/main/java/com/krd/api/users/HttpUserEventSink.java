@@ -0,0 +1,47 @@
+package com.krd.api.users;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@link UserEventSink} that POSTs each batch as a JSON array to {@code app.user-outbox.http-url}
+ * ({@code app.user-outbox.sink: http}). Any non-2xx response or I/O error fails the batch, which
+ * the relay then retries.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.user-outbox", name = "sink", havingValue = "http")
+public class HttpUserEventSink implements UserEventSink {
+
+    private final RestClient restClient;
+    private final String url;
+
+    public HttpUserEventSink(RestClient.Builder restClientBuilder, UserOutboxProperties properties) {
+        if (properties.getHttpUrl() == null || properties.getHttpUrl().isBlank()) {
+            throw new IllegalStateException("app.user-outbox.http-url is required for the http sink");
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getHttpTimeout());
+        requestFactory.setReadTimeout(properties.getHttpTimeout());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.url = properties.getHttpUrl();
+    }
+
+    @Override
+    public void send(List<UserOutboxMessage> messages) {
+        String body = messages.stream()
+                .map(UserOutboxMessage::payload)
+                .collect(Collectors.joining(",", "[", "]"));
+        restClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
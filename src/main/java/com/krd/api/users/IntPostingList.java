@@ -0,0 +1,72 @@
+package com.krd.api.users;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of primitive int ids used as a posting list by {@link UserSearchIndex}.
+ * Appends in id order are O(1); out-of-order inserts and removals shift the backing array.
+ * Not thread-safe; callers guard access.
+ */
+final class IntPostingList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    boolean add(int id) {
+        if (size == 0 || id > values[size - 1]) {
+            ensureCapacity();
+            values[size++] = id;
+            return true;
+        }
+        int pos = Arrays.binarySearch(values, 0, size, id);
+        if (pos >= 0) {
+            return false;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = id;
+        size++;
+        return true;
+    }
+
+    boolean remove(int id) {
+        int pos = Arrays.binarySearch(values, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        size--;
+        if (size > 16 && size < values.length / 4) {
+            values = Arrays.copyOf(values, values.length / 2);
+        }
+        return true;
+    }
+
+    /**
+     * Position of {@code id} at or after {@code from}, as {@link Arrays#binarySearch(int[], int, int, int)}
+     * returns it: negative (minus the insertion point, minus one) if absent. Intersections walk a
+     * smaller list and pass the previous position back as {@code from}.
+     */
+    int search(int id, int from) {
+        return Arrays.binarySearch(values, from, size, id);
+    }
+
+    private void ensureCapacity() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.krd.api.users;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default {@link UserEventSink}: logs each event ({@code app.user-outbox.sink: log}).
+ * A stand-in until a real consumer is configured.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.user-outbox", name = "sink", havingValue = "log", matchIfMissing = true)
+public class LoggingUserEventSink implements UserEventSink {
+
+    @Override
+    public void send(List<UserOutboxMessage> messages) {
+        for (UserOutboxMessage message : messages) {
+            log.info("User event {}", message.payload());
+        }
+    }
+}
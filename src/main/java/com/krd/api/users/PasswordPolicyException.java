@@ -0,0 +1,20 @@
+package com.krd.api.users;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown when a new password violates the {@link CompiledPasswordPolicy}. The message lists every
+ * violated rule. Mapped to 400 Bad Request.
+ */
+@Getter
+public class PasswordPolicyException extends RuntimeException {
+
+    private final List<PasswordRule> violations;
+
+    public PasswordPolicyException(List<PasswordRule> violations, String message) {
+        super(message);
+        this.violations = List.copyOf(violations);
+    }
+}
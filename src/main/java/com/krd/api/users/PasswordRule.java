@@ -0,0 +1,51 @@
+package com.krd.api.users;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rules of the {@link CompiledPasswordPolicy}. A validation result is a bit set of violated rules,
+ * bit {@code 1 << ordinal()} for each.
+ */
+public enum PasswordRule {
+
+    TOO_SHORT("must be at least %d characters long"),
+    TOO_LONG("must not exceed %d characters"),
+    MISSING_UPPERCASE("must contain at least one uppercase letter"),
+    MISSING_LOWERCASE("must contain at least one lowercase letter"),
+    MISSING_DIGIT("must contain at least one digit"),
+    MISSING_SPECIAL_CHAR("must contain at least one special character"),
+    TOO_MANY_REPEATS("must not repeat a character more than %d times in a row"),
+    DICTIONARY_WORD("must not contain a common word"),
+    SIMILAR_TO_USER("must not contain parts of the email address or username");
+
+    private final String message;
+
+    PasswordRule(String message) {
+        this.message = message;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Message for a violation; {@code %d} is replaced by the rule's configured limit.
+     */
+    String message(int limit) {
+        return message.formatted(limit);
+    }
+
+    /**
+     * The rules in a bit set returned by {@link CompiledPasswordPolicy#validate}.
+     */
+    public static List<PasswordRule> of(int violations) {
+        List<PasswordRule> rules = new ArrayList<>(Integer.bitCount(violations));
+        for (PasswordRule rule : values()) {
+            if ((violations & rule.bit()) != 0) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,65 @@
+package com.krd.api.users;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Password rules compiled into the {@link CompiledPasswordPolicy} ({@code app.security.password.*}).
+ *
+ * <p>The length and character class settings are the starter's own password policy settings,
+ * read again here so both enforce the same values. The remaining rules are specific to this
+ * application and off by default.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.password")
+@Getter
+@Setter
+public class PasswordRuleProperties {
+
+    private int minLength = 8;
+
+    private int maxLength = 128;
+
+    private boolean requireUppercase = true;
+
+    private boolean requireLowercase = true;
+
+    private boolean requireDigit = true;
+
+    private boolean requireSpecialChar = true;
+
+    /**
+     * Longest allowed run of one repeated character, e.g. 3 rejects {@code aaaa}. 0 disables the rule.
+     */
+    private int maxRepeats = 0;
+
+    /**
+     * Words that must not appear in a password, case-insensitively and with common digit and
+     * symbol substitutions ({@code p4$$w0rd}) undone. Only letters a-z count.
+     */
+    private List<String> dictionaryWords = new ArrayList<>();
+
+    /**
+     * File with further dictionary words, one per line.
+     */
+    private Path dictionaryFile;
+
+    /**
+     * Shorter dictionary words are ignored, as they occur by chance in too many passwords.
+     */
+    private int minDictionaryWordLength = 4;
+
+    /**
+     * Reject passwords sharing a run of {@link #minUserAttributeMatch} characters with the
+     * user's email (the part before {@code @}) or username, case-insensitively.
+     */
+    private boolean rejectUserAttributes = false;
+
+    private int minUserAttributeMatch = 4;
+}
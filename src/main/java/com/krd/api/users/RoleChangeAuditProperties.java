@@ -0,0 +1,41 @@
+package com.krd.api.users;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for {@link RoleChangeLogPartitionManager} ({@code app.role-change-audit.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.role-change-audit")
+@Getter
+@Setter
+public class RoleChangeAuditProperties {
+
+    /**
+     * Months of audit history to keep, counting the current month. 0 keeps everything.
+     */
+    private int retentionMonths = 0;
+
+    /**
+     * Move expired months into archive tables instead of dropping them.
+     */
+    private boolean archive = true;
+
+    /**
+     * Monthly partitions to keep created ahead of the current month (MySQL only).
+     */
+    private int monthsAhead = 3;
+
+    /**
+     * Cron expression for partition maintenance and retention.
+     */
+    private String maintenanceCron = "0 30 2 * * *";
+
+    /**
+     * Rows deleted per transaction when the table is not partitioned.
+     */
+    private int batchSize = 1000;
+}
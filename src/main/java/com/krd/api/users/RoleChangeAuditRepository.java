@@ -0,0 +1,138 @@
+package com.krd.api.users;
+
+import com.krd.api.common.CursorPage;
+import com.krd.api.common.InvalidCursorException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read side of the role change audit trail written by the starter's {@code RoleChangeLogRepository}.
+ *
+ * <p>Queries run directly against {@code role_change_logs} so that any combination of filters
+ * becomes a single statement served by one of the V4 composite indexes. Results are ordered
+ * newest first and paged with a {@code (changed_at, id)} keyset cursor, so page N costs the same
+ * as page 1 and a time range lets MySQL prune to the monthly partitions it touches.
+ */
+@Repository
+public class RoleChangeAuditRepository {
+
+    private static final String SELECT = "SELECT id, user_id, user_email, changed_by_user_id, changed_by_email, "
+            + "role, action, changed_at FROM role_change_logs WHERE 1 = 1";
+
+    private static final RowMapper<RoleChangeLogEntry> ROW_MAPPER = (rs, rowNum) -> new RoleChangeLogEntry(
+            rs.getLong("id"),
+            rs.getObject("user_id", Long.class),
+            rs.getString("user_email"),
+            rs.getObject("changed_by_user_id", Long.class),
+            rs.getString("changed_by_email"),
+            rs.getString("role"),
+            rs.getString("action"),
+            rs.getTimestamp("changed_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RoleChangeAuditRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns up to {@code limit} entries matching {@code filter}, starting after {@code cursor}
+     * (null for the first page).
+     */
+    public CursorPage<RoleChangeLogEntry> find(RoleChangeLogFilter filter, String cursor, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+
+        if (filter.userId() != null) {
+            sql.append(" AND user_id = ?");
+            args.add(filter.userId());
+        }
+        if (filter.changedByUserId() != null) {
+            sql.append(" AND changed_by_user_id = ?");
+            args.add(filter.changedByUserId());
+        }
+        if (filter.role() != null) {
+            sql.append(" AND role = ?");
+            args.add(filter.role().trim().toUpperCase(Locale.ROOT));
+        }
+        if (filter.action() != null) {
+            sql.append(" AND action = ?");
+            args.add(filter.action().trim().toUpperCase(Locale.ROOT));
+        }
+        if (filter.from() != null) {
+            sql.append(" AND changed_at >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND changed_at < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Position after = decode(cursor);
+            // Expanded form of (changed_at, id) < (?, ?); MySQL turns this into an index range
+            sql.append(" AND (changed_at < ? OR (changed_at = ? AND id < ?))");
+            args.add(Timestamp.valueOf(after.changedAt()));
+            args.add(Timestamp.valueOf(after.changedAt()));
+            args.add(after.id());
+        }
+
+        // Fetch one extra row to know whether another page exists
+        sql.append(" ORDER BY changed_at DESC, id DESC LIMIT ?");
+        args.add(limit + 1);
+
+        List<RoleChangeLogEntry> rows = jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<RoleChangeLogEntry> page = rows.subList(0, limit);
+        RoleChangeLogEntry last = page.get(limit - 1);
+        return new CursorPage<>(List.copyOf(page), encode(new Position(last.changedAt(), last.id())));
+    }
+
+    /**
+     * Clears references to users that are about to be hard-deleted, keeping their audit rows.
+     * Replaces the V1 {@code ON DELETE SET NULL} foreign keys, which partitioned tables cannot have.
+     */
+    public void detachUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String in = "(" + String.join(", ", Collections.nCopies(userIds.size(), "?")) + ")";
+        Object[] args = userIds.toArray();
+        jdbcTemplate.update("UPDATE role_change_logs SET user_id = NULL WHERE user_id IN " + in, args);
+        jdbcTemplate.update("UPDATE role_change_logs SET changed_by_user_id = NULL WHERE changed_by_user_id IN " + in, args);
+    }
+
+    private record Position(LocalDateTime changedAt, long id) {
+    }
+
+    private static String encode(Position position) {
+        String raw = position.changedAt() + "|" + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Position(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.krd.api.users;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the role change audit trail. Emails are denormalized at write time, so they are
+ * kept even after the referenced users are purged (ids are then null).
+ */
+public record RoleChangeLogEntry(
+        Long id,
+        Long userId,
+        String userEmail,
+        Long changedByUserId,
+        String changedByEmail,
+        String role,
+        String action,
+        LocalDateTime changedAt) {
+}
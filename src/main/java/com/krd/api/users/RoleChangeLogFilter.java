@@ -0,0 +1,16 @@
+package com.krd.api.users;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter for role change audit queries. Every criterion is optional; {@code from} is inclusive
+ * and {@code to} exclusive.
+ */
+public record RoleChangeLogFilter(
+        Long userId,
+        Long changedByUserId,
+        String role,
+        String action,
+        LocalDateTime from,
+        LocalDateTime to) {
+}
@@ -0,0 +1,275 @@
+package com.krd.api.users;
+
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Storage maintenance for {@code role_change_logs}.
+ *
+ * <p>On MySQL the table is range-partitioned by month (V5). This component keeps
+ * {@code months-ahead} monthly partitions split off the empty {@code p_future} partition, and
+ * removes months older than {@code retention-months} in O(1): the partition is either exchanged
+ * into its own {@code role_change_logs_archive_<partition>} table ({@code archive: true}) or
+ * dropped.
+ *
+ * <p>On other databases (H2 in tests) the table is not partitioned and expired rows are
+ * copied to {@code role_change_logs_archive} (if archiving) and deleted in batches instead.
+ *
+ * <p>Scheduled runs hold the {@value #JOB_NAME} lease from {@link JobLeaseManager}, so the DDL is
+ * issued by one node at a time.
+ */
+@Slf4j
+@Component
+@Workload(WorkloadClass.BATCH)
+public class RoleChangeLogPartitionManager {
+
+    static final String JOB_NAME = "role-change-log-maintenance";
+    static final String TABLE = "role_change_logs";
+    static final String FUTURE_PARTITION = "p_future";
+    static final String FALLBACK_ARCHIVE_TABLE = TABLE + "_archive";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RoleChangeAuditProperties properties;
+    private final JobLeaseManager jobLeaseManager;
+    private final Clock clock;
+
+    private volatile Boolean mysql;
+
+    public RoleChangeLogPartitionManager(JdbcTemplate jdbcTemplate,
+                                         TransactionTemplate transactionTemplate,
+                                         RoleChangeAuditProperties properties,
+                                         JobLeaseManager jobLeaseManager) {
+        this(jdbcTemplate, transactionTemplate, properties, jobLeaseManager, Clock.systemDefaultZone());
+    }
+
+    RoleChangeLogPartitionManager(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  RoleChangeAuditProperties properties,
+                                  JobLeaseManager jobLeaseManager,
+                                  Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.jobLeaseManager = jobLeaseManager;
+        this.clock = clock;
+    }
+
+    /**
+     * A range partition; {@code upperBound} is exclusive and null for {@code MAXVALUE}.
+     */
+    record Partition(String name, LocalDate upperBound) {
+    }
+
+    /**
+     * Runs {@link #maintain} at startup and daily, on one node at a time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.role-change-audit.maintenance-cron:0 30 2 * * *}")
+    public void run() {
+        jobLeaseManager.runExclusive(JOB_NAME, lease -> maintain());
+    }
+
+    /**
+     * Creates upcoming monthly partitions and applies retention. Returns the number of expired
+     * partitions, or of expired rows on an unpartitioned table.
+     */
+    public int maintain() {
+        YearMonth currentMonth = YearMonth.now(clock);
+        List<Partition> partitions = partitions();
+
+        if (partitions.isEmpty()) {
+            return properties.getRetentionMonths() > 0 ? deleteExpiredRows(cutoff(currentMonth)) : 0;
+        }
+
+        String reorganize = reorganizeFutureDdl(partitions, currentMonth.plusMonths(properties.getMonthsAhead()));
+        if (reorganize != null) {
+            jdbcTemplate.execute(reorganize);
+            log.info("Split {} into monthly partitions through {}",
+                    FUTURE_PARTITION, currentMonth.plusMonths(properties.getMonthsAhead()));
+        }
+
+        if (properties.getRetentionMonths() <= 0) {
+            return 0;
+        }
+        List<Partition> expired = expiredPartitions(partitions, cutoff(currentMonth));
+        for (Partition partition : expired) {
+            expirePartition(partition);
+        }
+        return expired.size();
+    }
+
+    /**
+     * Partitions of {@code role_change_logs} in range order, or an empty list if the table is
+     * not partitioned.
+     */
+    List<Partition> partitions() {
+        if (!isMysql()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new Partition(rs.getString(1), parseBound(rs.getString(2))),
+                TABLE);
+    }
+
+    /**
+     * First day of the oldest month that is kept.
+     */
+    LocalDate cutoff(YearMonth currentMonth) {
+        return currentMonth.minusMonths(properties.getRetentionMonths() - 1L).atDay(1);
+    }
+
+    /**
+     * DDL splitting {@code p_future} into one partition per month up to and including
+     * {@code through}, or null if those partitions already exist.
+     */
+    static String reorganizeFutureDdl(List<Partition> partitions, YearMonth through) {
+        LocalDate lastBound = partitions.stream()
+                .map(Partition::upperBound)
+                .filter(bound -> bound != null)
+                .max(LocalDate::compareTo)
+                .orElse(null);
+        if (lastBound == null) {
+            return null;
+        }
+
+        StringJoiner parts = new StringJoiner(", ",
+                "ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (",
+                ", PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+        int added = 0;
+        for (YearMonth month = YearMonth.from(lastBound); !month.isAfter(through); month = month.plusMonths(1)) {
+            parts.add("PARTITION " + PARTITION_NAME.format(month)
+                    + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')");
+            added++;
+        }
+        return added == 0 ? null : parts.toString();
+    }
+
+    /**
+     * Bounded partitions that only hold rows older than {@code cutoff}.
+     */
+    static List<Partition> expiredPartitions(List<Partition> partitions, LocalDate cutoff) {
+        return partitions.stream()
+                .filter(partition -> partition.upperBound() != null && !partition.upperBound().isAfter(cutoff))
+                .toList();
+    }
+
+    private void expirePartition(Partition partition) {
+        String name = partition.name();
+        if (!properties.isArchive()) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+            log.info("Dropped role change log partition {}", name);
+            return;
+        }
+
+        String archive = TABLE + "_archive_" + name.toLowerCase(Locale.ROOT);
+        if (!tableExists(archive)) {
+            jdbcTemplate.execute("CREATE TABLE " + archive + " LIKE " + TABLE);
+            jdbcTemplate.execute("ALTER TABLE " + archive + " REMOVE PARTITIONING");
+        } else if (count(archive) > 0) {
+            // A previous run exchanged the partition but failed before dropping it
+            if (count(TABLE + " PARTITION (" + name + ")") > 0) {
+                throw new IllegalStateException("Both " + archive + " and partition " + name
+                        + " hold rows; resolve manually before retention can continue");
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+            return;
+        }
+
+        // Metadata-only swap: the partition's rows become the archive table, then the empty partition is dropped
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + name + " WITH TABLE " + archive);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+        log.info("Archived role change log partition {} to {}", name, archive);
+    }
+
+    private int deleteExpiredRows(LocalDate cutoff) {
+        if (properties.isArchive()) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + FALLBACK_ARCHIVE_TABLE
+                    + " AS SELECT * FROM " + TABLE + " WHERE 1 = 0");
+        }
+
+        int removed = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> deleteExpiredBatch(cutoff));
+            removed += batch;
+        } while (batch == properties.getBatchSize());
+
+        if (removed > 0) {
+            log.info("Removed {} role change log entries older than {}", removed, cutoff);
+        }
+        return removed;
+    }
+
+    private int deleteExpiredBatch(LocalDate cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM " + TABLE + " WHERE changed_at < ? ORDER BY id LIMIT ?",
+                Long.class, Timestamp.valueOf(cutoff.atStartOfDay()), properties.getBatchSize());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String in = " WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        if (properties.isArchive()) {
+            jdbcTemplate.update("INSERT INTO " + FALLBACK_ARCHIVE_TABLE + " SELECT * FROM " + TABLE + in, ids.toArray());
+        }
+        jdbcTemplate.update("DELETE FROM " + TABLE + in, ids.toArray());
+        return ids.size();
+    }
+
+    private boolean isMysql() {
+        if (mysql == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            mysql = product != null && product.toLowerCase(Locale.ROOT).contains("mysql");
+        }
+        return mysql;
+    }
+
+    private boolean tableExists(String table) {
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Integer.class, table);
+        return tables != null && tables > 0;
+    }
+
+    private long count(String from) {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + from, Long.class);
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Parses a RANGE COLUMNS bound as reported by information_schema, e.g. {@code '2026-11-01 00:00:00'}
+     * or {@code MAXVALUE}.
+     */
+    static LocalDate parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return LocalDate.parse(description.replace("'", "").substring(0, 10));
+    }
+}
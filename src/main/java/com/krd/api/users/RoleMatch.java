@@ -0,0 +1,11 @@
+package com.krd.api.users;
+
+/**
+ * How multiple roles are combined when filtering users by role.
+ */
+public enum RoleMatch {
+    /** Users holding every requested role (AND). */
+    ALL,
+    /** Users holding at least one requested role (OR). */
+    ANY
+}
@@ -0,0 +1,220 @@
+package com.krd.api.users;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory compressed bitmap index of active user ids per role.
+ *
+ * <p>Answers "users with role X", role intersections (AND) and unions (OR) without joining and
+ * sorting {@code user_roles}. Built from the database once the application is ready and kept
+ * current by {@link UserChangedEvent}s after each committed mutation. Soft-deleted users are
+ * removed from every bitmap. Role names are trimmed and upper-cased on the way in and on lookup,
+ * so "admin" and "ADMIN" share one bitmap.
+ *
+ * <p>Bitmaps are keyed by int, so user ids must fit in an int (AUTO_INCREMENT ids well below
+ * 2^31 in practice).
+ */
+@Slf4j
+@Component
+public class RoleMembershipIndex {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, RoaringBitmap> usersByRole = new HashMap<>();
+    private List<Change> pending;
+
+    public RoleMembershipIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Page of matching user ids (ascending) plus the total number of matches.
+     */
+    public record IdPage(List<Long> ids, long total) {
+    }
+
+    private record Change(UserSnapshot before, UserSnapshot after) {
+    }
+
+    /**
+     * Rebuilds the index from {@code user_roles}. Queries keep reading the previous bitmaps while
+     * the query runs; changes arriving meanwhile are buffered and applied to the new bitmaps in
+     * order, so a row read before a change cannot overwrite it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<String, RoaringBitmap> rebuilt = null;
+        int replayed;
+        try {
+            rebuilt = load();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                // On failure the buffered changes still apply, to the previous bitmaps
+                if (rebuilt != null) {
+                    usersByRole = rebuilt;
+                }
+                replayed = pending.size();
+                pending.forEach(change -> applyLocked(change.before(), change.after()));
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.info("Role membership index built for {} roles ({} changes replayed) in {} ms",
+                rebuilt.size(), replayed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads the memberships of all active users into fresh bitmaps.
+     */
+    Map<String, RoaringBitmap> load() {
+        Map<String, RoaringBitmap> loaded = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT ur.user_id, ur.role FROM user_roles ur "
+                        + "JOIN users u ON u.id = ur.user_id WHERE u.deleted_at IS NULL",
+                rs -> {
+                    loaded.computeIfAbsent(normalizeRole(rs.getString(2)), role -> new RoaringBitmap())
+                            .add(toIndexId(rs.getLong(1)));
+                });
+        loaded.values().forEach(RoaringBitmap::runOptimize);
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        apply(event.before(), event.after());
+    }
+
+    /**
+     * Moves a user's memberships from the {@code before} state to the {@code after} state.
+     * During a rebuild the change is buffered and applied once the rebuild completes.
+     */
+    public void apply(UserSnapshot before, UserSnapshot after) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(new Change(before, after));
+            } else {
+                applyLocked(before, after);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(UserSnapshot before, UserSnapshot after) {
+        if (before != null && before.active()) {
+            int id = toIndexId(before.id());
+            for (String role : before.roles()) {
+                RoaringBitmap bitmap = usersByRole.get(normalizeRole(role));
+                if (bitmap != null) {
+                    bitmap.remove(id);
+                }
+            }
+        }
+        if (after != null && after.active()) {
+            int id = toIndexId(after.id());
+            for (String role : after.roles()) {
+                usersByRole.computeIfAbsent(normalizeRole(role), r -> new RoaringBitmap()).add(id);
+            }
+        }
+    }
+
+    /**
+     * Returns one page of active user ids matching the given roles.
+     */
+    public IdPage find(Collection<String> roles, RoleMatch match, int page, int size) {
+        RoaringBitmap matches = combine(roles, match);
+        int total = matches.getCardinality();
+        long offset = (long) page * size;
+        if (offset >= total) {
+            return new IdPage(List.of(), total);
+        }
+
+        List<Long> ids = new ArrayList<>(size);
+        PeekableIntIterator iterator = matches.getIntIterator();
+        iterator.advanceIfNeeded(matches.select((int) offset));
+        while (iterator.hasNext() && ids.size() < size) {
+            ids.add(Integer.toUnsignedLong(iterator.next()));
+        }
+        return new IdPage(ids, total);
+    }
+
+    /**
+     * Number of active users holding the given role.
+     */
+    public long count(String role) {
+        lock.readLock().lock();
+        try {
+            return usersByRole.getOrDefault(normalizeRole(role), EMPTY).getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap combine(Collection<String> roles, RoleMatch match) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(roles.size());
+            for (String role : roles) {
+                bitmaps.add(usersByRole.getOrDefault(normalizeRole(role), EMPTY));
+            }
+            if (bitmaps.isEmpty()) {
+                return new RoaringBitmap();
+            }
+
+            // Intersect smallest-first so the working set shrinks as fast as possible
+            if (match == RoleMatch.ALL) {
+                bitmaps.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+            }
+            RoaringBitmap result = bitmaps.get(0).clone();
+            for (int i = 1; i < bitmaps.size(); i++) {
+                if (match == RoleMatch.ALL) {
+                    result.and(bitmaps.get(i));
+                } else {
+                    result.or(bitmaps.get(i));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalizeRole(String role) {
+        return role.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static int toIndexId(Long userId) {
+        return Math.toIntExact(userId);
+    }
+}
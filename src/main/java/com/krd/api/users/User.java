@@ -2,11 +2,18 @@
 package com.krd.api.users;
 
 import com.krd.starter.user.BaseUser;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
+import java.time.LocalDateTime;
+import java.util.Locale;
+
 /**
  * User entity extending BaseUser from the spring-api-starter.
  *
@@ -24,12 +31,71 @@ import lombok.experimental.SuperBuilder;
 @Getter
 @Setter
 @NoArgsConstructor
+@AllArgsConstructor
 @SuperBuilder(toBuilder = true)
 public class User extends BaseUser {
 
+    /**
+     * Lower-cased, trimmed copy of {@code email} backing case-insensitive lookups
+     * (see {@link UserRepository#findByEmail(String)}).
+     * Kept in sync automatically on persist/update; never set it directly.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "email_normalized", nullable = false, unique = true)
+    private String emailNormalized;
+
+    /**
+     * Token generation embedded in every JWT issued to this user; incrementing it revokes all
+     * outstanding tokens. Only changed through {@link UserRepository#incrementTokenGeneration(Long)},
+     * never written by entity updates.
+     */
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    @Column(name = "token_generation", nullable = false, updatable = false)
+    private int tokenGeneration = 0;
+
+    /**
+     * Time of the most recent successful login. Written behind by
+     * {@link com.krd.api.auth.LoginActivityBuffer}, never by entity updates.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "last_login_at", insertable = false, updatable = false)
+    private LocalDateTime lastLoginAt;
+
+    /**
+     * Number of successful logins. Written behind by {@link com.krd.api.auth.LoginActivityBuffer}.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "login_count", insertable = false, updatable = false)
+    private long loginCount;
+
+    /**
+     * Optimistic lock version, incremented by every entity update (including role changes).
+     * Exposed to clients as the user's ETag (see {@link UserETags}).
+     */
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version = 0L;
+
     // TODO: Add your custom fields here
     // Example:
     // @Column(name = "phone_number")
     // private String phoneNumber;
 
+    /**
+     * Normalizes an email for lookups against {@code email_normalized}.
+     * Returns null for null input.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncNormalizedEmail() {
+        this.emailNormalized = normalizeEmail(getEmail());
+    }
+
 }
@@ -0,0 +1,58 @@
+package com.krd.api.users;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Backfill progress ({@code userBackfill} health contributor, part of the readiness group).
+ *
+ * <p>Reports each registered backfill's status, percentage and row counts as details, and
+ * OUT_OF_SERVICE while a backfill whose migration {@link UserBackfillMigration#gatesReadiness()
+ * gates readiness} has not completed, so the node is kept out of rotation until then.
+ */
+@Component
+public class UserBackfillHealthIndicator implements HealthIndicator {
+
+    private final UserBackfillRepository backfillRepository;
+    private final ObjectProvider<UserBackfillMigration> migrations;
+
+    public UserBackfillHealthIndicator(UserBackfillRepository backfillRepository,
+                                       ObjectProvider<UserBackfillMigration> migrations) {
+        this.backfillRepository = backfillRepository;
+        this.migrations = migrations;
+    }
+
+    @Override
+    public Health health() {
+        Set<String> gating = migrations.stream()
+                .filter(UserBackfillMigration::gatesReadiness)
+                .map(UserBackfillMigration::getBackfillName)
+                .collect(Collectors.toSet());
+        List<UserBackfillStatus> statuses = backfillRepository.findAll();
+
+        boolean blocked = statuses.stream().anyMatch(status ->
+                status.status() != UserBackfillStatus.Status.COMPLETED && gating.contains(status.name()));
+        Health.Builder health = blocked ? Health.outOfService() : Health.up();
+        for (UserBackfillStatus status : statuses) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("status", status.status());
+            details.put("percentComplete", status.percentComplete());
+            details.put("rowsProcessed", status.rowsProcessed());
+            details.put("rowsUpdated", status.rowsUpdated());
+            details.put("gatesReadiness", gating.contains(status.name()));
+            if (status.error() != null) {
+                details.put("error", status.error());
+            }
+            health.withDetail(status.name(), details);
+        }
+        return health.build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.krd.api.users;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Flyway Java migration that backfills a user column online instead of with one big {@code UPDATE}.
+ *
+ * <p>Subclass it as a Spring {@code @Component} named after the Flyway version, e.g.
+ * {@code V17__BackfillDisplayName}, after the SQL migration that adds the (nullable) column, and
+ * implement {@link #backfill(User)}. Spring Boot hands {@code JavaMigration} beans to Flyway. The
+ * migration itself only registers the backfill in {@code user_backfills}, so startup is not held
+ * up; {@link UserBackfillRunner} then applies {@link #backfill(User)} to every user (soft-deleted
+ * ones included) in throttled keyset chunks, checkpointing after each.
+ *
+ * <p>{@link #backfill(User)} must be idempotent: a chunk that fails or is cut short by a node
+ * failure is run again from the last checkpoint, and users created after registration may
+ * already have the new value.
+ *
+ * <p>Changed users are saved through JPA, so each one's {@code @Version} is incremented like any
+ * other update: clients holding an ETag read before the backfill get 412 on their next
+ * {@code If-Match} write and must re-read the user. Return false from {@link #backfill(User)} when
+ * nothing changed to avoid that, and to avoid publishing an UPDATED event for the user.
+ */
+public abstract class UserBackfillMigration extends BaseJavaMigration {
+
+    /**
+     * Brings one user up to date and returns whether it changed anything. Changes are saved with
+     * the chunk.
+     */
+    public abstract boolean backfill(User user);
+
+    /**
+     * Whether the application reports not ready ({@code /actuator/health/readiness}) until this
+     * backfill has completed. Use it when the new code cannot serve traffic with the column half
+     * filled; otherwise check {@link UserBackfillRepository#isComplete(String)} where it matters.
+     */
+    public boolean gatesReadiness() {
+        return false;
+    }
+
+    /**
+     * Name the backfill is registered and reported under.
+     */
+    public String getBackfillName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        register(context.getConnection());
+    }
+
+    void register(Connection connection) throws SQLException {
+        long targetId;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM users");
+             ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            targetId = rs.getLong(1);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO user_backfills (name, status, target_id, registered_at) VALUES (?, 'PENDING', ?, ?)")) {
+            statement.setString(1, getBackfillName());
+            statement.setLong(2, targetId);
+            statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            statement.executeUpdate();
+        }
+    }
+}
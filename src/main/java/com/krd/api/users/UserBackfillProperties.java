@@ -0,0 +1,39 @@
+package com.krd.api.users;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link UserBackfillRunner} ({@code app.user-backfills.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.user-backfills")
+@Getter
+@Setter
+public class UserBackfillProperties {
+
+    /**
+     * Run registered backfills on this node.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How often to look for backfills that have not completed.
+     */
+    private Duration pollInterval = Duration.ofMinutes(1);
+
+    /**
+     * Users loaded, updated and checkpointed per transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Pause between chunks, leaving the database room for regular traffic (and replicas time to
+     * catch up).
+     */
+    private Duration throttle = Duration.ofMillis(100);
+}
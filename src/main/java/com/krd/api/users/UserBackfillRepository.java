@@ -0,0 +1,101 @@
+package com.krd.api.users;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Registration, checkpoints and progress of user backfills ({@code user_backfills}, see the V16
+ * migration and {@link UserBackfillMigration}).
+ */
+@Repository
+public class UserBackfillRepository {
+
+    private static final String SELECT = "SELECT name, status, last_id, target_id, rows_processed, rows_updated, "
+            + "registered_at, started_at, updated_at, completed_at, error FROM user_backfills";
+
+    private static final RowMapper<UserBackfillStatus> ROW_MAPPER = (rs, rowNum) -> new UserBackfillStatus(
+            rs.getString("name"),
+            UserBackfillStatus.Status.valueOf(rs.getString("status")),
+            rs.getLong("last_id"),
+            rs.getLong("target_id"),
+            rs.getLong("rows_processed"),
+            rs.getLong("rows_updated"),
+            toLocalDateTime(rs.getTimestamp("registered_at")),
+            toLocalDateTime(rs.getTimestamp("started_at")),
+            toLocalDateTime(rs.getTimestamp("updated_at")),
+            toLocalDateTime(rs.getTimestamp("completed_at")),
+            rs.getString("error"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    public UserBackfillRepository(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, Clock.systemDefaultZone());
+    }
+
+    UserBackfillRepository(JdbcTemplate jdbcTemplate, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    /**
+     * All registered backfills in registration order.
+     */
+    public List<UserBackfillStatus> findAll() {
+        return jdbcTemplate.query(SELECT + " ORDER BY registered_at, name", ROW_MAPPER);
+    }
+
+    public Optional<UserBackfillStatus> find(String name) {
+        return jdbcTemplate.query(SELECT + " WHERE name = ?", ROW_MAPPER, name).stream().findFirst();
+    }
+
+    /**
+     * Whether the named backfill has processed every user. False while it runs and if it was
+     * never registered.
+     */
+    public boolean isComplete(String name) {
+        return find(name).map(status -> status.status() == UserBackfillStatus.Status.COMPLETED).orElse(false);
+    }
+
+    void markRunning(String name) {
+        Timestamp now = now();
+        jdbcTemplate.update("UPDATE user_backfills SET status = 'RUNNING', started_at = COALESCE(started_at, ?), "
+                + "updated_at = ? WHERE name = ? AND status <> 'COMPLETED'", now, now, name);
+    }
+
+    /**
+     * Records a processed chunk. Runs in the chunk's transaction, so the checkpoint commits
+     * together with the users it covers.
+     */
+    void checkpoint(String name, long lastId, int processed, int updated) {
+        jdbcTemplate.update("UPDATE user_backfills SET last_id = ?, rows_processed = rows_processed + ?, "
+                        + "rows_updated = rows_updated + ?, updated_at = ?, error = NULL WHERE name = ?",
+                lastId, processed, updated, now(), name);
+    }
+
+    void markCompleted(String name) {
+        Timestamp now = now();
+        jdbcTemplate.update("UPDATE user_backfills SET status = 'COMPLETED', updated_at = ?, completed_at = ? "
+                + "WHERE name = ?", now, now, name);
+    }
+
+    void markFailed(String name, String error) {
+        jdbcTemplate.update("UPDATE user_backfills SET status = 'FAILED', updated_at = ?, error = ? WHERE name = ?",
+                now(), error == null ? null : error.substring(0, Math.min(error.length(), 1000)), name);
+    }
+
+    private Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now(clock));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp value) {
+        return value == null ? null : value.toLocalDateTime();
+    }
+}
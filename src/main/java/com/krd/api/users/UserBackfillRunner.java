@@ -0,0 +1,183 @@
+package com.krd.api.users;
+
+import com.krd.api.common.JobLease;
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Runs registered {@link UserBackfillMigration}s in the background.
+ *
+ * <p>Each backfill walks {@code users} in id order, {@code app.user-backfills.chunk-size} users per
+ * transaction: load the chunk, apply {@link UserBackfillMigration#backfill(User)}, save the changed
+ * users and advance the checkpoint, then pause for {@code throttle}. Row locks are held for one
+ * chunk only and the undo log stays small, whatever the table size. Backfills run one after
+ * another in version order under the {@value #JOB_NAME} lease (see {@link JobLeaseManager}), so
+ * only one node works on them and another resumes from the checkpoint if it dies.
+ *
+ * <p>Every user a backfill changes is published as an UPDATED {@link UserChangedEvent}, like any
+ * other write, so the change feed, the outbox and the in-memory indexes see the new values. The
+ * events are published after the chunk's writes, so the change feed's sequence lock is taken last.
+ *
+ * <p>A failed chunk, e.g. an optimistic lock conflict with a concurrent update, marks the backfill
+ * FAILED and is retried from the checkpoint on the next poll.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.user-backfills", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Workload(WorkloadClass.BATCH)
+public class UserBackfillRunner {
+
+    static final String JOB_NAME = "user-backfill";
+
+    private final ObjectProvider<UserBackfillMigration> migrations;
+    private final UserBackfillRepository backfillRepository;
+    private final UserRepository userRepository;
+    private final UserBackfillProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobLeaseManager jobLeaseManager;
+
+    public UserBackfillRunner(ObjectProvider<UserBackfillMigration> migrations,
+                              UserBackfillRepository backfillRepository,
+                              UserRepository userRepository,
+                              UserBackfillProperties properties,
+                              TransactionTemplate transactionTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              JobLeaseManager jobLeaseManager) {
+        this.migrations = migrations;
+        this.backfillRepository = backfillRepository;
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.jobLeaseManager = jobLeaseManager;
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-backfills.poll-interval:PT1M}")
+    public void run() {
+        if (!pending().isEmpty()) {
+            jobLeaseManager.runExclusive(JOB_NAME, this::runPending);
+        }
+    }
+
+    /**
+     * Runs every incomplete backfill while {@code lease} is held and returns how many users were
+     * processed.
+     */
+    public int runPending(JobLease lease) {
+        int processed = 0;
+        for (UserBackfillMigration migration : pending()) {
+            if (!lease.isHeld()) {
+                break;
+            }
+            processed += runBackfill(migration, lease);
+        }
+        return processed;
+    }
+
+    /**
+     * Registered backfills that have not completed, in version order. Registrations without a
+     * migration bean (e.g. removed from the code) are ignored.
+     */
+    List<UserBackfillMigration> pending() {
+        Set<String> incomplete = backfillRepository.findAll().stream()
+                .filter(status -> status.status() != UserBackfillStatus.Status.COMPLETED)
+                .map(UserBackfillStatus::name)
+                .collect(Collectors.toSet());
+        if (incomplete.isEmpty()) {
+            return List.of();
+        }
+        return migrations.stream()
+                .filter(migration -> incomplete.contains(migration.getBackfillName()))
+                .sorted(Comparator.comparing(UserBackfillMigration::getVersion))
+                .toList();
+    }
+
+    private int runBackfill(UserBackfillMigration migration, JobLease lease) {
+        String name = migration.getBackfillName();
+        UserBackfillStatus status = backfillRepository.find(name).orElseThrow();
+        long lastId = status.lastId();
+        backfillRepository.markRunning(name);
+        log.info("Running backfill {} from user id {} ({}% done)", name, lastId, status.percentComplete());
+
+        int processed = 0;
+        while (true) {
+            if (!lease.isHeld()) {
+                log.warn("Lost the {} lease; backfill {} stops at user id {}", JOB_NAME, name, lastId);
+                return processed;
+            }
+            long afterId = lastId;
+            Chunk chunk;
+            try {
+                chunk = transactionTemplate.execute(tx -> processChunk(migration, afterId));
+            } catch (RuntimeException e) {
+                backfillRepository.markFailed(name, e.toString());
+                log.warn("Backfill {} failed after user id {}; retrying from there on the next run", name, lastId, e);
+                return processed;
+            }
+            if (chunk.size() == 0) {
+                backfillRepository.markCompleted(name);
+                log.info("Backfill {} completed", name);
+                return processed;
+            }
+            processed += chunk.size();
+            lastId = chunk.lastId();
+            log.debug("Backfill {} processed {} users up to id {}", name, chunk.size(), lastId);
+            if (!pause()) {
+                return processed;
+            }
+        }
+    }
+
+    private Chunk processChunk(UserBackfillMigration migration, long afterId) {
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(properties.getChunkSize()));
+        if (users.isEmpty()) {
+            return new Chunk(0, afterId);
+        }
+        List<User> changed = new ArrayList<>();
+        List<UserSnapshot> before = new ArrayList<>();
+        for (User user : users) {
+            UserSnapshot snapshot = UserSnapshot.of(user);
+            if (migration.backfill(user)) {
+                changed.add(user);
+                before.add(snapshot);
+            }
+        }
+        userRepository.flush();
+        long lastId = users.get(users.size() - 1).getId();
+        backfillRepository.checkpoint(migration.getBackfillName(), lastId, users.size(), changed.size());
+        for (int i = 0; i < changed.size(); i++) {
+            eventPublisher.publishEvent(new UserChangedEvent(
+                    UserChangedEvent.Type.UPDATED, before.get(i), UserSnapshot.of(changed.get(i))));
+        }
+        return new Chunk(users.size(), lastId);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getThrottle().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Chunk(int size, long lastId) {
+    }
+}
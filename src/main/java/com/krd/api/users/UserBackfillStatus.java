@@ -0,0 +1,46 @@
+package com.krd.api.users;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one registered backfill ({@code user_backfills}).
+ *
+ * @param lastId   checkpoint: highest user id processed
+ * @param targetId highest user id when the backfill was registered
+ * @param error    last chunk failure, null once a chunk succeeds again
+ */
+public record UserBackfillStatus(
+        String name,
+        Status status,
+        long lastId,
+        long targetId,
+        long rowsProcessed,
+        long rowsUpdated,
+        LocalDateTime registeredAt,
+        LocalDateTime startedAt,
+        LocalDateTime updatedAt,
+        LocalDateTime completedAt,
+        String error
+) {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        /** The last chunk failed; retried from the checkpoint on the next run. */
+        FAILED,
+        COMPLETED
+    }
+
+    /**
+     * Share of the users present at registration that has been processed, 0-100.
+     */
+    public double percentComplete() {
+        if (status == Status.COMPLETED) {
+            return 100.0;
+        }
+        if (targetId == 0) {
+            return 0.0;
+        }
+        return Math.min(100.0, Math.floor(lastId * 1000.0 / targetId) / 10.0);
+    }
+}
@@ -0,0 +1,18 @@
+package com.krd.api.users;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the user change feed ({@code GET /users/changes}).
+ *
+ * @param user current state of the user, or null once the user has been purged. Entries for the
+ *             same user all carry its latest state, so clients can simply upsert.
+ */
+public record UserChange(
+        long seq,
+        UserChangedEvent.Type type,
+        Long userId,
+        LocalDateTime changedAt,
+        UserSnapshot user
+) {
+}
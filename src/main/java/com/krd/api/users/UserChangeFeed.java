@@ -0,0 +1,268 @@
+package com.krd.api.users;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krd.api.common.CursorExpiredException;
+import com.krd.api.common.InvalidCursorException;
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Incremental change feed for downstream systems that mirror users ({@code GET /users/changes}).
+ *
+ * <p>Every {@link UserChangedEvent} except password changes appends a row to {@code user_changes}
+ * with the next value of a single-row sequence, in the same transaction as the mutation. The
+ * sequence row stays locked until commit, so user writes are serialized for the (short) rest of
+ * their transaction and sequence order is commit order: a client that has read up to seq N never
+ * misses a change that commits later with a lower seq. Events must therefore be published after
+ * the transaction's other writes, so the sequence lock is the last lock taken and is held only
+ * for the commit.
+ *
+ * <p>Cursors are opaque (base64url of the last seq delivered). Without a cursor the feed returns
+ * no changes and the current head, which is where a client starts polling after a full
+ * {@code GET /users}. Cursors older than the retained history raise
+ * {@link CursorExpiredException} (410): the client must resync.
+ *
+ * <p>Responses are written straight to the output stream, one chunk of changes (and the current
+ * state of their users) at a time, so a large backlog never sits in memory.
+ */
+@Slf4j
+@Component
+public class UserChangeFeed {
+
+    static final String PRUNE_JOB_NAME = "user-change-prune";
+
+    private static final String INSERT =
+            "INSERT INTO user_changes (seq, user_id, change_type, changed_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserChangeFeedProperties properties;
+    private final JobLeaseManager jobLeaseManager;
+    private final Clock clock;
+
+    public UserChangeFeed(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, UserChangeFeedProperties properties,
+                          JobLeaseManager jobLeaseManager) {
+        this(jdbcTemplate, objectMapper, properties, jobLeaseManager, Clock.systemDefaultZone());
+    }
+
+    UserChangeFeed(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, UserChangeFeedProperties properties,
+                   JobLeaseManager jobLeaseManager, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.jobLeaseManager = jobLeaseManager;
+        this.clock = clock;
+    }
+
+    /**
+     * Records the change inside the mutating transaction (not after commit), so a rolled-back
+     * mutation leaves no entry and a committed one always has its entry.
+     */
+    @EventListener
+    @Transactional
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.PASSWORD_CHANGED) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE user_change_sequence SET last_seq = last_seq + 1 WHERE id = 1");
+        Long seq = jdbcTemplate.queryForObject("SELECT last_seq FROM user_change_sequence WHERE id = 1", Long.class);
+        jdbcTemplate.update(INSERT, seq, event.userId(), event.type().name(), Timestamp.valueOf(LocalDateTime.now(clock)));
+    }
+
+    /**
+     * Writes up to {@code limit} changes after {@code cursor} as
+     * {@code {"changes": [...], "nextCursor": "...", "hasMore": bool}}. The cursor is validated
+     * before anything is written, so cursor errors still produce a regular error response.
+     */
+    public void write(String cursor, int limit, OutputStream out) throws IOException {
+        long after = start(cursor);
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeArrayFieldStart("changes");
+
+            boolean hasMore = false;
+            if (cursor != null && !cursor.isBlank()) {
+                int written = 0;
+                do {
+                    int chunkSize = Math.min(properties.getStreamChunkSize(), limit - written);
+                    List<UserChange> chunk = read(after, chunkSize + 1);
+                    hasMore = chunk.size() > chunkSize;
+                    for (UserChange change : hasMore ? chunk.subList(0, chunkSize) : chunk) {
+                        json.writeObject(change);
+                        after = change.seq();
+                        written++;
+                    }
+                    json.flush();
+                } while (hasMore && written < limit);
+            }
+
+            json.writeEndArray();
+            json.writeStringField("nextCursor", encode(after));
+            json.writeBooleanField("hasMore", hasMore);
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Resolves a cursor to the seq to read after: the current head for no cursor.
+     *
+     * @throws InvalidCursorException if the cursor is malformed or ahead of the head
+     * @throws CursorExpiredException if changes after the cursor have been pruned
+     */
+    long start(String cursor) {
+        Map<String, Object> sequence = jdbcTemplate.queryForMap(
+                "SELECT last_seq, pruned_through FROM user_change_sequence WHERE id = 1");
+        long head = ((Number) sequence.get("last_seq")).longValue();
+        long prunedThrough = ((Number) sequence.get("pruned_through")).longValue();
+
+        if (cursor == null || cursor.isBlank()) {
+            return head;
+        }
+        long seq = decode(cursor);
+        if (seq > head) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+        if (seq < prunedThrough) {
+            throw new CursorExpiredException("Cursor has expired; resynchronize from GET /users");
+        }
+        return seq;
+    }
+
+    /**
+     * Loads up to {@code limit} changes after {@code seq}, each with the current state of its user.
+     */
+    List<UserChange> read(long seq, int limit) {
+        List<ChangeRow> rows = jdbcTemplate.query(
+                "SELECT seq, user_id, change_type, changed_at FROM user_changes WHERE seq > ? ORDER BY seq LIMIT ?",
+                (rs, rowNum) -> new ChangeRow(
+                        rs.getLong("seq"),
+                        rs.getLong("user_id"),
+                        UserChangedEvent.Type.valueOf(rs.getString("change_type")),
+                        rs.getTimestamp("changed_at").toLocalDateTime()),
+                seq, limit);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, UserSnapshot> users = loadUsers(rows.stream().map(ChangeRow::userId).collect(
+                LinkedHashSet::new, Set::add, Set::addAll));
+        List<UserChange> changes = new ArrayList<>(rows.size());
+        for (ChangeRow row : rows) {
+            changes.add(new UserChange(row.seq(), row.type(), row.userId(), row.changedAt(), users.get(row.userId())));
+        }
+        return changes;
+    }
+
+    /**
+     * Runs {@link #prune} on one node at a time.
+     */
+    @Workload(WorkloadClass.BATCH)
+    @Scheduled(cron = "${app.user-changes.prune-cron:0 50 3 * * *}")
+    public void runPrune() {
+        jobLeaseManager.runExclusive(PRUNE_JOB_NAME, lease -> prune());
+    }
+
+    /**
+     * Deletes changes older than the retention. {@code pruned_through} is advanced first, so a
+     * client reading concurrently gets 410 instead of silently skipping the deleted range.
+     */
+    @Workload(WorkloadClass.BATCH)
+    public int prune() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now(clock).minus(properties.getRetention()));
+        Long through = jdbcTemplate.queryForObject(
+                "SELECT MAX(seq) FROM user_changes WHERE changed_at < ?", Long.class, cutoff);
+        if (through == null) {
+            return 0;
+        }
+        jdbcTemplate.update(
+                "UPDATE user_change_sequence SET pruned_through = ? WHERE id = 1 AND pruned_through < ?",
+                through, through);
+
+        // Sequence values are never skipped (a rolled-back append rolls back its increment too),
+        // so each range deletes at most one batch
+        Long from = jdbcTemplate.queryForObject("SELECT MIN(seq) FROM user_changes", Long.class);
+        int removed = 0;
+        for (long low = from == null ? through : from - 1; low < through; low += properties.getPruneBatchSize()) {
+            removed += jdbcTemplate.update("DELETE FROM user_changes WHERE seq > ? AND seq <= ?",
+                    low, Math.min(low + properties.getPruneBatchSize(), through));
+        }
+
+        if (removed > 0) {
+            log.info("Pruned {} user changes up to seq {}", removed, through);
+        }
+        return removed;
+    }
+
+    private Map<Long, UserSnapshot> loadUsers(Set<Long> ids) {
+        String in = "(" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        Object[] args = ids.toArray();
+
+        Map<Long, Set<String>> roles = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, role FROM user_roles WHERE user_id IN " + in,
+                rs -> {
+                    roles.computeIfAbsent(rs.getLong(1), id -> new HashSet<>()).add(rs.getString(2));
+                }, args);
+
+        Map<Long, UserSnapshot> users = new HashMap<>();
+        jdbcTemplate.query("SELECT id, email, username, first_name, last_name, enabled, deleted_at FROM users WHERE id IN " + in,
+                rs -> {
+                    long id = rs.getLong("id");
+                    users.put(id, new UserSnapshot(
+                            id,
+                            rs.getString("email"),
+                            rs.getString("username"),
+                            rs.getString("first_name"),
+                            rs.getString("last_name"),
+                            rs.getBoolean("enabled"),
+                            rs.getTimestamp("deleted_at") != null,
+                            Set.copyOf(roles.getOrDefault(id, Set.of()))));
+                }, args);
+        return users;
+    }
+
+    private record ChangeRow(long seq, long userId, UserChangedEvent.Type type, LocalDateTime changedAt) {
+    }
+
+    static String encode(long seq) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(seq).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decode(String cursor) {
+        try {
+            long seq = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (seq < 0) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return seq;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.krd.api.users;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link UserChangeFeed} ({@code app.user-changes.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.user-changes")
+@Getter
+@Setter
+public class UserChangeFeedProperties {
+
+    /**
+     * How long changes are kept. Clients polling less often than this must resync.
+     */
+    private Duration retention = Duration.ofDays(30);
+
+    /**
+     * Cron expression for pruning changes older than the retention.
+     */
+    private String pruneCron = "0 50 3 * * *";
+
+    /**
+     * Changes deleted per statement while pruning.
+     */
+    private int pruneBatchSize = 5000;
+
+    /**
+     * Changes loaded (with their users) per query while streaming a response.
+     */
+    private int streamChunkSize = 200;
+}
@@ -0,0 +1,41 @@
+package com.krd.api.users;
+
+/**
+ * Published by {@link UserService} (and the purge job) after a user mutation.
+ *
+ * <p>{@code before} is null when the user did not exist yet and {@code after} is null once the
+ * user has been permanently removed. Listeners that maintain derived state (indexes, counters)
+ * should apply the difference between the two snapshots and listen with
+ * {@code @TransactionalEventListener} so rolled-back mutations are never applied. Listeners that
+ * write to the database as part of the change ({@link UserChangeFeed}, {@link UserOutbox}) use a
+ * plain {@code @EventListener} and run inside the mutating transaction.
+ */
+public record UserChangedEvent(Type type, UserSnapshot before, UserSnapshot after) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        ROLE_ADDED,
+        ROLE_REMOVED,
+        PASSWORD_CHANGED,
+        PURGED
+    }
+
+    public Long userId() {
+        return after != null ? after.id() : before.id();
+    }
+
+    /**
+     * Whether the change must invalidate all of the user's outstanding tokens and sessions: a
+     * password change, or an active, enabled user becoming disabled or deleted.
+     */
+    public boolean revokesTokens() {
+        if (type == Type.PASSWORD_CHANGED) {
+            return true;
+        }
+        boolean wasUsable = before != null && before.active() && before.enabled();
+        boolean isUsable = after != null && after.active() && after.enabled();
+        return wasUsable && !isUsable;
+    }
+}
@@ -1,11 +1,24 @@
 // TODO: Rename package to match your organization (e.g., com.yourcompany.yourapp.users)
 package com.krd.api.users;
 
+import com.krd.api.common.CursorPage;
+import com.krd.api.common.PagedResponse;
 import com.krd.starter.user.BaseUserController;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * User controller extending BaseUserController from the spring-api-starter.
  *
@@ -22,6 +35,15 @@ import org.springframework.web.bind.annotation.RestController;
  * - POST   /users/{id}/roles   - Add role to user (ADMIN only)
  * - DELETE /users/{id}/roles   - Remove role from user (ADMIN only)
  *
+ * Custom endpoints:
+ * - GET    /users/by-role      - Page of users filtered by roles, AND/OR (ADMIN only)
+ * - GET    /users/search       - Ranked search by name, username or email (ADMIN only)
+ * - GET    /users/stats        - Precomputed user counters with staleness (ADMIN only)
+ * - GET    /users/role-changes - Role change audit trail, keyset-paged (ADMIN only)
+ * - GET    /users/changes      - Incremental change feed for synchronization, streamed (ADMIN only)
+ * - GET    /users/archived     - Archived purged users by email (ADMIN only)
+ * - GET    /users/archived/{userId} - Archived purged users by former id (ADMIN only)
+ *
  * All endpoints include proper authorization, validation, and error handling.
  *
  * Add custom user endpoints here if needed.
@@ -31,12 +53,87 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Users", description = "User management endpoints")
 public class UserController extends BaseUserController<User, UserDto> {
 
+    private final UserService userService;
+
     public UserController(UserService service) {
         super(service);
+        this.userService = service;
     }
 
     // All user management endpoints are inherited from BaseUserController
 
+    @GetMapping("/by-role")
+    @Operation(summary = "List users by role",
+            description = "Users holding ALL (AND) or ANY (OR) of the given roles, ordered by id")
+    public PagedResponse<UserDto> getUsersByRole(
+            @RequestParam List<String> roles,
+            @RequestParam(defaultValue = "ALL") RoleMatch match,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return userService.getUsersByRole(roles, match, page, size);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search users",
+            description = "Ranked prefix/substring search over first name, last name, username and email")
+    public List<UserDto> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        return userService.searchUsers(query, limit);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "User statistics",
+            description = "Precomputed counters; stalenessSeconds reports time since the last database reconciliation")
+    public UserStatsResponse getUserStatistics() {
+        return userService.getUserStatistics();
+    }
+
+    @GetMapping("/role-changes")
+    @Operation(summary = "Role change audit trail",
+            description = "Filter by user, actor, role, action and time range (from inclusive, to exclusive); "
+                    + "newest first. Pass nextCursor back as cursor for the next page")
+    public CursorPage<RoleChangeLogEntry> getRoleChanges(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long changedBy,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return userService.getRoleChanges(
+                new RoleChangeLogFilter(userId, changedBy, role, action, from, to), cursor, limit);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "User change feed",
+            description = "Users created, updated, role-changed, deleted or purged after the since cursor, oldest "
+                    + "first, each with the user's current state (null once purged). Without since, returns no "
+                    + "changes and the current cursor: list GET /users, then poll from it. 410 when the cursor "
+                    + "has expired and the client must resync")
+    public void getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        userService.streamChanges(since, limit, response.getOutputStream());
+    }
+
+    @GetMapping("/archived")
+    @Operation(summary = "Find archived users by email",
+            description = "Users purged in archive mode with this email (case-insensitive), most recently archived first")
+    public List<ArchivedUser> getArchivedUsersByEmail(@RequestParam String email) {
+        return userService.getArchivedUsersByEmail(email);
+    }
+
+    @GetMapping("/archived/{userId}")
+    @Operation(summary = "Find archived users by id",
+            description = "Archive records of a purged user id, most recently archived first; empty if never archived")
+    public List<ArchivedUser> getArchivedUsers(@PathVariable Long userId) {
+        return userService.getArchivedUsers(userId);
+    }
+
     // TODO: Add custom user endpoints here if needed
     // Example:
     // @GetMapping("/{id}/orders")
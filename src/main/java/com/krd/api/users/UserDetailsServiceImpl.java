@@ -1,6 +1,8 @@
 // TODO: Rename package to match your organization (e.g., com.yourcompany.yourapp.users)
 package com.krd.api.users;
 
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
 import lombok.AllArgsConstructor;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,9 +17,12 @@ import java.util.Collections;
  *
  * This service is used by Spring Security to load user-specific data during authentication.
  * The spring-api-starter requires this bean to be provided by the application.
+ *
+ * Emails are matched case-insensitively through the indexed {@code email_normalized} column.
  */
 @AllArgsConstructor
 @Service
+@Workload(WorkloadClass.AUTH)
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
@@ -25,7 +30,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         var user = userRepository
-                .findByEmail(email)
+                .findByEmailNormalized(com.krd.api.users.User.normalizeEmail(email))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return new User(user.getEmail(), user.getPassword(), Collections.emptyList());
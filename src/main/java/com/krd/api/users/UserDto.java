@@ -6,6 +6,8 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
+import java.time.LocalDateTime;
+
 /**
  * User DTO extending BaseUserDto from the spring-api-starter.
  *
@@ -21,6 +23,15 @@ import lombok.experimental.SuperBuilder;
 @SuperBuilder
 public class UserDto extends BaseUserDto {
 
+    private LocalDateTime lastLoginAt;
+
+    private long loginCount;
+
+    /**
+     * Optimistic lock version; also returned as the {@code ETag} header.
+     */
+    private long version;
+
     // TODO: Add your custom fields here to match your User entity
     // Example:
     // private String phoneNumber;
@@ -0,0 +1,36 @@
+package com.krd.api.users;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the {@code ETag} header to every single-user response of {@link UserController}
+ * ({@code GET /users/{id}}, {@code PUT /users/{id}}, role changes), so clients can send it back
+ * as {@code If-Match} on their next write.
+ */
+@ControllerAdvice(assignableTypes = UserController.class)
+public class UserETagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  MethodParameter returnType,
+                                  MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request,
+                                  ServerHttpResponse response) {
+        if (body instanceof UserDto user) {
+            response.getHeaders().setETag(UserETags.of(user.getVersion()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,56 @@
+package com.krd.api.users;
+
+import com.krd.api.common.PreconditionFailedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * ETags for user resources: a user's ETag is its optimistic lock {@link User#getVersion() version},
+ * quoted (e.g. {@code "3"}).
+ *
+ * <p>{@link UserETagAdvice} sets the ETag on every {@link UserDto} returned by {@link UserController};
+ * {@link UserService} checks the {@code If-Match} header of the current request against the
+ * version it loaded before writing. Requests without {@code If-Match} (or with {@code *}) are
+ * unconditional and only protected against concurrent writes by the version column itself.
+ */
+public final class UserETags {
+
+    private UserETags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Throws {@link PreconditionFailedException} if the current request carries an {@code If-Match}
+     * header that does not list {@code currentVersion}. {@code If-Match} uses the strong comparison,
+     * so weak validators ({@code W/"3"}) never match.
+     */
+    static void checkIfMatch(long currentVersion) {
+        String ifMatch = currentIfMatch();
+        if (ifMatch == null || matches(ifMatch, currentVersion)) {
+            return;
+        }
+        throw new PreconditionFailedException(
+                "User was modified since it was read (current ETag " + of(currentVersion) + ")", of(currentVersion));
+    }
+
+    static boolean matches(String ifMatch, long version) {
+        String expected = of(version);
+        for (String tag : ifMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*") || candidate.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String currentIfMatch() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest().getHeader(HttpHeaders.IF_MATCH)
+                : null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.krd.api.users;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of user lifecycle events relayed from the outbox ({@code app.user-outbox.sink}).
+ *
+ * <p>A batch is delivered as a whole: if {@link #send} throws, the whole batch is retried later,
+ * so implementations must tolerate redelivery of messages they already accepted.
+ */
+public interface UserEventSink {
+
+    void send(List<UserOutboxMessage> messages) throws IOException;
+}
@@ -0,0 +1,23 @@
+package com.krd.api.users;
+
+import java.time.LocalDateTime;
+
+/**
+ * Message published to other systems for each user lifecycle change (the outbox payload).
+ *
+ * <p>Delivery is at least once and only roughly ordered (a failed batch is retried after later
+ * ones): consumers should deduplicate on {@code eventId} and not let an older {@code occurredAt}
+ * overwrite newer state.
+ *
+ * @param before the user before the change, null on creation
+ * @param after  the user after the change, null once purged
+ */
+public record UserLifecycleEvent(
+        String eventId,
+        UserChangedEvent.Type type,
+        Long userId,
+        LocalDateTime occurredAt,
+        UserSnapshot before,
+        UserSnapshot after
+) {
+}
@@ -0,0 +1,213 @@
+package com.krd.api.users;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Transactional outbox of user lifecycle events ({@code user_outbox}).
+ *
+ * <p>Every {@link UserChangedEvent} except password changes is serialized to a
+ * {@link UserLifecycleEvent} and inserted in the same transaction as the mutation: no dual
+ * write, and nothing is sent on the request path. {@link UserOutboxRelay} delivers the rows
+ * asynchronously through the claim/complete/retry methods here.
+ *
+ * <p>Claims are leases on {@code available_at}: a relay moves the rows it wins into the future
+ * with a conditional UPDATE, tagging them with a claim token, so concurrent relays on other nodes
+ * skip them without holding row locks across the delivery (the portable equivalent of
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED}). Rows of a relay that dies become claimable again
+ * when the lease runs out.
+ *
+ * <p>Events of one user are delivered in order: an event is not claimed while an earlier event of
+ * the same user is claimed by another relay or waiting for a retry. A failing event therefore
+ * holds back that user's later events, but not other users', until it is delivered or moved to
+ * {@code user_outbox_dead_letters} by {@link #deadLetter}.
+ */
+@Component
+public class UserOutbox {
+
+    private static final String INSERT = "INSERT INTO user_outbox (event_type, user_id, payload, created_at, available_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public UserOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this(jdbcTemplate, objectMapper, Clock.systemDefaultZone());
+    }
+
+    UserOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    /**
+     * Pending events and the creation time of the oldest one (null if none).
+     */
+    public record Backlog(long pending, LocalDateTime oldestCreatedAt) {
+    }
+
+    /**
+     * Writes the event inside the mutating transaction (not after commit), so it is published if
+     * and only if the mutation commits.
+     */
+    @EventListener
+    @Transactional
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.PASSWORD_CHANGED) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        UserLifecycleEvent message = new UserLifecycleEvent(
+                UUID.randomUUID().toString(), event.type(), event.userId(), now, event.before(), event.after());
+        try {
+            jdbcTemplate.update(INSERT, event.type().name(), event.userId(), objectMapper.writeValueAsString(message),
+                    Timestamp.valueOf(now), Timestamp.valueOf(now));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize user event " + event.type(), e);
+        }
+    }
+
+    /**
+     * Claims up to {@code limit} available events, oldest first, for {@code lease}. Rows claimed
+     * concurrently by another relay are skipped, so fewer may be returned even if more are pending.
+     * Events of a user whose earlier event is held elsewhere or backing off are skipped too.
+     */
+    public List<UserOutboxMessage> claim(String token, int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Long> candidates = jdbcTemplate.queryForList(
+                "SELECT o.id FROM user_outbox o WHERE o.available_at <= ? AND NOT EXISTS ("
+                        + "SELECT 1 FROM user_outbox e WHERE e.user_id = o.user_id AND e.id < o.id AND e.available_at > ?) "
+                        + "ORDER BY o.id LIMIT ?",
+                Long.class, Timestamp.valueOf(now), Timestamp.valueOf(now), limit);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> args = new ArrayList<>(candidates.size() + 3);
+        args.add(token);
+        args.add(Timestamp.valueOf(now.plus(lease)));
+        args.addAll(candidates);
+        args.add(Timestamp.valueOf(now));
+        int claimed = jdbcTemplate.update("UPDATE user_outbox SET claim_token = ?, available_at = ?, attempts = attempts + 1 "
+                + "WHERE id IN " + in(candidates.size()) + " AND available_at <= ?", args.toArray());
+        if (claimed == 0) {
+            return List.of();
+        }
+
+        // A relay claiming concurrently may have won an earlier event of a user whose later event
+        // we won; hand those back so they wait for it
+        List<Object> checkArgs = new ArrayList<>(candidates);
+        checkArgs.add(token);
+        checkArgs.add(token);
+        List<Long> overtaking = jdbcTemplate.queryForList(
+                "SELECT o.id FROM user_outbox o WHERE o.id IN " + in(candidates.size()) + " AND o.claim_token = ? "
+                        + "AND EXISTS (SELECT 1 FROM user_outbox e WHERE e.user_id = o.user_id AND e.id < o.id "
+                        + "AND (e.claim_token IS NULL OR e.claim_token <> ?))",
+                Long.class, checkArgs.toArray());
+        if (!overtaking.isEmpty()) {
+            release(token, overtaking);
+        }
+
+        return jdbcTemplate.query("SELECT id, event_type, user_id, created_at, attempts, payload FROM user_outbox "
+                        + "WHERE id IN " + in(candidates.size()) + " AND claim_token = ? ORDER BY id",
+                (rs, rowNum) -> new UserOutboxMessage(
+                        rs.getLong("id"),
+                        UserChangedEvent.Type.valueOf(rs.getString("event_type")),
+                        rs.getLong("user_id"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        rs.getInt("attempts"),
+                        rs.getString("payload")),
+                withToken(candidates, token));
+    }
+
+    /**
+     * Deletes delivered events still held by the claim. Returns how many were deleted; fewer than
+     * delivered means the lease ran out and another relay may deliver the rest again.
+     */
+    public int complete(String token, List<Long> ids) {
+        return jdbcTemplate.update("DELETE FROM user_outbox WHERE id IN " + in(ids.size()) + " AND claim_token = ?",
+                withToken(ids, token));
+    }
+
+    /**
+     * Releases events still held by the claim for another attempt after {@code delay}.
+     */
+    public int retryLater(String token, List<Long> ids, Duration delay) {
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(Timestamp.valueOf(LocalDateTime.now(clock).plus(delay)));
+        args.addAll(ids);
+        args.add(token);
+        return jdbcTemplate.update("UPDATE user_outbox SET claim_token = NULL, available_at = ? "
+                + "WHERE id IN " + in(ids.size()) + " AND claim_token = ?", args.toArray());
+    }
+
+    /**
+     * Hands events still held by the claim back untried: they are available again at once and the
+     * claim does not count as an attempt.
+     */
+    public int release(String token, List<Long> ids) {
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(Timestamp.valueOf(LocalDateTime.now(clock)));
+        args.addAll(ids);
+        args.add(token);
+        return jdbcTemplate.update("UPDATE user_outbox SET claim_token = NULL, available_at = ?, attempts = attempts - 1 "
+                + "WHERE id IN " + in(ids.size()) + " AND claim_token = ?", args.toArray());
+    }
+
+    /**
+     * Moves events still held by the claim to {@code user_outbox_dead_letters}, recording
+     * {@code error}. They are never retried, and no longer hold back their users' later events.
+     */
+    @Transactional
+    public int deadLetter(String token, List<Long> ids, String error) {
+        List<Object> args = new ArrayList<>(ids.size() + 3);
+        args.add(Timestamp.valueOf(LocalDateTime.now(clock)));
+        args.add(error == null ? null : error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)));
+        args.addAll(ids);
+        args.add(token);
+        int moved = jdbcTemplate.update("INSERT INTO user_outbox_dead_letters "
+                + "(id, event_type, user_id, payload, created_at, attempts, failed_at, last_error) "
+                + "SELECT id, event_type, user_id, payload, created_at, attempts, ?, ? FROM user_outbox "
+                + "WHERE id IN " + in(ids.size()) + " AND claim_token = ?", args.toArray());
+        jdbcTemplate.update("DELETE FROM user_outbox WHERE id IN " + in(ids.size()) + " AND claim_token = ?",
+                withToken(ids, token));
+        return moved;
+    }
+
+    /**
+     * Number of undelivered events and the age of the oldest (the relay's lag).
+     */
+    public Backlog backlog() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*), MIN(created_at) FROM user_outbox", (rs, rowNum) -> {
+            Timestamp oldest = rs.getTimestamp(2);
+            return new Backlog(rs.getLong(1), oldest == null ? null : oldest.toLocalDateTime());
+        });
+    }
+
+    private static Object[] withToken(List<Long> ids, String token) {
+        List<Object> args = new ArrayList<>(ids);
+        args.add(token);
+        return args.toArray();
+    }
+
+    private static String in(int size) {
+        return "(" + String.join(", ", Collections.nCopies(size, "?")) + ")";
+    }
+}
@@ -0,0 +1,19 @@
+package com.krd.api.users;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox row claimed by {@link UserOutboxRelay}.
+ *
+ * @param payload  the JSON message ({@link UserLifecycleEvent}) to deliver
+ * @param attempts delivery attempts so far, including the current one
+ */
+public record UserOutboxMessage(
+        long id,
+        UserChangedEvent.Type type,
+        Long userId,
+        LocalDateTime createdAt,
+        int attempts,
+        String payload
+) {
+}
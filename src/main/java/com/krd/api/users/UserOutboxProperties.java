@@ -0,0 +1,82 @@
+package com.krd.api.users;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link UserOutbox}, {@link UserOutboxRelay} and the {@link UserEventSink}s
+ * ({@code app.user-outbox.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.user-outbox")
+@Getter
+@Setter
+public class UserOutboxProperties {
+
+    /**
+     * Run the relay on this node. Events are written to the outbox either way.
+     */
+    private boolean relayEnabled = true;
+
+    /**
+     * Delay between relay polls when the outbox has been drained.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Events claimed and handed to the sink at once.
+     */
+    private int batchSize = 100;
+
+    /**
+     * How long a claimed batch is reserved for its relay. If the relay dies, other relays may
+     * claim the batch (and deliver it again) after this.
+     */
+    private Duration leaseTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Delay before the first retry of a failed batch; doubles per attempt.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Upper bound of the retry delay.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    /**
+     * Deliveries tried per event before it is moved to {@code user_outbox_dead_letters}.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * Where events are delivered.
+     */
+    private SinkType sink = SinkType.LOG;
+
+    /**
+     * JSON Lines file appended to by the {@code file} sink.
+     */
+    private Path filePath = Path.of("user-events.jsonl");
+
+    /**
+     * Endpoint the {@code http} sink POSTs each batch to (as a JSON array).
+     */
+    private String httpUrl;
+
+    /**
+     * Connect and read timeout of the {@code http} sink.
+     */
+    private Duration httpTimeout = Duration.ofSeconds(5);
+
+    public enum SinkType {
+        LOG,
+        FILE,
+        HTTP
+    }
+}
@@ -0,0 +1,225 @@
+package com.krd.api.users;
+
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers {@link UserOutbox} events to the configured {@link UserEventSink}.
+ *
+ * <p>Each poll claims batches of {@code app.user-outbox.batch-size} events and sends each batch
+ * to the sink in one call until the outbox is drained. Delivered events are deleted. If the sink
+ * rejects a batch, its events are sent again one at a time, so one bad event does not fail the
+ * others. A failed event is released for retry with exponential backoff ({@code initial-backoff}
+ * doubling per attempt, capped at {@code max-backoff}), and that user's later events in the batch
+ * are handed back untried. So is the rest of the batch after three failures in a row, which
+ * points at the sink rather than at an event. After {@code max-attempts} failures an event is
+ * moved to {@code user_outbox_dead_letters}.
+ *
+ * <p>Delivery is at least once: a relay that stalls past its lease may see its batch delivered
+ * again by another node. Each user's events reach the sink in order; a failing event holds back
+ * that user's later events until it is delivered or dead-lettered.
+ *
+ * <p>Metrics: {@code users.outbox.dispatched}, {@code users.outbox.failed} and
+ * {@code users.outbox.dead.letters} (events), {@code users.outbox.dispatch} (sink call duration),
+ * {@code users.outbox.delivery.lag} (time from commit to delivery per event),
+ * {@code users.outbox.pending} and {@code users.outbox.lag} (age in seconds of the oldest
+ * undelivered event, as of the last poll).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.user-outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+@Workload(WorkloadClass.BATCH)
+public class UserOutboxRelay {
+
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    private final UserOutbox outbox;
+    private final UserEventSink sink;
+    private final UserOutboxProperties properties;
+    private final Clock clock;
+    private final Counter dispatchedEvents;
+    private final Counter failedEvents;
+    private final Counter deadLetters;
+    private final Timer dispatchTimer;
+    private final Timer deliveryLag;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public UserOutboxRelay(UserOutbox outbox, UserEventSink sink, UserOutboxProperties properties,
+                           MeterRegistry meterRegistry) {
+        this(outbox, sink, properties, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    UserOutboxRelay(UserOutbox outbox, UserEventSink sink, UserOutboxProperties properties,
+                    MeterRegistry meterRegistry, Clock clock) {
+        this.outbox = outbox;
+        this.sink = sink;
+        this.properties = properties;
+        this.clock = clock;
+        this.dispatchedEvents = Counter.builder("users.outbox.dispatched")
+                .description("User events delivered to the sink")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("users.outbox.failed")
+                .description("User event deliveries that failed and will be retried")
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("users.outbox.dead.letters")
+                .description("User events given up on after max-attempts failed deliveries")
+                .register(meterRegistry);
+        this.dispatchTimer = Timer.builder("users.outbox.dispatch")
+                .description("Time to deliver one batch to the sink")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("users.outbox.delivery.lag")
+                .description("Time from writing a user event to delivering it")
+                .register(meterRegistry);
+        Gauge.builder("users.outbox.pending", pending, AtomicLong::get)
+                .description("Undelivered user events")
+                .register(meterRegistry);
+        Gauge.builder("users.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Age in seconds of the oldest undelivered user event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delivers every available event and returns how many were delivered.
+     */
+    @Scheduled(fixedDelayString = "${app.user-outbox.poll-interval:PT1S}")
+    public int poll() {
+        int delivered = 0;
+        List<UserOutboxMessage> batch;
+        do {
+            String token = UUID.randomUUID().toString();
+            batch = outbox.claim(token, properties.getBatchSize(), properties.getLeaseTimeout());
+            if (batch.isEmpty()) {
+                break;
+            }
+            int sent = dispatch(token, batch);
+            delivered += sent;
+            if (sent < batch.size()) {
+                break;
+            }
+        } while (batch.size() == properties.getBatchSize());
+
+        UserOutbox.Backlog backlog = outbox.backlog();
+        pending.set(backlog.pending());
+        lagSeconds.set(backlog.oldestCreatedAt() == null
+                ? 0 : Math.max(0, Duration.between(backlog.oldestCreatedAt(), LocalDateTime.now(clock)).toSeconds()));
+        return delivered;
+    }
+
+    /**
+     * Delivers a claimed batch and returns how many of its events were delivered.
+     */
+    private int dispatch(String token, List<UserOutboxMessage> batch) {
+        if (batch.size() > 1) {
+            try {
+                send(batch);
+                completed(token, batch);
+                return batch.size();
+            } catch (Exception e) {
+                log.warn("Failed to deliver a batch of {} user events; sending them one at a time", batch.size(), e);
+            }
+        }
+
+        List<UserOutboxMessage> delivered = new ArrayList<>(batch.size());
+        List<Long> heldBack = new ArrayList<>();
+        Set<Long> failedUsers = new HashSet<>();
+        int consecutiveFailures = 0;
+        for (UserOutboxMessage message : batch) {
+            // Several failures in a row look like the sink is down rather than a bad event
+            if (failedUsers.contains(message.userId()) || consecutiveFailures == MAX_CONSECUTIVE_FAILURES) {
+                heldBack.add(message.id());
+                continue;
+            }
+            try {
+                send(List.of(message));
+                delivered.add(message);
+                consecutiveFailures = 0;
+            } catch (Exception e) {
+                consecutiveFailures++;
+                if (!failed(token, message, e)) {
+                    failedUsers.add(message.userId());
+                }
+            }
+        }
+        if (!heldBack.isEmpty()) {
+            outbox.release(token, heldBack);
+        }
+        if (!delivered.isEmpty()) {
+            completed(token, delivered);
+        }
+        return delivered.size();
+    }
+
+    private void send(List<UserOutboxMessage> messages) throws IOException {
+        Timer.Sample sample = Timer.start();
+        try {
+            sink.send(messages);
+        } finally {
+            sample.stop(dispatchTimer);
+        }
+    }
+
+    private void completed(String token, List<UserOutboxMessage> messages) {
+        List<Long> ids = messages.stream().map(UserOutboxMessage::id).toList();
+        if (outbox.complete(token, ids) < ids.size()) {
+            log.warn("Claim on user events {} expired during delivery; they may be delivered again", ids);
+        }
+        dispatchedEvents.increment(messages.size());
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (UserOutboxMessage message : messages) {
+            deliveryLag.record(Duration.between(message.createdAt(), now));
+        }
+    }
+
+    /**
+     * Schedules a retry of a failed event, or dead-letters it once it has used up its attempts.
+     * Returns true if it was dead-lettered.
+     */
+    private boolean failed(String token, UserOutboxMessage message, Exception e) {
+        failedEvents.increment();
+        if (message.attempts() >= properties.getMaxAttempts()) {
+            outbox.deadLetter(token, List.of(message.id()), String.valueOf(e));
+            deadLetters.increment();
+            log.error("Giving up on user event {} ({} of user {}) after {} attempts; moved to the dead letters",
+                    message.id(), message.type(), message.userId(), message.attempts(), e);
+            return true;
+        }
+        Duration delay = backoff(message.attempts());
+        outbox.retryLater(token, List.of(message.id()), delay);
+        log.warn("Failed to deliver user event {} (attempt {}); retrying in {}",
+                message.id(), message.attempts(), delay, e);
+        return false;
+    }
+
+    /**
+     * Retry delay after the given number of attempts: the initial backoff doubled per earlier
+     * attempt, capped at the maximum.
+     */
+    Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff();
+        for (int i = 1; i < attempts && delay.compareTo(properties.getMaxBackoff()) < 0; i++) {
+            delay = delay.multipliedBy(2);
+        }
+        return delay.compareTo(properties.getMaxBackoff()) < 0 ? delay : properties.getMaxBackoff();
+    }
+}
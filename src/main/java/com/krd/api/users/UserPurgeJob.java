@@ -0,0 +1,137 @@
+package com.krd.api.users;
+
+import com.krd.api.common.JobLease;
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Scheduled hard delete of users soft-deleted more than {@code app.user-purge.retention-days} ago.
+ *
+ * <p>Replaces the starter's built-in hard delete job (keep {@code user-management.hard-delete.enabled}
+ * off) so that every purged user is published as a {@link UserChangedEvent.Type#PURGED} event and
+ * in-memory indexes and {@link UserStatistics} stay in sync.
+ *
+ * <p>Users are deleted in batches of {@code batch-size}, one transaction per batch, to keep lock
+ * times and undo log growth bounded. Each batch locks its users and re-checks {@code deleted_at}
+ * before deleting, so a user reactivated by a registration since the batch was selected is kept. Their {@code user_roles} rows go with them through the
+ * {@code ON DELETE CASCADE} foreign key; their role change audit rows are kept but detached, since
+ * the partitioned {@code role_change_logs} table on MySQL has no foreign keys to do it.
+ *
+ * <p>With {@code mode: archive}, each batch is first copied to {@code archived_users} (identity,
+ * roles and lifecycle dates; no credentials) in the same transaction as the delete, so a user is
+ * either still in {@code users} or in the archive. Archived users can be looked up by id or email
+ * through {@link ArchivedUserRepository}.
+ *
+ * <p>Scheduled runs hold the {@value #JOB_NAME} lease from {@link JobLeaseManager}, so only one
+ * node of the cluster purges at a time, and the run stops between batches if the lease is lost.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.user-purge", name = "enabled", havingValue = "true")
+@Workload(WorkloadClass.BATCH)
+public class UserPurgeJob {
+
+    static final String JOB_NAME = "user-purge";
+
+    private final UserRepository userRepository;
+    private final RoleChangeAuditRepository roleChangeAuditRepository;
+    private final ArchivedUserRepository archivedUserRepository;
+    private final UserPurgeProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobLeaseManager jobLeaseManager;
+
+    public UserPurgeJob(UserRepository userRepository,
+                        RoleChangeAuditRepository roleChangeAuditRepository,
+                        ArchivedUserRepository archivedUserRepository,
+                        UserPurgeProperties properties,
+                        TransactionTemplate transactionTemplate,
+                        ApplicationEventPublisher eventPublisher,
+                        JobLeaseManager jobLeaseManager) {
+        this.userRepository = userRepository;
+        this.roleChangeAuditRepository = roleChangeAuditRepository;
+        this.archivedUserRepository = archivedUserRepository;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.jobLeaseManager = jobLeaseManager;
+    }
+
+    @Scheduled(cron = "${app.user-purge.cron:0 0 3 * * *}")
+    public void run() {
+        jobLeaseManager.runExclusive(JOB_NAME, this::purgeExpiredUsers);
+    }
+
+    /**
+     * Purges expired soft-deleted users while {@code lease} is held and returns how many were removed.
+     */
+    public int purgeExpiredUsers(JobLease lease) {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getRetentionDays());
+        int purged = 0;
+        Batch batch;
+        do {
+            if (!lease.isHeld()) {
+                log.warn("Lost the {} lease; stopping after {} users", JOB_NAME, purged);
+                break;
+            }
+            batch = transactionTemplate.execute(status -> purgeBatch(cutoff, LocalDateTime.now()));
+            purged += batch.purged();
+        } while (batch.candidates() == properties.getBatchSize());
+
+        if (purged > 0) {
+            log.info("Purged {} users soft-deleted before {} ({})", purged, cutoff, properties.getMode());
+        }
+        return purged;
+    }
+
+    /**
+     * Users selected for one batch, and how many of them were still expired and purged.
+     */
+    private record Batch(int candidates, int purged) {
+    }
+
+    private Batch purgeBatch(LocalDateTime cutoff, LocalDateTime now) {
+        List<Long> candidates = expiredIds(cutoff);
+        if (candidates.isEmpty()) {
+            return new Batch(0, 0);
+        }
+
+        // The candidates were read without locks; a registration may have reactivated some since.
+        // Lock the rows and keep only the users that are still expired.
+        List<Long> ids = userRepository.lockDeletedBefore(candidates, cutoff).stream().map(User::getId).toList();
+        if (ids.isEmpty()) {
+            return new Batch(candidates.size(), 0);
+        }
+        List<User> users = userRepository.findWithRolesByIdIn(ids);
+        if (properties.getMode() == UserPurgeProperties.Mode.ARCHIVE) {
+            archivedUserRepository.archive(users, now);
+        }
+        List<UserChangedEvent> events = users.stream()
+                .map(user -> new UserChangedEvent(UserChangedEvent.Type.PURGED, UserSnapshot.of(user), null))
+                .toList();
+        roleChangeAuditRepository.detachUsers(ids);
+        userRepository.deleteAllByIdInBatch(ids);
+        // Published last: the change feed's sequence lock is then held only until commit, not
+        // across the deletes
+        events.forEach(eventPublisher::publishEvent);
+        return new Batch(candidates.size(), ids.size());
+    }
+
+    /**
+     * Next batch of users soft-deleted before {@code cutoff}, lowest id first.
+     */
+    List<Long> expiredIds(LocalDateTime cutoff) {
+        return userRepository.findIdsDeletedBefore(cutoff, Limit.of(properties.getBatchSize()));
+    }
+}
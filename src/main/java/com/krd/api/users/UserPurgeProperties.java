@@ -0,0 +1,47 @@
+package com.krd.api.users;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for {@link UserPurgeJob} ({@code app.user-purge.*}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.user-purge")
+@Getter
+@Setter
+public class UserPurgeProperties {
+
+    /**
+     * Enable/disable the scheduled hard delete of expired soft-deleted users.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Days to keep soft-deleted users before permanent deletion.
+     */
+    private int retentionDays = 365;
+
+    /**
+     * Cron expression for the purge schedule.
+     */
+    private String cron = "0 0 3 * * *";
+
+    /**
+     * Users deleted per transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * What happens to purged users: DELETE removes them for good, ARCHIVE first copies them to
+     * {@code archived_users} (see {@link ArchivedUserRepository}).
+     */
+    private Mode mode = Mode.DELETE;
+
+    public enum Mode {
+        DELETE,
+        ARCHIVE
+    }
+}
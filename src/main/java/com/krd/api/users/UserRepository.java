@@ -2,19 +2,95 @@
 package com.krd.api.users;
 
 import com.krd.starter.user.BaseUserRepository;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * User repository extending BaseUserRepository from the spring-api-starter.
  *
  * For complete documentation of what BaseUserRepository provides, see:
  * docs/STARTER_REFERENCE.md#baseuserrepository
  *
+ * Email lookups are case-insensitive: they are routed through the indexed
+ * {@code email_normalized} column so they stay an index seek at any table size.
+ *
  * Add custom query methods here if needed.
  */
 @Repository
 public interface UserRepository extends BaseUserRepository<User> {
 
+    Optional<User> findByEmailNormalized(String emailNormalized);
+
+    boolean existsByEmailNormalized(String emailNormalized);
+
+    /**
+     * Keyset-paged scan of active users in id order (used to build in-memory indexes in chunks).
+     */
+    List<User> findByIdGreaterThanAndDeletedAtIsNullOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Keyset-paged scan of all users, soft-deleted ones included, in id order (used by backfills).
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Ids of users soft-deleted before the cutoff, lowest id first (a range on the deleted_at
+     * prefix of the V2 composite indexes).
+     */
+    @Query("select u.id from User u where u.deletedAt < :cutoff order by u.id")
+    List<Long> findIdsDeletedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /**
+     * Locks the given users that are still soft-deleted before the cutoff, in id order, so that
+     * none of them can be reactivated until the caller's transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id in :ids and u.deletedAt < :cutoff order by u.id")
+    List<User> lockDeletedBefore(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    @EntityGraph(attributePaths = "roles")
+    List<User> findWithRolesByIdIn(Collection<Long> ids);
+
+    /**
+     * Atomically increments the user's token generation, revoking all of their tokens.
+     * Pending entity changes are flushed first and the persistence context is cleared afterwards,
+     * so no managed {@link User} keeps the old generation.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.tokenGeneration = u.tokenGeneration + 1 where u.id = :id")
+    int incrementTokenGeneration(@Param("id") Long id);
+
+    /**
+     * Case-insensitive replacement for the starter's email lookup (used by login and
+     * {@link UserDetailsServiceImpl}).
+     */
+    @Override
+    default Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return findByEmailNormalized(User.normalizeEmail(email));
+    }
+
+    /**
+     * Case-insensitive replacement for the starter's duplicate-email check (used by registration and update).
+     */
+    @Override
+    default boolean existsByEmail(String email) {
+        return email != null && existsByEmailNormalized(User.normalizeEmail(email));
+    }
+
     // TODO: Add custom query methods here if needed
 
 }
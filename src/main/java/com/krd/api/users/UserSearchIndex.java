@@ -0,0 +1,385 @@
+package com.krd.api.users;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted n-gram index over first name, last name, username and email of active users.
+ *
+ * <p>Every field is indexed by its character trigrams, plus the 1- and 2-character prefixes of
+ * each token (split on non-alphanumerics), so that:
+ * <ul>
+ *   <li>queries of 3+ characters match any substring (trigram posting lists are intersected,
+ *       then candidates are verified against the stored fields), and</li>
+ *   <li>1-2 character queries match token prefixes ("jo" finds "John" and "mary.jones@...").</li>
+ * </ul>
+ * Results are ranked exact match &gt; field prefix &gt; token prefix &gt; substring, with names and
+ * username ahead of email, then by id.
+ *
+ * <p>Keys are per field, and prefixes are further split by where they occur (field start, later
+ * token start, or the start of a field of a given length), so every rank has its own candidate
+ * lists. A search walks the ranks best first and each rank's candidates in id order, stopping at
+ * {@code limit} hits: a common name costs about as much as a rare one instead of scoring every
+ * user who has it. Run {@code UserSearchIndexBenchmark} to measure it.
+ *
+ * <p>Posting lists are sorted primitive int arrays ({@link IntPostingList}), so user ids must fit
+ * in an int. The index is built in keyset chunks from {@link UserRepository} once the application
+ * is ready, and kept current by {@link UserChangedEvent}s. Events that arrive during the build are
+ * buffered and applied after the last chunk, so a chunk read before a change cannot overwrite it.
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+
+    private static final int BUILD_CHUNK_SIZE = 1_000;
+    private static final int FIELD_COUNT = 4;
+
+    private static final long PREFIX = 1L << 62;
+    private static final int WHOLE_FIELD = 0;
+    private static final int FIELD_START = 1;
+    private static final int TOKEN_START = 2;
+    private static final int ANYWHERE = 3;
+    private static final int MAX_FIELD_LENGTH_KEY = 255;
+
+    private static final int EXACT = 400;
+    private static final int FIELD_PREFIX = 300;
+    private static final int TOKEN_PREFIX = 200;
+    private static final int SUBSTRING = 100;
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntPostingList> postings = new HashMap<>();
+    private final Map<Integer, String[]> documents = new HashMap<>();
+    private List<Change> pending;
+
+    public UserSearchIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    private record Change(UserSnapshot before, UserSnapshot after) {
+    }
+
+    /**
+     * Indexes all active users in id order, one chunk per lock acquisition so searches
+     * are never blocked for long. Changes arriving meanwhile are held back until the last
+     * chunk is indexed, then applied in order.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0;
+        int indexed = 0;
+        int replayed;
+        try {
+            List<User> chunk;
+            do {
+                chunk = loadChunk(lastId);
+
+                lock.writeLock().lock();
+                try {
+                    for (User user : chunk) {
+                        index(toIndexId(user.getId()),
+                                fields(user.getFirstName(), user.getLastName(), user.getUsername(), user.getEmail()));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                    indexed += chunk.size();
+                }
+            } while (chunk.size() == BUILD_CHUNK_SIZE);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                replayed = pending.size();
+                pending.forEach(change -> applyLocked(change.before(), change.after()));
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.info("User search index built for {} users ({} grams, {} changes replayed) in {} ms",
+                indexed, postings.size(), replayed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Next chunk of active users after {@code lastId}, in id order.
+     */
+    List<User> loadChunk(long lastId) {
+        return userRepository.findByIdGreaterThanAndDeletedAtIsNullOrderByIdAsc(lastId, Limit.of(BUILD_CHUNK_SIZE));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        apply(event.before(), event.after());
+    }
+
+    /**
+     * Replaces the indexed state of a user: removes {@code before} and indexes {@code after} if active.
+     * During a build the change is buffered and applied once the build completes.
+     */
+    public void apply(UserSnapshot before, UserSnapshot after) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(new Change(before, after));
+            } else {
+                applyLocked(before, after);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(UserSnapshot before, UserSnapshot after) {
+        if (before != null) {
+            unindex(toIndexId(before.id()));
+        }
+        if (after != null && after.active()) {
+            index(toIndexId(after.id()),
+                    fields(after.firstName(), after.lastName(), after.username(), after.email()));
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} matching user ids, best match first.
+     */
+    public List<Long> search(String query, int limit) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // Prefix keys exist only for alphanumeric token starts
+        boolean keyed = Character.isLetterOrDigit(q.charAt(0));
+        int prefixLength = keyed && q.length() > 1 && Character.isLetterOrDigit(q.charAt(1)) ? 2 : 1;
+        if (q.length() < 3 && (!keyed || prefixLength < q.length())) {
+            return List.of();
+        }
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        lock.readLock().lock();
+        try {
+            int[] kinds = {WHOLE_FIELD, FIELD_START, TOKEN_START, ANYWHERE};
+            int[] kindScores = {EXACT, FIELD_PREFIX, TOKEN_PREFIX, SUBSTRING};
+            for (int k = 0; k < kinds.length; k++) {
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    List<IntPostingList> lists = candidateLists(q, kinds[k], f, keyed, prefixLength);
+                    if (lists != null && collect(lists, q, kindScores[k] - f, limit, ids)) {
+                        return ids;
+                    }
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed (active) users.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Posting lists whose intersection holds every user that can match {@code q} as {@code kind}
+     * in field {@code f}, or null if none can: the prefix list of that kind plus the field's
+     * trigram lists of {@code q}.
+     */
+    private List<IntPostingList> candidateLists(String q, int kind, int f, boolean keyed, int prefixLength) {
+        List<IntPostingList> lists = new ArrayList<>(q.length());
+        if (kind == WHOLE_FIELD) {
+            lists.add(postings.get(wholeFieldKey(f, q)));
+        } else if (kind == ANYWHERE) {
+            if (q.length() < 3) {
+                // Short queries match token prefixes only
+                return null;
+            }
+        } else if (keyed) {
+            lists.add(postings.get(prefixKey(kind, f, q, 0, prefixLength)));
+        } else if (kind == TOKEN_START) {
+            return null;
+        }
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            lists.add(postings.get(trigramKey(f, q, i)));
+        }
+        return lists.contains(null) ? null : lists;
+    }
+
+    /**
+     * Walks the intersection of {@code lists} in id order and adds users whose best score is
+     * exactly {@code rankScore}; users scoring higher were added by an earlier, better rank.
+     * Returns true once {@code ids} holds {@code limit} users.
+     */
+    private boolean collect(List<IntPostingList> lists, String q, int rankScore, int limit, List<Long> ids) {
+        lists.sort(Comparator.comparingInt(IntPostingList::size));
+        IntPostingList smallest = lists.get(0);
+        int[] from = new int[lists.size()];
+        candidates:
+        for (int i = 0; i < smallest.size(); i++) {
+            int id = smallest.get(i);
+            for (int l = 1; l < lists.size(); l++) {
+                int pos = lists.get(l).search(id, from[l]);
+                from[l] = pos < 0 ? -pos - 1 : pos + 1;
+                if (pos < 0) {
+                    continue candidates;
+                }
+            }
+            // Trigram hits may be false positives; score() verifies them
+            if (score(documents.get(id), q) == rankScore) {
+                ids.add((long) id);
+                if (ids.size() == limit) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void index(int id, String[] fields) {
+        unindex(id);
+        documents.put(id, fields);
+        for (long key : grams(fields)) {
+            postings.computeIfAbsent(key, k -> new IntPostingList()).add(id);
+        }
+    }
+
+    private void unindex(int id) {
+        String[] fields = documents.remove(id);
+        if (fields == null) {
+            return;
+        }
+        for (long key : grams(fields)) {
+            IntPostingList list = postings.get(key);
+            if (list != null && list.remove(id) && list.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static Set<Long> grams(String[] fields) {
+        Set<Long> keys = new HashSet<>();
+        for (int f = 0; f < fields.length; f++) {
+            String field = fields[f];
+            if (!field.isEmpty()) {
+                keys.add(wholeFieldKey(f, field));
+            }
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                keys.add(trigramKey(f, field, i));
+            }
+            for (int i = 0; i < field.length(); i++) {
+                if (isTokenStart(field, i)) {
+                    int kind = i == 0 ? FIELD_START : TOKEN_START;
+                    keys.add(prefixKey(kind, f, field, i, 1));
+                    if (i + 1 < field.length() && Character.isLetterOrDigit(field.charAt(i + 1))) {
+                        keys.add(prefixKey(kind, f, field, i, 2));
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Scores the best-matching field of a document, or 0 if no field contains the query.
+     * Fields are ordered first name, last name, username, email, and earlier fields win ties.
+     */
+    private static int score(String[] fields, String q) {
+        if (fields == null) {
+            return 0;
+        }
+        int best = 0;
+        for (int f = 0; f < fields.length; f++) {
+            String field = fields[f];
+            int fieldScore = 0;
+            for (int at = field.indexOf(q); at >= 0 && fieldScore < FIELD_PREFIX; at = field.indexOf(q, at + 1)) {
+                if (at == 0) {
+                    fieldScore = field.length() == q.length() ? EXACT : FIELD_PREFIX;
+                } else if (isTokenStart(field, at)) {
+                    fieldScore = Math.max(fieldScore, TOKEN_PREFIX);
+                } else {
+                    fieldScore = Math.max(fieldScore, SUBSTRING);
+                }
+            }
+            if (fieldScore > 0) {
+                best = Math.max(best, fieldScore - f);
+            }
+        }
+        return best;
+    }
+
+    private static boolean isTokenStart(String field, int i) {
+        return Character.isLetterOrDigit(field.charAt(i))
+                && (i == 0 || !Character.isLetterOrDigit(field.charAt(i - 1)));
+    }
+
+    private static String[] fields(String firstName, String lastName, String username, String email) {
+        return new String[]{lower(firstName), lower(lastName), lower(username), lower(email)};
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trigram of {@code s} at {@code i} in field {@code f}: three 16-bit chars in bits 0-47, the
+     * field in bits 48-49.
+     */
+    private static long trigramKey(int f, String s, int i) {
+        return ((long) f << 48) | ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * Key of the {@code length} (1 or 2) characters of {@code s} at {@code i}, as a prefix of the
+     * given kind in field {@code f}. Bit 62 keeps it apart from trigram keys.
+     */
+    private static long prefixKey(int kind, int f, String s, int i, int length) {
+        long key = PREFIX | ((long) kind << 58) | ((long) f << 56) | ((long) length << 48) | ((long) s.charAt(i) << 16);
+        return length == 2 ? key | s.charAt(i + 1) : key;
+    }
+
+    /**
+     * Key of field {@code f} having the length (capped at {@value #MAX_FIELD_LENGTH_KEY}) and the
+     * first 1-2 characters of {@code s}, so exact matches need not walk every field prefix.
+     */
+    private static long wholeFieldKey(int f, String s) {
+        long length = Math.min(s.length(), MAX_FIELD_LENGTH_KEY);
+        long key = PREFIX | ((long) WHOLE_FIELD << 58) | ((long) f << 56) | (length << 48) | ((long) s.charAt(0) << 16);
+        return s.length() > 1 ? key | s.charAt(1) : key;
+    }
+
+    private static int toIndexId(Long userId) {
+        return Math.toIntExact(userId);
+    }
+}
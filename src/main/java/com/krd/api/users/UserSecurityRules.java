@@ -10,6 +10,12 @@ import org.springframework.stereotype.Component;
 public class UserSecurityRules implements SecurityRules {
     @Override
     public void configure(AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizationManagerRequestMatcherRegistry registry) {
-        registry.requestMatchers(HttpMethod.POST, "/users").permitAll();
+        registry.requestMatchers(HttpMethod.POST, "/users").permitAll()
+                .requestMatchers(HttpMethod.GET, "/users/by-role").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/users/search").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/users/stats").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/users/role-changes").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/users/changes").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/users/archived", "/users/archived/*").hasRole("ADMIN");
     }
 }
@@ -1,10 +1,30 @@
 // TODO: Rename package to match your organization (e.g., com.yourcompany.yourapp.users)
 package com.krd.api.users;
 
+import com.krd.api.common.CursorPage;
+import com.krd.api.common.PagedResponse;
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
 import com.krd.starter.user.BaseUserService;
 import com.krd.starter.user.RoleChangeLogRepository;
+import com.krd.starter.user.dto.ChangePasswordRequest;
+import com.krd.starter.user.dto.RegisterUserRequest;
+import com.krd.starter.user.dto.UpdateUserRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * User service extending BaseUserService from the spring-api-starter.
@@ -12,19 +32,270 @@ import org.springframework.stereotype.Service;
  * For complete documentation of what BaseUserService provides, see:
  * docs/STARTER_REFERENCE.md#baseuserservice
  *
+ * Every inherited mutation is wrapped so that a {@link UserChangedEvent} carrying the
+ * before/after {@link UserSnapshot} is published once it succeeds. In-memory indexes and
+ * counters ({@link RoleMembershipIndex}, {@link UserSearchIndex}, {@link UserStatistics})
+ * listen for these events instead of querying the database.
+ *
+ * New passwords (registration and password change) must pass the {@link CompiledPasswordPolicy},
+ * which can also reject parts of the user's email or username, and must not appear in the local
+ * {@link BreachedPasswords} filter.
+ *
+ * Changing the password, disabling or soft-deleting a user also increments the user's token
+ * generation, which revokes every access and refresh token issued to them so far.
+ *
+ * Profile updates and role changes are optimistically locked on {@link User#getVersion()}: they
+ * honour the request's {@code If-Match} (412 if stale, see {@link UserETags}), are flushed before
+ * returning so a concurrent write surfaces as 409, and return the new version. Role changes
+ * keep the entity's persistent role collection, so only the affected {@code user_roles} row is
+ * inserted or deleted.
+ *
+ * Every change except a password change is also appended to the {@link UserChangeFeed} (which
+ * downstream systems poll) and the {@link UserOutbox} (which pushes it to them) in the same
+ * transaction.
+ *
  * Add custom business logic methods here if needed.
  */
 @Service
+@Workload(WorkloadClass.INTERACTIVE)
 public class UserService extends BaseUserService<User, UserDto> {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_CHANGE_FEED_SIZE = 5_000;
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final RoleMembershipIndex roleMembershipIndex;
+    private final UserSearchIndex userSearchIndex;
+    private final UserStatistics userStatistics;
+    private final RoleChangeAuditRepository roleChangeAuditRepository;
+    private final UserChangeFeed userChangeFeed;
+    private final ArchivedUserRepository archivedUserRepository;
+    private final CompiledPasswordPolicy passwordPolicy;
+    private final BreachedPasswords breachedPasswords;
+    private final ApplicationEventPublisher eventPublisher;
+
     public UserService(
             UserRepository userRepository,
             UserMapper userMapper,
             PasswordEncoder passwordEncoder,
-            RoleChangeLogRepository roleChangeLogRepository) {
+            RoleChangeLogRepository roleChangeLogRepository,
+            RoleMembershipIndex roleMembershipIndex,
+            UserSearchIndex userSearchIndex,
+            UserStatistics userStatistics,
+            RoleChangeAuditRepository roleChangeAuditRepository,
+            UserChangeFeed userChangeFeed,
+            ArchivedUserRepository archivedUserRepository,
+            CompiledPasswordPolicy passwordPolicy,
+            BreachedPasswords breachedPasswords,
+            ApplicationEventPublisher eventPublisher) {
         super(userRepository, userMapper, passwordEncoder, roleChangeLogRepository);
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.roleMembershipIndex = roleMembershipIndex;
+        this.userSearchIndex = userSearchIndex;
+        this.userStatistics = userStatistics;
+        this.roleChangeAuditRepository = roleChangeAuditRepository;
+        this.userChangeFeed = userChangeFeed;
+        this.archivedUserRepository = archivedUserRepository;
+        this.passwordPolicy = passwordPolicy;
+        this.breachedPasswords = breachedPasswords;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public UserDto registerUser(RegisterUserRequest request) {
+        passwordPolicy.check(request.getPassword(), request.getEmail(), request.getUsername());
+        breachedPasswords.check(request.getPassword());
+        // Registration may reactivate a soft-deleted user with the same email
+        UserSnapshot before = userRepository.findByEmail(request.getEmail()).map(UserSnapshot::of).orElse(null);
+        UserDto registered = super.registerUser(request);
+        publishChange(UserChangedEvent.Type.CREATED, before, registered.getId());
+        return registered;
+    }
+
+    @Override
+    @Transactional
+    public UserDto updateUser(Long userId, UpdateUserRequest request) {
+        User user = userRepository.findById(userId).orElse(null);
+        UserSnapshot before = user == null ? null : UserSnapshot.of(user);
+        long version = user == null ? 0 : user.getVersion();
+
+        UserDto updated = super.updateUser(userId, request);
+        return writeVersioned(UserChangedEvent.Type.UPDATED, before, userId, version, updated);
+    }
+
+    @Override
+    @Transactional
+    public void deleteUser(Long userId) {
+        UserSnapshot before = snapshot(userId);
+        super.deleteUser(userId);
+        publishChange(UserChangedEvent.Type.DELETED, before, userId);
+    }
+
+    @Override
+    @Transactional
+    public void changePassword(Long userId, ChangePasswordRequest request) {
+        UserSnapshot before = snapshot(userId);
+        passwordPolicy.check(request.getNewPassword(),
+                before == null ? null : before.email(), before == null ? null : before.username());
+        breachedPasswords.check(request.getNewPassword());
+        super.changePassword(userId, request);
+        publishChange(UserChangedEvent.Type.PASSWORD_CHANGED, before, userId);
+    }
+
+    @Override
+    @Transactional
+    public UserDto addRole(Long userId, String role) {
+        User user = userRepository.findById(userId).orElse(null);
+        UserSnapshot before = user == null ? null : UserSnapshot.of(user);
+        long version = user == null ? 0 : user.getVersion();
+        Set<String> persistentRoles = user == null ? null : user.getRoles();
+
+        UserDto updated = super.addRole(userId, role);
+        keepPersistentRoles(user, persistentRoles);
+        return writeVersioned(UserChangedEvent.Type.ROLE_ADDED, before, userId, version, updated);
+    }
+
+    @Override
+    @Transactional
+    public UserDto removeRole(Long userId, String role) {
+        User user = userRepository.findById(userId).orElse(null);
+        UserSnapshot before = user == null ? null : UserSnapshot.of(user);
+        long version = user == null ? 0 : user.getVersion();
+        Set<String> persistentRoles = user == null ? null : user.getRoles();
+
+        UserDto updated = super.removeRole(userId, role);
+        keepPersistentRoles(user, persistentRoles);
+        return writeVersioned(UserChangedEvent.Type.ROLE_REMOVED, before, userId, version, updated);
     }
 
-    // TODO: Add custom business logic methods here
+    /**
+     * Lists active users holding all ({@link RoleMatch#ALL}) or any ({@link RoleMatch#ANY}) of the
+     * given roles, ordered by id. Served from {@link RoleMembershipIndex}; only the requested page
+     * is loaded from the database.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<UserDto> getUsersByRole(Collection<String> roles, RoleMatch match, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
 
+        RoleMembershipIndex.IdPage ids = roleMembershipIndex.find(roles, match, pageNumber, pageSize);
+        return PagedResponse.of(loadInOrder(ids.ids()), pageNumber, pageSize, ids.total());
+    }
+
+    /**
+     * Searches active users by name, username or email (prefix and substring matches), best
+     * match first. Served from {@link UserSearchIndex}; only the matched rows are loaded.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDto> searchUsers(String query, int limit) {
+        int maxResults = Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS);
+        return loadInOrder(userSearchIndex.search(query, maxResults));
+    }
+
+    /**
+     * Returns the precomputed user counters (see {@link UserStatistics}).
+     */
+    public UserStatsResponse getUserStatistics() {
+        return userStatistics.snapshot();
+    }
+
+    /**
+     * Queries the role change audit trail, newest first, one keyset page at a time
+     * (see {@link RoleChangeAuditRepository}).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RoleChangeLogEntry> getRoleChanges(RoleChangeLogFilter filter, String cursor, int limit) {
+        return roleChangeAuditRepository.find(filter, cursor, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Streams up to {@code limit} user changes after the {@code since} cursor as JSON
+     * (see {@link UserChangeFeed}).
+     */
+    public void streamChanges(String since, int limit, OutputStream out) throws IOException {
+        userChangeFeed.write(since, Math.min(Math.max(limit, 1), MAX_CHANGE_FEED_SIZE), out);
+    }
+
+    /**
+     * Archived records of a purged user, most recently archived first (see {@link ArchivedUserRepository}).
+     */
+    public List<ArchivedUser> getArchivedUsers(Long userId) {
+        return archivedUserRepository.findByUserId(userId);
+    }
+
+    /**
+     * Archived records of purged users with the given email, most recently archived first.
+     */
+    public List<ArchivedUser> getArchivedUsersByEmail(String email) {
+        return archivedUserRepository.findByEmail(email);
+    }
+
+    /**
+     * Loads users by id and maps them to DTOs, preserving the order of {@code ids}.
+     */
+    List<UserDto> loadInOrder(List<Long> ids) {
+        Map<Long, User> usersById = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .map(userMapper::toDto)
+                .toList();
+    }
+
+    /**
+     * Completes an optimistically locked write: checks {@code If-Match} against the version read
+     * before the change (after the starter's authorization and validation, so those errors win),
+     * flushes so the versioned UPDATE runs now, then publishes the change and returns the user
+     * with the new version.
+     */
+    private UserDto writeVersioned(UserChangedEvent.Type type, UserSnapshot before, Long userId,
+                                   long versionRead, UserDto starterResult) {
+        if (before == null) {
+            return starterResult;
+        }
+        UserETags.checkIfMatch(versionRead);
+        userRepository.flush();
+        publishChange(type, before, userId);
+        return userRepository.findById(userId).map(userMapper::toDto).orElse(starterResult);
+    }
+
+    /**
+     * Puts the role changes back into the entity's original persistent collection if the starter
+     * replaced it: Hibernate deletes and re-inserts every {@code user_roles} row of a replaced
+     * collection, but writes only the difference for one that was modified in place.
+     */
+    private static void keepPersistentRoles(User user, Set<String> persistentRoles) {
+        if (user == null || persistentRoles == null || user.getRoles() == persistentRoles) {
+            return;
+        }
+        Set<String> updated = user.getRoles() == null ? Set.of() : new HashSet<>(user.getRoles());
+        persistentRoles.retainAll(updated);
+        persistentRoles.addAll(updated);
+        user.setRoles(persistentRoles);
+    }
+
+    private UserSnapshot snapshot(Long userId) {
+        return userRepository.findById(userId).map(UserSnapshot::of).orElse(null);
+    }
+
+    private void publishChange(UserChangedEvent.Type type, UserSnapshot before, Long userId) {
+        // Write the users row first: the change feed locks its sequence row when the event is
+        // published, and every path must take that lock last or two writers can deadlock
+        userRepository.flush();
+        UserSnapshot after = snapshot(userId);
+        if (before == null && after == null) {
+            return;
+        }
+        UserChangedEvent event = new UserChangedEvent(type, before, after);
+        if (event.revokesTokens()) {
+            userRepository.incrementTokenGeneration(userId);
+        }
+        eventPublisher.publishEvent(event);
+    }
 }
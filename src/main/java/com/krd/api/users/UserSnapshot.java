@@ -0,0 +1,37 @@
+package com.krd.api.users;
+
+import java.util.Set;
+
+/**
+ * Immutable copy of the state of a {@link User} that in-memory indexes and counters care about.
+ * Captured by {@link UserService} before and after each mutation and carried on {@link UserChangedEvent}.
+ */
+public record UserSnapshot(
+        Long id,
+        String email,
+        String username,
+        String firstName,
+        String lastName,
+        boolean enabled,
+        boolean deleted,
+        Set<String> roles) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getEmail(),
+                user.getUsername(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.isEnabled(),
+                user.getDeletedAt() != null,
+                user.getRoles() == null ? Set.of() : Set.copyOf(user.getRoles()));
+    }
+
+    /**
+     * Active users are the ones visible in listings (not soft-deleted).
+     */
+    public boolean active() {
+        return !deleted;
+    }
+}
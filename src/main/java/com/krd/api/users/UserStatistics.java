@@ -0,0 +1,182 @@
+package com.krd.api.users;
+
+import com.krd.api.common.Workload;
+import com.krd.api.common.WorkloadClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Precomputed user counters for dashboards.
+ *
+ * <p>Counters are adjusted incrementally from {@link UserChangedEvent}s (published by
+ * {@link UserService} and {@link UserPurgeJob}), so reading them never touches the database.
+ * Changes made by other nodes or outside the application are not seen incrementally; a periodic
+ * reconciliation recounts from the database and corrects the counters, and
+ * {@link UserStatsResponse#stalenessSeconds()} reports how long ago that last happened.
+ */
+@Slf4j
+@Component
+public class UserStatistics {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong enabledUsers = new AtomicLong();
+    private final AtomicLong disabledUsers = new AtomicLong();
+    private final AtomicLong softDeletedUsers = new AtomicLong();
+    private final Map<String, AtomicLong> usersByRole = new ConcurrentHashMap<>();
+
+    private volatile Instant lastReconciledAt;
+    private volatile Instant lastUpdatedAt;
+    private volatile long lastReconcileDrift;
+
+    public UserStatistics(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, Clock.systemUTC());
+    }
+
+    UserStatistics(JdbcTemplate jdbcTemplate, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        apply(event.before(), event.after());
+    }
+
+    /**
+     * Removes the contribution of {@code before} and adds the contribution of {@code after}.
+     */
+    public void apply(UserSnapshot before, UserSnapshot after) {
+        contribute(before, -1);
+        contribute(after, 1);
+        lastUpdatedAt = clock.instant();
+    }
+
+    /**
+     * Recounts everything from the database and corrects the in-memory counters.
+     * Runs once at startup and then on a fixed delay to correct drift.
+     *
+     * <p>Counters are read before the recount and moved by the difference rather than overwritten,
+     * so events applied while the queries run are kept. A change committed just before the
+     * queries whose event is applied after the read may be counted twice until the next run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Workload(WorkloadClass.BATCH)
+    @Scheduled(fixedDelayString = "${app.user-stats.reconcile-interval:PT5M}",
+            initialDelayString = "${app.user-stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long start = System.nanoTime();
+
+        long totalBefore = totalUsers.get();
+        long enabledBefore = enabledUsers.get();
+        long disabledBefore = disabledUsers.get();
+        long softDeletedBefore = softDeletedUsers.get();
+        Map<String, Long> rolesBefore = new HashMap<>();
+        usersByRole.forEach((role, count) -> rolesBefore.put(role, count.get()));
+
+        Counts counts = count();
+
+        long drift = adjust(totalUsers, totalBefore, counts.total())
+                + adjust(enabledUsers, enabledBefore, counts.enabled())
+                + adjust(disabledUsers, disabledBefore, counts.disabled())
+                + adjust(softDeletedUsers, softDeletedBefore, counts.softDeleted());
+        for (Map.Entry<String, Long> entry : rolesBefore.entrySet()) {
+            if (!counts.byRole().containsKey(entry.getKey())) {
+                drift += adjust(usersByRole.get(entry.getKey()), entry.getValue(), 0L);
+            }
+        }
+        for (Map.Entry<String, Long> entry : counts.byRole().entrySet()) {
+            drift += adjust(usersByRole.computeIfAbsent(entry.getKey(), r -> new AtomicLong()),
+                    rolesBefore.getOrDefault(entry.getKey(), 0L), entry.getValue());
+        }
+
+        lastReconcileDrift = drift;
+        lastReconciledAt = clock.instant();
+        if (drift > 0) {
+            log.info("User statistics reconciled with drift {} in {} ms", drift, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Current counts from the database.
+     */
+    Counts count() {
+        Counts totals = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*), "
+                        + "COALESCE(SUM(CASE WHEN deleted_at IS NULL AND enabled = TRUE THEN 1 ELSE 0 END), 0), "
+                        + "COALESCE(SUM(CASE WHEN deleted_at IS NULL AND enabled = FALSE THEN 1 ELSE 0 END), 0), "
+                        + "COALESCE(SUM(CASE WHEN deleted_at IS NOT NULL THEN 1 ELSE 0 END), 0) "
+                        + "FROM users",
+                (rs, rowNum) -> new Counts(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), new TreeMap<>()));
+
+        jdbcTemplate.query(
+                "SELECT ur.role, COUNT(*) FROM user_roles ur "
+                        + "JOIN users u ON u.id = ur.user_id WHERE u.deleted_at IS NULL GROUP BY ur.role",
+                rs -> {
+                    totals.byRole().put(rs.getString(1), rs.getLong(2));
+                });
+        return totals;
+    }
+
+    public UserStatsResponse snapshot() {
+        Map<String, Long> roles = new TreeMap<>();
+        usersByRole.forEach((role, count) -> {
+            if (count.get() > 0) {
+                roles.put(role, count.get());
+            }
+        });
+
+        Instant reconciledAt = lastReconciledAt;
+        Long staleness = reconciledAt == null ? null : Duration.between(reconciledAt, clock.instant()).toSeconds();
+
+        return new UserStatsResponse(
+                totalUsers.get(),
+                enabledUsers.get(),
+                disabledUsers.get(),
+                softDeletedUsers.get(),
+                roles,
+                reconciledAt,
+                lastUpdatedAt,
+                staleness,
+                lastReconcileDrift);
+    }
+
+    private void contribute(UserSnapshot user, int delta) {
+        if (user == null) {
+            return;
+        }
+        totalUsers.addAndGet(delta);
+        if (user.deleted()) {
+            softDeletedUsers.addAndGet(delta);
+            return;
+        }
+        (user.enabled() ? enabledUsers : disabledUsers).addAndGet(delta);
+        for (String role : user.roles()) {
+            usersByRole.computeIfAbsent(role, r -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    private static long adjust(AtomicLong counter, long seenBefore, long actual) {
+        counter.addAndGet(actual - seenBefore);
+        return Math.abs(actual - seenBefore);
+    }
+
+    record Counts(long total, long enabled, long disabled, long softDeleted, Map<String, Long> byRole) {
+    }
+}
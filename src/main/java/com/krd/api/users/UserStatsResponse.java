@@ -0,0 +1,29 @@
+package com.krd.api.users;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * User counters served by {@code GET /users/stats}.
+ *
+ * @param enabledUsers       active (not soft-deleted) users that are enabled
+ * @param disabledUsers      active users that are disabled
+ * @param softDeletedUsers   soft-deleted users pending purge
+ * @param usersByRole        active users per role
+ * @param lastReconciledAt   when counters were last recounted from the database (null before the first run)
+ * @param lastUpdatedAt      when counters were last adjusted incrementally on this node
+ * @param stalenessSeconds   seconds since the last reconciliation; changes made on other nodes may be
+ *                           missing for up to this long
+ * @param lastReconcileDrift total absolute correction applied by the last reconciliation
+ */
+public record UserStatsResponse(
+        long totalUsers,
+        long enabledUsers,
+        long disabledUsers,
+        long softDeletedUsers,
+        Map<String, Long> usersByRole,
+        Instant lastReconciledAt,
+        Instant lastUpdatedAt,
+        Long stalenessSeconds,
+        long lastReconcileDrift) {
+}
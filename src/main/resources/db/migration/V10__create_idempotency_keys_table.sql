@@ -0,0 +1,33 @@
+-- ============================================================================
+-- Idempotency-Key store
+-- ============================================================================
+-- One row per (caller, Idempotency-Key) for retry-prone POST endpoints (see
+-- IdempotencyFilter). The first request inserts the row IN_PROGRESS; the
+-- primary key makes that claim atomic across nodes. When the request
+-- finishes, the response is stored and the row becomes COMPLETED, so retries
+-- replay it instead of running the request again.
+--
+-- Query shapes served:
+-- - Claim / replay / complete
+--     WHERE scope = ? AND idempotency_key = ?   (primary key)
+-- - Expiry sweep
+--     WHERE expires_at < ?                      (idx_idempotency_keys_expires_at range)
+-- ============================================================================
+
+CREATE TABLE idempotency_keys
+(
+    scope                VARCHAR(255)  NOT NULL COMMENT 'Authenticated principal, or anonymous',
+    idempotency_key      VARCHAR(255)  NOT NULL,
+    request_fingerprint  CHAR(64)      NOT NULL COMMENT 'SHA-256 of method, path, query and body',
+    status               VARCHAR(20)   NOT NULL COMMENT 'IN_PROGRESS or COMPLETED',
+    response_status      INT           NULL,
+    response_type        VARCHAR(255)  NULL COMMENT 'Content-Type of the stored response',
+    response_location    VARCHAR(2048) NULL COMMENT 'Location header of the stored response',
+    response_body        MEDIUMBLOB    NULL,
+    created_at           DATETIME      NOT NULL,
+    locked_until         DATETIME      NOT NULL COMMENT 'IN_PROGRESS lease; another node may take over after it',
+    expires_at           DATETIME      NOT NULL,
+
+    PRIMARY KEY (scope, idempotency_key),
+    INDEX idx_idempotency_keys_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,15 @@
+-- ============================================================================
+-- Optimistic locking for users
+-- ============================================================================
+-- JPA @Version column on User. Every entity update, including adding or
+-- removing a role, increments it and is written as
+--     UPDATE users SET ..., version = version + 1 WHERE id = ? AND version = ?
+-- so concurrent writers cannot silently overwrite each other; the loser gets
+-- 409 Conflict. Clients can also send the version they last read as an
+-- If-Match ETag and get 412 Precondition Failed if it is stale.
+--
+-- Write-behind columns (last_login_at, login_count) and token_generation are
+-- updated with plain SQL and deliberately do not bump the version.
+-- ============================================================================
+
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
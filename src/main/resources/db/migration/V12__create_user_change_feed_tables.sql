@@ -0,0 +1,36 @@
+-- ============================================================================
+-- Incremental user change feed (GET /users/changes)
+-- ============================================================================
+-- user_changes is an append-only log with one row per user creation, update,
+-- role change, soft delete or purge. seq is allocated from the single
+-- user_change_sequence row inside the mutating transaction. The row lock is
+-- held until commit, so sequence order is commit order: a reader that has
+-- seen seq N will never see a lower seq appear later.
+--
+-- The log is pruned after app.user-changes.retention. pruned_through records
+-- the highest seq deleted; a cursor below it has missed changes and gets
+-- 410 Gone (the client must resync from GET /users).
+--
+-- Query shapes served:
+-- - Feed page      WHERE seq > ? ORDER BY seq LIMIT ?    (primary key range)
+-- - Pruning cutoff WHERE changed_at < ?                  (idx_user_changes_changed_at)
+-- ============================================================================
+
+CREATE TABLE user_change_sequence
+(
+    id             TINYINT NOT NULL PRIMARY KEY,
+    last_seq       BIGINT  NOT NULL COMMENT 'Highest seq allocated',
+    pruned_through BIGINT  NOT NULL COMMENT 'Highest seq removed by retention pruning'
+) ENGINE=InnoDB;
+
+INSERT INTO user_change_sequence (id, last_seq, pruned_through) VALUES (1, 0, 0);
+
+CREATE TABLE user_changes
+(
+    seq         BIGINT      NOT NULL PRIMARY KEY,
+    user_id     BIGINT      NOT NULL COMMENT 'No foreign key: purged users keep their history',
+    change_type VARCHAR(20) NOT NULL COMMENT 'UserChangedEvent.Type',
+    changed_at  DATETIME    NOT NULL,
+
+    INDEX idx_user_changes_changed_at (changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,31 @@
+-- ============================================================================
+-- Transactional outbox for user lifecycle events
+-- ============================================================================
+-- UserOutbox inserts one row per user creation, update, role change, delete or
+-- purge in the same transaction as the mutation, so an event exists if and
+-- only if the change committed. UserOutboxRelay later claims rows in batches,
+-- hands them to the configured sink and deletes them once delivered.
+--
+-- available_at doubles as the claim lease: a relay claims a row by moving
+-- available_at into the future (conditional UPDATE on available_at <= now),
+-- so other relays skip it until the lease runs out. Failed deliveries are
+-- released with available_at set to the retry time.
+--
+-- Query shapes served:
+-- - Claim candidates WHERE available_at <= ? ORDER BY id LIMIT ?   (idx_user_outbox_available)
+-- - Claimed batch    WHERE id IN (...) AND claim_token = ?         (primary key)
+-- ============================================================================
+
+CREATE TABLE user_outbox
+(
+    id           BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    event_type   VARCHAR(20)  NOT NULL COMMENT 'UserChangedEvent.Type',
+    user_id      BIGINT       NOT NULL COMMENT 'No foreign key: purge events outlive the user',
+    payload      TEXT         NOT NULL COMMENT 'JSON message as delivered to the sink',
+    created_at   DATETIME(3)  NOT NULL,
+    available_at DATETIME(3)  NOT NULL COMMENT 'Earliest time the row may be claimed',
+    attempts     INT          NOT NULL DEFAULT 0,
+    claim_token  VARCHAR(36)  NULL COMMENT 'Relay claim currently holding the row',
+
+    INDEX idx_user_outbox_available (available_at, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,42 @@
+-- ============================================================================
+-- Cluster-wide leases and run history for scheduled jobs
+-- ============================================================================
+-- job_leases holds one row per job. A node runs the job only while it owns an
+-- unexpired lease: it takes the row with a conditional UPDATE (free or
+-- expired), renews lease_until on a heartbeat while the job runs and clears
+-- the owner when done. If the node dies, the lease runs out and another node
+-- takes over. fencing_token increases on every acquisition, so a node that
+-- lost its lease cannot renew or release its successor's.
+--
+-- job_runs records every run: owner, timing, outcome and items processed.
+--
+-- Query shapes served:
+-- - Acquire / renew / release  WHERE job_name = ? ...               (primary key)
+-- - Recent runs                WHERE job_name = ? ORDER BY started_at DESC (idx_job_runs_job_started)
+-- ============================================================================
+
+CREATE TABLE job_leases
+(
+    job_name       VARCHAR(100) NOT NULL PRIMARY KEY,
+    owner          VARCHAR(255) NULL COMMENT 'Node holding the lease, null when free',
+    lease_until    DATETIME(3)  NOT NULL,
+    fencing_token  BIGINT       NOT NULL COMMENT 'Incremented on every acquisition',
+    acquired_at    DATETIME(3)  NULL,
+    heartbeat_at   DATETIME(3)  NULL
+) ENGINE=InnoDB;
+
+CREATE TABLE job_runs
+(
+    id              BIGINT        NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    job_name        VARCHAR(100)  NOT NULL,
+    owner           VARCHAR(255)  NOT NULL,
+    fencing_token   BIGINT        NOT NULL,
+    status          VARCHAR(20)   NOT NULL COMMENT 'RUNNING, SUCCEEDED, FAILED, LEASE_LOST or ABANDONED',
+    started_at      DATETIME(3)   NOT NULL,
+    finished_at     DATETIME(3)   NULL,
+    duration_ms     BIGINT        NULL,
+    items_processed INT           NULL,
+    error           VARCHAR(1000) NULL,
+
+    INDEX idx_job_runs_job_started (job_name, started_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,34 @@
+-- ============================================================================
+-- Cold-storage archive of purged users
+-- ============================================================================
+-- With app.user-purge.mode=archive, UserPurgeJob copies each expired
+-- soft-deleted user here (identity, roles and lifecycle dates only; no
+-- password or tokens) in the same transaction that deletes it from users.
+-- The hot users table and its indexes only ever hold live and recently
+-- deleted users.
+--
+-- A user id may appear more than once: a deleted account can be reactivated
+-- by registering again, then deleted and purged again.
+--
+-- Query shapes served:
+-- - Lookup by user id  WHERE user_id = ?           (idx_archived_users_user_id)
+-- - Lookup by email    WHERE email_normalized = ?  (idx_archived_users_email_normalized)
+-- ============================================================================
+
+CREATE TABLE archived_users
+(
+    id               BIGINT        NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    user_id          BIGINT        NOT NULL COMMENT 'users.id at the time of the purge',
+    email            VARCHAR(255)  NOT NULL,
+    email_normalized VARCHAR(255)  NOT NULL,
+    username         VARCHAR(255)  NULL,
+    first_name       VARCHAR(255)  NULL,
+    last_name        VARCHAR(255)  NULL,
+    roles            VARCHAR(1000) NOT NULL COMMENT 'Comma-separated, sorted',
+    last_login_at    DATETIME      NULL,
+    deleted_at       DATETIME      NOT NULL,
+    archived_at      DATETIME      NOT NULL,
+
+    INDEX idx_archived_users_user_id (user_id),
+    INDEX idx_archived_users_email_normalized (email_normalized)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,31 @@
+-- ============================================================================
+-- Online backfills of user columns (UserBackfillMigration / UserBackfillRunner)
+-- ============================================================================
+-- A backfill migration only registers its backfill here; the rows themselves
+-- are updated after startup by UserBackfillRunner, in keyset chunks of
+-- app.user-backfills.chunk-size users (id > last_id ORDER BY id), one short
+-- transaction per chunk. last_id is the checkpoint, committed with each
+-- chunk, so a restarted or failed-over backfill resumes where it stopped.
+--
+-- target_id is MAX(users.id) at registration, used for progress reporting
+-- only: a backfill completes when a chunk comes back empty.
+--
+-- Query shapes served:
+-- - Checkpoint / status  WHERE name = ?  (primary key)
+-- - Pending backfills    full scan (a handful of rows)
+-- ============================================================================
+
+CREATE TABLE user_backfills
+(
+    name           VARCHAR(200)  NOT NULL PRIMARY KEY COMMENT 'Class name of the backfill migration',
+    status         VARCHAR(20)   NOT NULL COMMENT 'PENDING, RUNNING, FAILED or COMPLETED',
+    last_id        BIGINT        NOT NULL DEFAULT 0 COMMENT 'Highest users.id processed (checkpoint)',
+    target_id      BIGINT        NOT NULL DEFAULT 0 COMMENT 'MAX(users.id) at registration',
+    rows_processed BIGINT        NOT NULL DEFAULT 0,
+    rows_updated   BIGINT        NOT NULL DEFAULT 0,
+    registered_at  DATETIME(3)   NOT NULL,
+    started_at     DATETIME(3)   NULL,
+    updated_at     DATETIME(3)   NULL,
+    completed_at   DATETIME(3)   NULL,
+    error          VARCHAR(1000) NULL COMMENT 'Last chunk failure, cleared by the next successful chunk'
+) ENGINE=InnoDB;
@@ -0,0 +1,12 @@
+-- ============================================================================
+-- Per-user ordering of outbox deliveries
+-- ============================================================================
+-- UserOutbox only claims a user's event when no earlier event of the same user
+-- is in flight or waiting for a retry, so a failed batch can no longer let a
+-- later change of that user overtake an earlier one at the sink.
+--
+-- Query shapes served:
+-- - Earlier event of the user  WHERE user_id = ? AND id < ? AND available_at > ?  (idx_user_outbox_user)
+-- ============================================================================
+
+CREATE INDEX idx_user_outbox_user ON user_outbox (user_id, id, available_at);
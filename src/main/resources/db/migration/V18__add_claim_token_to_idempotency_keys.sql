@@ -0,0 +1,13 @@
+-- ============================================================================
+-- Claim holder for Idempotency-Keys
+-- ============================================================================
+-- Each claim or takeover of an IN_PROGRESS key records a fresh claim_token.
+-- Completing or releasing the key requires the same token, so a request
+-- whose lease ran out and was taken over by a retry can no longer store its
+-- response over the retry's claim or delete it.
+--
+-- Query shapes served:
+-- - Complete / release  WHERE scope = ? AND idempotency_key = ? AND claim_token = ?  (primary key)
+-- ============================================================================
+
+ALTER TABLE idempotency_keys ADD COLUMN claim_token VARCHAR(36) NULL;
@@ -0,0 +1,9 @@
+-- ============================================================================
+-- ETag of stored idempotent responses
+-- ============================================================================
+-- Responses to versioned user writes carry the new version as an ETag. A
+-- replayed response must return it too, or a client that retried would have
+-- no version to send as If-Match on its next update.
+-- ============================================================================
+
+ALTER TABLE idempotency_keys ADD COLUMN response_etag VARCHAR(255) NULL;
@@ -0,0 +1,26 @@
+-- ============================================================================
+-- Dead letters of the user event outbox
+-- ============================================================================
+-- An event the sink keeps rejecting is retried up to
+-- app.user-outbox.max-attempts times, then moved here by UserOutboxRelay
+-- (same transaction as its delete from user_outbox). It no longer holds back
+-- the user's later events, and stays available for inspection and manual
+-- redelivery.
+--
+-- Query shapes served:
+-- - Dead letters of a user  WHERE user_id = ? ORDER BY id  (idx_user_outbox_dead_letters_user)
+-- ============================================================================
+
+CREATE TABLE user_outbox_dead_letters
+(
+    id         BIGINT        NOT NULL PRIMARY KEY COMMENT 'user_outbox.id of the event',
+    event_type VARCHAR(20)   NOT NULL COMMENT 'UserChangedEvent.Type',
+    user_id    BIGINT        NOT NULL,
+    payload    TEXT          NOT NULL COMMENT 'JSON message as it would have been delivered',
+    created_at DATETIME(3)   NOT NULL,
+    attempts   INT           NOT NULL,
+    failed_at  DATETIME(3)   NOT NULL,
+    last_error VARCHAR(1000) NULL COMMENT 'Failure of the last attempt, truncated',
+
+    INDEX idx_user_outbox_dead_letters_user (user_id, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
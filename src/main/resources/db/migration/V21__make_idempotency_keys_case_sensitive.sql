@@ -0,0 +1,18 @@
+-- ============================================================================
+-- Case-sensitive Idempotency-Keys
+-- ============================================================================
+-- Keys are opaque client-generated tokens (often base64 or mixed-case ids).
+-- Under the table's utf8mb4_unicode_ci collation the primary key compared
+-- them case-insensitively, so "abc" and "ABC" were the same key and the
+-- second request replayed the first one's response. Compare both key columns
+-- byte for byte instead.
+--
+-- Query shapes served (unchanged):
+-- - Claim / replay / complete
+--     WHERE scope = ? AND idempotency_key = ?   (primary key)
+-- ============================================================================
+
+ALTER TABLE idempotency_keys
+    MODIFY scope VARCHAR(255) COLLATE utf8mb4_bin NOT NULL COMMENT 'Authenticated principal, or anonymous';
+ALTER TABLE idempotency_keys
+    MODIFY idempotency_key VARCHAR(255) COLLATE utf8mb4_bin NOT NULL;
@@ -0,0 +1,42 @@
+-- ============================================================================
+-- Soft-delete-aware composite indexes for users
+-- ============================================================================
+-- Almost every BaseUserRepository query filters on "deleted_at IS NULL" and
+-- then sorts or filters on a second column. V1 only created single-column
+-- indexes, so MySQL either scanned idx_users_deleted_at and filesorted, or
+-- ignored it entirely because "deleted_at IS NULL" matches most of the table.
+--
+-- MySQL has no partial indexes, so each index below leads with deleted_at.
+-- An "IS NULL" equality on that prefix turns it into a partial-style index
+-- over active users, and the second column then serves the ORDER BY or
+-- filter without a sort. InnoDB secondary indexes carry the primary key, so
+-- queries that only need id (existence checks, id-only pagination) are
+-- covered without touching the clustered index.
+--
+-- Query shapes served:
+-- - GET /users?sort=email|firstName|lastName|username
+--     WHERE deleted_at IS NULL ORDER BY <sort column>
+-- - Login / active user checks
+--     WHERE deleted_at IS NULL AND enabled = ?
+-- - Scheduled hard delete
+--     WHERE deleted_at < :cutoff   (range on the deleted_at prefix)
+--
+-- Redundant indexes removed to cut write amplification on every INSERT and
+-- UPDATE of users:
+-- - idx_users_email / idx_users_username duplicate the UNIQUE constraints
+-- - idx_users_deleted_at is a left prefix of every new composite index
+-- - idx_users_enabled is a low-cardinality boolean that is never used alone
+--
+-- Query plans are guarded by UserQueryPlanTest (EXPLAIN on H2 in MySQL mode).
+-- ============================================================================
+
+CREATE INDEX idx_users_active_email ON users (deleted_at, email);
+CREATE INDEX idx_users_active_username ON users (deleted_at, username);
+CREATE INDEX idx_users_active_first_name ON users (deleted_at, first_name);
+CREATE INDEX idx_users_active_last_name ON users (deleted_at, last_name);
+CREATE INDEX idx_users_active_enabled ON users (deleted_at, enabled);
+
+DROP INDEX idx_users_email ON users;
+DROP INDEX idx_users_username ON users;
+DROP INDEX idx_users_deleted_at ON users;
+DROP INDEX idx_users_enabled ON users;
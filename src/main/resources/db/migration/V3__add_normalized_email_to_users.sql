@@ -0,0 +1,22 @@
+-- ============================================================================
+-- Normalized email column for case-insensitive lookups
+-- ============================================================================
+-- Login (UserDetailsServiceImpl.loadUserByUsername) and duplicate checks must
+-- match emails regardless of case. A LOWER(email) predicate cannot use an
+-- index and degrades to a full scan, so we store the lower-cased, trimmed
+-- email in its own column with a unique index and seek on that instead.
+--
+-- The column is maintained by the User entity on every persist/update and all
+-- UserRepository email lookups route through it.
+--
+-- NOTE: If existing data contains emails that differ only by case, the unique
+-- index below will fail to build. Resolve those duplicates before migrating.
+-- ============================================================================
+
+ALTER TABLE users ADD COLUMN email_normalized VARCHAR(255) NULL;
+
+UPDATE users SET email_normalized = LOWER(TRIM(email));
+
+ALTER TABLE users MODIFY COLUMN email_normalized VARCHAR(255) NOT NULL;
+
+CREATE UNIQUE INDEX uk_users_email_normalized ON users (email_normalized);
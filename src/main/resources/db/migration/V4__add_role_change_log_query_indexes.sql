@@ -0,0 +1,26 @@
+-- ============================================================================
+-- Composite indexes for role change audit queries
+-- ============================================================================
+-- GET /users/role-changes filters by user, actor or role, optionally bounded
+-- by a changed_at range, and pages newest first with a (changed_at, id)
+-- keyset cursor. V1 only indexed single columns, so every audit query had to
+-- fetch all rows for the user/actor and filesort them.
+--
+-- Each index below ends with (changed_at, id), so the range predicate and the
+-- keyset seek are resolved inside the index and rows come back already in
+-- page order. idx_role_change_changed_at from V1 serves unfiltered queries
+-- (InnoDB secondary indexes carry the primary key, so it is effectively
+-- (changed_at, id)).
+--
+-- idx_role_change_action is dropped: ADDED/REMOVED is a two-value column that
+-- is only ever used as a residual filter.
+--
+-- On MySQL the table is additionally range-partitioned by month (see
+-- db/vendor/mysql/V5__partition_role_change_logs_by_month.sql).
+-- ============================================================================
+
+CREATE INDEX idx_role_change_user_time ON role_change_logs (user_id, changed_at, id);
+CREATE INDEX idx_role_change_by_user_time ON role_change_logs (changed_by_user_id, changed_at, id);
+CREATE INDEX idx_role_change_role_time ON role_change_logs (role, changed_at, id);
+
+DROP INDEX idx_role_change_action ON role_change_logs;
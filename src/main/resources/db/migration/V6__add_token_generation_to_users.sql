@@ -0,0 +1,13 @@
+-- ============================================================================
+-- Per-user token generation
+-- ============================================================================
+-- Every access and refresh token carries the user's token generation in its
+-- "gen" claim (see CachingJwtService). A token is only accepted while its
+-- generation matches the current value here, so incrementing this column
+-- revokes all of a user's outstanding tokens at once without tracking them.
+--
+-- Incremented by UserService when the password changes or the user is
+-- disabled or soft-deleted. Existing tokens (no claim) count as generation 0.
+-- ============================================================================
+
+ALTER TABLE users ADD COLUMN token_generation INT DEFAULT 0 NOT NULL;
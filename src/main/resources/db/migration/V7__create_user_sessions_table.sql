@@ -0,0 +1,37 @@
+-- ============================================================================
+-- Refresh token session registry
+-- ============================================================================
+-- One row per refresh token issued at login (the token's "sid" claim is the
+-- row id). A refresh token is only accepted while its row exists, so deleting
+-- a row revokes that device's session (see SessionRegistry).
+--
+-- Query shapes served:
+-- - GET /auth/sessions
+--     WHERE user_id = ? AND expires_at > ? ORDER BY last_used_at DESC
+--     (idx_user_sessions_user_last_used, no sort)
+-- - Expiry sweep
+--     WHERE expires_at < ?   (idx_user_sessions_expires_at range)
+-- - Refresh token check / revoke one session
+--     WHERE id = ?           (primary key)
+--
+-- last_used_at is written behind in batches, so it can lag by up to
+-- app.sessions.last-used-flush-interval.
+-- ============================================================================
+
+CREATE TABLE user_sessions
+(
+    id           VARCHAR(36)  NOT NULL PRIMARY KEY COMMENT 'Refresh token sid claim',
+    user_id      BIGINT       NOT NULL,
+    device       VARCHAR(255) NULL COMMENT 'User-Agent at login, truncated',
+    ip_address   VARCHAR(45)  NULL,
+    issued_at    DATETIME     NOT NULL,
+    last_used_at DATETIME     NOT NULL,
+    expires_at   DATETIME     NOT NULL,
+
+    CONSTRAINT fk_user_sessions_user
+        FOREIGN KEY (user_id) REFERENCES users (id)
+            ON DELETE CASCADE,
+
+    INDEX idx_user_sessions_user_last_used (user_id, last_used_at),
+    INDEX idx_user_sessions_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,12 @@
+-- ============================================================================
+-- Last login tracking for inactivity policies
+-- ============================================================================
+-- Written behind by LoginActivityBuffer: logins are coalesced in memory per
+-- user (latest timestamp wins, counts add up) and flushed periodically as one
+-- batched UPDATE, so POST /auth/login never waits on a write to users.
+--
+-- Both columns may lag by up to app.login-activity.flush-interval.
+-- ============================================================================
+
+ALTER TABLE users ADD COLUMN last_login_at DATETIME NULL;
+ALTER TABLE users ADD COLUMN login_count BIGINT DEFAULT 0 NOT NULL;
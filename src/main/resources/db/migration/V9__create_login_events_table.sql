@@ -0,0 +1,32 @@
+-- ============================================================================
+-- Append-only login event log
+-- ============================================================================
+-- One row per login attempt handled by AuthService.login, for security
+-- analytics. Rows are never updated: LoginEventLog buffers events in memory
+-- and writes them with multi-row INSERTs, then deletes rows older than
+-- app.login-events.retention in batches.
+--
+-- There is deliberately no foreign key to users: failed attempts carry no
+-- user id, and the history must survive a user being purged.
+--
+-- Query shapes served:
+-- - Retention pruning
+--     WHERE occurred_at < ? ORDER BY occurred_at   (idx_login_events_occurred_at)
+-- - Attempts for an account / from an address over time
+--     WHERE email = ? AND occurred_at >= ?          (idx_login_events_email_time)
+--     WHERE ip_address = ? AND occurred_at >= ?     (idx_login_events_ip_time)
+-- ============================================================================
+
+CREATE TABLE login_events
+(
+    id          BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    occurred_at DATETIME     NOT NULL,
+    email       VARCHAR(255) NOT NULL COMMENT 'Normalized email as submitted, truncated',
+    user_id     BIGINT       NULL COMMENT 'Set for successful logins only',
+    ip_address  VARCHAR(45)  NULL,
+    outcome     VARCHAR(20)  NOT NULL COMMENT 'LoginOutcome',
+
+    INDEX idx_login_events_occurred_at (occurred_at),
+    INDEX idx_login_events_email_time (email, occurred_at),
+    INDEX idx_login_events_ip_time (ip_address, occurred_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.krd.starter.jwt.dto.LoginRequest;
 import com.krd.api.users.User;
 import com.krd.api.users.UserRepository;
+import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,11 +15,17 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -145,4 +152,116 @@ class AuthControllerIntegrationTest {
                         .content(invalidJson))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @DisplayName("POST /auth/login - Locked out with 429 and Retry-After after repeated wrong passwords")
+    void login_AfterRepeatedFailures_ReturnsTooManyRequests() throws Exception {
+        // Separate account so the lockout does not leak into other tests sharing the context
+        userRepository.save(User.builder()
+                .email("lockout@example.com")
+                .password(passwordEncoder.encode("Test123!"))
+                .username("lockout")
+                .roles(new HashSet<>(Set.of("USER")))
+                .enabled(true)
+                .build());
+
+        LoginRequest wrongPassword = new LoginRequest();
+        wrongPassword.setEmail("lockout@example.com");
+        wrongPassword.setPassword("WrongPassword123!");
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(wrongPassword)))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        LoginRequest correctPassword = new LoginRequest();
+        correctPassword.setEmail("LOCKOUT@example.com");
+        correctPassword.setPassword("Test123!");
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(correctPassword)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.status").value(429));
+    }
+
+    @Test
+    @DisplayName("GET /auth/sessions - Lists one session per login with its device")
+    void getSessions_AfterTwoLogins_ListsBothDevices() throws Exception {
+        login("Laptop");
+        String token = login("Phone");
+
+        mockMvc.perform(get("/auth/sessions")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].device", containsInAnyOrder("Laptop", "Phone")));
+    }
+
+    @Test
+    @DisplayName("DELETE /auth/sessions/{id} - Revokes one session; unknown ids return 404")
+    void revokeSession_RemovesOnlyThatSession() throws Exception {
+        login("Laptop");
+        String token = login("Phone");
+
+        String sessions = mockMvc.perform(get("/auth/sessions")
+                        .header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getContentAsString();
+        String sessionId = objectMapper.readTree(sessions).get(0).get("id").asText();
+
+        mockMvc.perform(delete("/auth/sessions/" + sessionId)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/auth/sessions/" + sessionId)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/auth/sessions")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("POST /auth/revoke-refresh-token - Logging out ends that session")
+    void logout_RemovesSession() throws Exception {
+        login("Laptop");
+        MvcResult phone = loginResult("Phone");
+        String token = objectMapper.readTree(phone.getResponse().getContentAsString()).get("token").asText();
+        Cookie refreshToken = phone.getResponse().getCookie(LogoutSessionFilter.REFRESH_COOKIE);
+        assertThat(refreshToken).isNotNull();
+
+        mockMvc.perform(post("/auth/revoke-refresh-token")
+                        .cookie(refreshToken))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(get("/auth/sessions")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].device").value("Laptop"));
+    }
+
+    @Test
+    @DisplayName("GET /auth/sessions - Fail without authentication")
+    void getSessions_WithoutToken_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/auth/sessions"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String login(String userAgent) throws Exception {
+        String response = loginResult(userAgent).getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("token").asText();
+    }
+
+    private MvcResult loginResult(String userAgent) throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@example.com");
+        loginRequest.setPassword("Test123!");
+
+        return mockMvc.perform(post("/auth/login")
+                        .header("User-Agent", userAgent)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
 }
@@ -0,0 +1,237 @@
+package com.krd.api.auth;
+
+import com.krd.api.users.UserChangedEvent;
+import com.krd.api.users.UserSnapshot;
+import com.krd.starter.jwt.Jwt;
+import com.krd.starter.jwt.JwtConfig;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Caching JWT Service Tests")
+class CachingJwtServiceTest {
+
+    private static final String SECRET = "test-secret-key-for-integration-tests-must-be-long-enough";
+
+    private final SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    private final Map<Long, Integer> storedGenerations = new ConcurrentHashMap<>();
+    private MutableClock clock;
+    private TokenGenerationRegistry generations;
+    private CachingJwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setAccessTokenExpiration(900);
+        jwtConfig.setRefreshTokenExpiration(604800);
+
+        clock = new MutableClock(Instant.now());
+        generations = new TokenGenerationRegistry(
+                userId -> storedGenerations.getOrDefault(userId, 0), Duration.ofSeconds(30), 10_000);
+        // No refresh tokens are issued here, so no session registry is needed
+        jwtService = new CachingJwtService(jwtConfig, new JwtCacheProperties(), generations, null, clock);
+    }
+
+    @Test
+    @DisplayName("A valid token is verified once and then served from the cache")
+    void parseToken_RepeatedToken_HitsCache() {
+        String token = token(42L, Duration.ofMinutes(15));
+
+        Jwt first = jwtService.parseToken(token);
+        Jwt second = jwtService.parseToken(token);
+
+        assertThat(first).isNotNull();
+        assertThat(first.getUserId()).isEqualTo(42L);
+        assertThat(second).isSameAs(first);
+        assertThat(jwtService.cachedTokens()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A cached token is rejected once its exp has passed")
+    void parseToken_AfterExpiry_ReturnsNull() {
+        String token = token(42L, Duration.ofMinutes(15));
+        assertThat(jwtService.parseToken(token)).isNotNull();
+
+        clock.advance(Duration.ofMinutes(15).plusSeconds(1));
+
+        assertThat(jwtService.parseToken(token)).isNull();
+        assertThat(jwtService.parseToken(token)).isNull();
+    }
+
+    @Test
+    @DisplayName("Expired, forged and malformed tokens are rejected and never cached")
+    void parseToken_InvalidTokens_ReturnNullAndAreNotCached() {
+        String expired = token(42L, Duration.ofSeconds(-1));
+        String forged = Jwts.builder()
+                .subject("42")
+                .expiration(Date.from(clock.instant().plus(Duration.ofMinutes(15))))
+                .signWith(Keys.hmacShaKeyFor("another-secret-key-that-is-also-long-enough!!".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        String valid = token(42L, Duration.ofMinutes(15));
+        String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("A") ? "BB" : "AA");
+
+        assertThat(jwtService.parseToken(expired)).isNull();
+        assertThat(jwtService.parseToken(forged)).isNull();
+        assertThat(jwtService.parseToken(tampered)).isNull();
+        assertThat(jwtService.parseToken("not.a.token")).isNull();
+        assertThat(jwtService.parseToken("")).isNull();
+        assertThat(jwtService.cachedTokens()).isZero();
+    }
+
+    @Test
+    @DisplayName("Tokens generated by the service round-trip through the cache")
+    void parseToken_GeneratedAccessToken_IsAccepted() {
+        com.krd.api.users.User user = com.krd.api.users.User.builder()
+                .id(7L)
+                .email("cache@example.com")
+                .password("hash")
+                .roles(Set.of("USER"))
+                .enabled(true)
+                .build();
+
+        String token = jwtService.generateAccessToken(user).toString();
+
+        assertThat(jwtService.parseToken(token)).isNotNull();
+        assertThat(jwtService.parseToken(token).getUserId()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("Issued tokens carry the user's current token generation")
+    void generateAccessToken_EmbedsTokenGeneration() {
+        storedGenerations.put(7L, 3);
+        com.krd.api.users.User user = com.krd.api.users.User.builder()
+                .id(7L)
+                .email("cache@example.com")
+                .password("hash")
+                .roles(Set.of("USER"))
+                .enabled(true)
+                .tokenGeneration(3)
+                .build();
+
+        String token = jwtService.generateAccessToken(user).toString();
+
+        Integer generation = Jwts.parser().verifyWith(key).build()
+                .parseSignedClaims(token).getPayload()
+                .get(CachingJwtService.GENERATION_CLAIM, Integer.class);
+        assertThat(generation).isEqualTo(3);
+        assertThat(jwtService.parseToken(token)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Bumping the generation revokes cached and uncached tokens at once")
+    void parseToken_AfterGenerationBump_RejectsAllOlderTokens() {
+        String access = token(42L, Duration.ofMinutes(15));
+        String refresh = token(42L, Duration.ofDays(7));
+        assertThat(jwtService.parseToken(access)).isNotNull();
+
+        storedGenerations.put(42L, 1);
+        generations.invalidate(42L);
+
+        assertThat(jwtService.parseToken(access)).isNull();
+        assertThat(jwtService.parseToken(refresh)).isNull();
+        assertThat(jwtService.parseToken(token(42L, 1, Duration.ofMinutes(15)))).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Tokens of disabled or deleted users are rejected")
+    void parseToken_RevokedUser_ReturnsNull() {
+        String token = token(42L, Duration.ofMinutes(15));
+        storedGenerations.put(42L, TokenGenerationRegistry.REVOKED);
+
+        assertThat(jwtService.parseToken(token)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deleting a user or changing a password evicts that user's tokens only")
+    void onUserChanged_Revocation_EvictsUsersTokens() {
+        String revoked = token(42L, Duration.ofMinutes(15));
+        String other = token(43L, Duration.ofMinutes(15));
+        Jwt cachedRevoked = jwtService.parseToken(revoked);
+        Jwt cachedOther = jwtService.parseToken(other);
+
+        jwtService.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.PASSWORD_CHANGED,
+                snapshot(42L), snapshot(42L)));
+
+        assertThat(jwtService.cachedTokens()).isEqualTo(1);
+        assertThat(jwtService.parseToken(other)).isSameAs(cachedOther);
+        // Re-verified from scratch rather than served from the cache
+        assertThat(jwtService.parseToken(revoked)).isNotNull().isNotSameAs(cachedRevoked);
+    }
+
+    @Test
+    @DisplayName("With the cache disabled every call verifies the token")
+    void parseToken_CacheDisabled_VerifiesEachTime() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        JwtCacheProperties properties = new JwtCacheProperties();
+        properties.setEnabled(false);
+        CachingJwtService uncached = new CachingJwtService(jwtConfig, properties, generations, null, clock);
+        String token = token(42L, Duration.ofMinutes(15));
+
+        assertThat(uncached.parseToken(token)).isNotNull().isNotSameAs(uncached.parseToken(token));
+        assertThat(uncached.cachedTokens()).isZero();
+    }
+
+    private String token(Long userId, Duration ttl) {
+        return token(userId, 0, ttl);
+    }
+
+    private String token(Long userId, int generation, Duration ttl) {
+        return Jwts.builder()
+                .subject(userId.toString())
+                .claim(CachingJwtService.GENERATION_CLAIM, generation)
+                .issuedAt(Date.from(clock.instant()))
+                .expiration(Date.from(clock.instant().plus(ttl)))
+                .signWith(key)
+                .compact();
+    }
+
+    private static UserSnapshot snapshot(Long id) {
+        return new UserSnapshot(id, "user@example.com", "user", "First", "Last", true, false, Set.of("USER"));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.krd.api.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("Login Activity Buffer Tests")
+class LoginActivityBufferTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private long userId;
+    private long otherUserId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM user_roles");
+        jdbcTemplate.update("DELETE FROM users");
+        userId = insertUser("logins@example.com");
+        otherUserId = insertUser("other@example.com");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Logins stay in memory until flushed")
+    void recordLogin_DoesNotWriteSynchronously() {
+        LoginActivityBuffer buffer = bufferAt(NOW);
+
+        buffer.recordLogin(userId);
+
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.login.activity.buffer.size").gauge().value()).isEqualTo(1);
+        assertThat(loginState(userId)).containsEntry("login_count", 0L);
+        assertThat(loginState(userId).get("last_login_at")).isNull();
+    }
+
+    @Test
+    @DisplayName("Repeated logins coalesce: latest timestamp wins and counts add up")
+    void flush_CoalescesLoginsPerUser() {
+        LoginActivityBuffer buffer = bufferAt(NOW.plusSeconds(60));
+        buffer.recordLogin(userId);
+        buffer.recordLogin(userId);
+        buffer.recordLogin(userId);
+
+        buffer.flush();
+
+        assertThat(loginState(userId))
+                .containsEntry("login_count", 3L)
+                .containsEntry("last_login_at", Timestamp.valueOf(local(NOW.plusSeconds(60))));
+        assertThat(loginState(otherUserId)).containsEntry("login_count", 0L);
+    }
+
+    @Test
+    @DisplayName("A late flush of older logins adds its count without moving last_login_at back")
+    void flush_OlderLogins_KeepLatestTimestamp() {
+        LoginActivityBuffer later = bufferAt(NOW.plusSeconds(60));
+        LoginActivityBuffer earlier = bufferAt(NOW);
+        later.recordLogin(userId);
+        earlier.recordLogin(userId);
+
+        later.flush();
+        earlier.flush();
+
+        assertThat(loginState(userId))
+                .containsEntry("login_count", 2L)
+                .containsEntry("last_login_at", Timestamp.valueOf(local(NOW.plusSeconds(60))));
+    }
+
+    @Test
+    @DisplayName("Flushing empties the buffer and records metrics")
+    void flush_EmptiesBufferAndRecordsMetrics() {
+        LoginActivityBuffer buffer = bufferAt(NOW);
+        buffer.recordLogin(userId);
+        buffer.recordLogin(otherUserId);
+
+        buffer.flush();
+
+        assertThat(buffer.size()).isZero();
+        assertThat(meterRegistry.get("auth.login.activity.flush").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.login.activity.flushed").counter().count()).isEqualTo(2);
+    }
+
+    private LoginActivityBuffer bufferAt(Instant instant) {
+        return new LoginActivityBuffer(jdbcTemplate, meterRegistry, Clock.fixed(instant, ZoneId.systemDefault()));
+    }
+
+    private Map<String, Object> loginState(long id) {
+        return jdbcTemplate.queryForMap("SELECT last_login_at, login_count FROM users WHERE id = ?", id);
+    }
+
+    private static LocalDateTime local(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private long insertUser(String email) {
+        jdbcTemplate.update(
+                "INSERT INTO users (email, email_normalized, password, enabled) VALUES (?, ?, 'hash', TRUE)",
+                email, email);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+}
@@ -0,0 +1,117 @@
+package com.krd.api.auth;
+
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.JobLeaseProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("Login Event Log Tests")
+class LoginEventLogTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginEventProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM login_events");
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new LoginEventProperties();
+        properties.setBufferCapacity(10);
+        properties.setInsertBatchSize(4);
+        properties.setPruneBatchSize(2);
+    }
+
+    @Test
+    @DisplayName("Events are buffered and written in multi-row batches on flush")
+    void flush_WritesBufferedEvents() {
+        LoginEventLog eventLog = logAt(NOW);
+        for (int i = 0; i < 9; i++) {
+            eventLog.record("user" + i + "@example.com", null, "203.0.113.7", LoginOutcome.BAD_CREDENTIALS);
+        }
+        eventLog.record("user@example.com", 42L, "203.0.113.7", LoginOutcome.SUCCESS);
+        assertThat(countEvents()).isZero();
+
+        eventLog.flush();
+
+        assertThat(eventLog.size()).isZero();
+        assertThat(countEvents()).isEqualTo(10);
+        assertThat(meterRegistry.get("auth.login.events.written").counter().count()).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForMap("SELECT user_id, ip_address, outcome, occurred_at FROM login_events "
+                        + "WHERE email = 'user@example.com'"))
+                .containsEntry("user_id", 42L)
+                .containsEntry("ip_address", "203.0.113.7")
+                .containsEntry("outcome", "SUCCESS")
+                .containsEntry("occurred_at", Timestamp.valueOf(local(NOW)));
+    }
+
+    @Test
+    @DisplayName("A full buffer drops new events instead of blocking")
+    void record_WhenBufferFull_DropsAndCounts() {
+        LoginEventLog eventLog = logAt(NOW);
+        for (int i = 0; i < 10; i++) {
+            assertThat(eventLog.record("user@example.com", null, null, LoginOutcome.BAD_CREDENTIALS)).isTrue();
+        }
+
+        assertThat(eventLog.record("user@example.com", null, null, LoginOutcome.BAD_CREDENTIALS)).isFalse();
+        assertThat(meterRegistry.get("auth.login.events.dropped").counter().count()).isEqualTo(1);
+
+        eventLog.flush();
+        assertThat(countEvents()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Pruning deletes only events older than the retention")
+    void prune_DeletesExpiredEvents() {
+        LoginEventLog old = logAt(NOW.minus(Duration.ofDays(100)));
+        for (int i = 0; i < 5; i++) {
+            old.record("old@example.com", null, null, LoginOutcome.BAD_CREDENTIALS);
+        }
+        old.flush();
+        LoginEventLog recent = logAt(NOW.minus(Duration.ofDays(10)));
+        recent.record("recent@example.com", null, null, LoginOutcome.BAD_CREDENTIALS);
+        recent.flush();
+
+        int removed = logAt(NOW).prune();
+
+        assertThat(removed).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForList("SELECT email FROM login_events", String.class))
+                .containsExactly("recent@example.com");
+    }
+
+    private LoginEventLog logAt(Instant instant) {
+        return new LoginEventLog(jdbcTemplate, properties, meterRegistry,
+                new JobLeaseManager(jdbcTemplate, new JobLeaseProperties()), Clock.fixed(instant, ZoneId.systemDefault()));
+    }
+
+    private int countEvents() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM login_events", Integer.class);
+    }
+
+    private static LocalDateTime local(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,133 @@
+package com.krd.api.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Login Failure Tracker Tests")
+class LoginFailureTrackerTest {
+
+    private static final String EMAIL = "victim@example.com";
+    private static final String IP = "203.0.113.7";
+
+    private MutableClock clock;
+    private LoginLockoutProperties properties;
+    private LoginFailureTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        // Start exactly on a bucket boundary so retry-after values are round numbers
+        clock = new MutableClock(Instant.parse("2026-10-18T12:00:00Z"));
+        properties = new LoginLockoutProperties();
+        properties.setWindow(Duration.ofMinutes(15));
+        properties.setBuckets(15);
+        properties.setMaxAccountFailures(3);
+        properties.setMaxIpFailures(5);
+        tracker = new LoginFailureTracker(properties, clock);
+    }
+
+    @Test
+    @DisplayName("An account is locked out once it reaches the failure limit")
+    void lockedOutFor_AfterMaxAccountFailures_ReturnsRetryAfter() {
+        tracker.recordFailure(EMAIL, IP);
+        tracker.recordFailure(EMAIL, IP);
+        assertThat(tracker.lockedOutFor(EMAIL, IP)).isEmpty();
+
+        tracker.recordFailure(EMAIL, IP);
+
+        assertThat(tracker.lockedOutFor(EMAIL, IP)).contains(Duration.ofMinutes(15));
+        assertThat(tracker.lockedOutFor("Victim@Example.com ", "198.51.100.1")).isPresent();
+        assertThat(tracker.lockedOutFor("someone-else@example.com", "198.51.100.1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Failures slide out of the window one bucket at a time")
+    void lockedOutFor_OldFailuresExpire() {
+        tracker.recordFailure(EMAIL, IP);
+        clock.advance(Duration.ofMinutes(5));
+        tracker.recordFailure(EMAIL, IP);
+        tracker.recordFailure(EMAIL, IP);
+
+        // Unlocks when the first failure's bucket leaves the window
+        assertThat(tracker.lockedOutFor(EMAIL, IP)).contains(Duration.ofMinutes(10));
+
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(tracker.lockedOutFor(EMAIL, IP)).isEmpty();
+        assertThat(tracker.accountFailures(EMAIL)).isEqualTo(2);
+
+        clock.advance(Duration.ofMinutes(5));
+        assertThat(tracker.accountFailures(EMAIL)).isZero();
+    }
+
+    @Test
+    @DisplayName("Failures spread over many accounts still lock out the address")
+    void lockedOutFor_AfterMaxIpFailures_LocksOutAddress() {
+        for (int i = 0; i < 5; i++) {
+            tracker.recordFailure("user" + i + "@example.com", IP);
+        }
+
+        assertThat(tracker.ipFailures(IP)).isEqualTo(5);
+        assertThat(tracker.lockedOutFor("fresh@example.com", IP)).isPresent();
+        assertThat(tracker.lockedOutFor("fresh@example.com", "198.51.100.1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A successful login clears the account's failures but not the address's")
+    void recordSuccess_ClearsAccountOnly() {
+        tracker.recordFailure(EMAIL, IP);
+        tracker.recordFailure(EMAIL, IP);
+
+        tracker.recordSuccess(EMAIL);
+
+        assertThat(tracker.accountFailures(EMAIL)).isZero();
+        assertThat(tracker.ipFailures(IP)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Nothing is tracked when lockout is disabled")
+    void disabled_NeverLocksOut() {
+        properties.setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            tracker.recordFailure(EMAIL, IP);
+        }
+
+        assertThat(tracker.lockedOutFor(EMAIL, IP)).isEmpty();
+        assertThat(tracker.accountFailures(EMAIL)).isZero();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.krd.api.auth;
+
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.JobLeaseProperties;
+import com.krd.api.users.UserChangedEvent;
+import com.krd.api.users.UserSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("Session Registry Tests")
+class SessionRegistryTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SessionRegistry registry;
+    private long userId;
+    private long otherUserId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM user_sessions");
+        jdbcTemplate.update("DELETE FROM user_roles");
+        jdbcTemplate.update("DELETE FROM users");
+        userId = insertUser("sessions@example.com");
+        otherUserId = insertUser("other@example.com");
+
+        SessionProperties properties = new SessionProperties();
+        properties.setSweepBatchSize(2);
+        registry = registryAt(NOW, properties);
+    }
+
+    @Test
+    @DisplayName("Created sessions are active until they expire")
+    void create_SessionIsActiveUntilExpiry() {
+        String sessionId = registry.create(userId, NOW.plus(Duration.ofDays(7)));
+
+        assertThat(registry.isActive(sessionId)).isTrue();
+        assertThat(registryAt(NOW.plus(Duration.ofDays(8)), new SessionProperties()).isActive(sessionId)).isFalse();
+        assertThat(registry.isActive("unknown")).isFalse();
+    }
+
+    @Test
+    @DisplayName("last_used_at is only written on flush, but listings show pending values")
+    void touch_IsWrittenBehind() {
+        String sessionId = registry.create(userId, NOW.plus(Duration.ofDays(7)));
+        Timestamp issued = lastUsed(sessionId);
+
+        SessionRegistry later = registryAt(NOW.plus(Duration.ofMinutes(5)), new SessionProperties());
+        later.touch(sessionId);
+
+        assertThat(lastUsed(sessionId)).isEqualTo(issued);
+        assertThat(later.list(userId)).singleElement()
+                .satisfies(session -> assertThat(session.lastUsedAt()).isEqualTo(local(NOW.plus(Duration.ofMinutes(5)))));
+
+        later.flushLastUsed();
+
+        assertThat(lastUsed(sessionId)).isEqualTo(Timestamp.valueOf(local(NOW.plus(Duration.ofMinutes(5)))));
+    }
+
+    @Test
+    @DisplayName("Listing shows the user's unexpired sessions, most recently used first")
+    void list_ReturnsOwnActiveSessionsByLastUse() {
+        String older = registry.create(userId, NOW.plus(Duration.ofDays(7)));
+        String newer = registry.create(userId, NOW.plus(Duration.ofDays(7)));
+        registry.create(userId, NOW.minus(Duration.ofMinutes(1)));
+        registry.create(otherUserId, NOW.plus(Duration.ofDays(7)));
+
+        SessionRegistry later = registryAt(NOW.plus(Duration.ofMinutes(1)), new SessionProperties());
+        later.touch(newer);
+        later.flushLastUsed();
+
+        assertThat(later.list(userId)).extracting(SessionResponse::id).containsExactly(newer, older);
+    }
+
+    @Test
+    @DisplayName("Users can only revoke their own sessions")
+    void revoke_OnlyOwnSessions() {
+        String sessionId = registry.create(userId, NOW.plus(Duration.ofDays(7)));
+
+        assertThat(registry.revoke(otherUserId, sessionId)).isFalse();
+        assertThat(registry.isActive(sessionId)).isTrue();
+
+        assertThat(registry.revoke(userId, sessionId)).isTrue();
+        assertThat(registry.isActive(sessionId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Disabling a user ends their sessions; other updates keep them")
+    void onUserChanged_Disabled_RevokesAllSessions() {
+        String sessionId = registry.create(userId, NOW.plus(Duration.ofDays(7)));
+        String otherSession = registry.create(otherUserId, NOW.plus(Duration.ofDays(7)));
+        UserSnapshot enabled = new UserSnapshot(userId, "sessions@example.com", null, "A", null, true, false, Set.of());
+        UserSnapshot renamed = new UserSnapshot(userId, "sessions@example.com", null, "B", null, true, false, Set.of());
+        UserSnapshot disabled = new UserSnapshot(userId, "sessions@example.com", null, "B", null, false, false, Set.of());
+
+        registry.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, enabled, renamed));
+        assertThat(registry.isActive(sessionId)).isTrue();
+
+        registry.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, renamed, disabled));
+        assertThat(registry.isActive(sessionId)).isFalse();
+        assertThat(registry.isActive(otherSession)).isTrue();
+    }
+
+    @Test
+    @DisplayName("The sweep deletes expired sessions in batches")
+    void sweepExpired_DeletesOnlyExpiredSessions() {
+        for (int i = 0; i < 5; i++) {
+            registry.create(userId, NOW.minus(Duration.ofHours(i + 1)));
+        }
+        String live = registry.create(userId, NOW.plus(Duration.ofDays(7)));
+
+        assertThat(registry.sweepExpired()).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM user_sessions", String.class)).containsExactly(live);
+    }
+
+    private SessionRegistry registryAt(Instant instant, SessionProperties properties) {
+        return new SessionRegistry(jdbcTemplate, properties,
+                new JobLeaseManager(jdbcTemplate, new JobLeaseProperties()), Clock.fixed(instant, ZoneId.systemDefault()));
+    }
+
+    private static LocalDateTime local(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private Timestamp lastUsed(String sessionId) {
+        return jdbcTemplate.queryForObject("SELECT last_used_at FROM user_sessions WHERE id = ?", Timestamp.class, sessionId);
+    }
+
+    private long insertUser(String email) {
+        jdbcTemplate.update(
+                "INSERT INTO users (email, email_normalized, password, enabled) VALUES (?, ?, 'hash', TRUE)",
+                email, email);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+}
@@ -0,0 +1,163 @@
+package com.krd.api.common;
+
+import com.krd.api.common.AdaptiveConcurrencyLimiter.Permit;
+import com.krd.api.common.AdaptiveConcurrencyLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Concurrency Limit Filter Tests")
+class ConcurrencyLimitFilterTest {
+
+    private static final HandlerExceptionResolver STATUS_RESOLVER = (request, response, handler, ex) -> {
+        response.setStatus(503);
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(((ConcurrencyLimitExceededException) ex).getRetryAfter().toSeconds()));
+        return new ModelAndView();
+    };
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitProperties properties;
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(20);
+        properties.setMinLimit(4);
+        properties.setMaxLimit(100);
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry, nanoTime::get);
+        filter = new ConcurrencyLimitFilter(limiter, properties, STATUS_RESOLVER);
+    }
+
+    @Test
+    @DisplayName("Sheddable requests are rejected first and critical requests last")
+    void tryAcquire_SharesOfTheLimitByPriority() {
+        assertThat(acquireAll(Priority.SHEDDABLE)).hasSize(10);
+        assertThat(acquireAll(Priority.NORMAL)).hasSize(8);
+        assertThat(acquireAll(Priority.CRITICAL)).hasSize(2);
+
+        assertThat(limiter.getInFlight()).isEqualTo(20);
+        assertThat(meterRegistry.get("api.concurrency.rejected").tag("priority", "sheddable").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("api.concurrency.in.flight").gauge().value()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("The limit grows while latency stays flat")
+    void limit_GrowsWhileLatencyIsStable() {
+        runRounds(20, 10);
+
+        assertThat(limiter.getLimit()).isGreaterThan(40);
+        assertThat(meterRegistry.get("api.concurrency.limit").gauge().value()).isEqualTo(limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("The limit shrinks towards the minimum when latency rises, and recovers afterwards")
+    void limit_ShrinksWhenLatencyRises() {
+        runRounds(5, 10);
+        int before = limiter.getLimit();
+
+        runRounds(5, 200);
+        assertThat(limiter.getLimit()).isLessThan(before / 2);
+
+        int slow = limiter.getLimit();
+        runRounds(20, 10);
+        assertThat(limiter.getLimit()).isGreaterThan(slow);
+    }
+
+    @Test
+    @DisplayName("Failed requests back the limit off and never take it below the minimum")
+    void dropped_BacksOffToMinimum() {
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire(Priority.NORMAL).orElseThrow().dropped();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Requests are classified by method and path")
+    void priorityOf_UsesConfiguredPatterns() {
+        assertThat(filter.priorityOf(new MockHttpServletRequest("POST", "/auth/refresh"))).isEqualTo(Priority.CRITICAL);
+        assertThat(filter.priorityOf(new MockHttpServletRequest("GET", "/auth/me"))).isEqualTo(Priority.CRITICAL);
+        assertThat(filter.priorityOf(new MockHttpServletRequest("GET", "/users"))).isEqualTo(Priority.SHEDDABLE);
+        assertThat(filter.priorityOf(new MockHttpServletRequest("GET", "/users/archived/7"))).isEqualTo(Priority.SHEDDABLE);
+        assertThat(filter.priorityOf(new MockHttpServletRequest("POST", "/users"))).isEqualTo(Priority.NORMAL);
+        assertThat(filter.priorityOf(new MockHttpServletRequest("GET", "/users/7"))).isEqualTo(Priority.NORMAL);
+    }
+
+    @Test
+    @DisplayName("Requests over the limit get 503 with Retry-After without reaching the application")
+    void doFilter_OverLimit_Returns503() throws Exception {
+        List<Permit> held = acquireAll(Priority.CRITICAL);
+
+        MockHttpServletResponse shed = perform(new MockHttpServletRequest("GET", "/auth/me"), 200);
+        MockHttpServletResponse probe = perform(new MockHttpServletRequest("GET", "/actuator/health"), 200);
+
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(probe.getStatus()).isEqualTo(200);
+
+        held.forEach(Permit::ignore);
+        assertThat(perform(new MockHttpServletRequest("GET", "/auth/me"), 200).getStatus()).isEqualTo(200);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("A 5xx response releases its slot and backs the limit off")
+    void doFilter_ServerError_BacksOff() throws Exception {
+        perform(new MockHttpServletRequest("GET", "/users/7"), 500);
+
+        assertThat(limiter.getLimit()).isEqualTo(18);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    /**
+     * Fills the limit with concurrent requests, then completes them all after {@code rttMillis}.
+     */
+    private void runRounds(int rounds, long rttMillis) {
+        for (int round = 0; round < rounds; round++) {
+            List<Permit> permits = acquireAll(Priority.CRITICAL);
+            nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(rttMillis));
+            permits.forEach(Permit::success);
+        }
+    }
+
+    private List<Permit> acquireAll(Priority priority) {
+        List<Permit> permits = new ArrayList<>();
+        while (true) {
+            Optional<Permit> permit = limiter.tryAcquire(priority);
+            if (permit.isEmpty()) {
+                return permits;
+            }
+            permits.add(permit.get());
+        }
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, int status) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> ((MockHttpServletResponse) res).setStatus(status));
+        return response;
+    }
+}
@@ -0,0 +1,144 @@
+package com.krd.api.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Data Source Bulkhead Tests")
+class DataSourceBulkheadTest {
+
+    private DataSource dataSource;
+    private BatchJob batchJob;
+    private LoginLookup loginLookup;
+
+    @BeforeEach
+    void setUp() {
+        Map<WorkloadClass, DataSource> pools = new EnumMap<>(WorkloadClass.class);
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            pools.put(workload, new DriverManagerDataSource(
+                    "jdbc:h2:mem:bulkhead_" + workload.name().toLowerCase() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        }
+        dataSource = new LazyConnectionDataSourceProxy(new WorkloadRoutingDataSource(pools));
+        loginLookup = proxy(new LoginLookup(dataSource));
+        batchJob = proxy(new BatchJob(dataSource, loginLookup));
+    }
+
+    @Test
+    @DisplayName("Unannotated code uses the interactive pool")
+    void unannotated_UsesInteractivePool() throws SQLException {
+        assertThat(databaseOf(dataSource)).isEqualTo("BULKHEAD_INTERACTIVE");
+        assertThat(WorkloadRoutingDataSource.current()).isEqualTo(WorkloadClass.INTERACTIVE);
+    }
+
+    @Test
+    @DisplayName("A class-level workload applies to its own and inherited methods")
+    void classAnnotation_RoutesAllMethods() throws SQLException {
+        assertThat(batchJob.database()).isEqualTo("BULKHEAD_BATCH");
+        assertThat(batchJob.inheritedDatabase()).isEqualTo("BULKHEAD_BATCH");
+    }
+
+    @Test
+    @DisplayName("A method-level workload overrides the class and is restored afterwards")
+    void methodAnnotation_OverridesClassAndRestores() throws SQLException {
+        assertThat(loginLookup.database()).isEqualTo("BULKHEAD_AUTH");
+        assertThat(batchJob.databasesAroundLogin()).containsExactly("BULKHEAD_BATCH", "BULKHEAD_AUTH", "BULKHEAD_BATCH");
+        assertThat(WorkloadRoutingDataSource.current()).isEqualTo(WorkloadClass.INTERACTIVE);
+    }
+
+    @Test
+    @DisplayName("The pool is chosen when a connection is first used, not when it is obtained")
+    void lazyConnection_ResolvesPoolOnFirstUse() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(batchJob.databaseOf(connection)).isEqualTo("BULKHEAD_BATCH");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(DataSourceBulkheadConfiguration.workloadAdvisor());
+        return (T) factory.getProxy();
+    }
+
+    private static String databaseOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return databaseNameOf(connection);
+        }
+    }
+
+    private static String databaseNameOf(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT DATABASE()")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    static class Repository {
+
+        private final DataSource dataSource;
+
+        Repository(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        public String inheritedDatabase() throws SQLException {
+            return databaseOf(dataSource);
+        }
+
+        public String database() throws SQLException {
+            return databaseOf(dataSource);
+        }
+    }
+
+    @Workload(WorkloadClass.BATCH)
+    static class BatchJob extends Repository {
+
+        private final LoginLookup loginLookup;
+
+        BatchJob(DataSource dataSource, LoginLookup loginLookup) {
+            super(dataSource);
+            this.loginLookup = loginLookup;
+        }
+
+        @Override
+        public String database() throws SQLException {
+            return super.database();
+        }
+
+        public String[] databasesAroundLogin() throws SQLException {
+            return new String[]{database(), loginLookup.database(), database()};
+        }
+
+        public String databaseOf(Connection connection) throws SQLException {
+            return databaseNameOf(connection);
+        }
+    }
+
+    static class LoginLookup extends Repository {
+
+        LoginLookup(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        @Workload(WorkloadClass.AUTH)
+        public String database() throws SQLException {
+            return super.database();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.krd.api.common;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction so that concurrent requests on other threads see each other's claims.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Idempotency Filter Tests")
+class IdempotencyFilterTest {
+
+    private static final HandlerExceptionResolver STATUS_RESOLVER = (request, response, handler, ex) -> {
+        response.setStatus(((IdempotencyKeyException) ex).getStatus().value());
+        return new ModelAndView();
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private IdempotencyProperties properties;
+    private IdempotencyFilter filter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys");
+        properties = new IdempotencyProperties();
+        properties.setWaitTimeout(Duration.ofSeconds(5));
+        properties.setPollInterval(Duration.ofMillis(20));
+        filter = new IdempotencyFilter(new IdempotencyStore(jdbcTemplate, properties,
+                new JobLeaseManager(jdbcTemplate, new JobLeaseProperties())), properties, STATUS_RESOLVER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys");
+    }
+
+    @Test
+    @DisplayName("A retry with the same key replays the stored response without running the request")
+    void retry_ReplaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = perform(request("key-1", "{\"email\":\"a@example.com\"}"), respond(201));
+        MockHttpServletResponse retry = perform(request("key-1", "{\"email\":\"a@example.com\"}"), respond(201));
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getContentType()).isEqualTo("application/json");
+        assertThat(retry.getHeader(HttpHeaders.ETAG)).isEqualTo("\"1\"");
+    }
+
+    @Test
+    @DisplayName("Reusing a key for a different request body is rejected with 422")
+    void differentBody_IsRejected() throws Exception {
+        perform(request("key-1", "{\"email\":\"a@example.com\"}"), respond(201));
+
+        MockHttpServletResponse other = perform(request("key-1", "{\"email\":\"b@example.com\"}"), respond(201));
+
+        assertThat(other.getStatus()).isEqualTo(422);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Server errors are not stored, so a retry runs the request again")
+    void serverError_ReleasesKey() throws Exception {
+        perform(request("key-1", "{}"), respond(503));
+        MockHttpServletResponse retry = perform(request("key-1", "{}"), respond(201));
+
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("A body over the size limit is rejected with 413 without claiming the key")
+    void oversizedBody_IsRejected() throws Exception {
+        properties.setMaxBodySize(DataSize.ofBytes(16));
+
+        MockHttpServletResponse response = perform(request("key-1", "{\"email\":\"a@example.com\"}"), respond(201));
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(executions).hasValue(0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("A response over the size limit is returned but not stored, so a retry runs again")
+    void oversizedResponse_IsNotStored() throws Exception {
+        properties.setMaxResponseSize(DataSize.ofBytes(4));
+
+        MockHttpServletResponse first = perform(request("key-1", "{}"), respond(201));
+        MockHttpServletResponse retry = perform(request("key-1", "{}"), respond(201));
+
+        assertThat(first.getContentAsString()).isEqualTo("{\"execution\":1}");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Requests without a key or on other paths are passed through untouched")
+    void withoutKey_PassesThrough() throws Exception {
+        MockHttpServletRequest noKey = new MockHttpServletRequest("POST", "/users");
+        MockHttpServletRequest otherPath = request("key-1", "{}");
+        otherPath.setRequestURI("/auth/login");
+
+        perform(noKey, respond(201));
+        perform(noKey, respond(201));
+        perform(otherPath, respond(200));
+        perform(otherPath, respond(200));
+
+        assertThat(executions).hasValue(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("A concurrent duplicate waits for the first request and receives its response")
+    void concurrentDuplicate_WaitsForFirstExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = blockingChain(started, release);
+
+        CompletableFuture<MockHttpServletResponse> first =
+                CompletableFuture.supplyAsync(() -> performUnchecked(request("key-1", "{}"), slow));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<MockHttpServletResponse> duplicate =
+                CompletableFuture.supplyAsync(() -> performUnchecked(request("key-1", "{}"), slow));
+
+        Thread.sleep(200);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(replayed.getStatus()).isEqualTo(201);
+        assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(replayed.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("A duplicate gives up with 409 when the first request outlasts the wait timeout")
+    void concurrentDuplicate_TimesOut() throws Exception {
+        properties.setWaitTimeout(Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() ->
+                performUnchecked(request("key-1", "{}"), blockingChain(started, release)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse duplicate = perform(request("key-1", "{}"), respond(201));
+        release.countDown();
+
+        assertThat(duplicate.getStatus()).isEqualTo(409);
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        assertThat(executions).hasValue(1);
+    }
+
+    private FilterChain blockingChain(CountDownLatch started, CountDownLatch release) {
+        return (req, res) -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            res.setContentType("application/json");
+            ((HttpServletResponse) res).setStatus(201);
+            res.getWriter().write("{\"id\":1}");
+        };
+    }
+
+    private FilterChain respond(int status) {
+        return (req, res) -> {
+            executions.incrementAndGet();
+            res.setContentType("application/json");
+            ((HttpServletResponse) res).setStatus(status);
+            ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, "\"" + executions.get() + "\"");
+            res.getWriter().write("{\"execution\":" + executions.get() + "}");
+        };
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse performUnchecked(MockHttpServletRequest request, FilterChain chain) {
+        try {
+            return perform(request, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes());
+        return request;
+    }
+}
@@ -0,0 +1,151 @@
+package com.krd.api.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("Idempotency Store Tests")
+class IdempotencyStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+    private static final String SCOPE = "admin@example.com";
+    private static final String KEY = "retry-123";
+    private static final String FINGERPRINT = "a".repeat(64);
+    private static final String CLAIM = "claim-1";
+    private static final String RETRY = "claim-2";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private IdempotencyProperties properties;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys");
+        properties = new IdempotencyProperties();
+        properties.setTtl(Duration.ofHours(24));
+        properties.setLockTimeout(Duration.ofSeconds(30));
+        properties.setSweepBatchSize(2);
+        store = storeAt(NOW);
+    }
+
+    @Test
+    @DisplayName("Only the first claim of a key succeeds; other scopes are independent")
+    void tryClaim_SecondClaimFails() {
+        assertThat(store.tryClaim(SCOPE, KEY, FINGERPRINT, CLAIM)).isTrue();
+
+        assertThat(store.tryClaim(SCOPE, KEY, FINGERPRINT, CLAIM)).isFalse();
+        assertThat(store.find(SCOPE, KEY)).get()
+                .satisfies(entry -> assertThat(entry.status()).isEqualTo(IdempotencyStore.Status.IN_PROGRESS));
+        assertThat(store.tryClaim("other@example.com", KEY, FINGERPRINT, CLAIM)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Keys that differ only in case are different keys")
+    void tryClaim_KeysAreCaseSensitive() {
+        assertThat(store.tryClaim(SCOPE, "abc", FINGERPRINT, CLAIM)).isTrue();
+
+        assertThat(store.tryClaim(SCOPE, "ABC", FINGERPRINT, CLAIM)).isTrue();
+        assertThat(store.tryClaim(SCOPE.toUpperCase(Locale.ROOT), "abc", FINGERPRINT, CLAIM)).isTrue();
+    }
+
+    @Test
+    @DisplayName("A completed key returns the stored response until it expires, then can be claimed again")
+    void complete_StoresResponseUntilExpiry() {
+        store.tryClaim(SCOPE, KEY, FINGERPRINT, CLAIM);
+        store.complete(SCOPE, KEY, CLAIM, 201, "application/json", "/users/7", "\"3\"",
+                "{\"id\":7}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(store.find(SCOPE, KEY)).get().satisfies(entry -> {
+            assertThat(entry.status()).isEqualTo(IdempotencyStore.Status.COMPLETED);
+            assertThat(entry.responseStatus()).isEqualTo(201);
+            assertThat(entry.responseType()).isEqualTo("application/json");
+            assertThat(entry.responseLocation()).isEqualTo("/users/7");
+            assertThat(entry.responseETag()).isEqualTo("\"3\"");
+            assertThat(new String(entry.responseBody(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":7}");
+        });
+        assertThat(store.tryClaim(SCOPE, KEY, FINGERPRINT, CLAIM)).isFalse();
+
+        IdempotencyStore nextDay = storeAt(NOW.plus(Duration.ofHours(25)));
+        assertThat(nextDay.find(SCOPE, KEY)).isEmpty();
+        assertThat(nextDay.tryClaim(SCOPE, KEY, FINGERPRINT, CLAIM)).isTrue();
+    }
+
+    @Test
+    @DisplayName("A released key can be claimed again")
+    void release_FreesKey() {
+        store.tryClaim(SCOPE, KEY, FINGERPRINT, CLAIM);
+
+        store.release(SCOPE, KEY, CLAIM);
+
+        assertThat(store.find(SCOPE, KEY)).isEmpty();
+        assertThat(store.tryClaim(SCOPE, KEY, FINGERPRINT, CLAIM)).isTrue();
+    }
+
+    @Test
+    @DisplayName("An in-progress key can only be taken over once its lease has run out, and only once")
+    void takeOver_RequiresExpiredLease() {
+        store.tryClaim(SCOPE, KEY, FINGERPRINT, CLAIM);
+
+        assertThat(store.takeOver(SCOPE, KEY, FINGERPRINT, RETRY)).isFalse();
+
+        IdempotencyStore later = storeAt(NOW.plus(Duration.ofMinutes(1)));
+        assertThat(later.takeOver(SCOPE, KEY, "b".repeat(64), RETRY)).isFalse();
+        assertThat(later.takeOver(SCOPE, KEY, FINGERPRINT, RETRY)).isTrue();
+        assertThat(later.takeOver(SCOPE, KEY, FINGERPRINT, RETRY)).isFalse();
+    }
+
+    @Test
+    @DisplayName("After a takeover, the original holder can neither complete nor release the key")
+    void takeOver_FencesOriginalHolder() {
+        store.tryClaim(SCOPE, KEY, FINGERPRINT, CLAIM);
+        IdempotencyStore later = storeAt(NOW.plus(Duration.ofMinutes(1)));
+        assertThat(later.takeOver(SCOPE, KEY, FINGERPRINT, RETRY)).isTrue();
+
+        assertThat(store.complete(SCOPE, KEY, CLAIM, 201, "application/json", null, null, new byte[0])).isFalse();
+        store.release(SCOPE, KEY, CLAIM);
+        assertThat(later.find(SCOPE, KEY)).get()
+                .satisfies(entry -> assertThat(entry.status()).isEqualTo(IdempotencyStore.Status.IN_PROGRESS));
+
+        assertThat(later.complete(SCOPE, KEY, RETRY, 201, "application/json", null, null, new byte[0])).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sweeping deletes only expired keys")
+    void sweepExpired_DeletesExpiredKeys() {
+        for (int i = 0; i < 5; i++) {
+            store.tryClaim(SCOPE, "old-" + i, FINGERPRINT, CLAIM);
+        }
+        IdempotencyStore later = storeAt(NOW.plus(Duration.ofHours(23)));
+        later.tryClaim(SCOPE, "recent", FINGERPRINT, CLAIM);
+
+        int removed = storeAt(NOW.plus(Duration.ofHours(25))).sweepExpired();
+
+        assertThat(removed).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForList("SELECT idempotency_key FROM idempotency_keys", String.class))
+                .containsExactly("recent");
+    }
+
+    private IdempotencyStore storeAt(Instant instant) {
+        return new IdempotencyStore(jdbcTemplate, properties,
+                new JobLeaseManager(jdbcTemplate, new JobLeaseProperties()), Clock.fixed(instant, ZoneId.systemDefault()));
+    }
+}
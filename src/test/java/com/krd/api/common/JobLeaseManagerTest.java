@@ -0,0 +1,165 @@
+package com.krd.api.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs several independent application contexts ("nodes"), each with its own connection pool
+ * and {@link JobLeaseManager}, against one shared H2 database.
+ */
+@DisplayName("Job Lease Manager Tests")
+class JobLeaseManagerTest {
+
+    private static final String DB_URL = "jdbc:h2:mem:job-leases-" + UUID.randomUUID()
+            + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+
+    private final String job = "test-job-" + UUID.randomUUID();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final CountDownLatch finish = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        finish.countDown();
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    @DisplayName("Only one node runs a job at a time; heartbeats keep a long run's lease")
+    void runExclusive_OnlyOneNodeRunsAtATime() throws Exception {
+        JobLeaseManager nodeA = startNode("node-a");
+        JobLeaseManager nodeB = startNode("node-b");
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<OptionalInt> runA = CompletableFuture.supplyAsync(() -> nodeA.runExclusive(job, lease -> {
+            started.countDown();
+            await(finish);
+            return 3;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(nodeB.runExclusive(job, lease -> 1)).isEmpty();
+        // Well past the 1s lease duration: only the heartbeat keeps node A's lease alive
+        Thread.sleep(1_500);
+        assertThat(nodeB.runExclusive(job, lease -> 1)).isEmpty();
+
+        finish.countDown();
+        assertThat(runA.get(5, TimeUnit.SECONDS)).hasValue(3);
+        assertThat(nodeB.runExclusive(job, lease -> 1)).hasValue(1);
+
+        List<JobRun> runs = nodeB.recentRuns(job, 10);
+        assertThat(runs).extracting(JobRun::owner).containsExactly("node-b", "node-a");
+        assertThat(runs).extracting(JobRun::status).containsOnly(JobRun.Status.SUCCEEDED);
+        assertThat(runs).extracting(JobRun::itemsProcessed).containsExactly(1, 3);
+        assertThat(runs.get(1).durationMs()).isGreaterThanOrEqualTo(1_500L);
+    }
+
+    @Test
+    @DisplayName("When the owning node dies, another node takes over once the lease runs out")
+    void runExclusive_OwnerDies_AnotherNodeTakesOver() throws Exception {
+        ConfigurableApplicationContext contextA = startContext("node-a");
+        JobLeaseManager nodeA = contextA.getBean(JobLeaseManager.class);
+        JobLeaseManager nodeB = startNode("node-b");
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture.runAsync(() -> nodeA.runExclusive(job, lease -> {
+            started.countDown();
+            await(finish);
+            return 0;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Node A goes away mid-run: no more heartbeats, no release
+        contextA.close();
+        assertThat(nodeB.runExclusive(job, lease -> 1)).isEmpty();
+
+        Thread.sleep(1_200);
+        assertThat(nodeB.runExclusive(job, lease -> 1)).hasValue(1);
+
+        List<JobRun> runs = nodeB.recentRuns(job, 10);
+        assertThat(runs).extracting(JobRun::owner).containsExactly("node-b", "node-a");
+        assertThat(runs).extracting(JobRun::status).containsExactly(JobRun.Status.SUCCEEDED, JobRun.Status.ABANDONED);
+        assertThat(runs.get(0).fencingToken()).isGreaterThan(runs.get(1).fencingToken());
+    }
+
+    @Test
+    @DisplayName("A node whose lease was taken over can no longer renew it")
+    void renew_AfterTakeover_IsRefused() throws Exception {
+        JobLeaseManager nodeA = startNode("node-a");
+        JobLeaseManager nodeB = startNode("node-b");
+
+        JobLease leaseA = nodeA.tryAcquire(job).orElseThrow();
+        assertThat(nodeB.tryAcquire(job)).isEmpty();
+
+        Thread.sleep(1_200);
+        Optional<JobLease> leaseB = nodeB.tryAcquire(job);
+
+        assertThat(leaseB).isPresent();
+        assertThat(leaseB.get().getFencingToken()).isGreaterThan(leaseA.getFencingToken());
+        assertThat(nodeA.renew(leaseA)).isFalse();
+        assertThat(leaseA.isHeld()).isFalse();
+        assertThat(nodeB.renew(leaseB.get())).isTrue();
+
+        // A late release by the old owner must not free the new owner's lease
+        nodeA.release(leaseA);
+        assertThat(startNode("node-c").tryAcquire(job)).isEmpty();
+    }
+
+    private JobLeaseManager startNode(String nodeId) {
+        return startContext(nodeId).getBean(JobLeaseManager.class);
+    }
+
+    private ConfigurableApplicationContext startContext(String nodeId) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LeaseNode.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--spring.config.name=job-lease-test",  // Skip application.yaml: only the settings below
+                        "--spring.datasource.url=" + DB_URL,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.locations=classpath:db/migration",
+                        "--app.job-leases.node-id=" + nodeId,
+                        "--app.job-leases.lease-duration=PT1S",
+                        "--app.job-leases.heartbeat-interval=PT0.2S");
+        nodes.add(context);
+        return context;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+            FlywayAutoConfiguration.class})
+    @EnableConfigurationProperties
+    @Import({JobLeaseProperties.class, JobLeaseManager.class})
+    static class LeaseNode {
+    }
+}
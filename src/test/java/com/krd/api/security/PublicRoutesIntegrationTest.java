@@ -0,0 +1,115 @@
+package com.krd.api.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krd.api.auth.PublicRoutes;
+import com.krd.api.users.User;
+import com.krd.api.users.UserRepository;
+import com.krd.starter.jwt.dto.LoginRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Public Routes Integration Tests")
+class PublicRoutesIntegrationTest {
+
+    private static final String GARBAGE_TOKEN = "Bearer not-a-jwt";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PublicRoutes publicRoutes;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.save(User.builder()
+                .email("user@example.com")
+                .password(passwordEncoder.encode("User123!"))
+                .firstName("Test")
+                .lastName("User")
+                .username("testuser")
+                .roles(new HashSet<>(Set.of("USER")))
+                .enabled(true)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Routes marked permitAll in SecurityRules are public; everything else is not")
+    void isPublic_FollowsSecurityRules() {
+        assertThat(publicRoutes.isPublic(new MockHttpServletRequest("POST", "/auth/login"))).isTrue();
+        assertThat(publicRoutes.isPublic(new MockHttpServletRequest("POST", "/auth/refresh"))).isTrue();
+        assertThat(publicRoutes.isPublic(new MockHttpServletRequest("POST", "/users"))).isTrue();
+        assertThat(publicRoutes.isPublic(new MockHttpServletRequest("GET", "/actuator/health"))).isTrue();
+
+        assertThat(publicRoutes.isPublic(new MockHttpServletRequest("GET", "/auth/me"))).isFalse();
+        assertThat(publicRoutes.isPublic(new MockHttpServletRequest("GET", "/users"))).isFalse();
+        assertThat(publicRoutes.isPublic(new MockHttpServletRequest("GET", "/users/by-role"))).isFalse();
+        assertThat(publicRoutes.isPublic(new MockHttpServletRequest("DELETE", "/users/1"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("A token sent to a public route is ignored, even an invalid one")
+    void publicRoute_IgnoresAuthorizationHeader() throws Exception {
+        mockMvc.perform(post("/auth/login")
+                        .header("Authorization", GARBAGE_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest())))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Protected routes still authenticate with the token")
+    void protectedRoute_StillUsesAuthorizationHeader() throws Exception {
+        String response = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(response).get("token").asText();
+
+        mockMvc.perform(get("/auth/me")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/auth/me")
+                        .header("Authorization", GARBAGE_TOKEN))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static LoginRequest loginRequest() {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("user@example.com");
+        loginRequest.setPassword("User123!");
+        return loginRequest;
+    }
+}
@@ -161,7 +161,21 @@ class SecurityRulesIntegrationTest {
                 .andExpect(status().isOk());
     }
 
-    // Actuator is not included in this project - test removed
+    @Test
+    @DisplayName("Actuator health is public, metrics require ADMIN")
+    void actuatorEndpoints_HealthPublicMetricsAdminOnly() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics")
+                        .header("Authorization", "Bearer " + userAccessToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics/auth.login.activity.buffer.size")
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isOk());
+    }
 
     @Test
     @DisplayName("Invalid JWT token returns 401")
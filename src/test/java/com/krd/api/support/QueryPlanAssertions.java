@@ -0,0 +1,54 @@
+package com.krd.api.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAIN-based assertions for guarding hot query shapes against full table scans.
+ *
+ * <p>Runs against H2 in MySQL mode (the test profile database). H2 renders the chosen
+ * access path as a comment in the plan, e.g. {@code public.users.tableScan} for a full scan
+ * or {@code public.idx_users_active_email: deleted_at IS NULL} for an index lookup, which is
+ * what these assertions inspect.
+ */
+public final class QueryPlanAssertions {
+
+    private static final String FULL_SCAN_MARKER = "tableScan";
+
+    private QueryPlanAssertions() {
+    }
+
+    /**
+     * Returns the EXPLAIN output for the given query, one line per plan row.
+     */
+    public static String explain(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        List<String> rows = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args);
+        return String.join("\n", rows);
+    }
+
+    /**
+     * Fails if any table in the query is read with a full scan.
+     */
+    public static void assertNoFullScan(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        String plan = explain(jdbcTemplate, sql, args);
+
+        assertThat(plan)
+                .as("Query plan for [%s] falls back to a full scan:%n%s", sql, plan)
+                .doesNotContainIgnoringCase(FULL_SCAN_MARKER);
+    }
+
+    /**
+     * Fails if the query is not served by the named index (or falls back to a full scan).
+     */
+    public static void assertUsesIndex(JdbcTemplate jdbcTemplate, String indexName, String sql, Object... args) {
+        String plan = explain(jdbcTemplate, sql, args);
+
+        assertThat(plan)
+                .as("Query plan for [%s] does not use %s:%n%s", sql, indexName, plan)
+                .doesNotContainIgnoringCase(FULL_SCAN_MARKER)
+                .containsIgnoringCase(indexName);
+    }
+}
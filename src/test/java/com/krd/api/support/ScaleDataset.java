@@ -0,0 +1,30 @@
+package com.krd.api.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Seeds the test class's database with a synthetic dataset before its tests and removes it
+ * afterwards (see {@link ScaleDatasetExtension}). Tests can take the
+ * {@link UserDatasetGenerator.Dataset} as a parameter.
+ *
+ * <p>Put it after the Spring test annotation ({@code @DataJpaTest}, {@code @SpringBootTest}) so
+ * the dataset goes into the test context's database.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(ScaleDatasetExtension.class)
+public @interface ScaleDataset {
+
+    /**
+     * Number of users; the {@code scale.users} system property overrides it
+     * ({@code ./gradlew scaleTest -PscaleUsers=...}).
+     */
+    int users() default 100_000;
+
+    long seed() default 42;
+}
@@ -0,0 +1,64 @@
+package com.krd.api.support;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+
+/**
+ * JUnit extension behind {@link ScaleDataset}: generates the dataset with
+ * {@link UserDatasetGenerator} into the Spring test context's {@link DataSource} once per test
+ * class, outside any test transaction, and deletes it after the last test.
+ */
+public class ScaleDatasetExtension implements BeforeAllCallback, AfterAllCallback, ParameterResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(ScaleDatasetExtension.class);
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ScaleDatasetExtension.class);
+    private static final String USERS_PROPERTY = "scale.users";
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        ScaleDataset annotation = AnnotationSupport.findAnnotation(context.getRequiredTestClass(), ScaleDataset.class)
+                .orElseThrow();
+        String override = System.getProperty(USERS_PROPERTY, "");
+        int users = override.isBlank() ? annotation.users() : Integer.parseInt(override);
+
+        UserDatasetGenerator generator = new UserDatasetGenerator(
+                SpringExtension.getApplicationContext(context).getBean(DataSource.class));
+        UserDatasetGenerator.Dataset dataset = generator.generate(UserDatasetGenerator.Spec.of(users, annotation.seed()));
+        log.info("{}: generated {} users and {} role changes in {} ms",
+                context.getRequiredTestClass().getSimpleName(), dataset.users(), dataset.roleChanges(),
+                dataset.elapsed().toMillis());
+
+        ExtensionContext.Store store = context.getStore(NAMESPACE);
+        store.put(UserDatasetGenerator.class, generator);
+        store.put(UserDatasetGenerator.Dataset.class, dataset);
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        ExtensionContext.Store store = context.getStore(NAMESPACE);
+        UserDatasetGenerator generator = store.get(UserDatasetGenerator.class, UserDatasetGenerator.class);
+        UserDatasetGenerator.Dataset dataset = store.get(UserDatasetGenerator.Dataset.class, UserDatasetGenerator.Dataset.class);
+        if (generator != null && dataset != null) {
+            generator.delete(dataset);
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == UserDatasetGenerator.Dataset.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(UserDatasetGenerator.Dataset.class, UserDatasetGenerator.Dataset.class);
+    }
+}
@@ -0,0 +1,280 @@
+package com.krd.api.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic users for scale and load tests.
+ *
+ * <p>Loads {@code users}, {@code user_roles} and {@code role_change_logs} rows with batched JDBC
+ * into an already migrated schema (H2 or MySQL). Every user is derived from {@code seed} and its
+ * own index only, so the same spec always produces the same data. Users get ids after the
+ * current {@code MAX(users.id)}, and the first one is always an enabled ADMIN.
+ *
+ * <p>All users share one password, {@value #PASSWORD}, hashed once up front, so seeding does no
+ * per-user BCrypt work.
+ *
+ * <p>Used by {@link ScaleDatasetExtension} and, against a real database, by the
+ * {@code seedUsers} Gradle task through {@link #main}.
+ */
+public final class UserDatasetGenerator {
+
+    /**
+     * Plain-text password of every generated user.
+     */
+    public static final String PASSWORD = "Dataset-Pass1!";
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Chris", "Lisa", "Daniel", "Nancy", "Matthew", "Betty", "Anthony", "Sandra", "Mark", "Ashley",
+            "Ana", "Luis", "Mei", "Wei", "Aarav", "Priya", "Olga", "Ivan", "Fatima", "Omar"};
+
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Chen", "Wang", "Kumar", "Singh", "Ivanova", "Novak", "Kowalski", "Nakamura", "Okafor", "Haddad"};
+
+    private static final String[] DOMAINS = {"example.com", "example.org", "example.net", "mail.example.com"};
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final int HISTORY_DAYS = 730;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String passwordHash;
+
+    public UserDatasetGenerator(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+    }
+
+    /**
+     * What to generate.
+     *
+     * @param deletedFraction   share of users soft-deleted, spread over the last two years
+     * @param disabledFraction  share of users disabled
+     * @param roleShares        share of users holding each role besides USER, which every user has
+     * @param revokedGrantsPerUser average extra roles granted and later revoked per user, each logged
+     *                          as ADDED and REMOVED on top of the initial grants
+     * @param batchSize         rows per JDBC batch
+     */
+    public record Spec(
+            int users,
+            long seed,
+            double deletedFraction,
+            double disabledFraction,
+            Map<String, Double> roleShares,
+            double revokedGrantsPerUser,
+            int batchSize
+    ) {
+
+        /**
+         * Production-like defaults: 5% soft-deleted, 2% disabled, a few moderators and admins and
+         * a short role history per user.
+         */
+        public static Spec of(int users, long seed) {
+            Map<String, Double> roles = new LinkedHashMap<>();
+            roles.put("MODERATOR", 0.02);
+            roles.put("SUPPORT", 0.005);
+            roles.put("ADMIN", 0.001);
+            return new Spec(users, seed, 0.05, 0.02, roles, 0.5, 1_000);
+        }
+    }
+
+    /**
+     * Summary of a generated dataset. Users occupy ids {@code firstId..lastId}.
+     */
+    public record Dataset(
+            long firstId,
+            long lastId,
+            long users,
+            long deletedUsers,
+            long disabledUsers,
+            Map<String, Long> roleCounts,
+            long roleChanges,
+            Duration elapsed
+    ) {
+    }
+
+    /**
+     * Generates {@code spec.users()} users with their roles and role change history.
+     */
+    public Dataset generate(Spec spec) {
+        long start = System.nanoTime();
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+        long firstId = (maxId == null ? 0 : maxId) + 1;
+
+        long deleted = 0;
+        long disabled = 0;
+        long roleChanges = 0;
+        Map<String, Long> roleCounts = new HashMap<>();
+        List<Object[]> users = new ArrayList<>(spec.batchSize());
+        List<Object[]> roles = new ArrayList<>(spec.batchSize() * 2);
+        List<Object[]> changes = new ArrayList<>(spec.batchSize());
+
+        for (int index = 0; index < spec.users(); index++) {
+            long id = firstId + index;
+            SplittableRandom random = new SplittableRandom(spec.seed() * 0x9E3779B97F4A7C15L + index);
+
+            String first = FIRST_NAMES[skewedIndex(random, FIRST_NAMES.length)];
+            String last = LAST_NAMES[skewedIndex(random, LAST_NAMES.length)];
+            String username = (first + "." + last).toLowerCase() + id;
+            String email = username + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+            LocalDateTime createdAt = EPOCH.minusDays(HISTORY_DAYS).plusMinutes(
+                    (long) ((double) index / spec.users() * HISTORY_DAYS * 24 * 60));
+            boolean isDeleted = index > 0 && random.nextDouble() < spec.deletedFraction();
+            boolean isEnabled = index == 0 || random.nextDouble() >= spec.disabledFraction();
+            LocalDateTime deletedAt = isDeleted ? between(random, createdAt, EPOCH) : null;
+            LocalDateTime lastLoginAt = random.nextDouble() < 0.8 ? between(random, createdAt, EPOCH) : null;
+            deleted += isDeleted ? 1 : 0;
+            disabled += isEnabled ? 0 : 1;
+
+            users.add(new Object[]{id, first, last, username, email, email, passwordHash, isEnabled,
+                    timestamp(deletedAt), timestamp(lastLoginAt), lastLoginAt == null ? 0 : 1 + random.nextInt(500)});
+
+            List<String> userRoles = new ArrayList<>(List.of("USER"));
+            for (Map.Entry<String, Double> share : spec.roleShares().entrySet()) {
+                if (random.nextDouble() < share.getValue() || (index == 0 && share.getKey().equals("ADMIN"))) {
+                    userRoles.add(share.getKey());
+                }
+            }
+            for (String role : userRoles) {
+                roles.add(new Object[]{id, role});
+                roleCounts.merge(role, 1L, Long::sum);
+                changes.add(roleChange(id, firstId, role, "ADDED", createdAt, email));
+            }
+            // Extra history: roles granted and later revoked again
+            double extra = spec.revokedGrantsPerUser();
+            while (random.nextDouble() < extra / (1 + extra)) {
+                String role = spec.roleShares().keySet().stream()
+                        .skip(random.nextInt(spec.roleShares().size())).findFirst().orElseThrow();
+                if (!userRoles.contains(role)) {
+                    LocalDateTime grantedAt = between(random, createdAt, EPOCH);
+                    changes.add(roleChange(id, firstId, role, "ADDED", grantedAt, email));
+                    changes.add(roleChange(id, firstId, role, "REMOVED", between(random, grantedAt, EPOCH), email));
+                }
+            }
+
+            if (users.size() == spec.batchSize()) {
+                roleChanges += flush(users, roles, changes);
+            }
+        }
+        roleChanges += flush(users, roles, changes);
+
+        if (spec.users() > 0 && isH2()) {
+            // H2 does not move the identity past explicitly inserted ids the way MySQL does
+            jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (firstId + spec.users()));
+        }
+        return new Dataset(firstId, firstId + spec.users() - 1, spec.users(), deleted, disabled, Map.copyOf(roleCounts),
+                roleChanges, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Removes a generated dataset again, with its roles and role change history.
+     */
+    public void delete(Dataset dataset) {
+        for (long from = dataset.firstId(); from <= dataset.lastId(); from += 10_000) {
+            long to = Math.min(from + 9_999, dataset.lastId());
+            jdbcTemplate.update("DELETE FROM role_change_logs WHERE user_id BETWEEN ? AND ?", from, to);
+            jdbcTemplate.update("DELETE FROM user_roles WHERE user_id BETWEEN ? AND ?", from, to);
+            jdbcTemplate.update("DELETE FROM users WHERE id BETWEEN ? AND ?", from, to);
+        }
+    }
+
+    private int flush(List<Object[]> users, List<Object[]> roles, List<Object[]> changes) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, first_name, last_name, username, email, email_normalized, "
+                + "password, enabled, deleted_at, last_login_at, login_count) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role) VALUES (?, ?)", roles);
+        jdbcTemplate.batchUpdate("INSERT INTO role_change_logs (user_id, changed_by_user_id, role, action, changed_at, "
+                + "user_email) VALUES (?, ?, ?, ?, ?, ?)", changes);
+        int written = changes.size();
+        users.clear();
+        roles.clear();
+        changes.clear();
+        return written;
+    }
+
+    private boolean isH2() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return "H2".equals(product);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot read database metadata", e);
+        }
+    }
+
+    private static Object[] roleChange(long userId, long adminId, String role, String action, LocalDateTime at,
+                                       String email) {
+        return new Object[]{userId, adminId, role, action, Timestamp.valueOf(at), email};
+    }
+
+    /**
+     * Index into a name pool with a long-tailed distribution: a few very common names, many rare ones.
+     */
+    private static int skewedIndex(SplittableRandom random, int size) {
+        double u = random.nextDouble();
+        return (int) (u * u * size);
+    }
+
+    private static LocalDateTime between(SplittableRandom random, LocalDateTime from, LocalDateTime to) {
+        long seconds = Math.max(1, Duration.between(from, to).toSeconds());
+        return from.plusSeconds(random.nextLong(seconds));
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+
+    /**
+     * Seeds a database from the command line (the {@code seedUsers} Gradle task).
+     *
+     * <p>Arguments: {@code --url=<jdbc url> [--users=100000] [--seed=42]}. Credentials are read from
+     * the {@code DB_USERNAME} and {@code DB_PASSWORD} environment variables. The schema must
+     * already be migrated. For MySQL, add {@code rewriteBatchedStatements=true} to the URL (done
+     * automatically if missing) so batches are sent as multi-row inserts.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(parts[0], parts.length > 1 ? parts[1] : "");
+        }
+        String url = options.get("url");
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("--url is required");
+        }
+        if (url.startsWith("jdbc:mysql:") && !url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                System.getenv().getOrDefault("DB_USERNAME", ""), System.getenv().getOrDefault("DB_PASSWORD", ""));
+        Spec spec = Spec.of(Integer.parseInt(options.getOrDefault("users", "100000")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+
+        Dataset dataset = new UserDatasetGenerator(dataSource).generate(spec);
+        System.out.printf("Generated %d users (ids %d-%d, %d soft-deleted, %d disabled), roles %s, "
+                        + "%d role changes in %d ms. Password of every user: %s%n",
+                dataset.users(), dataset.firstId(), dataset.lastId(), dataset.deletedUsers(), dataset.disabledUsers(),
+                dataset.roleCounts(), dataset.roleChanges(), dataset.elapsed().toMillis(), PASSWORD);
+    }
+}
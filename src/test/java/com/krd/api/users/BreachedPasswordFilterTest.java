@@ -0,0 +1,87 @@
+package com.krd.api.users;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Breached Password Filter Tests")
+class BreachedPasswordFilterTest {
+
+    private static final int PASSWORDS = 50_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Every listed password is found, including non-ASCII ones")
+    void build_ContainsEveryListedPassword() throws IOException {
+        BreachedPasswordFilter filter = build(0.01);
+
+        assertThat(filter.getEntryCount()).isEqualTo(PASSWORDS + 1);
+        assertThat(IntStream.range(0, PASSWORDS).allMatch(i -> filter.mightContain(breached(i)))).isTrue();
+        assertThat(filter.mightContain("Pässwörd-1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Unlisted passwords are rejected at about the requested false positive rate")
+    void build_FalsePositiveRateNearTarget() throws IOException {
+        BreachedPasswordFilter filter = build(0.01);
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("Unlisted-" + i))
+                .count();
+
+        assertThat(falsePositives).isBetween(500L, 1_500L);
+    }
+
+    @Test
+    @DisplayName("A file that is not a filter, or is truncated, cannot be opened")
+    void open_RejectsInvalidFiles() throws IOException {
+        Path text = Files.writeString(directory.resolve("passwords.txt"), "password1\n");
+        assertThatThrownBy(() -> BreachedPasswordFilter.open(text)).isInstanceOf(IOException.class);
+
+        build(0.01);
+        Path filterFile = directory.resolve("breached.bloom");
+        Path truncated = directory.resolve("truncated.bloom");
+        Files.write(truncated, Arrays.copyOf(Files.readAllBytes(filterFile), 1_000));
+        assertThatThrownBy(() -> BreachedPasswordFilter.open(truncated))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("truncated");
+    }
+
+    @Test
+    @DisplayName("BreachedPasswords rejects listed passwords and accepts everything without a filter")
+    void breachedPasswords_ChecksAgainstFilter() throws IOException {
+        BreachedPasswords breachedPasswords = new BreachedPasswords(build(0.001));
+
+        assertThatThrownBy(() -> breachedPasswords.check(breached(42)))
+                .isInstanceOf(BreachedPasswordException.class);
+        assertThatNoException().isThrownBy(() -> breachedPasswords.check("Correct-Horse-Battery-9"));
+
+        BreachedPasswordProperties disabled = new BreachedPasswordProperties();
+        assertThat(new BreachedPasswords(disabled).isBreached(breached(42))).isFalse();
+    }
+
+    private BreachedPasswordFilter build(double fpp) throws IOException {
+        Path list = directory.resolve("passwords.txt");
+        Files.writeString(list, IntStream.range(0, PASSWORDS)
+                .mapToObj(BreachedPasswordFilterTest::breached)
+                .collect(Collectors.joining("\n", "", "\n\nPässwörd-1\n")));
+        return BreachedPasswordFilterBuilder.build(list, directory.resolve("breached.bloom"), fpp);
+    }
+
+    private static String breached(int i) {
+        return "Breached-" + i + "!";
+    }
+}
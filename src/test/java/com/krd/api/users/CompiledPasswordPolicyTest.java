@@ -0,0 +1,105 @@
+package com.krd.api.users;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Compiled Password Policy Tests")
+class CompiledPasswordPolicyTest {
+
+    private static final String EMAIL = "john.smith@example.com";
+    private static final String USERNAME = "jsmith";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Default settings accept a strong password and reject nothing else by surprise")
+    void defaultPolicy_AcceptsStrongPassword() {
+        CompiledPasswordPolicy policy = new CompiledPasswordPolicy(new PasswordRuleProperties());
+
+        assertThat(policy.validate("ValidPass123!", EMAIL, USERNAME)).isZero();
+        assertThat(policy.validate("Pässwort-1234", EMAIL, USERNAME)).isZero();
+    }
+
+    @Test
+    @DisplayName("Every violated rule is reported at once")
+    void validate_ReportsAllViolations() {
+        CompiledPasswordPolicy policy = new CompiledPasswordPolicy(new PasswordRuleProperties());
+
+        assertThat(PasswordRule.of(policy.validate("weak", null, null))).containsExactly(
+                PasswordRule.TOO_SHORT,
+                PasswordRule.MISSING_UPPERCASE,
+                PasswordRule.MISSING_DIGIT,
+                PasswordRule.MISSING_SPECIAL_CHAR);
+        assertThat(PasswordRule.of(policy.validate(null, null, null))).contains(PasswordRule.TOO_SHORT);
+        assertThat(PasswordRule.of(policy.validate("Aa1!".repeat(33), null, null))).containsExactly(PasswordRule.TOO_LONG);
+    }
+
+    @Test
+    @DisplayName("Runs of one character longer than max-repeats are rejected")
+    void maxRepeats_RejectsLongRuns() {
+        PasswordRuleProperties properties = new PasswordRuleProperties();
+        properties.setMaxRepeats(3);
+        CompiledPasswordPolicy policy = new CompiledPasswordPolicy(properties);
+
+        assertThat(policy.validate("Abc-111-xyz", null, null)).isZero();
+        assertThat(PasswordRule.of(policy.validate("Abc-1111-xyz", null, null))).containsExactly(PasswordRule.TOO_MANY_REPEATS);
+    }
+
+    @Test
+    @DisplayName("Dictionary words are found anywhere, ignoring case and common substitutions")
+    void dictionary_MatchesWordsInsidePasswords() throws IOException {
+        PasswordRuleProperties properties = new PasswordRuleProperties();
+        properties.setDictionaryWords(List.of("password", "dragon", "hers", "abc"));
+        properties.setDictionaryFile(Files.writeString(directory.resolve("words.txt"), "monkey\n\nsunshine\n"));
+        CompiledPasswordPolicy policy = new CompiledPasswordPolicy(properties);
+
+        assertThat(PasswordRule.of(policy.validate("My-PASSWORD-99", null, null))).containsExactly(PasswordRule.DICTIONARY_WORD);
+        assertThat(PasswordRule.of(policy.validate("P4$$w0rd-Xyz9", null, null))).containsExactly(PasswordRule.DICTIONARY_WORD);
+        assertThat(PasswordRule.of(policy.validate("Ushers-2024!", null, null))).containsExactly(PasswordRule.DICTIONARY_WORD);
+        assertThat(PasswordRule.of(policy.validate("Sun5hine-Day!", null, null))).containsExactly(PasswordRule.DICTIONARY_WORD);
+        assertThat(policy.validate("Mon-key-Dragn!1", null, null)).isZero();
+        // "abc" is shorter than min-dictionary-word-length
+        assertThat(policy.validate("Abc-Def-123!", null, null)).isZero();
+    }
+
+    @Test
+    @DisplayName("Passwords sharing a run of characters with the email or username are rejected")
+    void userAttributes_RejectSimilarPasswords() {
+        PasswordRuleProperties properties = new PasswordRuleProperties();
+        properties.setRejectUserAttributes(true);
+        CompiledPasswordPolicy policy = new CompiledPasswordPolicy(properties);
+
+        assertThat(PasswordRule.of(policy.validate("Smithers-2024!", EMAIL, USERNAME))).containsExactly(PasswordRule.SIMILAR_TO_USER);
+        assertThat(PasswordRule.of(policy.validate("Go-JSmi-77!", null, USERNAME))).containsExactly(PasswordRule.SIMILAR_TO_USER);
+        // Only the part of the email before @ counts
+        assertThat(policy.validate("Example-Pass-1!", EMAIL, USERNAME)).isZero();
+        assertThat(policy.validate("Correct-Horse-9!", EMAIL, USERNAME)).isZero();
+        assertThat(policy.validate("Smithers-2024!", null, null)).isZero();
+    }
+
+    @Test
+    @DisplayName("check() throws with every violation in the message")
+    void check_ThrowsWithAllViolations() {
+        PasswordRuleProperties properties = new PasswordRuleProperties();
+        properties.setMaxRepeats(2);
+        CompiledPasswordPolicy policy = new CompiledPasswordPolicy(properties);
+
+        assertThatThrownBy(() -> policy.check("aaa", null, null))
+                .isInstanceOf(PasswordPolicyException.class)
+                .hasMessageContaining("at least 8 characters")
+                .hasMessageContaining("uppercase letter")
+                .hasMessageContaining("more than 2 times in a row")
+                .satisfies(e -> assertThat(((PasswordPolicyException) e).getViolations())
+                        .contains(PasswordRule.TOO_SHORT, PasswordRule.TOO_MANY_REPEATS));
+    }
+}
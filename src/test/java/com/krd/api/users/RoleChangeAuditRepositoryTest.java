@@ -0,0 +1,139 @@
+package com.krd.api.users;
+
+import com.krd.api.common.CursorPage;
+import com.krd.api.common.InvalidCursorException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RoleChangeAuditRepository.class)
+@ActiveProfiles("test")
+@DisplayName("Role Change Audit Repository Tests")
+class RoleChangeAuditRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoleChangeAuditRepository repository;
+
+    private long alice;
+    private long bob;
+    private long admin;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM role_change_logs");
+        jdbcTemplate.update("DELETE FROM user_roles");
+        jdbcTemplate.update("DELETE FROM users");
+
+        alice = insertUser("alice@example.com");
+        bob = insertUser("bob@example.com");
+        admin = insertUser("admin@example.com");
+
+        // Two entries share a timestamp so paging must break ties by id
+        insertLog(alice, admin, "ADMIN", "ADDED", BASE);
+        insertLog(bob, admin, "ADMIN", "ADDED", BASE.plusDays(1));
+        insertLog(alice, admin, "AUDITOR", "ADDED", BASE.plusDays(1));
+        insertLog(alice, admin, "ADMIN", "REMOVED", BASE.plusDays(40));
+        insertLog(bob, alice, "AUDITOR", "ADDED", BASE.plusDays(41));
+    }
+
+    @Test
+    @DisplayName("Entries for a user are returned newest first")
+    void find_ByUser_ReturnsNewestFirst() {
+        CursorPage<RoleChangeLogEntry> page = repository.find(filter(alice, null, null, null, null, null), null, 10);
+
+        assertThat(page.content()).extracting(RoleChangeLogEntry::changedAt)
+                .containsExactly(BASE.plusDays(40), BASE.plusDays(1), BASE);
+        assertThat(page.content()).allSatisfy(entry -> assertThat(entry.userEmail()).isEqualTo("alice@example.com"));
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Filters combine actor, role, action and time range")
+    void find_WithCombinedFilters_MatchesAll() {
+        assertThat(repository.find(filter(null, alice, null, null, null, null), null, 10).content())
+                .extracting(RoleChangeLogEntry::userId).containsExactly(bob);
+
+        assertThat(repository.find(filter(null, null, "admin", "added", null, null), null, 10).content())
+                .extracting(RoleChangeLogEntry::userId).containsExactly(bob, alice);
+
+        assertThat(repository.find(filter(null, null, null, null, BASE.plusDays(1), BASE.plusDays(41)), null, 10).content())
+                .extracting(RoleChangeLogEntry::changedAt)
+                .containsExactly(BASE.plusDays(40), BASE.plusDays(1), BASE.plusDays(1));
+    }
+
+    @Test
+    @DisplayName("Keyset pages cover every entry exactly once, including timestamp ties")
+    void find_PagingThroughAll_VisitsEachEntryOnce() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<RoleChangeLogEntry> page = repository.find(filter(null, null, null, null, null, null), cursor, 2);
+            page.content().forEach(entry -> seen.add(entry.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(5).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("A tampered cursor is rejected")
+    void find_WithInvalidCursor_Throws() {
+        assertThatThrownBy(() -> repository.find(filter(null, null, null, null, null, null), "not-a-cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("Detaching users keeps their audit rows and emails")
+    void detachUsers_ClearsReferencesOnly() {
+        repository.detachUsers(List.of(alice));
+
+        List<RoleChangeLogEntry> all = repository.find(filter(null, null, null, null, null, null), null, 10).content();
+        assertThat(all).hasSize(5);
+        assertThat(all).noneMatch(entry -> Long.valueOf(alice).equals(entry.userId()));
+        assertThat(all).noneMatch(entry -> Long.valueOf(alice).equals(entry.changedByUserId()));
+        assertThat(all).filteredOn(entry -> "alice@example.com".equals(entry.userEmail())).hasSize(3);
+    }
+
+    private static RoleChangeLogFilter filter(Long userId, Long changedBy, String role, String action,
+                                              LocalDateTime from, LocalDateTime to) {
+        return new RoleChangeLogFilter(userId, changedBy, role, action, from, to);
+    }
+
+    private long insertUser(String email) {
+        jdbcTemplate.update(
+                "INSERT INTO users (email, email_normalized, password, enabled) VALUES (?, ?, 'hash', TRUE)",
+                email, email);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+
+    private void insertLog(long userId, long changedBy, String role, String action, LocalDateTime changedAt) {
+        jdbcTemplate.update(
+                "INSERT INTO role_change_logs (user_id, changed_by_user_id, role, action, changed_at, user_email, changed_by_email) "
+                        + "SELECT ?, ?, ?, ?, ?, u.email, a.email FROM users u, users a WHERE u.id = ? AND a.id = ?",
+                userId, changedBy, role, action, Timestamp.valueOf(changedAt), userId, changedBy);
+    }
+}
@@ -0,0 +1,158 @@
+package com.krd.api.users;
+
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.JobLeaseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partition DDL is checked as generated SQL (MySQL only); the retention fallback runs against H2.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // the archive fallback issues DDL
+@ActiveProfiles("test")
+@DisplayName("Role Change Log Partition Manager Tests")
+class RoleChangeLogPartitionManagerTest {
+
+    private static final Clock OCTOBER_2026 = Clock.fixed(
+            LocalDate.of(2026, 10, 18).atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RoleChangeAuditProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM role_change_logs");
+        properties = new RoleChangeAuditProperties();
+        properties.setBatchSize(2);
+
+        for (int monthsAgo = 0; monthsAgo < 6; monthsAgo++) {
+            jdbcTemplate.update(
+                    "INSERT INTO role_change_logs (role, action, changed_at, user_email) VALUES ('ADMIN', 'ADDED', ?, ?)",
+                    Timestamp.valueOf(LocalDateTime.of(2026, 10, 15, 9, 0).minusMonths(monthsAgo)),
+                    "user" + monthsAgo + "@example.com");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM role_change_logs");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + RoleChangeLogPartitionManager.FALLBACK_ARCHIVE_TABLE);
+    }
+
+    @Test
+    @DisplayName("p_future is split into one partition per missing month")
+    void reorganizeFutureDdl_SplitsFutureIntoMonths() {
+        List<RoleChangeLogPartitionManager.Partition> partitions = List.of(
+                new RoleChangeLogPartitionManager.Partition("p_history", LocalDate.of(2026, 10, 1)),
+                new RoleChangeLogPartitionManager.Partition("p_future", null));
+
+        String ddl = RoleChangeLogPartitionManager.reorganizeFutureDdl(partitions, YearMonth.of(2026, 12));
+
+        assertThat(ddl).isEqualTo("ALTER TABLE role_change_logs REORGANIZE PARTITION p_future INTO ("
+                + "PARTITION p202610 VALUES LESS THAN ('2026-11-01'), "
+                + "PARTITION p202611 VALUES LESS THAN ('2026-12-01'), "
+                + "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), "
+                + "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    @DisplayName("No DDL when partitions already cover the window")
+    void reorganizeFutureDdl_WhenCovered_ReturnsNull() {
+        List<RoleChangeLogPartitionManager.Partition> partitions = List.of(
+                new RoleChangeLogPartitionManager.Partition("p202612", LocalDate.of(2027, 1, 1)),
+                new RoleChangeLogPartitionManager.Partition("p_future", null));
+
+        assertThat(RoleChangeLogPartitionManager.reorganizeFutureDdl(partitions, YearMonth.of(2026, 12))).isNull();
+    }
+
+    @Test
+    @DisplayName("Only bounded partitions entirely before the cutoff expire")
+    void expiredPartitions_SelectsWholeMonthsBeforeCutoff() {
+        List<RoleChangeLogPartitionManager.Partition> partitions = List.of(
+                new RoleChangeLogPartitionManager.Partition("p_history", LocalDate.of(2026, 5, 1)),
+                new RoleChangeLogPartitionManager.Partition("p202605", LocalDate.of(2026, 6, 1)),
+                new RoleChangeLogPartitionManager.Partition("p202606", LocalDate.of(2026, 7, 1)),
+                new RoleChangeLogPartitionManager.Partition("p_future", null));
+
+        assertThat(RoleChangeLogPartitionManager.expiredPartitions(partitions, LocalDate.of(2026, 6, 1)))
+                .extracting(RoleChangeLogPartitionManager.Partition::name)
+                .containsExactly("p_history", "p202605");
+    }
+
+    @Test
+    @DisplayName("Partition bounds are parsed from information_schema descriptions")
+    void parseBound_ReadsDateOrMaxValue() {
+        assertThat(RoleChangeLogPartitionManager.parseBound("'2026-11-01 00:00:00'")).isEqualTo(LocalDate.of(2026, 11, 1));
+        assertThat(RoleChangeLogPartitionManager.parseBound("MAXVALUE")).isNull();
+    }
+
+    @Test
+    @DisplayName("Without partitions, expired rows are deleted in batches")
+    void maintain_OnH2_DeletesExpiredRows() {
+        properties.setRetentionMonths(3);
+        properties.setArchive(false);
+
+        manager().maintain();
+
+        // Keeps October, September and August 2026
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM role_change_logs", Integer.class)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT MIN(changed_at) FROM role_change_logs", Timestamp.class))
+                .isEqualTo(Timestamp.valueOf(LocalDateTime.of(2026, 8, 15, 9, 0)));
+    }
+
+    @Test
+    @DisplayName("Without partitions, archiving copies expired rows before deleting them")
+    void maintain_OnH2WithArchive_CopiesExpiredRows() {
+        properties.setRetentionMonths(3);
+
+        manager().maintain();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM role_change_logs", Integer.class)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT user_email FROM " + RoleChangeLogPartitionManager.FALLBACK_ARCHIVE_TABLE + " ORDER BY changed_at",
+                String.class))
+                .containsExactly("user5@example.com", "user4@example.com", "user3@example.com");
+    }
+
+    @Test
+    @DisplayName("Retention of 0 keeps everything")
+    void maintain_WithoutRetention_KeepsAllRows() {
+        manager().maintain();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM role_change_logs", Integer.class)).isEqualTo(6);
+    }
+
+    private RoleChangeLogPartitionManager manager() {
+        return new RoleChangeLogPartitionManager(
+                jdbcTemplate, new TransactionTemplate(transactionManager), properties,
+                new JobLeaseManager(jdbcTemplate, new JobLeaseProperties()), OCTOBER_2026);
+    }
+}
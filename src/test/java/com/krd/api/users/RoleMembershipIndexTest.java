@@ -0,0 +1,129 @@
+package com.krd.api.users;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Role Membership Index Tests")
+class RoleMembershipIndexTest {
+
+    private RoleMembershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RoleMembershipIndex(null);
+
+        index.apply(null, snapshot(1L, false, "USER"));
+        index.apply(null, snapshot(2L, false, "USER", "ADMIN"));
+        index.apply(null, snapshot(3L, false, "ADMIN"));
+        index.apply(null, snapshot(4L, false, "USER", "ADMIN", "AUDITOR"));
+        index.apply(null, snapshot(5L, false, "USER"));
+    }
+
+    @Test
+    @DisplayName("ALL intersects roles")
+    void find_WithAllMatch_ReturnsIntersection() {
+        RoleMembershipIndex.IdPage page = index.find(List.of("USER", "ADMIN"), RoleMatch.ALL, 0, 10);
+
+        assertThat(page.ids()).containsExactly(2L, 4L);
+        assertThat(page.total()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("ANY unions roles")
+    void find_WithAnyMatch_ReturnsUnion() {
+        RoleMembershipIndex.IdPage page = index.find(List.of("ADMIN", "AUDITOR"), RoleMatch.ANY, 0, 10);
+
+        assertThat(page.ids()).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Role names are matched case-insensitively")
+    void find_WithLowercaseRole_Matches() {
+        assertThat(index.find(List.of("admin"), RoleMatch.ALL, 0, 10).ids()).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Roles stored in another case share the normalized bitmap")
+    void apply_WithMixedCaseRole_IndexesNormalized() {
+        index.apply(null, snapshot(6L, false, "admin"));
+        index.apply(null, snapshot(7L, false, " Admin "));
+
+        assertThat(index.find(List.of("ADMIN"), RoleMatch.ALL, 0, 10).ids()).containsExactly(2L, 3L, 4L, 6L, 7L);
+
+        index.apply(snapshot(6L, false, "admin"), snapshot(6L, false, "USER"));
+        assertThat(index.count("admin")).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Pages are ordered by id and report the full total")
+    void find_WithPaging_ReturnsRequestedSlice() {
+        RoleMembershipIndex.IdPage first = index.find(List.of("USER"), RoleMatch.ALL, 0, 2);
+        RoleMembershipIndex.IdPage second = index.find(List.of("USER"), RoleMatch.ALL, 1, 2);
+        RoleMembershipIndex.IdPage beyond = index.find(List.of("USER"), RoleMatch.ALL, 5, 2);
+
+        assertThat(first.ids()).containsExactly(1L, 2L);
+        assertThat(second.ids()).containsExactly(4L, 5L);
+        assertThat(beyond.ids()).isEmpty();
+        assertThat(first.total()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Role removal is applied incrementally")
+    void apply_RoleRemoved_RemovesMembership() {
+        index.apply(snapshot(2L, false, "USER", "ADMIN"), snapshot(2L, false, "USER"));
+
+        assertThat(index.find(List.of("ADMIN"), RoleMatch.ALL, 0, 10).ids()).containsExactly(3L, 4L);
+        assertThat(index.count("USER")).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Soft-deleted users drop out of every role")
+    void apply_SoftDelete_RemovesAllMemberships() {
+        index.apply(snapshot(4L, false, "USER", "ADMIN", "AUDITOR"), snapshot(4L, true, "USER", "ADMIN", "AUDITOR"));
+
+        assertThat(index.find(List.of("USER", "ADMIN", "AUDITOR"), RoleMatch.ANY, 0, 10).ids())
+                .containsExactly(1L, 2L, 3L, 5L);
+        assertThat(index.count("AUDITOR")).isZero();
+    }
+
+    @Test
+    @DisplayName("Unknown roles match nothing")
+    void find_WithUnknownRole_ReturnsEmpty() {
+        RoleMembershipIndex.IdPage page = index.find(List.of("USER", "NOPE"), RoleMatch.ALL, 0, 10);
+
+        assertThat(page.ids()).isEmpty();
+        assertThat(page.total()).isZero();
+    }
+
+    @Test
+    @DisplayName("Changes that arrive during a rebuild are applied to the rebuilt bitmaps")
+    void rebuild_ReplaysChangesMadeDuringRebuild() {
+        RoleMembershipIndex rebuilding = new RoleMembershipIndex(null) {
+            @Override
+            Map<String, RoaringBitmap> load() {
+                // Promoted after the memberships were read; its event arrives before the swap
+                apply(snapshot(1L, false, "USER"), snapshot(1L, false, "USER", "ADMIN"));
+                return new HashMap<>(Map.of("USER", RoaringBitmap.bitmapOf(1, 2)));
+            }
+        };
+
+        rebuilding.rebuild();
+
+        assertThat(rebuilding.find(List.of("ADMIN"), RoleMatch.ALL, 0, 10).ids()).containsExactly(1L);
+        assertThat(rebuilding.count("USER")).isEqualTo(2);
+    }
+
+    private static UserSnapshot snapshot(Long id, boolean deleted, String... roles) {
+        return new UserSnapshot(id, "user" + id + "@example.com", "user" + id, "First", "Last",
+                true, deleted, Set.of(roles));
+    }
+}
@@ -0,0 +1,206 @@
+package com.krd.api.users;
+
+import com.krd.api.common.JobLease;
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.JobLeaseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // chunks commit like they do in production
+@DisplayName("User Backfill Tests")
+class UserBackfillTest {
+
+    private static final String DOMAIN = "@backfill.example.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserBackfillRepository backfillRepository;
+    private JobLeaseManager jobLeaseManager;
+    private UserBackfillProperties properties;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<UserChangedEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        backfillRepository = new UserBackfillRepository(jdbcTemplate);
+        jobLeaseManager = new JobLeaseManager(jdbcTemplate, new JobLeaseProperties());
+        properties = new UserBackfillProperties();
+        properties.setChunkSize(2);
+        properties.setThrottle(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userIds.forEach(id -> jdbcTemplate.update("DELETE FROM users WHERE id = ?", id));
+        jdbcTemplate.update("DELETE FROM user_backfills");
+    }
+
+    @Test
+    @DisplayName("A backfill updates every user in checkpointed chunks and gates readiness until it completes")
+    void runPending_BackfillsAllUsersAndCompletes() throws SQLException {
+        long alice = insertUser("Alice", false);
+        long bob = insertUser("bob", false);
+        long carol = insertUser("Carol", true);
+        V9999__LowercaseUsernames migration = new V9999__LowercaseUsernames();
+        migration.gating = true;
+        register(migration);
+        UserBackfillHealthIndicator health = new UserBackfillHealthIndicator(backfillRepository, provider(migration));
+
+        assertThat(backfillRepository.find(migration.getBackfillName()).orElseThrow().targetId())
+                .isGreaterThanOrEqualTo(carol);
+        assertThat(health.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        int processed = runner(migration).runPending(lease());
+
+        UserBackfillStatus status = backfillRepository.find(migration.getBackfillName()).orElseThrow();
+        assertThat(status.status()).isEqualTo(UserBackfillStatus.Status.COMPLETED);
+        assertThat(status.rowsProcessed()).isEqualTo(processed).isGreaterThanOrEqualTo(3);
+        assertThat(status.rowsUpdated()).isEqualTo(2);
+        assertThat(status.lastId()).isGreaterThanOrEqualTo(carol);
+        assertThat(status.percentComplete()).isEqualTo(100.0);
+        assertThat(usernames(alice, bob, carol)).containsExactly("alice", "bob", "carol");
+        assertThat(events).extracting(UserChangedEvent::type).containsOnly(UserChangedEvent.Type.UPDATED);
+        assertThat(events).extracting(UserChangedEvent::userId).containsExactly(alice, carol);
+        assertThat(events.get(0).before().username()).isEqualTo("Alice");
+        assertThat(events.get(0).after().username()).isEqualTo("alice");
+        assertThat(backfillRepository.isComplete(migration.getBackfillName())).isTrue();
+        assertThat(health.health().getStatus()).isEqualTo(Status.UP);
+
+        // Completed backfills are not run again
+        assertThat(runner(migration).pending()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A failed chunk keeps the last checkpoint and the next run resumes from it")
+    void runPending_ChunkFails_ResumesFromCheckpoint() throws SQLException {
+        long first = insertUser("First", false);
+        insertUser("Second", false);
+        long third = insertUser("Third", false);
+        long fourth = insertUser("Fourth", false);
+        V9999__LowercaseUsernames migration = new V9999__LowercaseUsernames();
+        migration.failOnceAt = third;
+        register(migration);
+
+        runner(migration).runPending(lease());
+
+        UserBackfillStatus failed = backfillRepository.find(migration.getBackfillName()).orElseThrow();
+        assertThat(failed.status()).isEqualTo(UserBackfillStatus.Status.FAILED);
+        assertThat(failed.error()).contains("boom");
+        assertThat(failed.lastId()).isLessThan(third);
+        // The failed chunk was rolled back as a whole
+        assertThat(usernames(third, fourth)).containsExactly("Third", "Fourth");
+        assertThat(usernames(first)).containsExactly("first");
+
+        runner(migration).runPending(lease());
+
+        UserBackfillStatus completed = backfillRepository.find(migration.getBackfillName()).orElseThrow();
+        assertThat(completed.status()).isEqualTo(UserBackfillStatus.Status.COMPLETED);
+        assertThat(completed.error()).isNull();
+        assertThat(completed.rowsUpdated()).isEqualTo(4);
+        assertThat(usernames(third, fourth)).containsExactly("third", "fourth");
+    }
+
+    private UserBackfillRunner runner(UserBackfillMigration migration) {
+        return new UserBackfillRunner(provider(migration), backfillRepository, userRepository, properties,
+                new TransactionTemplate(transactionManager), event -> events.add((UserChangedEvent) event),
+                jobLeaseManager);
+    }
+
+    private JobLease lease() {
+        return jobLeaseManager.tryAcquire("backfill-test-" + UUID.randomUUID()).orElseThrow();
+    }
+
+    private void register(UserBackfillMigration migration) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            migration.register(connection);
+        }
+    }
+
+    private static ObjectProvider<UserBackfillMigration> provider(
+            UserBackfillMigration migration) {
+        return new StaticListableBeanFactory(Map.of("migration", migration)).getBeanProvider(UserBackfillMigration.class);
+    }
+
+    private List<String> usernames(Long... ids) {
+        List<String> usernames = new ArrayList<>();
+        for (Long id : ids) {
+            usernames.add(jdbcTemplate.queryForObject("SELECT username FROM users WHERE id = ?", String.class, id));
+        }
+        return usernames;
+    }
+
+    private long insertUser(String username, boolean deleted) {
+        String email = username.toLowerCase() + "-" + UUID.randomUUID() + DOMAIN;
+        jdbcTemplate.update("INSERT INTO users (first_name, last_name, username, email, email_normalized, password, "
+                        + "enabled, deleted_at) VALUES (?, ?, ?, ?, ?, 'hash', TRUE, "
+                        + (deleted ? "CURRENT_TIMESTAMP" : "NULL") + ")",
+                "First", "Last", username, email, email);
+        long id = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email_normalized = ?", Long.class, email);
+        userIds.add(id);
+        return id;
+    }
+
+    /**
+     * Lowercases the usernames of this test's users; leaves users of other tests alone.
+     */
+    static class V9999__LowercaseUsernames extends UserBackfillMigration {
+        boolean gating;
+        Long failOnceAt;
+
+        @Override
+        public boolean backfill(User user) {
+            if (!user.getEmail().endsWith(DOMAIN) || user.getUsername().equals(user.getUsername().toLowerCase())) {
+                return false;
+            }
+            if (user.getId().equals(failOnceAt)) {
+                failOnceAt = null;
+                throw new IllegalStateException("boom");
+            }
+            user.setUsername(user.getUsername().toLowerCase());
+            return true;
+        }
+
+        @Override
+        public boolean gatesReadiness() {
+            return gating;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.krd.api.users;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.krd.api.common.CursorExpiredException;
+import com.krd.api.common.InvalidCursorException;
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.JobLeaseProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("User Change Feed Tests")
+class UserChangeFeedTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private UserChangeFeedProperties properties;
+    private MutableClock clock;
+    private UserChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM user_changes");
+        jdbcTemplate.update("UPDATE user_change_sequence SET last_seq = 0, pruned_through = 0 WHERE id = 1");
+        properties = new UserChangeFeedProperties();
+        properties.setStreamChunkSize(2);
+        properties.setPruneBatchSize(2);
+        clock = new MutableClock(NOW);
+        feed = new UserChangeFeed(jdbcTemplate, objectMapper, properties,
+                new JobLeaseManager(jdbcTemplate, new JobLeaseProperties()), clock);
+    }
+
+    @Test
+    @DisplayName("Changes get consecutive sequence numbers and carry the user's current state")
+    void onUserChanged_AppendsInSequenceWithCurrentState() {
+        long alice = insertUser("alice", false);
+        long bob = insertUser("bob", true);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) VALUES (?, 'ADMIN'), (?, 'USER')", alice, alice);
+
+        feed.onUserChanged(event(UserChangedEvent.Type.CREATED, null, alice));
+        feed.onUserChanged(event(UserChangedEvent.Type.PASSWORD_CHANGED, alice, alice));
+        feed.onUserChanged(event(UserChangedEvent.Type.ROLE_ADDED, alice, alice));
+        feed.onUserChanged(event(UserChangedEvent.Type.DELETED, bob, bob));
+        feed.onUserChanged(event(UserChangedEvent.Type.PURGED, 999_999L, null));
+
+        List<UserChange> changes = feed.read(0, 10);
+
+        assertThat(changes).extracting(UserChange::seq).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(changes).extracting(UserChange::type).containsExactly(
+                UserChangedEvent.Type.CREATED, UserChangedEvent.Type.ROLE_ADDED,
+                UserChangedEvent.Type.DELETED, UserChangedEvent.Type.PURGED);
+        assertThat(changes.get(0).user().roles()).containsExactlyInAnyOrder("ADMIN", "USER");
+        assertThat(changes.get(0).user().email()).isEqualTo("alice@example.com");
+        assertThat(changes.get(2).user().deleted()).isTrue();
+        assertThat(changes.get(3).userId()).isEqualTo(999_999L);
+        assertThat(changes.get(3).user()).isNull();
+    }
+
+    @Test
+    @DisplayName("Without a cursor the feed returns no changes and the current head")
+    void write_WithoutCursor_ReturnsHead() throws IOException {
+        long alice = insertUser("alice", false);
+        feed.onUserChanged(event(UserChangedEvent.Type.CREATED, null, alice));
+        feed.onUserChanged(event(UserChangedEvent.Type.UPDATED, alice, alice));
+
+        JsonNode page = write(null, 100);
+
+        assertThat(page.get("changes")).isEmpty();
+        assertThat(page.get("hasMore").asBoolean()).isFalse();
+        assertThat(page.get("nextCursor").asText()).isEqualTo(UserChangeFeed.encode(2));
+    }
+
+    @Test
+    @DisplayName("Following nextCursor walks every change exactly once, in order")
+    void write_FollowingCursors_ReturnsEveryChangeOnce() throws IOException {
+        String cursor = UserChangeFeed.encode(0);
+        for (int i = 0; i < 5; i++) {
+            long id = insertUser("user" + i, false);
+            feed.onUserChanged(event(UserChangedEvent.Type.CREATED, null, id));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        JsonNode page;
+        int requests = 0;
+        do {
+            page = write(cursor, 3);
+            page.get("changes").forEach(change -> seen.add(change.get("seq").asLong()));
+            cursor = page.get("nextCursor").asText();
+            requests++;
+        } while (page.get("hasMore").asBoolean());
+
+        assertThat(seen).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(requests).isEqualTo(2);
+
+        JsonNode caughtUp = write(cursor, 3);
+        assertThat(caughtUp.get("changes")).isEmpty();
+        assertThat(caughtUp.get("nextCursor").asText()).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("A cursor before the pruned history is expired; one at the boundary is not")
+    void start_AfterPrune_ExpiresOldCursors() {
+        long alice = insertUser("alice", false);
+        for (int i = 0; i < 3; i++) {
+            feed.onUserChanged(event(UserChangedEvent.Type.UPDATED, alice, alice));
+        }
+        clock.advance(Duration.ofDays(31));
+        feed.onUserChanged(event(UserChangedEvent.Type.UPDATED, alice, alice));
+
+        assertThat(feed.prune()).isEqualTo(3);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_changes", Long.class)).isEqualTo(1);
+        assertThatThrownBy(() -> feed.start(UserChangeFeed.encode(2)))
+                .isInstanceOf(CursorExpiredException.class);
+        assertThat(feed.start(UserChangeFeed.encode(3))).isEqualTo(3);
+        assertThat(feed.read(3, 10)).extracting(UserChange::seq).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Malformed cursors and cursors ahead of the head are rejected")
+    void start_InvalidCursor_Throws() {
+        assertThatThrownBy(() -> feed.start("not a cursor"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> feed.start(UserChangeFeed.encode(-1)))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> feed.start(UserChangeFeed.encode(1)))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private JsonNode write(String cursor, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        feed.write(cursor, limit, out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private long insertUser(String username, boolean deleted) {
+        String email = username + "@example.com";
+        jdbcTemplate.update("INSERT INTO users (first_name, last_name, username, email, email_normalized, password, "
+                        + "enabled, deleted_at) VALUES (?, ?, ?, ?, ?, 'hash', TRUE, "
+                        + (deleted ? "CURRENT_TIMESTAMP" : "NULL") + ")",
+                "First", "Last", username, email, email);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE email_normalized = ?", Long.class, email);
+    }
+
+    private static UserChangedEvent event(UserChangedEvent.Type type, Long beforeId, Long afterId) {
+        return new UserChangedEvent(type, snapshot(beforeId), snapshot(afterId));
+    }
+
+    private static UserSnapshot snapshot(Long id) {
+        return id == null ? null : new UserSnapshot(id, "u@example.com", "u", "U", "U", true, false, Set.of());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.krd.api.users;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.krd.starter.jwt.dto.LoginRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -40,6 +45,15 @@ class UserControllerIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RoleMembershipIndex roleMembershipIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private User regularUser;
     private User adminUser;
     private String userAccessToken;
@@ -150,6 +164,42 @@ class UserControllerIntegrationTest {
                 .andExpect(jsonPath("$.message").exists());
     }
 
+    @Test
+    @DisplayName("POST /users - Retry with the same Idempotency-Key replays the response instead of 409")
+    void registerUser_RetriedWithIdempotencyKey_ReplaysResponse() throws Exception {
+        String registerJson = """
+                {
+                    "email": "retry@example.com",
+                    "password": "NewUser123!",
+                    "firstName": "Retry",
+                    "lastName": "User"
+                }
+                """;
+
+        String first = mockMvc.perform(post("/users")
+                        .header("Idempotency-Key", "register-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerJson))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/users")
+                        .header("Idempotency-Key", "register-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerJson))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().json(first));
+
+        mockMvc.perform(post("/users")
+                        .header("Idempotency-Key", "register-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerJson.replace("retry@", "other@")))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status").value(422));
+    }
+
     @Test
     @DisplayName("GET /users - Success - List all users")
     void listUsers_WithAuthentication_ReturnsOk() throws Exception {
@@ -159,6 +209,30 @@ class UserControllerIntegrationTest {
                 .andExpect(jsonPath("$").isArray());
     }
 
+    @Test
+    @DisplayName("GET /users/by-role - Success - Admin filters users by role")
+    void getUsersByRole_AdminFiltersByRole_ReturnsMatchingUsers() throws Exception {
+        userRepository.flush();
+        roleMembershipIndex.rebuild();
+
+        mockMvc.perform(get("/users/by-role")
+                        .param("roles", "USER", "ADMIN")
+                        .param("match", "ALL")
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].email").value("admin@example.com"));
+    }
+
+    @Test
+    @DisplayName("GET /users/by-role - Fail - Regular user cannot filter by role")
+    void getUsersByRole_RegularUser_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/users/by-role")
+                        .param("roles", "ADMIN")
+                        .header("Authorization", "Bearer " + userAccessToken))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @DisplayName("GET /users/{id} - Success - Get user by ID")
     void getUserById_WithValidId_ReturnsOk() throws Exception {
@@ -232,6 +306,21 @@ class UserControllerIntegrationTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @DisplayName("DELETE /users/{id} - Success - Deleted user's tokens are revoked")
+    void deleteUser_AdminDeletesUser_RevokesUsersTokens() throws Exception {
+        mockMvc.perform(delete("/users/" + regularUser.getId())
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users")
+                        .header("Authorization", "Bearer " + userAccessToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/users")
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @DisplayName("DELETE /users/{id} - Fail - Regular user cannot delete")
     void deleteUser_RegularUserCannotDelete_ReturnsForbidden() throws Exception {
@@ -240,6 +329,142 @@ class UserControllerIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    @DisplayName("GET /users/changes - Returns changes after the cursor with the user's current state")
+    void getChanges_AfterUpdate_ReturnsChange() throws Exception {
+        MvcResult head = mockMvc.perform(get("/users/changes")
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes").isEmpty())
+                .andReturn();
+        String cursor = objectMapper.readTree(head.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(put("/users/" + regularUser.getId())
+                        .header("Authorization", "Bearer " + adminAccessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "firstName": "Synced"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/changes")
+                        .param("since", cursor)
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(1))
+                .andExpect(jsonPath("$.changes[0].type").value("UPDATED"))
+                .andExpect(jsonPath("$.changes[0].userId").value(regularUser.getId()))
+                .andExpect(jsonPath("$.changes[0].user.firstName").value("Synced"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        mockMvc.perform(get("/users/changes")
+                        .header("Authorization", "Bearer " + userAccessToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("GET /users/changes - A cursor older than the retained history gets 410")
+    void getChanges_ExpiredCursor_ReturnsGone() throws Exception {
+        jdbcTemplate.update("UPDATE user_change_sequence SET pruned_through = last_seq + 5, last_seq = last_seq + 10");
+
+        mockMvc.perform(get("/users/changes")
+                        .param("since", UserChangeFeed.encode(0))
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.status").value(410));
+    }
+
+    @Test
+    @DisplayName("GET /users/{id} - Returns the user's version as ETag")
+    void getUserById_ReturnsETag() throws Exception {
+        mockMvc.perform(get("/users/" + regularUser.getId())
+                        .header("Authorization", "Bearer " + userAccessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.version").value(0));
+    }
+
+    @Test
+    @DisplayName("PUT /users/{id} - If-Match: stale or weak ETag gets 412, current ETag updates and returns the new ETag")
+    void updateUser_WithIfMatch_ChecksVersion() throws Exception {
+        String updateJson = """
+                {
+                    "firstName": "Updated"
+                }
+                """;
+
+        mockMvc.perform(put("/users/" + regularUser.getId())
+                        .header("Authorization", "Bearer " + userAccessToken)
+                        .header("If-Match", "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJson))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.status").value(412));
+
+        mockMvc.perform(put("/users/" + regularUser.getId())
+                        .header("Authorization", "Bearer " + userAccessToken)
+                        .header("If-Match", "W/\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJson))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/users/" + regularUser.getId())
+                        .header("Authorization", "Bearer " + userAccessToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJson))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.firstName").value("Updated"));
+    }
+
+    @Test
+    @DisplayName("PUT /users/{id} - A concurrent write since the user was read gets 409")
+    void updateUser_ConcurrentlyModified_ReturnsConflict() throws Exception {
+        // Another writer commits behind this persistence context's back
+        jdbcTemplate.update("UPDATE users SET version = version + 1 WHERE id = ?", regularUser.getId());
+
+        mockMvc.perform(put("/users/" + regularUser.getId())
+                        .header("Authorization", "Bearer " + userAccessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "firstName": "Lost"
+                                }
+                                """))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
+    @Test
+    @DisplayName("POST /users/{id}/roles - Writes only the added user_roles row and bumps the version")
+    void addRole_WritesRoleDeltaOnly() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/users/" + regularUser.getId() + "/roles")
+                        .header("Authorization", "Bearer " + adminAccessToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "role": "ADMIN"
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionRemoveCount()).isZero();
+        assertThat(statistics.getCollectionUpdateCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT role FROM user_roles WHERE user_id = ?", String.class, regularUser.getId()))
+                .containsExactlyInAnyOrder("USER", "ADMIN");
+    }
+
     @Test
     @DisplayName("POST /users/{id}/roles - Success - Admin adds role")
     void addRole_AdminAddsRole_ReturnsOk() throws Exception {
@@ -335,6 +560,33 @@ class UserControllerIntegrationTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @DisplayName("POST /users/{id}/change-password - Success - Tokens issued before the change are revoked")
+    void changePassword_UserChangesOwnPassword_RevokesExistingTokens() throws Exception {
+        String changePasswordJson = """
+                {
+                    "oldPassword": "User123!",
+                    "newPassword": "NewPassword123!",
+                    "confirmPassword": "NewPassword123!"
+                }
+                """;
+
+        mockMvc.perform(post("/users/" + regularUser.getId() + "/change-password")
+                        .header("Authorization", "Bearer " + userAccessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(changePasswordJson))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users")
+                        .header("Authorization", "Bearer " + userAccessToken))
+                .andExpect(status().isUnauthorized());
+
+        String newToken = getAccessToken("user@example.com", "NewPassword123!");
+        mockMvc.perform(get("/users")
+                        .header("Authorization", "Bearer " + newToken))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @DisplayName("POST /users/{id}/change-password - Fail - Wrong old password")
     void changePassword_WrongOldPassword_ReturnsBadRequest() throws Exception {
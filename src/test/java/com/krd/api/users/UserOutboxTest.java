@@ -0,0 +1,268 @@
+package com.krd.api.users;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("User Outbox Tests")
+class UserOutboxTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private UserOutboxProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private UserOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM user_outbox");
+        jdbcTemplate.update("DELETE FROM user_outbox_dead_letters");
+        properties = new UserOutboxProperties();
+        properties.setBatchSize(2);
+        properties.setLeaseTimeout(Duration.ofSeconds(30));
+        properties.setInitialBackoff(Duration.ofSeconds(1));
+        properties.setMaxBackoff(Duration.ofSeconds(10));
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(NOW);
+        outbox = new UserOutbox(jdbcTemplate, objectMapper, clock);
+    }
+
+    @Test
+    @DisplayName("Lifecycle events are written as JSON messages; password changes are not published")
+    void onUserChanged_WritesMessage() throws IOException {
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, null, snapshot(7L, Set.of("USER"))));
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.PASSWORD_CHANGED, snapshot(7L, Set.of()),
+                snapshot(7L, Set.of())));
+
+        List<UserOutboxMessage> claimed = outbox.claim("relay-a", 10, Duration.ofSeconds(30));
+
+        assertThat(claimed).hasSize(1);
+        assertThat(claimed.get(0).type()).isEqualTo(UserChangedEvent.Type.CREATED);
+        assertThat(claimed.get(0).userId()).isEqualTo(7L);
+        JsonNode payload = objectMapper.readTree(claimed.get(0).payload());
+        assertThat(payload.get("eventId").asText()).isNotBlank();
+        assertThat(payload.get("type").asText()).isEqualTo("CREATED");
+        assertThat(payload.get("before").isNull()).isTrue();
+        assertThat(payload.get("after").get("roles").get(0).asText()).isEqualTo("USER");
+    }
+
+    @Test
+    @DisplayName("Concurrent claims never share events; an expired lease makes them claimable again")
+    void claim_LeasesEvents() {
+        for (long id = 1; id <= 3; id++) {
+            outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, snapshot(id, Set.of()),
+                    snapshot(id, Set.of())));
+        }
+
+        List<UserOutboxMessage> first = outbox.claim("relay-a", 2, Duration.ofSeconds(30));
+        List<UserOutboxMessage> second = outbox.claim("relay-b", 2, Duration.ofSeconds(30));
+
+        assertThat(first).extracting(UserOutboxMessage::userId).containsExactly(1L, 2L);
+        assertThat(second).extracting(UserOutboxMessage::userId).containsExactly(3L);
+        assertThat(outbox.claim("relay-c", 2, Duration.ofSeconds(30))).isEmpty();
+
+        clock.advance(Duration.ofSeconds(31));
+        List<UserOutboxMessage> reclaimed = outbox.claim("relay-c", 2, Duration.ofSeconds(30));
+        assertThat(reclaimed).extracting(UserOutboxMessage::userId).containsExactly(1L, 2L);
+        assertThat(reclaimed).extracting(UserOutboxMessage::attempts).containsOnly(2);
+
+        // relay-a's lease is gone: its late completion must not delete relay-c's claim
+        assertThat(outbox.complete("relay-a", List.of(first.get(0).id(), first.get(1).id()))).isZero();
+        assertThat(outbox.backlog().pending()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("The relay drains the outbox in batches and records throughput and lag")
+    void poll_DeliversAllEventsInBatches() {
+        for (long id = 1; id <= 5; id++) {
+            outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, null, snapshot(id, Set.of())));
+        }
+        clock.advance(Duration.ofSeconds(3));
+        List<List<Long>> batches = new ArrayList<>();
+        UserOutboxRelay relay = relay(messages -> batches.add(messages.stream().map(UserOutboxMessage::userId).toList()));
+
+        assertThat(relay.poll()).isEqualTo(5);
+
+        assertThat(batches).containsExactly(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        assertThat(outbox.backlog().pending()).isZero();
+        assertThat(meterRegistry.get("users.outbox.dispatched").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("users.outbox.delivery.lag").timer().max(TimeUnit.SECONDS))
+                .isEqualTo(3);
+        assertThat(meterRegistry.get("users.outbox.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("A failed batch is kept and retried after an exponential backoff")
+    void poll_SinkFails_RetriesWithBackoff() {
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, snapshot(1L, Set.of()),
+                snapshot(1L, Set.of())));
+        List<Integer> attempts = new ArrayList<>();
+        UserOutboxRelay failing = relay(messages -> {
+            attempts.add(messages.get(0).attempts());
+            throw new IOException("sink down");
+        });
+
+        assertThat(failing.poll()).isZero();
+        assertThat(failing.poll()).isZero();
+        assertThat(attempts).containsExactly(1);
+        assertThat(meterRegistry.get("users.outbox.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("users.outbox.pending").gauge().value()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(failing.poll()).isZero();
+        assertThat(attempts).containsExactly(1, 2);
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThat(relay(messages -> { }).poll()).isEqualTo(1);
+        assertThat(outbox.backlog().pending()).isZero();
+
+        assertThat(failing.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(failing.backoff(3)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(failing.backoff(30)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("An event the sink rejects holds back only its own user, then is dead-lettered after max attempts")
+    void poll_RejectedEvent_IsIsolatedThenDeadLettered() {
+        properties.setBatchSize(10);
+        properties.setMaxAttempts(2);
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, null, snapshot(1L, Set.of())));
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, null, snapshot(2L, Set.of())));
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, snapshot(1L, Set.of()),
+                snapshot(1L, Set.of("ADMIN"))));
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, null, snapshot(3L, Set.of())));
+        List<String> delivered = new ArrayList<>();
+        UserOutboxRelay relay = relay(messages -> {
+            if (messages.stream().anyMatch(m -> m.userId() == 1L && m.type() == UserChangedEvent.Type.CREATED)) {
+                throw new IOException("400 Bad Request");
+            }
+            messages.forEach(m -> delivered.add(m.userId() + ":" + m.type()));
+        });
+
+        assertThat(relay.poll()).isEqualTo(2);
+        assertThat(delivered).containsExactly("2:CREATED", "3:CREATED");
+        assertThat(outbox.backlog().pending()).isEqualTo(2);
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(relay.poll()).isEqualTo(1);
+        assertThat(delivered).containsExactly("2:CREATED", "3:CREATED", "1:UPDATED");
+        assertThat(outbox.backlog().pending()).isZero();
+        assertThat(jdbcTemplate.queryForMap(
+                "SELECT user_id, event_type, attempts, last_error FROM user_outbox_dead_letters"))
+                .containsEntry("user_id", 1L)
+                .containsEntry("event_type", "CREATED")
+                .containsEntry("attempts", 2)
+                .hasEntrySatisfying("last_error", error -> assertThat((String) error).contains("400 Bad Request"));
+        assertThat(meterRegistry.get("users.outbox.failed").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("users.outbox.dead.letters").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A user's later events wait while an earlier one is claimed elsewhere or backing off")
+    void claim_KeepsPerUserOrder() {
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, null, snapshot(1L, Set.of())));
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, null, snapshot(2L, Set.of())));
+        outbox.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.UPDATED, snapshot(1L, Set.of()),
+                snapshot(1L, Set.of("ADMIN"))));
+
+        List<UserOutboxMessage> first = outbox.claim("relay-a", 1, Duration.ofSeconds(30));
+        assertThat(first).extracting(UserOutboxMessage::userId).containsExactly(1L);
+        assertThat(outbox.claim("relay-b", 10, Duration.ofSeconds(30)))
+                .extracting(UserOutboxMessage::userId).containsExactly(2L);
+        outbox.retryLater("relay-a", List.of(first.get(0).id()), Duration.ofSeconds(5));
+        assertThat(outbox.claim("relay-c", 10, Duration.ofSeconds(30))).isEmpty();
+
+        clock.advance(Duration.ofSeconds(5));
+        assertThat(outbox.claim("relay-c", 10, Duration.ofSeconds(30)))
+                .extracting(UserOutboxMessage::type)
+                .containsExactly(UserChangedEvent.Type.CREATED, UserChangedEvent.Type.UPDATED);
+    }
+
+    @Test
+    @DisplayName("The file sink appends one JSON line per event")
+    void fileSink_AppendsJsonLines(@TempDir Path dir) throws IOException {
+        properties.setFilePath(dir.resolve("events/user-events.jsonl"));
+        FileUserEventSink sink = new FileUserEventSink(properties);
+
+        sink.send(List.of(message(1, "{\"n\":1}"), message(2, "{\"n\":2}")));
+        sink.send(List.of(message(3, "{\"n\":3}")));
+
+        assertThat(Files.readAllLines(properties.getFilePath()))
+                .containsExactly("{\"n\":1}", "{\"n\":2}", "{\"n\":3}");
+    }
+
+    private UserOutboxRelay relay(UserEventSink sink) {
+        return new UserOutboxRelay(outbox, sink, properties, meterRegistry, clock);
+    }
+
+    private static UserOutboxMessage message(long id, String payload) {
+        return new UserOutboxMessage(id, UserChangedEvent.Type.UPDATED, id, null, 1, payload);
+    }
+
+    private static UserSnapshot snapshot(Long id, Set<String> roles) {
+        return new UserSnapshot(id, "user" + id + "@example.com", "user" + id, "First", "Last", true, false, roles);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.krd.api.users;
+
+import com.krd.api.common.JobLease;
+import com.krd.api.common.JobLeaseManager;
+import com.krd.api.common.JobLeaseProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("User Purge Job Tests")
+class UserPurgeJobTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserPurgeProperties properties;
+    private ArchivedUserRepository archivedUserRepository;
+    private JobLeaseManager jobLeaseManager;
+    private final List<UserChangedEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new UserPurgeProperties();
+        properties.setRetentionDays(30);
+        properties.setBatchSize(2);
+        archivedUserRepository = new ArchivedUserRepository(jdbcTemplate);
+        jobLeaseManager = new JobLeaseManager(jdbcTemplate, new JobLeaseProperties());
+    }
+
+    @Test
+    @DisplayName("Delete mode removes expired soft-deleted users and their roles without archiving them")
+    void purge_DeleteMode_RemovesUsers() {
+        long expired = insertUser("expired", LONG_AGO);
+        long recent = insertUser("recent", LocalDateTime.now().minusDays(1));
+        long active = insertUser("active", null);
+
+        assertThat(purge()).isEqualTo(1);
+
+        assertThat(userIds()).contains(recent, active).doesNotContain(expired);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_roles WHERE user_id = ?",
+                Integer.class, expired)).isZero();
+        assertThat(archivedUserRepository.findByUserId(expired)).isEmpty();
+        assertThat(events).extracting(UserChangedEvent::type).containsExactly(UserChangedEvent.Type.PURGED);
+    }
+
+    @Test
+    @DisplayName("Archive mode copies users with their roles to the archive, in batches, before deleting them")
+    void purge_ArchiveMode_ArchivesThenDeletes() {
+        properties.setMode(UserPurgeProperties.Mode.ARCHIVE);
+        List<Long> expired = List.of(
+                insertUser("carol", LONG_AGO), insertUser("dave", LONG_AGO), insertUser("erin", LONG_AGO));
+        long active = insertUser("frank", null);
+
+        assertThat(purge()).isEqualTo(3);
+
+        assertThat(userIds()).contains(active).doesNotContainAnyElementsOf(expired);
+        assertThat(events).hasSize(3);
+
+        List<ArchivedUser> archived = archivedUserRepository.findByUserId(expired.get(0));
+        assertThat(archived).hasSize(1);
+        ArchivedUser carol = archived.get(0);
+        assertThat(carol.email()).isEqualTo("carol@example.com");
+        assertThat(carol.username()).isEqualTo("carol");
+        assertThat(carol.roles()).containsExactly("ADMIN", "USER");
+        assertThat(carol.deletedAt()).isEqualTo(LONG_AGO);
+        assertThat(carol.archivedAt()).isNotNull();
+
+        assertThat(archivedUserRepository.findByEmail(" Dave@Example.com"))
+                .extracting(ArchivedUser::userId).containsExactly(expired.get(1));
+        assertThat(archivedUserRepository.findByEmail("frank@example.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A user reactivated after the batch was selected is neither deleted, archived nor published")
+    void purge_UserReactivatedMidBatch_IsKept() {
+        properties.setMode(UserPurgeProperties.Mode.ARCHIVE);
+        long reactivated = insertUser("grace", LONG_AGO);
+        long expired = insertUser("heidi", LONG_AGO);
+        UserPurgeJob job = new UserPurgeJob(userRepository, new RoleChangeAuditRepository(jdbcTemplate),
+                archivedUserRepository, properties, new TransactionTemplate(transactionManager),
+                event -> events.add((UserChangedEvent) event), jobLeaseManager) {
+            @Override
+            List<Long> expiredIds(LocalDateTime cutoff) {
+                List<Long> ids = super.expiredIds(cutoff);
+                // Registration with the same email commits between the select and the delete
+                jdbcTemplate.update("UPDATE users SET deleted_at = NULL WHERE id = ?", reactivated);
+                return ids;
+            }
+        };
+
+        assertThat(purge(job)).isEqualTo(1);
+
+        assertThat(userIds()).contains(reactivated).doesNotContain(expired);
+        assertThat(archivedUserRepository.findByUserId(reactivated)).isEmpty();
+        assertThat(archivedUserRepository.findByUserId(expired)).hasSize(1);
+        assertThat(events).extracting(event -> event.before().id()).containsExactly(expired);
+    }
+
+    private int purge() {
+        return purge(new UserPurgeJob(userRepository, new RoleChangeAuditRepository(jdbcTemplate),
+                archivedUserRepository, properties, new TransactionTemplate(transactionManager),
+                event -> events.add((UserChangedEvent) event), jobLeaseManager));
+    }
+
+    private int purge(UserPurgeJob job) {
+        JobLease lease = jobLeaseManager.tryAcquire("purge-test-" + UUID.randomUUID()).orElseThrow();
+        return job.purgeExpiredUsers(lease);
+    }
+
+    private List<Long> userIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM users", Long.class);
+    }
+
+    private long insertUser(String username, LocalDateTime deletedAt) {
+        String email = username + "@example.com";
+        jdbcTemplate.update("INSERT INTO users (first_name, last_name, username, email, email_normalized, password, "
+                        + "enabled, deleted_at) VALUES (?, ?, ?, ?, ?, 'hash', TRUE, ?)",
+                "First", "Last", username, email, email, deletedAt);
+        long id = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email_normalized = ?", Long.class, email);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) VALUES (?, 'USER'), (?, 'ADMIN')", id, id);
+        return id;
+    }
+}
@@ -0,0 +1,126 @@
+package com.krd.api.users;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static com.krd.api.support.QueryPlanAssertions.assertNoFullScan;
+import static com.krd.api.support.QueryPlanAssertions.assertUsesIndex;
+
+/**
+ * Guards the access paths of hot user queries against the Flyway schema.
+ * Fails when a migration drops or reshapes an index so that a query falls back to a full scan.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("User Query Plan Tests")
+class UserQueryPlanTest {
+
+    private static final int SEEDED_USERS = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM role_change_logs");
+        jdbcTemplate.update("DELETE FROM user_roles");
+        jdbcTemplate.update("DELETE FROM users");
+
+        // Realistic shape: most users active, a small fraction soft-deleted
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            Timestamp deletedAt = i % 10 == 0 ? Timestamp.valueOf(LocalDateTime.now().minusDays(i)) : null;
+            jdbcTemplate.update(
+                    "INSERT INTO users (first_name, last_name, username, email, email_normalized, password, enabled, deleted_at) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    "First" + i, "Last" + i, "user" + i, "User" + i + "@Example.com", "user" + i + "@example.com",
+                    "hash", i % 7 != 0, deletedAt);
+        }
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role) SELECT id, 'USER' FROM users");
+        jdbcTemplate.update("INSERT INTO role_change_logs (user_id, changed_by_user_id, role, action, changed_at, user_email) "
+                + "SELECT id, id, 'USER', 'ADDED', CURRENT_TIMESTAMP, email FROM users");
+    }
+
+    @Test
+    @DisplayName("Case-insensitive login lookup seeks the normalized email index")
+    void findByNormalizedEmail_UsesNormalizedEmailIndex() {
+        assertUsesIndex(jdbcTemplate, "uk_users_email_normalized",
+                "SELECT id FROM users WHERE email_normalized = ?", "user42@example.com");
+    }
+
+    @Test
+    @DisplayName("Lookup by raw email uses the unique index")
+    void findByEmail_UsesIndex() {
+        assertNoFullScan(jdbcTemplate,
+                "SELECT id FROM users WHERE email = ?", "User42@Example.com");
+    }
+
+    @Test
+    @DisplayName("Username existence check uses the unique index")
+    void existsByUsername_UsesIndex() {
+        assertNoFullScan(jdbcTemplate,
+                "SELECT id FROM users WHERE username = ?", "user42");
+    }
+
+    @Test
+    @DisplayName("Active users sorted by email use the active email index")
+    void listActiveUsersSortedByEmail_UsesActiveEmailIndex() {
+        assertUsesIndex(jdbcTemplate, "idx_users_active_email",
+                "SELECT id, email FROM users WHERE deleted_at IS NULL ORDER BY email");
+    }
+
+    @Test
+    @DisplayName("Active users sorted by last name use the active last name index")
+    void listActiveUsersSortedByLastName_UsesActiveLastNameIndex() {
+        assertUsesIndex(jdbcTemplate, "idx_users_active_last_name",
+                "SELECT id, last_name FROM users WHERE deleted_at IS NULL ORDER BY last_name");
+    }
+
+    @Test
+    @DisplayName("Active and enabled filter uses the composite index")
+    void activeEnabledUsers_UsesActiveEnabledIndex() {
+        assertUsesIndex(jdbcTemplate, "idx_users_active_enabled",
+                "SELECT id FROM users WHERE deleted_at IS NULL AND enabled = ?", true);
+    }
+
+    @Test
+    @DisplayName("Hard delete cutoff range does not scan the users table")
+    void hardDeleteCutoff_DoesNotFullScan() {
+        assertNoFullScan(jdbcTemplate,
+                "SELECT id FROM users WHERE deleted_at < ?", Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
+    }
+
+    @Test
+    @DisplayName("Role change audit by user pages through the user/time index")
+    void roleChangesByUser_UsesUserTimeIndex() {
+        assertNoFullScan(jdbcTemplate,
+                "SELECT id FROM role_change_logs WHERE user_id = ? AND changed_at >= ? "
+                        + "ORDER BY changed_at DESC, id DESC LIMIT 51",
+                42L, Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
+    }
+
+    @Test
+    @DisplayName("Role change audit by role uses the role/time index")
+    void roleChangesByRole_UsesRoleTimeIndex() {
+        assertUsesIndex(jdbcTemplate, "idx_role_change_role_time",
+                "SELECT id FROM role_change_logs WHERE role = ? AND changed_at < ? "
+                        + "ORDER BY changed_at DESC, id DESC LIMIT 51",
+                "ADMIN", Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Users with a role use the role index")
+    void usersWithRole_UsesRoleIndex() {
+        assertUsesIndex(jdbcTemplate, "idx_user_roles_role",
+                "SELECT user_id FROM user_roles WHERE role = ?", "ADMIN");
+    }
+}
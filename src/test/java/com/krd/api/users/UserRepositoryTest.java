@@ -81,6 +81,27 @@ class UserRepositoryTest {
         assertThat(found).isEmpty();
     }
 
+    @Test
+    @DisplayName("Find user by email - Case insensitive")
+    void findByEmail_WithDifferentCase_ReturnsUser() {
+        Optional<User> found = userRepository.findByEmail("  TEST1@Example.COM ");
+
+        assertThat(found).isPresent();
+        assertThat(found.get().getEmail()).isEqualTo("test1@example.com");
+        assertThat(found.get().getEmailNormalized()).isEqualTo("test1@example.com");
+    }
+
+    @Test
+    @DisplayName("Normalized email is kept in sync when email changes")
+    void updateEmail_SyncsNormalizedEmail() {
+        testUser1.setEmail("Renamed@Example.com");
+        userRepository.save(testUser1);
+        entityManager.flush();
+
+        assertThat(userRepository.findByEmail("renamed@example.com")).isPresent();
+        assertThat(userRepository.existsByEmail("test1@example.com")).isFalse();
+    }
+
     @Test
     @DisplayName("Check email exists - Returns true for existing email")
     void existsByEmail_WithExistingEmail_ReturnsTrue() {
@@ -251,6 +272,26 @@ class UserRepositoryTest {
         }
     }
 
+    @Test
+    @DisplayName("Email uniqueness is enforced regardless of case")
+    void saveUser_WithDuplicateEmailDifferentCase_ThrowsException() {
+        User duplicateEmailUser = User.builder()
+                .email("TEST1@example.com") // Same email, different case
+                .password("password3")
+                .roles(new HashSet<>())
+                .enabled(true)
+                .build();
+
+        try {
+            userRepository.save(duplicateEmailUser);
+            entityManager.flush();
+            assertThat(false).as("Should have thrown exception for duplicate email").isTrue();
+        } catch (Exception e) {
+            // Expected - constraint violation on email_normalized
+            assertThat(e).isNotNull();
+        }
+    }
+
     @Test
     @DisplayName("Username uniqueness is enforced")
     void saveUser_WithDuplicateUsername_ThrowsException() {
@@ -0,0 +1,95 @@
+package com.krd.api.users;
+
+import com.krd.api.support.ScaleDataset;
+import com.krd.api.support.UserDatasetGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.krd.api.support.QueryPlanAssertions.assertNoFullScan;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Runs against a generated dataset of production-like size ({@code ./gradlew scaleTest}, not part
+ * of the regular build).
+ */
+@Tag("scale")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@ScaleDataset(users = 100_000)
+@DisplayName("User Scale Tests")
+class UserScaleTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("The dataset has the configured size, soft-deleted share and role distribution")
+    void dataset_MatchesSpec(UserDatasetGenerator.Dataset dataset) {
+        long users = count("SELECT COUNT(*) FROM users WHERE id BETWEEN ? AND ?", dataset);
+        long deleted = count("SELECT COUNT(*) FROM users WHERE deleted_at IS NOT NULL AND id BETWEEN ? AND ?", dataset);
+        long admins = count("SELECT COUNT(*) FROM user_roles WHERE role = 'ADMIN' AND user_id BETWEEN ? AND ?", dataset);
+        long changes = count("SELECT COUNT(*) FROM role_change_logs WHERE user_id BETWEEN ? AND ?", dataset);
+
+        assertThat(users).isEqualTo(dataset.users());
+        assertThat(deleted).isEqualTo(dataset.deletedUsers());
+        assertThat((double) deleted / users).isCloseTo(0.05, within(0.01));
+        assertThat(admins).isEqualTo(dataset.roleCounts().get("ADMIN")).isPositive();
+        assertThat(dataset.roleCounts().get("USER")).isEqualTo(users);
+        assertThat(changes).isEqualTo(dataset.roleChanges()).isGreaterThan(users);
+
+        Map<String, Object> firstUser = jdbcTemplate.queryForMap(
+                "SELECT enabled, deleted_at FROM users WHERE id = ?", dataset.firstId());
+        assertThat(firstUser.get("enabled")).isEqualTo(true);
+        assertThat(firstUser.get("deleted_at")).isNull();
+    }
+
+    @Test
+    @DisplayName("Keyset scans walk the whole table in bounded pages")
+    void keysetScan_VisitsEveryActiveUser(UserDatasetGenerator.Dataset dataset) {
+        long visited = 0;
+        long lastId = dataset.firstId() - 1;
+        List<User> page;
+        do {
+            page = userRepository.findByIdGreaterThanAndDeletedAtIsNullOrderByIdAsc(lastId, Limit.of(5_000));
+            visited += page.stream().filter(user -> user.getId() <= dataset.lastId()).count();
+            lastId = page.isEmpty() ? lastId : page.get(page.size() - 1).getId();
+        } while (!page.isEmpty() && lastId < dataset.lastId());
+
+        assertThat(visited).isEqualTo(dataset.users() - dataset.deletedUsers());
+    }
+
+    @Test
+    @DisplayName("Hot queries keep their index access paths with production-like cardinalities")
+    void hotQueries_DoNotFullScan(UserDatasetGenerator.Dataset dataset) {
+        String email = jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class, dataset.lastId());
+
+        assertNoFullScan(jdbcTemplate, "SELECT id FROM users WHERE email_normalized = ?", email);
+        assertNoFullScan(jdbcTemplate, "SELECT id FROM users WHERE deleted_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(365)));
+        assertNoFullScan(jdbcTemplate, "SELECT user_id FROM user_roles WHERE role = ?", "ADMIN");
+        assertNoFullScan(jdbcTemplate, "SELECT id FROM role_change_logs WHERE user_id = ? AND changed_at >= ? "
+                        + "ORDER BY changed_at DESC, id DESC LIMIT 51",
+                dataset.firstId(), Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
+    }
+
+    private long count(String sql, UserDatasetGenerator.Dataset dataset) {
+        return jdbcTemplate.queryForObject(sql, Long.class, dataset.firstId(), dataset.lastId());
+    }
+}
@@ -0,0 +1,130 @@
+package com.krd.api.users;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("User Search Index Tests")
+class UserSearchIndexTest {
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex(null);
+
+        index.apply(null, snapshot(1L, "John", "Smith", "jsmith", "john.smith@example.com"));
+        index.apply(null, snapshot(2L, "Mary", "Johnson", "mjohnson", "mary@acme.com"));
+        index.apply(null, snapshot(3L, "Joan", "Ark", "johnny", "joan@example.com"));
+        index.apply(null, snapshot(4L, "Peter", "Ojohnek", "peter", "peter@example.com"));
+        index.apply(null, snapshot(5L, "John", "Doe", "jdoe", "jdoe@example.com"));
+    }
+
+    @Test
+    @DisplayName("Exact and prefix matches rank ahead of substring matches")
+    void search_RanksExactThenPrefixThenSubstring() {
+        // 1, 5: exact first name; 2: last name prefix; 3: username prefix; 4: substring of last name
+        assertThat(index.search("john", 10)).containsExactly(1L, 5L, 2L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Search is case-insensitive")
+    void search_IsCaseInsensitive() {
+        assertThat(index.search("SMITH", 10)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Substring matches span email domains")
+    void search_MatchesSubstring() {
+        assertThat(index.search("acme", 10)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Short queries match token prefixes only")
+    void search_WithShortQuery_MatchesTokenPrefixes() {
+        assertThat(index.search("jo", 10)).contains(1L, 2L, 3L, 5L).doesNotContain(4L);
+    }
+
+    @Test
+    @DisplayName("Limit keeps only the best results")
+    void search_WithLimit_ReturnsTopResults() {
+        assertThat(index.search("john", 2)).containsExactly(1L, 5L);
+    }
+
+    @Test
+    @DisplayName("Trigram hits that do not contain the query are filtered out")
+    void search_WithScatteredTrigrams_ReturnsNothing() {
+        index.apply(null, snapshot(6L, "Abcx", "Bcdy", "abcbcd", "abc@example.com"));
+
+        // Every trigram of "abcd" is indexed for user 6, but no field contains "abcd"
+        assertThat(index.search("abcd", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Updates replace the indexed fields")
+    void apply_Update_ReplacesFields() {
+        index.apply(snapshot(1L, "John", "Smith", "jsmith", "john.smith@example.com"),
+                snapshot(1L, "Jon", "Smythe", "jsmythe", "jon@example.com"));
+
+        assertThat(index.search("smith", 10)).isEmpty();
+        assertThat(index.search("smythe", 10)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Soft-deleted users are removed")
+    void apply_SoftDelete_RemovesUser() {
+        UserSnapshot active = snapshot(5L, "John", "Doe", "jdoe", "jdoe@example.com");
+        UserSnapshot deleted = new UserSnapshot(5L, active.email(), active.username(), active.firstName(),
+                active.lastName(), true, true, Set.of("USER"));
+
+        index.apply(active, deleted);
+
+        assertThat(index.search("doe", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Short queries rank whole-field and field-start matches ahead of later tokens")
+    void search_WithShortQuery_RanksByMatchKind() {
+        index.apply(null, snapshot(6L, "Jo", "Lee", "jlee", "jo@example.com"));
+        index.apply(null, snapshot(7L, "Ann", "Smith", "asmith", "ann.jo@example.com"));
+
+        // 6: exact first name; 1, 3, 5: first name prefix; 2: last name prefix; 7: later email token
+        assertThat(index.search("jo", 10)).containsExactly(6L, 1L, 3L, 5L, 2L, 7L);
+        assertThat(index.search("jo", 3)).containsExactly(6L, 1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Changes that arrive while the index is built are applied after it")
+    void build_ReplaysChangesMadeDuringBuild() {
+        UserSnapshot stale = snapshot(1L, "John", "Smith", "jsmith", "john.smith@example.com");
+        UserSnapshot renamed = snapshot(1L, "Jon", "Smythe", "jsmythe", "jon@example.com");
+        UserSearchIndex building = new UserSearchIndex(null) {
+            @Override
+            List<User> loadChunk(long lastId) {
+                if (lastId > 0) {
+                    return List.of();
+                }
+                // Renamed after the chunk was read; its event arrives before the chunk is indexed
+                apply(stale, renamed);
+                return List.of(User.builder().id(1L).firstName("John").lastName("Smith")
+                        .username("jsmith").email("john.smith@example.com").build());
+            }
+        };
+
+        building.build();
+
+        assertThat(building.search("smith", 10)).isEmpty();
+        assertThat(building.search("smythe", 10)).containsExactly(1L);
+        assertThat(building.size()).isEqualTo(1);
+    }
+
+    private static UserSnapshot snapshot(Long id, String firstName, String lastName, String username, String email) {
+        return new UserSnapshot(id, email, username, firstName, lastName, true, false, Set.of("USER"));
+    }
+}
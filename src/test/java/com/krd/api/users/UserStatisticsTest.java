@@ -0,0 +1,107 @@
+package com.krd.api.users;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("User Statistics Tests")
+class UserStatisticsTest {
+
+    private UserStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new UserStatistics(null, Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC));
+
+        statistics.apply(null, snapshot(1L, true, false, "USER"));
+        statistics.apply(null, snapshot(2L, true, false, "USER", "ADMIN"));
+        statistics.apply(null, snapshot(3L, false, false, "USER"));
+    }
+
+    @Test
+    @DisplayName("Registrations are counted by state and role")
+    void apply_Registrations_CountsByStateAndRole() {
+        UserStatsResponse stats = statistics.snapshot();
+
+        assertThat(stats.totalUsers()).isEqualTo(3);
+        assertThat(stats.enabledUsers()).isEqualTo(2);
+        assertThat(stats.disabledUsers()).isEqualTo(1);
+        assertThat(stats.softDeletedUsers()).isZero();
+        assertThat(stats.usersByRole()).containsEntry("USER", 3L).containsEntry("ADMIN", 1L);
+    }
+
+    @Test
+    @DisplayName("Soft delete moves a user to pending purge and out of role counts")
+    void apply_SoftDelete_MovesToPendingPurge() {
+        statistics.apply(snapshot(2L, true, false, "USER", "ADMIN"), snapshot(2L, true, true, "USER", "ADMIN"));
+
+        UserStatsResponse stats = statistics.snapshot();
+        assertThat(stats.totalUsers()).isEqualTo(3);
+        assertThat(stats.enabledUsers()).isEqualTo(1);
+        assertThat(stats.softDeletedUsers()).isEqualTo(1);
+        assertThat(stats.usersByRole()).containsEntry("USER", 2L).doesNotContainKey("ADMIN");
+    }
+
+    @Test
+    @DisplayName("Purge removes a soft-deleted user from the totals")
+    void apply_Purge_DecrementsTotals() {
+        statistics.apply(snapshot(3L, false, false, "USER"), snapshot(3L, false, true, "USER"));
+        statistics.apply(snapshot(3L, false, true, "USER"), null);
+
+        UserStatsResponse stats = statistics.snapshot();
+        assertThat(stats.totalUsers()).isEqualTo(2);
+        assertThat(stats.disabledUsers()).isZero();
+        assertThat(stats.softDeletedUsers()).isZero();
+    }
+
+    @Test
+    @DisplayName("Staleness is unknown until the first reconciliation")
+    void snapshot_BeforeReconciliation_HasNoStaleness() {
+        UserStatsResponse stats = statistics.snapshot();
+
+        assertThat(stats.lastReconciledAt()).isNull();
+        assertThat(stats.stalenessSeconds()).isNull();
+        assertThat(stats.lastUpdatedAt()).isEqualTo(Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Reconciliation corrects drift without losing events applied while it counts")
+    void reconcile_KeepsConcurrentEvents() {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+        UserStatistics racing = new UserStatistics(null, clock) {
+            @Override
+            Counts count() {
+                // Registered on another node since the last run, so missing from the counters
+                Counts counts = new Counts(4, 3, 1, 0, new TreeMap<>(Map.of("USER", 4L, "ADMIN", 1L)));
+                // Committed after the count was read; its event arrives meanwhile
+                apply(null, snapshot(5L, true, false, "USER"));
+                return counts;
+            }
+        };
+        racing.apply(null, snapshot(1L, true, false, "USER"));
+        racing.apply(null, snapshot(2L, true, false, "USER", "ADMIN"));
+        racing.apply(null, snapshot(3L, false, false, "USER"));
+
+        racing.reconcile();
+
+        UserStatsResponse stats = racing.snapshot();
+        assertThat(stats.totalUsers()).isEqualTo(5);
+        assertThat(stats.enabledUsers()).isEqualTo(4);
+        assertThat(stats.usersByRole()).containsEntry("USER", 5L).containsEntry("ADMIN", 1L);
+        assertThat(stats.lastReconcileDrift()).isEqualTo(3);
+    }
+
+    private static UserSnapshot snapshot(Long id, boolean enabled, boolean deleted, String... roles) {
+        return new UserSnapshot(id, "user" + id + "@example.com", "user" + id, "First", "Last",
+                enabled, deleted, Set.of(roles));
+    }
+}